@@ -0,0 +1,190 @@
+/*
+ * This file is part of the Meteor Client distribution (https://github.com/MeteorDevelopment/meteor-client).
+ * Copyright (c) Meteor Development.
+ */
+
+package meteordevelopment.meteorclient.processor;
+
+import javax.annotation.processing.*;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * Writes the methods annotated with {@code @PreInit} and {@code @PostInit} to {@code META-INF/meteor-init/<package>.txt},
+ * already sorted so that the tasks of the classes a task depends on come before it. {@code ReflectInit} reads the
+ * manifest instead of scanning the addon's package at startup.
+ * <p>
+ * The package is read from the {@code meteorInitPackage} option and defaults to the common package of all classes with
+ * annotated methods. It has to be the package the addon returns from {@code MeteorAddon.getPackage()}.
+ * <p>
+ * The processor is published as {@code meteordevelopment:meteor-client-processor} with the same version as Meteor. Addons
+ * add it to their {@code build.gradle} next to the meteor-client dependency:
+ * <pre>{@code
+ * dependencies {
+ *     annotationProcessor "meteordevelopment:meteor-client-processor:<meteor version>"
+ * }
+ *
+ * tasks.compileJava {
+ *     options.compilerArgs += ["-AmeteorInitPackage=com.example.addon"]
+ * }
+ * }</pre>
+ */
+@SupportedOptions(InitProcessor.PACKAGE_OPTION)
+public class InitProcessor extends AbstractProcessor {
+    public static final String PACKAGE_OPTION = "meteorInitPackage";
+
+    private static final String PRE_INIT = "meteordevelopment.meteorclient.utils.PreInit";
+    private static final String POST_INIT = "meteordevelopment.meteorclient.utils.PostInit";
+
+    private final Map<String, List<Task>> tasks = new LinkedHashMap<>();
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Set.of(PRE_INIT, POST_INIT);
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            String name = annotation.getQualifiedName().toString();
+
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() != ElementKind.METHOD) continue;
+                ExecutableElement method = (ExecutableElement) element;
+
+                if (!method.getModifiers().contains(Modifier.STATIC) || !method.getParameters().isEmpty()) {
+                    processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Init tasks have to be static methods without parameters", method);
+                    continue;
+                }
+
+                TypeElement owner = (TypeElement) method.getEnclosingElement();
+                String ownerName = processingEnv.getElementUtils().getBinaryName(owner).toString();
+
+                tasks.computeIfAbsent(name, k -> new ArrayList<>()).add(new Task(ownerName, method.getSimpleName().toString(), getDependencies(method, name)));
+            }
+        }
+
+        if (roundEnv.processingOver()) write();
+
+        return false;
+    }
+
+    private List<String> getDependencies(ExecutableElement method, String annotation) {
+        List<String> dependencies = new ArrayList<>();
+
+        for (AnnotationMirror mirror : method.getAnnotationMirrors()) {
+            if (!((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotation)) continue;
+
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : mirror.getElementValues().entrySet()) {
+                if (!entry.getKey().getSimpleName().contentEquals("dependencies")) continue;
+
+                // A single class is a TypeMirror instead of a list
+                Object value = entry.getValue().getValue();
+                List<?> values = value instanceof List<?> list ? list : List.of(entry.getValue());
+
+                for (Object o : values) {
+                    TypeMirror type = (TypeMirror) ((AnnotationValue) o).getValue();
+                    TypeElement element = (TypeElement) ((DeclaredType) type).asElement();
+
+                    dependencies.add(processingEnv.getElementUtils().getBinaryName(element).toString());
+                }
+            }
+        }
+
+        return dependencies;
+    }
+
+    private void write() {
+        String pkg = processingEnv.getOptions().get(PACKAGE_OPTION);
+        if (pkg == null) pkg = getCommonPackage();
+
+        if (pkg == null) {
+            if (!tasks.isEmpty()) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, "Could not determine the package of the init tasks, set it with -A" + PACKAGE_OPTION);
+            }
+
+            return;
+        }
+
+        try {
+            FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", "META-INF/meteor-init/" + pkg + ".txt");
+
+            try (Writer writer = file.openWriter()) {
+                writer.write("# Generated by " + InitProcessor.class.getName() + ", do not edit\n");
+
+                for (String annotation : List.of(PRE_INIT, POST_INIT)) {
+                    String name = annotation.substring(annotation.lastIndexOf('.') + 1);
+
+                    for (Task task : sort(tasks.getOrDefault(annotation, List.of()))) {
+                        writer.write(name + " " + task.owner + " " + task.method + "\n");
+                    }
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Failed to write the init manifest: " + e);
+        }
+    }
+
+    private String getCommonPackage() {
+        String common = null;
+
+        for (List<Task> list : tasks.values()) {
+            for (Task task : list) {
+                String pkg = task.owner.substring(0, Math.max(task.owner.lastIndexOf('.'), 0));
+
+                if (common == null) common = pkg;
+                else {
+                    while (!common.isEmpty() && !(pkg.equals(common) || pkg.startsWith(common + "."))) {
+                        common = common.substring(0, Math.max(common.lastIndexOf('.'), 0));
+                    }
+                }
+            }
+        }
+
+        return common == null || common.isEmpty() ? null : common;
+    }
+
+    /** Depth first topological sort, tasks are visited in name order so the manifest doesn't depend on compilation order. */
+    private static List<Task> sort(List<Task> tasks) {
+        List<Task> sorted = new ArrayList<>(tasks);
+        sorted.sort(Comparator.comparing((Task task) -> task.owner).thenComparing(task -> task.method));
+
+        Map<String, List<Task>> byOwner = new HashMap<>();
+        for (Task task : sorted) byOwner.computeIfAbsent(task.owner, k -> new ArrayList<>()).add(task);
+
+        Set<Task> visited = new HashSet<>();
+        List<Task> result = new ArrayList<>(sorted.size());
+
+        for (Task task : sorted) visit(task, byOwner, visited, result);
+
+        return result;
+    }
+
+    private static void visit(Task task, Map<String, List<Task>> byOwner, Set<Task> visited, List<Task> result) {
+        // Marked before visiting the dependencies so cycles are broken instead of recursing forever
+        if (!visited.add(task)) return;
+
+        for (String dependency : task.dependencies) {
+            for (Task other : byOwner.getOrDefault(dependency, List.of())) {
+                visit(other, byOwner, visited, result);
+            }
+        }
+
+        result.add(task);
+    }
+
+    private record Task(String owner, String method, List<String> dependencies) {}
+}
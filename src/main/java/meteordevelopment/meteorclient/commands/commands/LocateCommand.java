@@ -5,15 +5,14 @@
 
 package meteordevelopment.meteorclient.commands.commands;
 
-import baritone.api.BaritoneAPI;
 import com.mojang.brigadier.builder.LiteralArgumentBuilder;
 import meteordevelopment.meteorclient.MeteorClient;
 import meteordevelopment.meteorclient.commands.Command;
 import meteordevelopment.meteorclient.events.packets.PacketEvent;
-import meteordevelopment.meteorclient.pathing.BaritoneUtils;
 import meteordevelopment.meteorclient.pathing.PathManagers;
 import meteordevelopment.meteorclient.utils.player.ChatUtils;
 import meteordevelopment.meteorclient.utils.player.InvUtils;
+import meteordevelopment.meteorclient.utils.world.WorldScanner;
 import meteordevelopment.orbit.EventHandler;
 import net.minecraft.block.Block;
 import net.minecraft.block.Blocks;
@@ -31,14 +30,15 @@ import net.minecraft.network.packet.s2c.play.PlaySoundS2CPacket;
 import net.minecraft.sound.SoundEvents;
 import net.minecraft.text.MutableText;
 import net.minecraft.text.Text;
-import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Vec3d;
 import net.minecraft.world.World;
-import org.jetbrains.annotations.Nullable;
-
 import java.util.List;
+import java.util.Set;
 
 public class LocateCommand extends Command {
+    private final WorldScanner scanner = new WorldScanner("Meteor-Locate");
+    private WorldScanner.Scan scan;
+
     private Vec3d firstStart;
     private Vec3d firstEnd;
     private Vec3d secondStart;
@@ -164,21 +164,8 @@ public class LocateCommand extends Command {
                 return SINGLE_SUCCESS;
             }
 
-            // If the player is not holding a valid map, try to locate the monument using Baritone
-            if (BaritoneUtils.IS_AVAILABLE) {
-                Vec3d coords = findByBlockList(monumentBlocks);
-                if (coords == null) {
-                    error("No monument found. Try using an (highlight)ocean explorer map(default) for more success.");
-                    return SINGLE_SUCCESS;
-                }
-                MutableText text = Text.literal("Monument located at ");
-                text.append(ChatUtils.formatCoords(coords));
-                text.append(".");
-                info(text);
-                return SINGLE_SUCCESS;
-            }
-
-            error("Locating this structure without an (highlight)ocean explorer map(default) requires Baritone.");
+            // If the player is not holding a valid map, try to locate the monument in the loaded chunks
+            findByBlockList(monumentBlocks, "Monument", "No monument found. Try using an (highlight)ocean explorer map(default) for more success.");
             return SINGLE_SUCCESS;
         }));
 
@@ -186,25 +173,15 @@ public class LocateCommand extends Command {
             boolean foundEye = InvUtils.testInHotbar(Items.ENDER_EYE);
 
             if (foundEye) {
-                if (BaritoneUtils.IS_AVAILABLE) PathManagers.get().follow(EyeOfEnderEntity.class::isInstance);
+                PathManagers.get().follow(EyeOfEnderEntity.class::isInstance);
                 firstStart = null;
                 firstEnd = null;
                 secondStart = null;
                 secondEnd = null;
                 MeteorClient.EVENT_BUS.subscribe(this);
                 info("Please throw the first Eye of Ender");
-            } else if (BaritoneUtils.IS_AVAILABLE) {
-                Vec3d coords = findByBlockList(strongholdBlocks);
-                if (coords == null) {
-                    error("No stronghold found nearby. You can use (highlight)Ender Eyes(default) for more success.");
-                    return SINGLE_SUCCESS;
-                }
-                MutableText text = Text.literal("Stronghold located at ");
-                text.append(ChatUtils.formatCoords(coords));
-                text.append(".");
-                info(text);
             } else {
-                error("No Eyes of Ender found in hotbar.");
+                findByBlockList(strongholdBlocks, "Stronghold", "No stronghold found nearby. You can use (highlight)Ender Eyes(default) for more success.");
             }
 
             return SINGLE_SUCCESS;
@@ -218,20 +195,7 @@ public class LocateCommand extends Command {
                 return SINGLE_SUCCESS;
             }
 
-            if (!BaritoneUtils.IS_AVAILABLE) {
-                error("Locating this structure requires Baritone.");
-                return SINGLE_SUCCESS;
-            }
-
-            Vec3d coords = findByBlockList(netherFortressBlocks);
-            if (coords == null) {
-                error("No nether fortress found.");
-                return SINGLE_SUCCESS;
-            }
-            MutableText text = Text.literal("Fortress located at ");
-            text.append(ChatUtils.formatCoords(coords));
-            text.append(".");
-            info(text);
+            findByBlockList(netherFortressBlocks, "Fortress", "No nether fortress found.");
             return SINGLE_SUCCESS;
         }));
 
@@ -243,20 +207,7 @@ public class LocateCommand extends Command {
                 return SINGLE_SUCCESS;
             }
 
-            if (!BaritoneUtils.IS_AVAILABLE) {
-                error("Locating this structure requires Baritone.");
-                return SINGLE_SUCCESS;
-            }
-
-            Vec3d coords = findByBlockList(endCityBlocks);
-            if (coords == null) {
-                error("No end city found.");
-                return SINGLE_SUCCESS;
-            }
-            MutableText text = Text.literal("End city located at ");
-            text.append(ChatUtils.formatCoords(coords));
-            text.append(".");
-            info(text);
+            findByBlockList(endCityBlocks, "End city", "No end city found.");
             return SINGLE_SUCCESS;
         }));
 
@@ -299,19 +250,43 @@ public class LocateCommand extends Command {
     }
 
     private void cancel() {
-        warning("Locate canceled");
+        if (isScanning()) warning("Locate canceled after searching %d%% of the loaded chunks.", (int) (scan.getProgress() * 100));
+        else warning("Locate canceled");
+
+        scanner.cancel();
+        scan = null;
         MeteorClient.EVENT_BUS.unsubscribe(this);
     }
 
-    private @Nullable Vec3d findByBlockList(List<Block> blockList) {
-        List<BlockPos> posList = BaritoneAPI.getProvider().getWorldScanner().scanChunkRadius(BaritoneAPI.getProvider().getPrimaryBaritone().getPlayerContext(), blockList, 64, 10, 32);
-        if (posList.isEmpty()) {
-            return null;
-        }
-        if (posList.size() < 3) {
-            warning("Only %d block(s) found. This search might be a false positive.", posList.size());
-        }
-        return new Vec3d(posList.getFirst().getX(), posList.getFirst().getY(), posList.getFirst().getZ());
+    private boolean isScanning() {
+        return scan != null && !scan.isCancelled() && scan.getProgress() < 1;
+    }
+
+    private void findByBlockList(List<Block> blockList, String name, String notFound) {
+        Set<Block> blocks = Set.copyOf(blockList);
+
+        // Starting a new scan cancels the one that is still running
+        if (isScanning()) warning("Canceled the previous search at %d%% of the loaded chunks.", (int) (scan.getProgress() * 100));
+
+        scan = scanner.scan(state -> blocks.contains(state.getBlock()), clusters -> {
+            if (clusters.isEmpty()) {
+                error(notFound);
+                return;
+            }
+
+            // The cluster with the most matching blocks is the most likely to be the structure
+            WorldScanner.Cluster cluster = clusters.getFirst();
+            if (cluster.getCount() < 3) {
+                warning("Only %d block(s) found. This search might be a false positive.", cluster.getCount());
+            }
+
+            MutableText text = Text.literal(name + " located at ");
+            text.append(ChatUtils.formatCoords(Vec3d.of(cluster.getClosest())));
+            text.append(".");
+            info(text);
+        });
+
+        if (scan.getTotal() > 0) info("Searching (highlight)%d(default) loaded chunks.", scan.getTotal());
     }
 
     @EventHandler
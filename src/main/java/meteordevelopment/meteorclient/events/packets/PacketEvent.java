@@ -9,36 +9,128 @@ import meteordevelopment.meteorclient.events.Cancellable;
 import net.minecraft.network.ClientConnection;
 import net.minecraft.network.packet.Packet;
 
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * Packet events are posted for every packet so they are reused instead of allocated. Events are taken from a per thread
+ * stack with {@code get} and have to be released with {@code release} once posted, in reverse order, since handlers can
+ * send packets themselves. Handlers must not keep references to the event after they return.
+ */
 public class PacketEvent {
     public static class Receive extends Cancellable {
+        private static final ThreadLocal<EventStack<Receive>> STACK = ThreadLocal.withInitial(() -> new EventStack<>(Receive::new));
+
         public Packet<?> packet;
         public ClientConnection connection;
 
+        private Receive() {
+        }
+
         public Receive(Packet<?> packet, ClientConnection connection) {
             this.setCancelled(false);
             this.packet = packet;
             this.connection = connection;
         }
+
+        public static Receive get(Packet<?> packet, ClientConnection connection) {
+            Receive event = STACK.get().push();
+            event.setCancelled(false);
+            event.packet = packet;
+            event.connection = connection;
+            return event;
+        }
+
+        public void release() {
+            packet = null;
+            connection = null;
+            STACK.get().pop();
+        }
     }
 
     public static class Send extends Cancellable {
+        private static final ThreadLocal<EventStack<Send>> STACK = ThreadLocal.withInitial(() -> new EventStack<>(Send::new));
+
         public Packet<?> packet;
         public ClientConnection connection;
 
+        private Send() {
+        }
+
         public Send(Packet<?> packet, ClientConnection connection) {
             this.setCancelled(false);
             this.packet = packet;
             this.connection = connection;
         }
+
+        public static Send get(Packet<?> packet, ClientConnection connection) {
+            Send event = STACK.get().push();
+            event.setCancelled(false);
+            event.packet = packet;
+            event.connection = connection;
+            return event;
+        }
+
+        public void release() {
+            packet = null;
+            connection = null;
+            STACK.get().pop();
+        }
     }
 
     public static class Sent {
+        private static final ThreadLocal<EventStack<Sent>> STACK = ThreadLocal.withInitial(() -> new EventStack<>(Sent::new));
+
         public Packet<?> packet;
         public ClientConnection connection;
 
+        private Sent() {
+        }
+
         public Sent(Packet<?> packet, ClientConnection connection) {
             this.packet = packet;
             this.connection = connection;
         }
+
+        public static Sent get(Packet<?> packet, ClientConnection connection) {
+            Sent event = STACK.get().push();
+            event.packet = packet;
+            event.connection = connection;
+            return event;
+        }
+
+        public void release() {
+            packet = null;
+            connection = null;
+            STACK.get().pop();
+        }
+    }
+
+    private static class EventStack<T> {
+        private final Supplier<T> factory;
+        private Object[] events = new Object[4];
+        private int depth;
+
+        public EventStack(Supplier<T> factory) {
+            this.factory = factory;
+        }
+
+        @SuppressWarnings("unchecked")
+        public T push() {
+            if (depth == events.length) events = Arrays.copyOf(events, depth * 2);
+
+            T event = (T) events[depth];
+            if (event == null) {
+                event = factory.get();
+                events[depth] = event;
+            }
+
+            depth++;
+            return event;
+        }
+
+        public void pop() {
+            depth--;
+        }
     }
 }
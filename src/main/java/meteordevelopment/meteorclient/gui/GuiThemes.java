@@ -18,6 +18,8 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
+import static meteordevelopment.meteorclient.MeteorClient.mc;
+
 public class GuiThemes {
     private static final File FOLDER = new File(MeteorClient.FOLDER, "gui");
     private static final File THEMES_FOLDER = new File(FOLDER, "themes");
@@ -94,6 +96,9 @@ public class GuiThemes {
 
             // Save global gui settings with the new theme
             saveGlobal();
+
+            // Sizes measured with the previous theme are restored until they are invalidated
+            if (mc.currentScreen instanceof WidgetScreen) ((WidgetScreen) mc.currentScreen).invalidate();
         }
     }
 
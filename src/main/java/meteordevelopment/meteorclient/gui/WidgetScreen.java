@@ -87,6 +87,7 @@ public abstract class WidgetScreen extends Screen {
     }
 
     public void invalidate() {
+        WWidget.invalidateAllSizes();
         root.invalidate();
     }
 
@@ -298,7 +299,7 @@ public abstract class WidgetScreen extends Screen {
     @Override
     public void resize(MinecraftClient client, int width, int height) {
         super.resize(client, width, height);
-        root.invalidate();
+        invalidate();
     }
 
     @Override
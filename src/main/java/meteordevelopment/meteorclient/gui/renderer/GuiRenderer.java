@@ -155,6 +155,26 @@ public class GuiRenderer {
         scissorPool.free(scissor);
     }
 
+    /**
+     * @return whether any part of the rectangle is inside the current scissor, or the window if there is none, nothing
+     * outside of it would be drawn
+     */
+    public boolean isVisible(double x, double y, double width, double height) {
+        if (scissorStack.isEmpty()) return x + width >= 0 && x <= getWindowWidth() && y + height >= 0 && y <= getWindowHeight();
+        Scissor scissor = scissorStack.peek();
+
+        return x + width >= scissor.x && x <= scissor.x + scissor.width && y + height >= scissor.y && y <= scissor.y + scissor.height;
+    }
+
+    public boolean isAboveScissor(double bottom) {
+        return bottom < (scissorStack.isEmpty() ? 0 : scissorStack.peek().y);
+    }
+
+    public boolean isBelowScissor(double top) {
+        if (scissorStack.isEmpty()) return top > getWindowHeight();
+        return top > scissorStack.peek().y + scissorStack.peek().height;
+    }
+
     public boolean renderTooltip(DrawContext drawContext, double mouseX, double mouseY, double delta) {
         tooltipAnimProgress += (tooltip != null ? 1 : -1) * delta * 14;
         tooltipAnimProgress = MathHelper.clamp(tooltipAnimProgress, 0, 1);
@@ -10,6 +10,8 @@ import meteordevelopment.meteorclient.gui.renderer.GuiRenderer;
 import meteordevelopment.meteorclient.gui.utils.BaseWidget;
 
 public abstract class WWidget implements BaseWidget {
+    private static int sizeGeneration;
+
     public boolean visible = true;
     public GuiTheme theme;
 
@@ -23,6 +25,12 @@ public abstract class WWidget implements BaseWidget {
     public boolean mouseOver;
     protected double mouseOverTimer;
 
+    // Layout cache
+    private boolean sizeInvalid = true;
+    private int measuredGeneration = -1;
+    private double measuredWidth, measuredHeight;
+    protected boolean widgetPositionsDeferred;
+
     public void init() {}
 
     public void move(double deltaX, double deltaY) {
@@ -41,6 +49,15 @@ public abstract class WWidget implements BaseWidget {
 
     // Layout
 
+    /**
+     * Makes every widget calculate its size again during the next layout, used when something all widgets depend on
+     * changes, like the window size or the theme. Otherwise only the widgets that were invalidated and their parents are
+     * measured again.
+     */
+    public static void invalidateAllSizes() {
+        sizeGeneration++;
+    }
+
     public void calculateSize() {
         onCalculateSize();
 
@@ -49,6 +66,20 @@ public abstract class WWidget implements BaseWidget {
 
         width = Math.round(width);
         height = Math.round(height);
+
+        measuredWidth = width;
+        measuredHeight = height;
+        measuredGeneration = sizeGeneration;
+        sizeInvalid = false;
+    }
+
+    /** Calculates the size if the widget was invalidated, otherwise restores the last calculated size since cells can expand widgets. */
+    public void updateSize() {
+        if (sizeInvalid || measuredGeneration != sizeGeneration) calculateSize();
+        else {
+            width = measuredWidth;
+            height = measuredHeight;
+        }
     }
 
     protected void onCalculateSize() {
@@ -59,9 +90,22 @@ public abstract class WWidget implements BaseWidget {
         x = Math.round(x);
         y = Math.round(y);
 
+        widgetPositionsDeferred = false;
         onCalculateWidgetPositions();
     }
 
+    /** Positions only this widget and leaves its children until {@link #ensureWidgetPositions()} is called, used for widgets that are scrolled out of view. */
+    public void deferWidgetPositions() {
+        x = Math.round(x);
+        y = Math.round(y);
+
+        widgetPositionsDeferred = true;
+    }
+
+    public void ensureWidgetPositions() {
+        if (widgetPositionsDeferred) calculateWidgetPositions();
+    }
+
     protected void onCalculateWidgetPositions() {
 
     }
@@ -103,6 +147,11 @@ public abstract class WWidget implements BaseWidget {
     }
     public void onMouseMoved(double mouseX, double mouseY, double lastMouseX, double lastMouseY) {}
 
+    /** Resets the hover state of a widget that no longer receives mouse events. */
+    public void clearMouseOver() {
+        mouseOver = false;
+    }
+
     public boolean mouseScrolled(double amount) {
         return onMouseScrolled(amount);
     }
@@ -126,6 +175,8 @@ public abstract class WWidget implements BaseWidget {
     // Other
 
     public void invalidate() {
+        for (WWidget widget = this; widget != null; widget = widget.parent) widget.sizeInvalid = true;
+
         WWidget root = getRoot();
         if (root != null) root.invalidate();
     }
@@ -15,7 +15,6 @@ import java.util.ConcurrentModificationException;
 import java.util.List;
 
 import static meteordevelopment.meteorclient.MeteorClient.mc;
-import static meteordevelopment.meteorclient.utils.Utils.getWindowHeight;
 
 public abstract class WContainer extends WWidget {
     public final List<Cell<?>> cells = new ArrayList<>();
@@ -47,7 +46,11 @@ public abstract class WContainer extends WWidget {
     @Override
     public void move(double deltaX, double deltaY) {
         super.move(deltaX, deltaY);
-        for (Cell<?> cell : cells) cell.move(deltaX, deltaY);
+
+        // Deferred cells are positioned relative to this widget once they are needed
+        if (!widgetPositionsDeferred) {
+            for (Cell<?> cell : cells) cell.move(deltaX, deltaY);
+        }
     }
 
     public void moveCells(double deltaX, double deltaY) {
@@ -55,7 +58,8 @@ public abstract class WContainer extends WWidget {
             cell.move(deltaX, deltaY);
 
             Mouse mouse = mc.mouse;
-            cell.widget().mouseMoved(mouse.getX(), mouse.getY(), mouse.getX(), mouse.getY());
+            if (propagateEvents(cell.widget())) cell.widget().mouseMoved(mouse.getX(), mouse.getY(), mouse.getX(), mouse.getY());
+            else cell.widget().clearMouseOver();
         }
     }
 
@@ -63,7 +67,7 @@ public abstract class WContainer extends WWidget {
 
     @Override
     public void calculateSize() {
-        for (Cell<?> cell : cells) cell.widget().calculateSize();
+        for (Cell<?> cell : cells) cell.widget().updateSize();
         super.calculateSize();
     }
 
@@ -81,7 +85,11 @@ public abstract class WContainer extends WWidget {
     @Override
     public void calculateWidgetPositions() {
         super.calculateWidgetPositions();
-        for (Cell<?> cell : cells) cell.widget().calculateWidgetPositions();
+
+        for (Cell<?> cell : cells) {
+            if (isCulled(cell.widget())) cell.widget().deferWidgetPositions();
+            else cell.widget().calculateWidgetPositions();
+        }
     }
 
     @Override
@@ -97,22 +105,52 @@ public abstract class WContainer extends WWidget {
         }
     }
 
+    /** @return whether the widget is outside of the visible area of this container, culled widgets don't position their children until they are visible */
+    protected boolean isCulled(WWidget widget) {
+        return false;
+    }
+
+    /** @return whether the cells are laid out from top to bottom, which allows skipping the ones above the scissor without checking each */
+    protected boolean isOrderedVertically() {
+        return false;
+    }
+
     // Rendering
 
     @Override
     public boolean render(GuiRenderer renderer, double mouseX, double mouseY, double delta) {
         if (super.render(renderer, mouseX, mouseY, delta)) return true;
 
-        for (Cell<?> cell : cells) {
-            double y = cell.widget().y;
-            if (y > getWindowHeight()) break;
+        for (int i = getFirstVisibleCell(renderer); i < cells.size(); i++) {
+            WWidget widget = cells.get(i).widget();
+            if (renderer.isBelowScissor(widget.y)) break;
 
-            if (y + cell.widget().height > 0) renderWidget(cell.widget(), renderer, mouseX, mouseY, delta);
+            if (renderer.isVisible(widget.x, widget.y, widget.width, widget.height)) {
+                widget.ensureWidgetPositions();
+                renderWidget(widget, renderer, mouseX, mouseY, delta);
+            }
         }
 
         return false;
     }
 
+    private int getFirstVisibleCell(GuiRenderer renderer) {
+        if (!isOrderedVertically()) return 0;
+
+        int low = 0;
+        int high = cells.size();
+
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            Cell<?> cell = cells.get(mid);
+
+            if (renderer.isAboveScissor(cell.y + cell.height)) low = mid + 1;
+            else high = mid;
+        }
+
+        return low;
+    }
+
     protected void renderWidget(WWidget widget, GuiRenderer renderer, double mouseX, double mouseY, double delta) {
         widget.render(renderer, mouseX, mouseY, delta);
     }
@@ -151,12 +189,22 @@ public abstract class WContainer extends WWidget {
         try {
             for (Cell<?> cell : cells) {
                 if (propagateEvents(cell.widget())) cell.widget().mouseMoved(mouseX, mouseY, lastMouseX, lastMouseY);
+                else cell.widget().clearMouseOver();
             }
         } catch (ConcurrentModificationException ignored) {}
 
         super.mouseMoved(mouseX, mouseY, lastMouseX, lastMouseY);
     }
 
+    @Override
+    public void clearMouseOver() {
+        // Cells are inside the container, none of them can be hovered if the container is not
+        if (!mouseOver) return;
+
+        super.clearMouseOver();
+        for (Cell<?> cell : cells) cell.widget().clearMouseOver();
+    }
+
     @Override
     public boolean mouseScrolled(double amount) {
         try {
@@ -84,6 +84,11 @@ public class WTable extends WContainer {
         return theme.scale(verticalSpacing);
     }
 
+    @Override
+    protected boolean isOrderedVertically() {
+        return true;
+    }
+
     @Override
     protected void onCalculateSize() {
         calculateInfo();
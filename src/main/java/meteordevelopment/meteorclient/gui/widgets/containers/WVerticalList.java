@@ -16,6 +16,11 @@ public class WVerticalList extends WContainer {
         return theme.scale(spacing);
     }
 
+    @Override
+    protected boolean isOrderedVertically() {
+        return true;
+    }
+
     @Override
     protected void onCalculateSize() {
         width = 0;
@@ -22,7 +22,6 @@ public abstract class WView extends WVerticalList {
 
     private double scroll;
     private double targetScroll;
-    private boolean moveAfterPositionWidgets;
 
     protected boolean handleMouseOver;
     protected boolean handlePressed;
@@ -34,7 +33,6 @@ public abstract class WView extends WVerticalList {
 
     @Override
     protected void onCalculateSize() {
-        boolean couldScroll = canScroll;
         canScroll = false;
         widthRemove = 0;
 
@@ -49,8 +47,6 @@ public abstract class WView extends WVerticalList {
                 widthRemove = handleWidth() * 2;
                 width += widthRemove;
             }
-
-            if (couldScroll) moveAfterPositionWidgets = true;
         }
         else {
             actualHeight = height;
@@ -63,13 +59,12 @@ public abstract class WView extends WVerticalList {
     protected void onCalculateWidgetPositions() {
         super.onCalculateWidgetPositions();
 
-        if (moveAfterPositionWidgets) {
+        // Cells are positioned from the top, the size might not have been calculated again so always apply the scroll
+        if (canScroll) {
             scroll = MathHelper.clamp(scroll, 0, actualHeight - height);
             targetScroll = scroll;
 
-            moveCells(0, -scroll);
-
-            moveAfterPositionWidgets = false;
+            if (scroll != 0) moveCells(0, -scroll);
         }
     }
 
@@ -161,8 +156,20 @@ public abstract class WView extends WVerticalList {
         if (change != 0) moveCells(0, -change);
     }
 
+    @Override
+    protected boolean isCulled(WWidget widget) {
+        return canScroll && !isInView(widget);
+    }
+
     @Override
     protected boolean propagateEvents(WWidget widget) {
+        if (!isInView(widget)) return false;
+
+        widget.ensureWidgetPositions();
+        return true;
+    }
+
+    private boolean isInView(WWidget widget) {
         return ((widget.y >= y && widget.y <= y + height) || (widget.y + widget.height >= y && widget.y + widget.height <= y + height)) || ((y >= widget.y && y <= widget.y + widget.height) || (y + height >= widget.y && y + height <= widget.y + widget.height));
     }
 
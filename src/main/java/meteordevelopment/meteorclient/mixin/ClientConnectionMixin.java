@@ -31,6 +31,7 @@ import net.minecraft.text.Text;
 import net.minecraft.util.Formatting;
 import org.jetbrains.annotations.Nullable;
 import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
@@ -46,9 +47,20 @@ public abstract class ClientConnectionMixin {
     private void onHandlePacket(ChannelHandlerContext channelHandlerContext, Packet<?> packet, CallbackInfo ci) {
         if (packet instanceof BundleS2CPacket bundle) {
             for (Iterator<Packet<? super ClientPlayPacketListener>> it = bundle.getPackets().iterator(); it.hasNext(); ) {
-                if (MeteorClient.EVENT_BUS.post(new PacketEvent.Receive(it.next(), (ClientConnection) (Object) this)).isCancelled()) it.remove();
+                if (postReceive(it.next())) it.remove();
             }
-        } else if (MeteorClient.EVENT_BUS.post(new PacketEvent.Receive(packet, (ClientConnection) (Object) this)).isCancelled()) ci.cancel();
+        } else if (postReceive(packet)) ci.cancel();
+    }
+
+    @Unique
+    private boolean postReceive(Packet<?> packet) {
+        PacketEvent.Receive event = PacketEvent.Receive.get(packet, (ClientConnection) (Object) this);
+
+        try {
+            return MeteorClient.EVENT_BUS.post(event).isCancelled();
+        } finally {
+            event.release();
+        }
     }
 
     @Inject(method = "disconnect(Lnet/minecraft/text/Text;)V", at = @At("HEAD"))
@@ -68,14 +80,24 @@ public abstract class ClientConnectionMixin {
 
     @Inject(at = @At("HEAD"), method = "send(Lnet/minecraft/network/packet/Packet;Lnet/minecraft/network/PacketCallbacks;)V", cancellable = true)
     private void onSendPacketHead(Packet<?> packet, PacketCallbacks callbacks, CallbackInfo ci) {
-        if (MeteorClient.EVENT_BUS.post(new PacketEvent.Send(packet, (ClientConnection) (Object) this)).isCancelled()) {
-            ci.cancel();
+        PacketEvent.Send event = PacketEvent.Send.get(packet, (ClientConnection) (Object) this);
+
+        try {
+            if (MeteorClient.EVENT_BUS.post(event).isCancelled()) ci.cancel();
+        } finally {
+            event.release();
         }
     }
 
     @Inject(method = "send(Lnet/minecraft/network/packet/Packet;Lnet/minecraft/network/PacketCallbacks;)V", at = @At("TAIL"))
     private void onSendPacketTail(Packet<?> packet, @Nullable PacketCallbacks callbacks, CallbackInfo ci) {
-        MeteorClient.EVENT_BUS.post(new PacketEvent.Sent(packet, (ClientConnection) (Object) this));
+        PacketEvent.Sent event = PacketEvent.Sent.get(packet, (ClientConnection) (Object) this);
+
+        try {
+            MeteorClient.EVENT_BUS.post(event);
+        } finally {
+            event.release();
+        }
     }
 
     @Inject(method = "exceptionCaught", at = @At("HEAD"), cancellable = true)
@@ -0,0 +1,503 @@
+/*
+ * This file is part of the Meteor Client distribution (https://github.com/MeteorDevelopment/meteor-client).
+ * Copyright (c) Meteor Development.
+ */
+
+package meteordevelopment.meteorclient.pathing;
+
+import it.unimi.dsi.fastutil.longs.LongList;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import meteordevelopment.meteorclient.MeteorClient;
+import meteordevelopment.meteorclient.events.game.GameLeftEvent;
+import meteordevelopment.meteorclient.events.world.BlockUpdateEvent;
+import meteordevelopment.meteorclient.events.world.ChunkDataEvent;
+import meteordevelopment.meteorclient.events.world.TickEvent;
+import meteordevelopment.meteorclient.utils.Utils;
+import meteordevelopment.meteorclient.utils.entity.EntityIndex;
+import meteordevelopment.meteorclient.utils.misc.input.Input;
+import meteordevelopment.meteorclient.utils.player.ChatUtils;
+import meteordevelopment.meteorclient.utils.player.Rotations;
+import meteordevelopment.meteorclient.utils.world.BlockUtils;
+import meteordevelopment.orbit.EventHandler;
+import meteordevelopment.orbit.EventPriority;
+import net.minecraft.block.Block;
+import net.minecraft.client.option.KeyBinding;
+import net.minecraft.entity.Entity;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.util.math.Vec3d;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.WorldChunk;
+
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import static meteordevelopment.meteorclient.MeteorClient.mc;
+
+/**
+ * Built-in path manager used when neither Voyager nor Baritone is installed. Paths only walk, jump, fall and swim, they
+ * never break or place blocks on the way.
+ * <p>
+ * Searches run on a background thread against {@link PassabilityCache} snapshots, a bit of the search is run every tick
+ * and sections it needs are copied from the world in between, so the client thread never waits for the search.
+ */
+public class NativePathManager implements IPathManager {
+    private static final int MINE_RADIUS = 4;
+    private static final double NODE_REACHED = 0.35;
+
+    private final NativeSettings settings = new NativeSettings();
+    private final PassabilityCache cache = new PassabilityCache();
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task);
+        thread.setDaemon(true);
+        thread.setName("Meteor-Pathing");
+        return thread;
+    });
+
+    private PathFinder.Goal goal;
+    private boolean paused;
+
+    private PathFinder finder;
+    private Future<PathFinder.Status> search;
+    private int searchTicks;
+
+    private LongList path;
+    private int pathIndex;
+
+    private float targetYaw, targetPitch;
+    private boolean pressing;
+
+    // Goals that change over time
+    private float direction;
+    private boolean directional;
+    private int directionTimer;
+
+    private Predicate<Entity> following;
+
+    private Set<Block> mining;
+    private BlockPos mineTarget;
+
+    public NativePathManager() {
+        MeteorClient.EVENT_BUS.subscribe(this);
+    }
+
+    @Override
+    public String getName() {
+        return "Meteor";
+    }
+
+    @Override
+    public boolean isPathing() {
+        return goal != null && !paused;
+    }
+
+    @Override
+    public void pause() {
+        paused = true;
+        release();
+    }
+
+    @Override
+    public void resume() {
+        paused = false;
+    }
+
+    @Override
+    public void stop() {
+        goal = null;
+        directional = false;
+        following = null;
+        mining = null;
+        mineTarget = null;
+
+        cancelSearch();
+        path = null;
+        release();
+    }
+
+    @Override
+    public void moveTo(BlockPos pos, boolean ignoreY) {
+        stop();
+        setGoal(ignoreY ? new GoalXZ(pos.getX(), pos.getZ()) : new GoalNear(pos.getX(), pos.getY(), pos.getZ(), 1));
+    }
+
+    @Override
+    public void moveInDirection(float yaw) {
+        stop();
+
+        direction = yaw;
+        directional = true;
+        directionTimer = 0;
+    }
+
+    @Override
+    public void mine(Block... blocks) {
+        stop();
+        mining = new ReferenceOpenHashSet<>(blocks);
+    }
+
+    @Override
+    public void follow(Predicate<Entity> entity) {
+        stop();
+        following = entity;
+    }
+
+    @Override
+    public float getTargetYaw() {
+        return targetYaw;
+    }
+
+    @Override
+    public float getTargetPitch() {
+        return targetPitch;
+    }
+
+    @Override
+    public ISettings getSettings() {
+        return settings;
+    }
+
+    // Events
+
+    @EventHandler
+    private void onBlockUpdate(BlockUpdateEvent event) {
+        cache.onBlockUpdate(event.pos);
+    }
+
+    @EventHandler
+    private void onChunkData(ChunkDataEvent event) {
+        cache.onChunkLoad(event.chunk());
+    }
+
+    @EventHandler
+    private void onGameLeft(GameLeftEvent event) {
+        stop();
+        cache.clear();
+    }
+
+    @EventHandler(priority = EventPriority.HIGHEST)
+    private void onTick(TickEvent.Pre event) {
+        if (!Utils.canUpdate()) return;
+
+        cache.tick(settings.sectionsPerTick.get());
+        updateGoal();
+
+        if (goal == null || paused) return;
+
+        BlockPos feet = mc.player.getBlockPos();
+
+        if (goal.isInGoal(feet.getX(), feet.getY(), feet.getZ())) {
+            path = null;
+            cancelSearch();
+            release();
+
+            if (mineTarget != null) breakTarget();
+            else if (!directional && following == null) stop();
+            return;
+        }
+
+        if (search != null) {
+            updateSearch();
+            if (search != null) {
+                release();
+                return;
+            }
+        }
+
+        if (path == null || !followPath()) startSearch();
+    }
+
+    // Goals
+
+    private void setGoal(PathFinder.Goal goal) {
+        this.goal = goal;
+
+        cancelSearch();
+        path = null;
+    }
+
+    private void updateGoal() {
+        if (directional && directionTimer-- <= 0) {
+            directionTimer = 20;
+
+            Vec3d pos = mc.player.getPos();
+            float theta = (float) Math.toRadians(direction);
+
+            // Keep walking the current path, the next search uses the new goal
+            goal = new GoalXZ((int) Math.floor(pos.x - MathHelper.sin(theta) * 100), (int) Math.floor(pos.z + MathHelper.cos(theta) * 100));
+        }
+
+        if (following != null) {
+            Entity target = null;
+            double bestDistance = Double.MAX_VALUE;
+
+            for (Entity entity : EntityIndex.getEntities()) {
+                if (entity == mc.player || !following.test(entity)) continue;
+
+                double distance = mc.player.squaredDistanceTo(entity);
+                if (distance < bestDistance) {
+                    target = entity;
+                    bestDistance = distance;
+                }
+            }
+
+            if (target == null) {
+                if (goal != null) setGoal(null);
+                release();
+                return;
+            }
+
+            BlockPos pos = target.getBlockPos();
+            if (!(goal instanceof GoalNear near) || near.distanceSq(pos.getX(), pos.getY(), pos.getZ()) > 4) {
+                setGoal(new GoalNear(pos.getX(), pos.getY(), pos.getZ(), 2));
+            }
+        }
+
+        if (mining != null) {
+            if (mineTarget != null && !mining.contains(mc.world.getBlockState(mineTarget).getBlock())) mineTarget = null;
+
+            if (mineTarget == null) {
+                mineTarget = findMineTarget();
+
+                if (mineTarget == null) {
+                    ChatUtils.infoPrefix("Pathing", "No blocks to mine nearby.");
+                    stop();
+                    return;
+                }
+
+                setGoal(new GoalNear(mineTarget.getX(), mineTarget.getY(), mineTarget.getZ(), 2));
+            }
+        }
+    }
+
+    private BlockPos findMineTarget() {
+        BlockPos.Mutable pos = new BlockPos.Mutable();
+        BlockPos best = null;
+        double bestDistance = Double.MAX_VALUE;
+
+        int playerChunkX = mc.player.getChunkPos().x;
+        int playerChunkZ = mc.player.getChunkPos().z;
+
+        for (int chunkX = playerChunkX - MINE_RADIUS; chunkX <= playerChunkX + MINE_RADIUS; chunkX++) {
+            for (int chunkZ = playerChunkZ - MINE_RADIUS; chunkZ <= playerChunkZ + MINE_RADIUS; chunkZ++) {
+                if (!mc.world.getChunkManager().isChunkLoaded(chunkX, chunkZ)) continue;
+
+                WorldChunk chunk = mc.world.getChunk(chunkX, chunkZ);
+                ChunkSection[] sections = chunk.getSectionArray();
+
+                for (int i = 0; i < sections.length; i++) {
+                    ChunkSection section = sections[i];
+                    if (section == null || section.isEmpty() || !section.hasAny(state -> mining.contains(state.getBlock()))) continue;
+
+                    int sectionY = chunk.sectionIndexToCoord(i);
+
+                    for (int y = 0; y < 16; y++) {
+                        for (int z = 0; z < 16; z++) {
+                            for (int x = 0; x < 16; x++) {
+                                if (!mining.contains(section.getBlockState(x, y, z).getBlock())) continue;
+
+                                pos.set(ChunkSectionPos.getBlockCoord(chunkX) + x, ChunkSectionPos.getBlockCoord(sectionY) + y, ChunkSectionPos.getBlockCoord(chunkZ) + z);
+                                double distance = mc.player.squaredDistanceTo(Vec3d.ofCenter(pos));
+
+                                if (distance < bestDistance && BlockUtils.canBreak(pos)) {
+                                    best = pos.toImmutable();
+                                    bestDistance = distance;
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        return best;
+    }
+
+    private void breakTarget() {
+        BlockPos target = mineTarget;
+
+        targetYaw = (float) Rotations.getYaw(target);
+        targetPitch = (float) Rotations.getPitch(target);
+
+        Rotations.rotate(targetYaw, targetPitch, () -> BlockUtils.breakBlock(target, true));
+    }
+
+    // Searching
+
+    private void startSearch() {
+        release();
+
+        finder = new PathFinder(cache, mc.player.getBlockPos(), goal,
+            settings.getWalkOnWater().get(), settings.getWalkOnLava().get(), settings.getStep().get(), settings.getNoFall().get());
+        searchTicks = 0;
+        submitStep();
+    }
+
+    private void submitStep() {
+        PathFinder finder = this.finder;
+        long budget = TimeUnit.MILLISECONDS.toNanos(settings.searchBudget.get());
+
+        search = executor.submit(() -> finder.step(budget));
+    }
+
+    private void updateSearch() {
+        if (!search.isDone()) return;
+
+        PathFinder.Status status;
+
+        try {
+            status = search.get();
+        } catch (Exception e) {
+            MeteorClient.LOG.error("Path search failed", e);
+            search = null;
+            stop();
+            return;
+        }
+
+        search = null;
+        searchTicks++;
+
+        switch (status) {
+            case Searching -> {
+                // Use the best path found so far if the search takes too long, it is continued from the end of that path
+                if (searchTicks >= settings.searchTimeout.get()) usePath(finder.getPath());
+                else submitStep();
+            }
+            case Found, Partial -> usePath(finder.getPath());
+            case Failed -> {
+                ChatUtils.warningPrefix("Pathing", "Couldn't find a path.");
+                stop();
+            }
+        }
+    }
+
+    private void usePath(LongList path) {
+        finder = null;
+
+        if (path.size() < 2) {
+            ChatUtils.warningPrefix("Pathing", "Couldn't find a path.");
+            stop();
+            return;
+        }
+
+        this.path = path;
+        this.pathIndex = 0;
+    }
+
+    private void cancelSearch() {
+        if (search != null) search.cancel(false);
+
+        search = null;
+        finder = null;
+    }
+
+    // Moving
+
+    /** @return false if the path ended or the player left it */
+    private boolean followPath() {
+        BlockPos feet = mc.player.getBlockPos();
+
+        // Skip nodes that were already reached, the player can cut corners or fall further along the path
+        for (int i = Math.min(path.size() - 1, pathIndex + 4); i > pathIndex; i--) {
+            if (reached(path.getLong(i))) {
+                pathIndex = i;
+                break;
+            }
+        }
+
+        if (pathIndex >= path.size() - 1) {
+            path = null;
+            return false;
+        }
+
+        long current = path.getLong(pathIndex);
+        long next = path.getLong(pathIndex + 1);
+
+        // Off the path
+        if (Math.abs(feet.getX() - BlockPos.unpackLongX(current)) > 1 || Math.abs(feet.getZ() - BlockPos.unpackLongZ(current)) > 1
+            || feet.getY() > BlockPos.unpackLongY(current) + 1 || feet.getY() < BlockPos.unpackLongY(next) - 1) {
+            path = null;
+            return false;
+        }
+
+        double x = BlockPos.unpackLongX(next) + 0.5;
+        double z = BlockPos.unpackLongZ(next) + 0.5;
+
+        targetYaw = (float) Rotations.getYaw(new Vec3d(x, mc.player.getY(), z));
+        targetPitch = 0;
+        mc.player.setYaw(targetYaw);
+
+        boolean up = BlockPos.unpackLongY(next) > feet.getY();
+        boolean swimming = mc.player.isTouchingWater() && BlockPos.unpackLongY(next) >= feet.getY();
+
+        press(mc.options.forwardKey, true);
+        press(mc.options.jumpKey, (up && mc.player.isOnGround()) || swimming);
+        pressing = true;
+
+        return true;
+    }
+
+    private boolean reached(long node) {
+        double dx = mc.player.getX() - (BlockPos.unpackLongX(node) + 0.5);
+        double dz = mc.player.getZ() - (BlockPos.unpackLongZ(node) + 0.5);
+
+        return mc.player.getBlockY() == BlockPos.unpackLongY(node) && dx * dx + dz * dz < NODE_REACHED * NODE_REACHED;
+    }
+
+    private void release() {
+        if (!pressing) return;
+
+        press(mc.options.forwardKey, false);
+        press(mc.options.jumpKey, false);
+        pressing = false;
+    }
+
+    private void press(KeyBinding key, boolean pressed) {
+        key.setPressed(pressed);
+        Input.setKeyState(key, pressed);
+    }
+
+    // Goals
+
+    private record GoalNear(int x, int y, int z, int range) implements PathFinder.Goal {
+        @Override
+        public boolean isInGoal(int x, int y, int z) {
+            return distanceSq(x, y, z) <= range * range;
+        }
+
+        @Override
+        public double heuristic(int x, int y, int z) {
+            return octile(x - this.x, z - this.z) + Math.abs(y - this.y) * PathFinder.COST_FALL;
+        }
+
+        public int distanceSq(int x, int y, int z) {
+            int dx = x - this.x, dy = y - this.y, dz = z - this.z;
+            return dx * dx + dy * dy + dz * dz;
+        }
+    }
+
+    private record GoalXZ(int x, int z) implements PathFinder.Goal {
+        @Override
+        public boolean isInGoal(int x, int y, int z) {
+            return x == this.x && z == this.z;
+        }
+
+        @Override
+        public double heuristic(int x, int y, int z) {
+            return octile(x - this.x, z - this.z);
+        }
+    }
+
+    private static double octile(int dx, int dz) {
+        dx = Math.abs(dx);
+        dz = Math.abs(dz);
+
+        return Math.max(dx, dz) + (PathFinder.COST_DIAGONAL - 1) * Math.min(dx, dz);
+    }
+}
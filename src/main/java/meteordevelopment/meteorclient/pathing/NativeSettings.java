@@ -0,0 +1,128 @@
+/*
+ * This file is part of the Meteor Client distribution (https://github.com/MeteorDevelopment/meteor-client).
+ * Copyright (c) Meteor Development.
+ */
+
+package meteordevelopment.meteorclient.pathing;
+
+import meteordevelopment.meteorclient.MeteorClient;
+import meteordevelopment.meteorclient.settings.*;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtIo;
+
+import java.io.File;
+import java.io.IOException;
+
+public class NativeSettings implements IPathManager.ISettings {
+    private static final File FILE = new File(MeteorClient.FOLDER, "pathing.nbt");
+
+    private final Settings settings = new Settings();
+
+    private final SettingGroup sgGeneral = settings.getDefaultGroup();
+    private final SettingGroup sgSearch = settings.createGroup("Search");
+
+    // General
+
+    private final Setting<Boolean> walkOnWater = sgGeneral.add(new BoolSetting.Builder()
+        .name("walk-on-water")
+        .description("Whether paths can lead over the surface of water.")
+        .defaultValue(false)
+        .build()
+    );
+
+    private final Setting<Boolean> walkOnLava = sgGeneral.add(new BoolSetting.Builder()
+        .name("walk-on-lava")
+        .description("Whether paths can lead over the surface of lava.")
+        .defaultValue(false)
+        .build()
+    );
+
+    private final Setting<Boolean> step = sgGeneral.add(new BoolSetting.Builder()
+        .name("step")
+        .description("Whether going up a block is cheaper because you don't have to jump.")
+        .defaultValue(false)
+        .build()
+    );
+
+    private final Setting<Boolean> noFall = sgGeneral.add(new BoolSetting.Builder()
+        .name("no-fall")
+        .description("Whether paths can fall further than 3 blocks.")
+        .defaultValue(false)
+        .build()
+    );
+
+    // Search
+
+    public final Setting<Integer> searchBudget = sgSearch.add(new IntSetting.Builder()
+        .name("search-budget")
+        .description("How many milliseconds the background search runs for per tick.")
+        .defaultValue(20)
+        .range(1, 50)
+        .sliderRange(1, 50)
+        .build()
+    );
+
+    public final Setting<Integer> searchTimeout = sgSearch.add(new IntSetting.Builder()
+        .name("search-timeout")
+        .description("After how many ticks of searching the best path found so far is used.")
+        .defaultValue(40)
+        .range(1, 400)
+        .sliderRange(1, 200)
+        .build()
+    );
+
+    public final Setting<Integer> sectionsPerTick = sgSearch.add(new IntSetting.Builder()
+        .name("sections-per-tick")
+        .description("How many chunk sections are copied for the search per tick.")
+        .defaultValue(64)
+        .range(1, 1024)
+        .sliderRange(1, 256)
+        .build()
+    );
+
+    public NativeSettings() {
+        if (!FILE.exists()) return;
+
+        try {
+            NbtCompound tag = NbtIo.read(FILE.toPath());
+            if (tag != null) settings.fromTag(tag);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public Settings get() {
+        return settings;
+    }
+
+    @Override
+    public Setting<Boolean> getWalkOnWater() {
+        return walkOnWater;
+    }
+
+    @Override
+    public Setting<Boolean> getWalkOnLava() {
+        return walkOnLava;
+    }
+
+    @Override
+    public Setting<Boolean> getStep() {
+        return step;
+    }
+
+    @Override
+    public Setting<Boolean> getNoFall() {
+        return noFall;
+    }
+
+    @Override
+    public void save() {
+        try {
+            FILE.getParentFile().mkdirs();
+            NbtIo.write(settings.toTag(), FILE.toPath());
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * This file is part of the Meteor Client distribution (https://github.com/MeteorDevelopment/meteor-client).
+ * Copyright (c) Meteor Development.
+ */
+
+package meteordevelopment.meteorclient.pathing;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.block.*;
+import net.minecraft.fluid.FluidState;
+import net.minecraft.registry.tag.FluidTags;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.util.math.Direction;
+import net.minecraft.util.shape.VoxelShape;
+import net.minecraft.world.EmptyBlockView;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.WorldChunk;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static meteordevelopment.meteorclient.MeteorClient.mc;
+
+/**
+ * Snapshots of how blocks can be moved through, one per chunk section with 4 bits per block. Snapshots are taken on the
+ * client thread and never modified afterwards, so the path finding thread can read them while the world changes. Block
+ * updates and chunk loads replace the snapshots of their sections.
+ */
+public class PassabilityCache {
+    public static final int UNKNOWN = -1, OPEN = 0, SOLID = 1, AVOID = 2, WATER = 3, LAVA = 4;
+
+    private static final int WORDS = 16 * 16 * 16 / 16;
+    private static final int MAX_SECTIONS = 16384;
+
+    // Shared snapshots for sections that are empty or not loaded
+    private static final long[] EMPTY_SECTION = new long[WORDS];
+    private static final long[] UNLOADED_SECTION = filled(AVOID);
+
+    private final Map<Long, long[]> sections = new ConcurrentHashMap<>();
+    private final Set<Long> requested = ConcurrentHashMap.newKeySet();
+
+    // The top section is exclusive
+    private volatile int bottomSection, topSection;
+
+    // Per block state type plus one, 0 if the state was not classified yet
+    private byte[] stateTypes = new byte[0];
+
+    /** Snapshots requested sections, has to be called from the client thread. */
+    public void tick(int maxSections) {
+        if (mc.world == null) return;
+
+        bottomSection = mc.world.getBottomSectionCoord();
+        // getTopSectionCoord() is the section of the highest block, so it is inclusive
+        topSection = bottomSection + mc.world.countVerticalSections();
+
+        if (stateTypes.length != Block.STATE_IDS.size()) stateTypes = new byte[Block.STATE_IDS.size()];
+
+        // Snapshots of sections that were left behind are never removed individually, start over if there are too many
+        if (sections.size() > MAX_SECTIONS) sections.clear();
+
+        int count = 0;
+
+        for (Iterator<Long> it = requested.iterator(); it.hasNext() && count < maxSections; count++) {
+            long key = it.next();
+            it.remove();
+
+            sections.put(key, snapshot(ChunkSectionPos.unpackX(key), ChunkSectionPos.unpackY(key), ChunkSectionPos.unpackZ(key)));
+        }
+    }
+
+    public void onBlockUpdate(BlockPos pos) {
+        long key = ChunkSectionPos.asLong(pos.getX() >> 4, pos.getY() >> 4, pos.getZ() >> 4);
+        if (sections.containsKey(key)) sections.put(key, snapshot(pos.getX() >> 4, pos.getY() >> 4, pos.getZ() >> 4));
+    }
+
+    public void onChunkLoad(WorldChunk chunk) {
+        int x = chunk.getPos().x;
+        int z = chunk.getPos().z;
+
+        for (int y = bottomSection; y < topSection; y++) {
+            sections.remove(ChunkSectionPos.asLong(x, y, z));
+        }
+    }
+
+    public void clear() {
+        sections.clear();
+        requested.clear();
+    }
+
+    /** A view of the snapshots for a single reader thread, caching the sections it already looked up. */
+    public Reader reader() {
+        return new Reader();
+    }
+
+    // Snapshots
+
+    private long[] snapshot(int sectionX, int sectionY, int sectionZ) {
+        if (!mc.world.getChunkManager().isChunkLoaded(sectionX, sectionZ)) return UNLOADED_SECTION;
+
+        WorldChunk chunk = mc.world.getChunk(sectionX, sectionZ);
+        int index = mc.world.sectionCoordToIndex(sectionY);
+        if (index < 0 || index >= chunk.getSectionArray().length) return EMPTY_SECTION;
+
+        ChunkSection section = chunk.getSectionArray()[index];
+        if (section == null || section.isEmpty()) return EMPTY_SECTION;
+
+        long[] data = new long[WORDS];
+        boolean empty = true;
+
+        for (int y = 0; y < 16; y++) {
+            for (int z = 0; z < 16; z++) {
+                for (int x = 0; x < 16; x++) {
+                    int type = getType(section.getBlockState(x, y, z));
+                    if (type == OPEN) continue;
+
+                    int i = (y << 8) | (z << 4) | x;
+                    data[i >> 4] |= (long) type << ((i & 15) << 2);
+                    empty = false;
+                }
+            }
+        }
+
+        return empty ? EMPTY_SECTION : data;
+    }
+
+    private int getType(BlockState state) {
+        int id = Block.getRawIdFromState(state);
+        if (id < 0 || id >= stateTypes.length) return classify(state);
+
+        int type = stateTypes[id] - 1;
+
+        if (type == -1) {
+            type = classify(state);
+            stateTypes[id] = (byte) (type + 1);
+        }
+
+        return type;
+    }
+
+    private static int classify(BlockState state) {
+        FluidState fluid = state.getFluidState();
+        if (fluid.isIn(FluidTags.LAVA)) return LAVA;
+
+        Block block = state.getBlock();
+        if (block instanceof AbstractFireBlock || block instanceof CactusBlock || block instanceof SweetBerryBushBlock
+            || block instanceof CobwebBlock || block instanceof PowderSnowBlock || block instanceof MagmaBlock) return AVOID;
+
+        VoxelShape shape = state.getCollisionShape(EmptyBlockView.INSTANCE, BlockPos.ORIGIN);
+
+        if (shape.isEmpty()) return fluid.isIn(FluidTags.WATER) ? WATER : OPEN;
+
+        // Fences and walls can't be stepped on
+        return shape.getMax(Direction.Axis.Y) > 1 ? AVOID : SOLID;
+    }
+
+    private static long[] filled(int type) {
+        long word = 0;
+        for (int i = 0; i < 16; i++) word |= (long) type << (i << 2);
+
+        long[] data = new long[WORDS];
+        Arrays.fill(data, word);
+        return data;
+    }
+
+    public class Reader {
+        private final Long2ObjectMap<long[]> local = new Long2ObjectOpenHashMap<>();
+
+        private long lastKey = Long.MIN_VALUE;
+        private long[] lastSection;
+
+        /** Forgets the sections looked up so far, so replaced snapshots are picked up. */
+        public void refresh() {
+            local.clear();
+            lastKey = Long.MIN_VALUE;
+            lastSection = null;
+        }
+
+        /** @return the type of the block or {@link #UNKNOWN} if its section was not snapshotted yet, it is requested in that case */
+        public int get(int x, int y, int z) {
+            int sectionY = y >> 4;
+            if (sectionY < bottomSection) return AVOID;
+            if (sectionY >= topSection) return OPEN;
+
+            long key = ChunkSectionPos.asLong(x >> 4, sectionY, z >> 4);
+            long[] section;
+
+            if (key == lastKey) section = lastSection;
+            else {
+                section = local.get(key);
+
+                if (section == null) {
+                    section = sections.get(key);
+
+                    if (section == null) {
+                        requested.add(key);
+                        return UNKNOWN;
+                    }
+
+                    local.put(key, section);
+                }
+
+                lastKey = key;
+                lastSection = section;
+            }
+
+            int i = ((y & 15) << 8) | ((z & 15) << 4) | (x & 15);
+            return (int) (section[i >> 4] >>> ((i & 15) << 2)) & 15;
+        }
+    }
+}
@@ -0,0 +1,323 @@
+/*
+ * This file is part of the Meteor Client distribution (https://github.com/MeteorDevelopment/meteor-client).
+ * Copyright (c) Meteor Development.
+ */
+
+package meteordevelopment.meteorclient.pathing;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongList;
+import net.minecraft.util.math.BlockPos;
+
+import java.util.Arrays;
+
+import static meteordevelopment.meteorclient.pathing.PassabilityCache.*;
+
+/**
+ * Incremental A* search over the positions a player can stand at. The search is run in steps with a time budget and
+ * keeps its open set between steps, a step also ends early when it needs a chunk section that has not been snapshotted
+ * yet, which the owner has to do on the client thread before running the next step.
+ * <p>
+ * The heuristic is weighted, which makes paths slightly longer than optimal but searches a lot fewer nodes.
+ */
+public class PathFinder {
+    public static final double COST_STRAIGHT = 1, COST_DIAGONAL = Math.sqrt(2), COST_JUMP = 2, COST_STEP = 1.2, COST_FALL = 0.5;
+
+    private static final double HEURISTIC_WEIGHT = 1.5;
+    private static final int MAX_NODES = 250_000;
+    private static final int[][] DIRECTIONS = { {1, 0}, {-1, 0}, {0, 1}, {0, -1}, {1, 1}, {1, -1}, {-1, 1}, {-1, -1} };
+
+    public enum Status {
+        /** Step ran out of time or needs more sections, the search can be continued. */
+        Searching,
+        /** A path to the goal was found. */
+        Found,
+        /** The goal can't be reached from the explored area, the path leads as close to the goal as possible. */
+        Partial,
+        /** No path that gets closer to the goal was found. */
+        Failed
+    }
+
+    public interface Goal {
+        boolean isInGoal(int x, int y, int z);
+
+        double heuristic(int x, int y, int z);
+    }
+
+    private final PassabilityCache.Reader world;
+    private final Goal goal;
+    private final boolean walkOnWater, walkOnLava, step;
+    private final int maxFall;
+
+    private final Long2ObjectOpenHashMap<Node> nodes = new Long2ObjectOpenHashMap<>();
+    private Node[] open = new Node[1024];
+    private int openSize;
+
+    private final Node start;
+    private Node best, result;
+    private boolean missing;
+
+    private int expanded;
+
+    public PathFinder(PassabilityCache cache, BlockPos start, Goal goal, boolean walkOnWater, boolean walkOnLava, boolean step, boolean noFall) {
+        this.world = cache.reader();
+        this.goal = goal;
+        this.walkOnWater = walkOnWater;
+        this.walkOnLava = walkOnLava;
+        this.step = step;
+        this.maxFall = noFall ? 64 : 3;
+
+        this.start = getNode(start.getX(), start.getY(), start.getZ());
+        this.start.g = 0;
+        this.start.h = goal.heuristic(start.getX(), start.getY(), start.getZ());
+        this.best = this.start;
+        push(this.start);
+    }
+
+    /** Continues the search for at most the given time, can be called from any thread but not from several at once. */
+    public Status step(long budgetNanos) {
+        if (result != null) return Status.Found;
+
+        long deadline = System.nanoTime() + budgetNanos;
+        world.refresh();
+
+        while (openSize > 0) {
+            if ((expanded & 63) == 0 && System.nanoTime() > deadline) return Status.Searching;
+
+            Node node = poll();
+
+            if (goal.isInGoal(node.x, node.y, node.z)) {
+                result = node;
+                return Status.Found;
+            }
+
+            missing = false;
+            expand(node);
+
+            if (missing) {
+                // Expanded again once the sections are available, neighbours that were already updated stay valid
+                push(node);
+                return Status.Searching;
+            }
+
+            if (node.h < best.h || (node.h == best.h && node.g < best.g)) best = node;
+            if (++expanded >= MAX_NODES) break;
+        }
+
+        return best != start ? Status.Partial : Status.Failed;
+    }
+
+    public int getExpanded() {
+        return expanded;
+    }
+
+    /** @return positions from the start to the goal, or to the node closest to the goal if it was not found */
+    public LongList getPath() {
+        LongArrayList path = new LongArrayList();
+
+        for (Node node = result != null ? result : best; node != null; node = node.parent) {
+            path.add(BlockPos.asLong(node.x, node.y, node.z));
+        }
+
+        for (int i = 0, j = path.size() - 1; i < j; i++, j--) {
+            long l = path.getLong(i);
+            path.set(i, path.getLong(j));
+            path.set(j, l);
+        }
+
+        return path;
+    }
+
+    // Movement
+
+    private void expand(Node node) {
+        int x = node.x, y = node.y, z = node.z;
+
+        for (int[] direction : DIRECTIONS) {
+            int nx = x + direction[0];
+            int nz = z + direction[1];
+            boolean diagonal = direction[0] != 0 && direction[1] != 0;
+
+            // Don't cut corners
+            if (diagonal && (!isClear(x + direction[0], y, z) || !isClear(x, y, z + direction[1]))) continue;
+
+            // Same level
+            if (canStand(nx, y, nz)) {
+                relax(node, nx, y, nz, diagonal ? COST_DIAGONAL : COST_STRAIGHT);
+                continue;
+            }
+
+            if (diagonal) continue;
+
+            // Jump up a block
+            if (isPassable(x, y + 2, z) && canStand(nx, y + 1, nz)) {
+                relax(node, nx, y + 1, nz, step ? COST_STEP : COST_JUMP);
+                continue;
+            }
+
+            // Fall down
+            if (!isClear(nx, y, nz)) continue;
+
+            for (int i = 1; i <= maxFall; i++) {
+                if (canStand(nx, y - i, nz)) {
+                    relax(node, nx, y - i, nz, COST_STRAIGHT + i * COST_FALL);
+                    break;
+                }
+
+                if (!isPassable(nx, y - i, nz) || isLiquid(nx, y - i, nz)) break;
+            }
+        }
+
+        // Swim up
+        if (getType(x, y, z) == WATER && canStand(x, y + 1, z)) relax(node, x, y + 1, z, COST_JUMP);
+    }
+
+    private void relax(Node from, int x, int y, int z, double cost) {
+        Node node = getNode(x, y, z);
+        double g = from.g + cost;
+        if (g >= node.g) return;
+
+        node.g = g;
+        node.parent = from;
+
+        if (Double.isNaN(node.h)) node.h = goal.heuristic(x, y, z);
+
+        if (node.heapIndex == -1) push(node);
+        else siftUp(node.heapIndex);
+    }
+
+    private boolean canStand(int x, int y, int z) {
+        if (!isClear(x, y, z)) return false;
+
+        int feet = getType(x, y, z);
+        if (feet == WATER) return true;
+
+        return switch (getType(x, y - 1, z)) {
+            case SOLID -> true;
+            case WATER -> walkOnWater;
+            case LAVA -> walkOnLava;
+            default -> false;
+        };
+    }
+
+    /** Whether the player fits at the position, ignoring whether it can stand there. */
+    private boolean isClear(int x, int y, int z) {
+        return isPassable(x, y, z) && isPassable(x, y + 1, z);
+    }
+
+    private boolean isPassable(int x, int y, int z) {
+        int type = getType(x, y, z);
+        return type == OPEN || type == WATER;
+    }
+
+    private boolean isLiquid(int x, int y, int z) {
+        int type = getType(x, y, z);
+        return type == WATER || type == LAVA;
+    }
+
+    private int getType(int x, int y, int z) {
+        int type = world.get(x, y, z);
+
+        if (type == UNKNOWN) {
+            missing = true;
+            return AVOID;
+        }
+
+        return type;
+    }
+
+    // Nodes
+
+    private Node getNode(int x, int y, int z) {
+        long key = BlockPos.asLong(x, y, z);
+        Node node = nodes.get(key);
+
+        if (node == null) {
+            node = new Node(x, y, z);
+            nodes.put(key, node);
+        }
+
+        return node;
+    }
+
+    private void push(Node node) {
+        if (openSize == open.length) open = Arrays.copyOf(open, openSize * 2);
+
+        open[openSize] = node;
+        node.heapIndex = openSize;
+        siftUp(openSize++);
+    }
+
+    private Node poll() {
+        Node node = open[0];
+        node.heapIndex = -1;
+
+        Node last = open[--openSize];
+        open[openSize] = null;
+
+        if (openSize > 0) {
+            open[0] = last;
+            last.heapIndex = 0;
+            siftDown(0);
+        }
+
+        return node;
+    }
+
+    private void siftUp(int i) {
+        Node node = open[i];
+        double f = node.f();
+
+        while (i > 0) {
+            int parent = (i - 1) >> 1;
+            if (open[parent].f() <= f) break;
+
+            open[i] = open[parent];
+            open[i].heapIndex = i;
+            i = parent;
+        }
+
+        open[i] = node;
+        node.heapIndex = i;
+    }
+
+    private void siftDown(int i) {
+        Node node = open[i];
+        double f = node.f();
+
+        while (true) {
+            int child = (i << 1) + 1;
+            if (child >= openSize) break;
+
+            if (child + 1 < openSize && open[child + 1].f() < open[child].f()) child++;
+            if (open[child].f() >= f) break;
+
+            open[i] = open[child];
+            open[i].heapIndex = i;
+            i = child;
+        }
+
+        open[i] = node;
+        node.heapIndex = i;
+    }
+
+    private static class Node {
+        public final int x, y, z;
+
+        public double g = Double.POSITIVE_INFINITY;
+        public double h = Double.NaN;
+        public Node parent;
+        public int heapIndex = -1;
+
+        public Node(int x, int y, int z) {
+            this.x = x;
+            this.y = y;
+            this.z = z;
+        }
+
+        public double f() {
+            return g + h * HEURISTIC_WEIGHT;
+        }
+    }
+}
@@ -35,6 +35,8 @@ public class PathManagers {
                 INSTANCE = new BaritonePathManager();
         }
 
+        if (INSTANCE instanceof NopPathManager) INSTANCE = new NativePathManager();
+
         MeteorClient.LOG.info("Path Manager: {}", INSTANCE.getName());
     }
 
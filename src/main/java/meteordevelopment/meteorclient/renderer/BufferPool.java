@@ -0,0 +1,47 @@
+/*
+ * This file is part of the Meteor Client distribution (https://github.com/MeteorDevelopment/meteor-client).
+ * Copyright (c) Meteor Development.
+ */
+
+package meteordevelopment.meteorclient.renderer;
+
+import net.minecraft.util.math.MathHelper;
+import org.lwjgl.BufferUtils;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+/**
+ * Pool of direct buffers with power of two capacities, used by meshes so growing, shrinking and releasing their CPU
+ * side buffers does not keep allocating new direct memory.
+ */
+public class BufferPool {
+    private static final int MIN_SIZE = 1024;
+    private static final int MAX_POOLED_PER_SIZE = 8;
+
+    @SuppressWarnings("unchecked")
+    private static final ArrayDeque<ByteBuffer>[] buckets = new ArrayDeque[32];
+
+    private BufferPool() {
+    }
+
+    public static synchronized ByteBuffer get(int minSize) {
+        int size = MathHelper.smallestEncompassingPowerOfTwo(Math.max(MIN_SIZE, minSize));
+        ArrayDeque<ByteBuffer> bucket = buckets[Integer.numberOfTrailingZeros(size)];
+
+        ByteBuffer buffer = bucket == null ? null : bucket.poll();
+        if (buffer == null) buffer = BufferUtils.createByteBuffer(size);
+
+        return buffer.clear();
+    }
+
+    public static synchronized void free(ByteBuffer buffer) {
+        int size = buffer.capacity();
+        if (Integer.bitCount(size) != 1) return;
+
+        int i = Integer.numberOfTrailingZeros(size);
+        if (buckets[i] == null) buckets[i] = new ArrayDeque<>();
+
+        if (buckets[i].size() < MAX_POOLED_PER_SIZE) buckets[i].offer(buffer);
+    }
+}
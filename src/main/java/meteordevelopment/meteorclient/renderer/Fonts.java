@@ -14,6 +14,8 @@ import meteordevelopment.meteorclient.renderer.text.FontFamily;
 import meteordevelopment.meteorclient.renderer.text.FontInfo;
 import meteordevelopment.meteorclient.systems.config.Config;
 import meteordevelopment.meteorclient.utils.PreInit;
+import meteordevelopment.meteorclient.utils.network.MeteorExecutor;
+import meteordevelopment.meteorclient.utils.render.FontIndex;
 import meteordevelopment.meteorclient.utils.render.FontUtils;
 
 import java.io.File;
@@ -32,30 +34,86 @@ public class Fonts {
     public static final List<FontFamily> FONT_FAMILIES = new ArrayList<>();
     public static CustomTextRenderer RENDERER;
 
+    private static final List<Runnable> indexedTasks = new ArrayList<>();
+    private static boolean indexing;
+    private static int generation;
+
     private Fonts() {
     }
 
-    @PreInit(dependencies = Shaders.class)
+    @PreInit(dependencies = { Shaders.class, MeteorExecutor.class })
     public static void refresh() {
+        int gen = ++generation;
         FONT_FAMILIES.clear();
 
         for (String builtinFont : BUILTIN_FONTS) {
             FontUtils.loadBuiltin(FONT_FAMILIES, builtinFont);
         }
 
-        for (String fontPath : FontUtils.getSearchPaths()) {
-            FontUtils.loadSystem(FONT_FAMILIES, new File(fontPath));
-        }
-
         FONT_FAMILIES.sort(Comparator.comparing(FontFamily::getName));
 
-        MeteorClient.LOG.info("Found {} font families.", FONT_FAMILIES.size());
-
         DEFAULT_FONT_FAMILY = FontUtils.getBuiltinFontInfo(BUILTIN_FONTS[1]).family();
         DEFAULT_FONT = getFamily(DEFAULT_FONT_FAMILY).get(FontInfo.Type.Regular);
 
         Config config = Config.get();
         load(config != null ? config.font.get() : DEFAULT_FONT);
+
+        // System fonts are found and indexed in the background, a saved system font is selected once they are added
+        indexing = true;
+        MeteorExecutor.execute(() -> index(gen));
+    }
+
+    private static void index(int gen) {
+        long start = System.currentTimeMillis();
+
+        // Only files that are new or were modified since they were indexed are read again
+        FontIndex index = FontIndex.load();
+        List<FontIndex.Entry> entries = new ArrayList<>();
+        List<File> unindexed = new ArrayList<>();
+
+        for (String fontPath : FontUtils.getSearchPaths()) {
+            List<File> files = new ArrayList<>();
+            FontUtils.findSystemFonts(files, new File(fontPath));
+
+            for (File file : files) {
+                FontIndex.Entry entry = index.get(file);
+
+                if (entry != null) entries.add(entry);
+                else unindexed.add(file);
+            }
+        }
+
+        boolean changed = !unindexed.isEmpty() || entries.size() != index.size();
+        entries.addAll(unindexed.parallelStream().map(FontIndex.Entry::read).toList());
+        if (changed) FontIndex.save(entries);
+
+        mc.execute(() -> {
+            if (gen != generation) return;
+
+            for (FontIndex.Entry entry : entries) FontUtils.loadSystem(FONT_FAMILIES, entry);
+            FONT_FAMILIES.sort(Comparator.comparing(FontFamily::getName));
+
+            MeteorClient.LOG.info("Indexed {} new fonts in {} ms, found {} font families.", unindexed.size(), System.currentTimeMillis() - start, FONT_FAMILIES.size());
+
+            onIndexed();
+        });
+    }
+
+    private static void onIndexed() {
+        indexing = false;
+
+        for (Runnable task : indexedTasks) task.run();
+        indexedTasks.clear();
+    }
+
+    /** Runs the task on the client thread once all system fonts are indexed, right away if they already are. */
+    public static void whenIndexed(Runnable task) {
+        if (indexing) indexedTasks.add(task);
+        else task.run();
+    }
+
+    public static boolean isIndexing() {
+        return indexing;
     }
 
     public static void load(FontFace fontFace) {
@@ -107,6 +107,14 @@ public class GL {
         GlStateManager._glBufferData(target, data, usage);
     }
 
+    public static void bufferData(int target, long size, int usage) {
+        GlStateManager._glBufferData(target, size, usage);
+    }
+
+    public static void bufferSubData(int target, long offset, ByteBuffer data) {
+        glBufferSubData(target, offset, data);
+    }
+
     public static void drawElements(int mode, int first, int type) {
         GlStateManager._drawElements(mode, first, type, 0);
     }
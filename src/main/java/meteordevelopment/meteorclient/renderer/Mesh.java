@@ -9,9 +9,9 @@ import com.mojang.blaze3d.systems.RenderSystem;
 import meteordevelopment.meteorclient.utils.Utils;
 import meteordevelopment.meteorclient.utils.render.color.Color;
 import net.minecraft.client.util.math.MatrixStack;
+import net.minecraft.util.math.MathHelper;
 import net.minecraft.util.math.Vec3d;
 import org.joml.Matrix4fStack;
-import org.lwjgl.BufferUtils;
 
 import java.nio.ByteBuffer;
 
@@ -40,11 +40,17 @@ public class Mesh {
         }
     }
 
+    private static final int SHRINK_AFTER_BUILDS = 600;
+
     public boolean depthTest = false;
     public double alpha = 1;
 
+    /** Retained meshes are rebuilt rarely, their CPU side buffers are given back to the {@link BufferPool} after every upload. */
+    public boolean retained = false;
+
     private final DrawMode drawMode;
     private final int primitiveVerticesSize;
+    private final int initialVerticesSize, initialIndicesSize;
 
     private final int vao, vbo, ibo;
 
@@ -55,9 +61,11 @@ public class Mesh {
     private long indicesPointer;
 
     private int vertexI, indicesCount;
+    private int vboSize, iboSize;
+    private int lowUsageBuilds;
 
     private boolean building, rendering3D;
-    private double cameraX, cameraZ;
+    private double originX, originZ;
     private boolean beganRendering;
 
     public Mesh(DrawMode drawMode, Attrib... attributes) {
@@ -67,11 +75,9 @@ public class Mesh {
         this.drawMode = drawMode;
         this.primitiveVerticesSize = stride * drawMode.indicesCount;
 
-        vertices = BufferUtils.createByteBuffer(primitiveVerticesSize * 256 * 4);
-        verticesPointerStart = memAddress0(vertices);
-
-        indices = BufferUtils.createByteBuffer(drawMode.indicesCount * 512 * 4);
-        indicesPointer = memAddress0(indices);
+        initialVerticesSize = primitiveVerticesSize * 256 * 4;
+        initialIndicesSize = drawMode.indicesCount * 512 * 4;
+        allocateBuffers();
 
         vao = GL.genVertexArray();
         GL.bindVertexArray(vao);
@@ -98,14 +104,54 @@ public class Mesh {
     }
 
     public void destroy() {
+        releaseBuffers();
+
         GL.deleteBuffer(ibo);
         GL.deleteBuffer(vbo);
         GL.deleteVertexArray(vao);
     }
 
+    private void allocateBuffers() {
+        if (vertices == null) {
+            vertices = BufferPool.get(initialVerticesSize);
+            verticesPointerStart = memAddress0(vertices);
+        }
+
+        if (indices == null) {
+            indices = BufferPool.get(initialIndicesSize);
+            indicesPointer = memAddress0(indices);
+        }
+    }
+
+    private void releaseBuffers() {
+        if (vertices != null) {
+            BufferPool.free(vertices);
+            vertices = null;
+        }
+
+        if (indices != null) {
+            BufferPool.free(indices);
+            indices = null;
+        }
+    }
+
     public void begin() {
+        if (Utils.rendering3D) {
+            Vec3d camera = mc.gameRenderer.getCamera().getPos();
+            begin(camera.x, camera.z);
+        }
+        else begin(0, 0);
+    }
+
+    /**
+     * Begins building with vertex positions relative to the given origin instead of the camera. The mesh can then be
+     * rendered again in later frames without being rebuilt, the camera offset is applied when rendering.
+     */
+    public void begin(double originX, double originZ) {
         if (building) throw new IllegalStateException("Mesh.begin() called while already building.");
 
+        allocateBuffers();
+
         verticesPointer = verticesPointerStart;
         vertexI = 0;
         indicesCount = 0;
@@ -113,24 +159,16 @@ public class Mesh {
         building = true;
         rendering3D = Utils.rendering3D;
 
-        if (rendering3D) {
-            Vec3d camera = mc.gameRenderer.getCamera().getPos();
-
-            cameraX = camera.x;
-            cameraZ = camera.z;
-        }
-        else {
-            cameraX = 0;
-            cameraZ = 0;
-        }
+        this.originX = rendering3D ? originX : 0;
+        this.originZ = rendering3D ? originZ : 0;
     }
 
     public Mesh vec3(double x, double y, double z) {
         long p = verticesPointer;
 
-        memPutFloat(p, (float) (x - cameraX));
+        memPutFloat(p, (float) (x - originX));
         memPutFloat(p + 4, (float) y);
-        memPutFloat(p + 8, (float) (z - cameraZ));
+        memPutFloat(p + 8, (float) (z - originZ));
 
         verticesPointer += 12;
         return this;
@@ -203,12 +241,10 @@ public class Mesh {
         if ((vertexI + 1) * primitiveVerticesSize >= vertices.capacity()) {
             int offset = getVerticesOffset();
 
-            int newSize = vertices.capacity() * 2;
-            if (newSize % primitiveVerticesSize != 0) newSize += newSize % primitiveVerticesSize;
-
-            ByteBuffer newVertices = BufferUtils.createByteBuffer(newSize);
+            ByteBuffer newVertices = BufferPool.get(vertices.capacity() * 2);
             memCopy(memAddress0(vertices), memAddress0(newVertices), offset);
 
+            BufferPool.free(vertices);
             vertices = newVertices;
             verticesPointerStart = memAddress0(vertices);
             verticesPointer = verticesPointerStart + offset;
@@ -216,12 +252,10 @@ public class Mesh {
 
         // Indices
         if (indicesCount * 4 >= indices.capacity()) {
-            int newSize = indices.capacity() * 2;
-            if (newSize % drawMode.indicesCount != 0) newSize += newSize % (drawMode.indicesCount * 4);
-
-            ByteBuffer newIndices = BufferUtils.createByteBuffer(newSize);
+            ByteBuffer newIndices = BufferPool.get(indices.capacity() * 2);
             memCopy(memAddress0(indices), memAddress0(newIndices), indicesCount * 4L);
 
+            BufferPool.free(indices);
             indices = newIndices;
             indicesPointer = memAddress0(indices);
         }
@@ -230,19 +264,48 @@ public class Mesh {
     public void end() {
         if (!building) throw new IllegalStateException("Mesh.end() called while not building.");
 
+        int verticesSize = getVerticesOffset();
+
         if (indicesCount > 0) {
             GL.bindVertexBuffer(vbo);
-            GL.bufferData(GL_ARRAY_BUFFER, vertices.limit(getVerticesOffset()), GL_DYNAMIC_DRAW);
+            vboSize = upload(GL_ARRAY_BUFFER, vertices.limit(verticesSize), vboSize);
             GL.bindVertexBuffer(0);
 
             GL.bindIndexBuffer(ibo);
-            GL.bufferData(GL_ELEMENT_ARRAY_BUFFER, indices.limit(indicesCount * 4), GL_DYNAMIC_DRAW);
+            iboSize = upload(GL_ELEMENT_ARRAY_BUFFER, indices.limit(indicesCount * 4), iboSize);
             GL.bindIndexBuffer(0);
         }
 
+        if (retained) releaseBuffers();
+        else {
+            // Give back buffers that grew for a few big frames but are mostly unused since then
+            if (verticesSize * 4 < vertices.capacity() && vertices.capacity() > initialVerticesSize) lowUsageBuilds++;
+            else lowUsageBuilds = 0;
+
+            if (lowUsageBuilds >= SHRINK_AFTER_BUILDS) {
+                releaseBuffers();
+                lowUsageBuilds = 0;
+            }
+        }
+
         building = false;
     }
 
+    private int upload(int target, ByteBuffer data, int size) {
+        if (retained) {
+            GL.bufferData(target, data, GL_STATIC_DRAW);
+            return data.remaining();
+        }
+
+        // Keep the GPU buffer size stable and orphan the old storage instead of reallocating it with a new size every frame
+        if (data.remaining() > size) size = MathHelper.smallestEncompassingPowerOfTwo(data.remaining());
+
+        GL.bufferData(target, size, GL_DYNAMIC_DRAW);
+        GL.bufferSubData(target, 0, data);
+
+        return size;
+    }
+
     public void beginRender(MatrixStack matrices) {
         GL.saveState();
 
@@ -259,7 +322,7 @@ public class Mesh {
             if (matrices != null) matrixStack.mul(matrices.peek().getPositionMatrix());
 
             Vec3d cameraPos = mc.gameRenderer.getCamera().getPos();
-            matrixStack.translate(0, (float) -cameraPos.y, 0);
+            matrixStack.translate((float) (originX - cameraPos.x), (float) -cameraPos.y, (float) (originZ - cameraPos.z));
         }
 
         beganRendering = true;
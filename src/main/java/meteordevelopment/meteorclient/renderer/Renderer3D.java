@@ -15,11 +15,23 @@ public class Renderer3D {
     public final Mesh lines = new ShaderMesh(Shaders.POS_COLOR, DrawMode.Lines, Mesh.Attrib.Vec3, Mesh.Attrib.Color);
     public final Mesh triangles = new ShaderMesh(Shaders.POS_COLOR, DrawMode.Triangles, Mesh.Attrib.Vec3, Mesh.Attrib.Color);
 
+    /** Marks both meshes as retained, for geometry that is built once and rendered over many frames. */
+    public Renderer3D retained() {
+        lines.retained = true;
+        triangles.retained = true;
+        return this;
+    }
+
     public void begin() {
         lines.begin();
         triangles.begin();
     }
 
+    public void begin(double originX, double originZ) {
+        lines.begin(originX, originZ);
+        triangles.begin(originX, originZ);
+    }
+
     public void end() {
         lines.end();
         triangles.end();
@@ -30,6 +42,11 @@ public class Renderer3D {
         triangles.render(matrices);
     }
 
+    public void destroy() {
+        lines.destroy();
+        triangles.destroy();
+    }
+
     // Lines
 
     public void line(double x1, double y1, double z1, double x2, double y2, double z2, Color color1, Color color2) {
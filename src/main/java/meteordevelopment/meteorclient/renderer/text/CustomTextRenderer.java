@@ -122,9 +122,7 @@ public class CustomTextRenderer implements TextRenderer {
 
         if (!scaleOnly) {
             mesh.end();
-
-            GL.bindTexture(font.texture.getGlId());
-            mesh.render(matrices);
+            font.draw(mesh, matrices);
         }
 
         building = false;
@@ -133,5 +131,6 @@ public class CustomTextRenderer implements TextRenderer {
 
     public void destroy() {
         mesh.destroy();
+        for (Font font : fonts) font.destroy();
     }
 }
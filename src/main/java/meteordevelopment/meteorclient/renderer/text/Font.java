@@ -6,63 +6,63 @@
 package meteordevelopment.meteorclient.renderer.text;
 
 import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import meteordevelopment.meteorclient.renderer.GL;
 import meteordevelopment.meteorclient.renderer.Mesh;
 import meteordevelopment.meteorclient.utils.render.ByteTexture;
 import meteordevelopment.meteorclient.utils.render.color.Color;
-import net.minecraft.client.texture.AbstractTexture;
+import net.minecraft.client.util.math.MatrixStack;
 import org.lwjgl.BufferUtils;
-import org.lwjgl.stb.*;
+import org.lwjgl.stb.STBTTFontinfo;
+import org.lwjgl.stb.STBTruetype;
 import org.lwjgl.system.MemoryStack;
+import org.lwjgl.system.MemoryUtil;
 
 import java.nio.ByteBuffer;
 import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.List;
 
+import static org.lwjgl.opengl.GL11C.*;
+
+/**
+ * Glyphs are rasterized the first time they are rendered and packed into an atlas that starts small and grows when it
+ * is full. Once it can't grow any further it is cleared and only the glyphs used in the last draw are packed again.
+ * <p>
+ * The atlas is only resized or cleared after the mesh is drawn with {@link #draw(Mesh, MatrixStack)}, since vertices
+ * that were already built reference it. A glyph that doesn't fit before that is skipped and shows up in the next draw.
+ */
 public class Font {
-    public AbstractTexture texture;
+    private static final int INITIAL_SIZE = 256;
+    private static final int MAX_SIZE = 2048;
+    private static final int OVERSAMPLING = 2;
+    private static final int PADDING = 1;
+
+    private final ByteBuffer buffer;
+    private final STBTTFontinfo fontInfo;
     private final int height;
     private final float scale;
     private final float ascent;
-    private final Int2ObjectOpenHashMap<CharData> charMap = new Int2ObjectOpenHashMap<>();
-    private static final int size = 2048;
+    private final Int2ObjectOpenHashMap<Glyph> glyphs = new Int2ObjectOpenHashMap<>();
+    private final TextWidthCache widths = new TextWidthCache();
+    private final Glyph space;
+
+    // Atlas
+    private ByteTexture texture;
+    private ByteBuffer bitmap;
+    private int size;
+    private int shelfX, shelfY, shelfHeight;
+    private int dirtyMinY = Integer.MAX_VALUE, dirtyMaxY;
+    private boolean full;
+    private int draws;
 
     public Font(ByteBuffer buffer, int height) {
+        this.buffer = buffer;
         this.height = height;
 
-        // Initialize font
-        STBTTFontinfo fontInfo = STBTTFontinfo.create();
+        // Initialize font, it keeps referencing the buffer
+        fontInfo = STBTTFontinfo.create();
         STBTruetype.stbtt_InitFont(fontInfo, buffer);
 
-        // Allocate buffers
-        ByteBuffer bitmap = BufferUtils.createByteBuffer(size * size);
-        STBTTPackedchar.Buffer[] cdata = {
-            STBTTPackedchar.create(95), // Basic Latin
-            STBTTPackedchar.create(96), // Latin 1 Supplement
-            STBTTPackedchar.create(128), // Latin Extended-A
-            STBTTPackedchar.create(144), // Greek and Coptic
-            STBTTPackedchar.create(256), // Cyrillic
-            STBTTPackedchar.create(1) // infinity symbol
-        };
-
-        // create and initialise packing context
-        STBTTPackContext packContext = STBTTPackContext.create();
-        STBTruetype.stbtt_PackBegin(packContext, bitmap, size, size, 0 ,1);
-
-        // create the pack range, populate with the specific packing ranges
-        STBTTPackRange.Buffer packRange = STBTTPackRange.create(cdata.length);
-        packRange.put(STBTTPackRange.create().set(height, 32, null, 95, cdata[0], (byte) 2, (byte) 2));
-        packRange.put(STBTTPackRange.create().set(height, 160, null, 96, cdata[1], (byte) 2, (byte) 2));
-        packRange.put(STBTTPackRange.create().set(height, 256, null, 128, cdata[2], (byte) 2, (byte) 2));
-        packRange.put(STBTTPackRange.create().set(height, 880, null, 144, cdata[3], (byte) 2, (byte) 2));
-        packRange.put(STBTTPackRange.create().set(height, 1024, null, 256, cdata[4], (byte) 2, (byte) 2));
-        packRange.put(STBTTPackRange.create().set(height, 8734, null, 1, cdata[5], (byte) 2, (byte) 2)); // lol
-        packRange.flip();
-
-        // write and finish
-        STBTruetype.stbtt_PackFontRanges(packContext, buffer, 0, packRange);
-        STBTruetype.stbtt_PackEnd(packContext);
-
-        // Create texture object and get font scale
-        texture = new ByteTexture(size, size, bitmap, ByteTexture.Format.A, ByteTexture.Filter.Linear, ByteTexture.Filter.Linear);
         scale = STBTruetype.stbtt_ScaleForPixelHeight(fontInfo, height);
 
         // Get font vertical ascent
@@ -72,40 +72,31 @@ public class Font {
             this.ascent = ascent.get(0);
         }
 
-        for (int i = 0; i < cdata.length; i++) {
-            STBTTPackedchar.Buffer cbuf = cdata[i];
-            int offset = packRange.get(i).first_unicode_codepoint_in_range();
+        space = createGlyph(STBTruetype.stbtt_FindGlyphIndex(fontInfo, 32));
+        glyphs.put(32, space);
+    }
 
-            for (int j = 0; j < cbuf.capacity(); j++) {
-                STBTTPackedchar packedChar = cbuf.get(j);
+    public double getWidth(String string, int length) {
+        if (length != string.length()) return measure(string, length);
 
-                float ipw = 1f / size; // pixel width and height
-                float iph = 1f / size;
+        double width = widths.get(string);
 
-                charMap.put(j + offset, new CharData(
-                    packedChar.xoff(),
-                    packedChar.yoff(),
-                    packedChar.xoff2(),
-                    packedChar.yoff2(),
-                    packedChar.x0() * ipw,
-                    packedChar.y0() * iph,
-                    packedChar.x1() * ipw,
-                    packedChar.y1() * iph,
-                    packedChar.xadvance()
-                ));
-            }
+        if (width < 0) {
+            width = measure(string, length);
+            widths.put(string, width);
         }
+
+        return width;
     }
 
-    public double getWidth(String string, int length) {
+    private double measure(String string, int length) {
         double width = 0;
 
-        for (int i = 0; i < length; i++) {
-            int cp = string.charAt(i);
-            CharData c = charMap.get(cp);
-            if (c == null) c = charMap.get(32);
+        for (int i = 0; i < length; ) {
+            int cp = string.codePointAt(i);
+            i += Character.charCount(cp);
 
-            width += c.xAdvance;
+            width += getGlyph(cp).xAdvance;
         }
 
         return width;
@@ -118,17 +109,23 @@ public class Font {
     public double render(Mesh mesh, String string, double x, double y, Color color, double scale) {
         y += ascent * this.scale * scale;
 
-        for (int i = 0; i < string.length(); i++) {
-            int cp = string.charAt(i);
-            CharData c = charMap.get(cp);
-            if (c == null) c = charMap.get(32);
+        for (int i = 0; i < string.length(); ) {
+            int cp = string.codePointAt(i);
+            i += Character.charCount(cp);
+
+            Glyph c = getGlyph(cp);
 
-            mesh.quad(
-                mesh.vec2(x + c.x0 * scale, y + c.y0 * scale).vec2(c.u0, c.v0).color(color).next(),
-                mesh.vec2(x + c.x0 * scale, y + c.y1 * scale).vec2(c.u0, c.v1).color(color).next(),
-                mesh.vec2(x + c.x1 * scale, y + c.y1 * scale).vec2(c.u1, c.v1).color(color).next(),
-                mesh.vec2(x + c.x1 * scale, y + c.y0 * scale).vec2(c.u1, c.v0).color(color).next()
-            );
+            if (c.hasBitmap() && place(c)) {
+                float u0 = (float) c.atlasX / size, v0 = (float) c.atlasY / size;
+                float u1 = (float) (c.atlasX + c.width) / size, v1 = (float) (c.atlasY + c.height) / size;
+
+                mesh.quad(
+                    mesh.vec2(x + c.x0 * scale, y + c.y0 * scale).vec2(u0, v0).color(color).next(),
+                    mesh.vec2(x + c.x0 * scale, y + c.y1 * scale).vec2(u0, v1).color(color).next(),
+                    mesh.vec2(x + c.x1 * scale, y + c.y1 * scale).vec2(u1, v1).color(color).next(),
+                    mesh.vec2(x + c.x1 * scale, y + c.y0 * scale).vec2(u1, v0).color(color).next()
+                );
+            }
 
             x += c.xAdvance * scale;
         }
@@ -136,5 +133,199 @@ public class Font {
         return x;
     }
 
-    private record CharData(float x0, float y0, float x1, float y1, float u0, float v0, float u1, float v1, float xAdvance) {}
+    /** Uploads newly rasterized glyphs, renders the mesh with the atlas bound and then grows or clears the atlas if it is full. */
+    public void draw(Mesh mesh, MatrixStack matrices) {
+        // Nothing was rendered yet if there is no atlas
+        if (bitmap != null) {
+            upload();
+
+            GL.bindTexture(texture.getGlId());
+            mesh.render(matrices);
+        }
+
+        if (full) {
+            if (size < MAX_SIZE) grow();
+            else evict();
+
+            full = false;
+        }
+
+        draws++;
+    }
+
+    public void destroy() {
+        if (texture != null) texture.clearGlId();
+        texture = null;
+        bitmap = null;
+    }
+
+    // Glyphs
+
+    private Glyph getGlyph(int cp) {
+        Glyph glyph = glyphs.get(cp);
+
+        if (glyph == null) {
+            int index = STBTruetype.stbtt_FindGlyphIndex(fontInfo, cp);
+
+            // Use a space for characters the font doesn't have
+            glyph = index == 0 ? space : createGlyph(index);
+            glyphs.put(cp, glyph);
+        }
+
+        return glyph;
+    }
+
+    private Glyph createGlyph(int index) {
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            IntBuffer advance = stack.mallocInt(1);
+            STBTruetype.stbtt_GetGlyphHMetrics(fontInfo, index, advance, null);
+
+            IntBuffer x0 = stack.mallocInt(1), y0 = stack.mallocInt(1), x1 = stack.mallocInt(1), y1 = stack.mallocInt(1);
+            STBTruetype.stbtt_GetGlyphBitmapBox(fontInfo, index, scale * OVERSAMPLING, scale * OVERSAMPLING, x0, y0, x1, y1);
+
+            return new Glyph(index, advance.get(0) * scale, x0.get(0), y0.get(0), x1.get(0), y1.get(0));
+        }
+    }
+
+    // Atlas
+
+    /** @return whether the glyph is in the atlas */
+    private boolean place(Glyph glyph) {
+        glyph.lastDraw = draws;
+        if (glyph.atlasX != -1) return true;
+        if (full || glyph.width + PADDING > MAX_SIZE || glyph.height + PADDING > MAX_SIZE) return false;
+
+        if (bitmap == null) {
+            size = INITIAL_SIZE;
+            bitmap = BufferUtils.createByteBuffer(size * size);
+        }
+
+        // Start a new shelf if the glyph doesn't fit next to the previous one
+        if (shelfX + glyph.width + PADDING > size) {
+            shelfX = 0;
+            shelfY += shelfHeight;
+            shelfHeight = 0;
+        }
+
+        if (shelfY + glyph.height + PADDING > size || glyph.width + PADDING > size) {
+            full = true;
+            return false;
+        }
+
+        glyph.atlasX = shelfX;
+        glyph.atlasY = shelfY;
+
+        shelfX += glyph.width + PADDING;
+        shelfHeight = Math.max(shelfHeight, glyph.height + PADDING);
+
+        bitmap.position(glyph.atlasY * size + glyph.atlasX);
+        STBTruetype.stbtt_MakeGlyphBitmap(fontInfo, bitmap, glyph.width, glyph.height, size, scale * OVERSAMPLING, scale * OVERSAMPLING, glyph.index);
+        bitmap.position(0);
+
+        dirtyMinY = Math.min(dirtyMinY, glyph.atlasY);
+        dirtyMaxY = Math.max(dirtyMaxY, glyph.atlasY + glyph.height);
+
+        return true;
+    }
+
+    private void upload() {
+        if (texture == null) {
+            texture = new ByteTexture(size, size, bitmap, ByteTexture.Format.A, ByteTexture.Filter.Linear, ByteTexture.Filter.Linear);
+        }
+        else if (dirtyMinY < dirtyMaxY) {
+            GL.bindTexture(texture.getGlId());
+
+            glPixelStorei(GL_UNPACK_ROW_LENGTH, 0);
+            glPixelStorei(GL_UNPACK_SKIP_ROWS, 0);
+            glPixelStorei(GL_UNPACK_SKIP_PIXELS, 0);
+            glPixelStorei(GL_UNPACK_ALIGNMENT, 1);
+
+            bitmap.position(dirtyMinY * size);
+            glTexSubImage2D(GL_TEXTURE_2D, 0, 0, dirtyMinY, size, dirtyMaxY - dirtyMinY, GL_RED, GL_UNSIGNED_BYTE, bitmap);
+            bitmap.position(0);
+
+            glPixelStorei(GL_UNPACK_ALIGNMENT, 4);
+        }
+
+        dirtyMinY = Integer.MAX_VALUE;
+        dirtyMaxY = 0;
+    }
+
+    // Glyphs keep their pixel position, only the texture coordinates of newly built vertices change
+    private void grow() {
+        int newSize = size * 2;
+        ByteBuffer newBitmap = BufferUtils.createByteBuffer(newSize * newSize);
+
+        for (int y = 0; y < size; y++) {
+            bitmap.limit((y + 1) * size).position(y * size);
+            newBitmap.position(y * newSize);
+            newBitmap.put(bitmap);
+        }
+
+        bitmap.clear();
+        newBitmap.clear();
+
+        bitmap = newBitmap;
+        size = newSize;
+
+        recreateTexture();
+    }
+
+    private void evict() {
+        List<Glyph> used = new ArrayList<>();
+
+        for (Glyph glyph : glyphs.values()) {
+            if (glyph.atlasX == -1) continue;
+
+            glyph.atlasX = -1;
+            glyph.atlasY = -1;
+
+            // Only the space is in the map several times and it is never in the atlas
+            if (glyph.lastDraw == draws) used.add(glyph);
+        }
+
+        MemoryUtil.memSet(bitmap, 0);
+        shelfX = shelfY = shelfHeight = 0;
+
+        for (Glyph glyph : used) place(glyph);
+
+        recreateTexture();
+    }
+
+    private void recreateTexture() {
+        if (texture != null) texture.clearGlId();
+        texture = null;
+
+        dirtyMinY = Integer.MAX_VALUE;
+        dirtyMaxY = 0;
+    }
+
+    private static class Glyph {
+        public final int index;
+        public final float xAdvance;
+
+        // Quad relative to the pen position in pixels, the bitmap is oversampled
+        public final float x0, y0, x1, y1;
+        public final int width, height;
+
+        public int atlasX = -1, atlasY = -1;
+        public int lastDraw;
+
+        public Glyph(int index, float xAdvance, int x0, int y0, int x1, int y1) {
+            this.index = index;
+            this.xAdvance = xAdvance;
+
+            this.x0 = (float) x0 / OVERSAMPLING;
+            this.y0 = (float) y0 / OVERSAMPLING;
+            this.x1 = (float) x1 / OVERSAMPLING;
+            this.y1 = (float) y1 / OVERSAMPLING;
+
+            this.width = x1 - x0;
+            this.height = y1 - y0;
+        }
+
+        public boolean hasBitmap() {
+            return width > 0 && height > 0;
+        }
+    }
 }
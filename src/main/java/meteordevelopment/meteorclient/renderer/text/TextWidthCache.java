@@ -0,0 +1,98 @@
+/*
+ * This file is part of the Meteor Client distribution (https://github.com/MeteorDevelopment/meteor-client).
+ * Copyright (c) Meteor Development.
+ */
+
+package meteordevelopment.meteorclient.renderer.text;
+
+import it.unimi.dsi.fastutil.objects.Object2DoubleLinkedOpenHashMap;
+import meteordevelopment.meteorclient.MeteorClient;
+import meteordevelopment.meteorclient.events.game.ResourcePacksReloadedEvent;
+import meteordevelopment.meteorclient.events.meteor.CustomFontChangedEvent;
+import meteordevelopment.meteorclient.utils.PreInit;
+import meteordevelopment.orbit.EventHandler;
+
+/**
+ * Least recently used cache of the widths of strings measured with a single font. The cached widths are unscaled and
+ * without shadow, those are applied by the text renderers, so one entry serves every scale and shadow setting.
+ * <p>
+ * All caches are invalidated when the custom font changes or resource packs are reloaded. Must only be used from the
+ * render thread.
+ */
+public class TextWidthCache {
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private static int generation;
+    private static long hits, misses;
+
+    private final Object2DoubleLinkedOpenHashMap<String> widths = new Object2DoubleLinkedOpenHashMap<>();
+    private final int capacity;
+    private int cacheGeneration = generation;
+
+    public TextWidthCache(int capacity) {
+        this.capacity = capacity;
+        widths.defaultReturnValue(-1);
+    }
+
+    public TextWidthCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    @PreInit
+    public static void init() {
+        MeteorClient.EVENT_BUS.subscribe(TextWidthCache.class);
+    }
+
+    @EventHandler
+    private static void onCustomFontChanged(CustomFontChangedEvent event) {
+        clear();
+    }
+
+    @EventHandler
+    private static void onResourcePacksReloaded(ResourcePacksReloadedEvent event) {
+        clear();
+    }
+
+    /** Invalidates every cache and resets the hit and miss counters. */
+    public static void clear() {
+        generation++;
+        hits = 0;
+        misses = 0;
+    }
+
+    /** @return the cached width of the string or -1 if it is not cached */
+    public double get(String text) {
+        if (cacheGeneration != generation) {
+            widths.clear();
+            cacheGeneration = generation;
+        }
+
+        double width = widths.getAndMoveToLast(text);
+
+        if (width < 0) misses++;
+        else hits++;
+
+        return width;
+    }
+
+    public void put(String text, double width) {
+        if (widths.size() >= capacity) widths.removeFirstDouble();
+        widths.put(text, width);
+    }
+
+    /** @return the number of lookups of all caches that were hits since they were last cleared */
+    public static long getHits() {
+        return hits;
+    }
+
+    /** @return the number of lookups of all caches that were misses since they were last cleared */
+    public static long getMisses() {
+        return misses;
+    }
+
+    /** @return the fraction of lookups of all caches that were hits since they were last cleared */
+    public static double getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+}
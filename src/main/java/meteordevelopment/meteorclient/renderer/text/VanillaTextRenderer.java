@@ -25,6 +25,7 @@ public class VanillaTextRenderer implements TextRenderer {
 
     private final MatrixStack matrices = new MatrixStack();
     private final Matrix4f emptyMatrix = new Matrix4f();
+    private final TextWidthCache widths = new TextWidthCache();
 
     public double scale = 2;
     public boolean scaleIndividually;
@@ -46,7 +47,15 @@ public class VanillaTextRenderer implements TextRenderer {
         if (text.isEmpty()) return 0;
 
         if (length != text.length()) text = text.substring(0, length);
-        return (mc.textRenderer.getWidth(text) + (shadow ? 1 : 0)) * scale;
+
+        double width = widths.get(text);
+
+        if (width < 0) {
+            width = mc.textRenderer.getWidth(text);
+            widths.put(text, width);
+        }
+
+        return (width + (shadow ? 1 : 0)) * scale;
     }
 
     @Override
@@ -5,6 +5,7 @@
 
 package meteordevelopment.meteorclient.settings;
 
+import meteordevelopment.meteorclient.utils.misc.ReferenceIndexedList;
 import net.minecraft.block.Block;
 import net.minecraft.nbt.NbtCompound;
 import net.minecraft.nbt.NbtElement;
@@ -30,13 +31,13 @@ public class BlockListSetting extends Setting<List<Block>> {
 
     @Override
     public void resetImpl() {
-        value = new ArrayList<>(defaultValue);
+        value = new ReferenceIndexedList<>(defaultValue);
     }
 
     @Override
     protected List<Block> parseImpl(String str) {
         String[] values = str.split(",");
-        List<Block> blocks = new ArrayList<>(values.length);
+        List<Block> blocks = new ReferenceIndexedList<>();
 
         try {
             for (String value : values) {
@@ -48,6 +49,16 @@ public class BlockListSetting extends Setting<List<Block>> {
         return blocks;
     }
 
+    @Override
+    public boolean set(List<Block> value) {
+        return super.set(value instanceof ReferenceIndexedList<Block> ? value : new ReferenceIndexedList<>(value));
+    }
+
+    /** Hashed lookup, equivalent to {@code get().contains(block)}. */
+    public boolean contains(Block block) {
+        return value.contains(block);
+    }
+
     @Override
     protected boolean isValueValid(List<Block> value) {
         return true;
@@ -87,7 +98,7 @@ public class BlockListSetting extends Setting<List<Block>> {
         private Predicate<Block> filter;
 
         public Builder() {
-            super(new ArrayList<>(0));
+            super(new ReferenceIndexedList<>());
         }
 
         public Builder defaultValue(Block... defaults) {
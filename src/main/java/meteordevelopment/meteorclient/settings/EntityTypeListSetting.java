@@ -82,6 +82,10 @@ public class EntityTypeListSetting extends Setting<Set<EntityType<?>>> {
         return entities;
     }
 
+    public boolean contains(EntityType<?> entityType) {
+        return value.contains(entityType);
+    }
+
     @Override
     protected boolean isValueValid(Set<EntityType<?>> value) {
         return true;
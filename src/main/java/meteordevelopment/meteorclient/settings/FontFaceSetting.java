@@ -82,7 +82,20 @@ public class FontFaceSetting extends Setting<FontFace> {
                 changed = true;
             }
         }
-        if (!changed) set(Fonts.DEFAULT_FONT);
+        if (!changed) {
+            set(Fonts.DEFAULT_FONT);
+
+            // The font might be a system font that is still being indexed
+            if (Fonts.isIndexing()) {
+                Fonts.whenIndexed(() -> {
+                    for (FontFamily fontFamily : Fonts.FONT_FAMILIES) {
+                        if (fontFamily.getName().equals(family) && fontFamily.hasType(type)) {
+                            set(fontFamily.get(type));
+                        }
+                    }
+                });
+            }
+        }
 
         return get();
     }
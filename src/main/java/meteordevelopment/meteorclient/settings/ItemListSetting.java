@@ -5,6 +5,7 @@
 
 package meteordevelopment.meteorclient.settings;
 
+import meteordevelopment.meteorclient.utils.misc.ReferenceIndexedList;
 import net.minecraft.item.Item;
 import net.minecraft.nbt.NbtCompound;
 import net.minecraft.nbt.NbtElement;
@@ -33,7 +34,7 @@ public class ItemListSetting extends Setting<List<Item>> {
     @Override
     protected List<Item> parseImpl(String str) {
         String[] values = str.split(",");
-        List<Item> items = new ArrayList<>(values.length);
+        List<Item> items = new ReferenceIndexedList<>();
 
         try {
             for (String value : values) {
@@ -47,7 +48,17 @@ public class ItemListSetting extends Setting<List<Item>> {
 
     @Override
     public void resetImpl() {
-        value = new ArrayList<>(defaultValue);
+        value = new ReferenceIndexedList<>(defaultValue);
+    }
+
+    @Override
+    public boolean set(List<Item> value) {
+        return super.set(value instanceof ReferenceIndexedList<Item> ? value : new ReferenceIndexedList<>(value));
+    }
+
+    /** Hashed lookup, equivalent to {@code get().contains(item)}. */
+    public boolean contains(Item item) {
+        return value.contains(item);
     }
 
     @Override
@@ -90,7 +101,7 @@ public class ItemListSetting extends Setting<List<Item>> {
         private boolean bypassFilterWhenSavingAndLoading;
 
         public Builder() {
-            super(new ArrayList<>(0));
+            super(new ReferenceIndexedList<>());
         }
 
         public Builder defaultValue(Item... defaults) {
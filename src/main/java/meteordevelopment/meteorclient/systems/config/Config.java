@@ -6,6 +6,7 @@
 package meteordevelopment.meteorclient.systems.config;
 
 import meteordevelopment.meteorclient.MeteorClient;
+import meteordevelopment.meteorclient.gui.WidgetScreen;
 import meteordevelopment.meteorclient.renderer.Fonts;
 import meteordevelopment.meteorclient.renderer.text.FontFace;
 import meteordevelopment.meteorclient.settings.*;
@@ -35,6 +36,10 @@ public class Config extends System<Config> {
         .name("custom-font")
         .description("Use a custom font.")
         .defaultValue(true)
+        .onChanged(aBoolean -> {
+            // Text is measured with a different renderer now
+            if (mc.currentScreen instanceof WidgetScreen) ((WidgetScreen) mc.currentScreen).invalidate();
+        })
         .build()
     );
 
@@ -78,8 +78,7 @@ public class HudRenderer {
                 FontHolder fontHolder = it.next();
 
                 if (fontHolder.visited) {
-                    GL.bindTexture(fontHolder.font.texture.getGlId());
-                    fontHolder.getMesh().render(null);
+                    fontHolder.font.draw(fontHolder.getMesh(), null);
                 }
                 else {
                     it.remove();
@@ -274,7 +273,7 @@ public class HudRenderer {
         }
 
         public void destroy() {
-            font.texture.clearGlId();
+            font.destroy();
             if (mesh != null) mesh.destroy();
         }
     }
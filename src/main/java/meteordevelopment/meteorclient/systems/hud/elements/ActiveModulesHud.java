@@ -5,6 +5,8 @@
 
 package meteordevelopment.meteorclient.systems.hud.elements;
 
+import it.unimi.dsi.fastutil.objects.Reference2DoubleMap;
+import it.unimi.dsi.fastutil.objects.Reference2DoubleOpenHashMap;
 import meteordevelopment.meteorclient.settings.*;
 import meteordevelopment.meteorclient.systems.hud.*;
 import meteordevelopment.meteorclient.systems.modules.Module;
@@ -152,6 +154,7 @@ public class ActiveModulesHud extends HudElement {
     );
 
     private final List<Module> modules = new ArrayList<>();
+    private final Reference2DoubleMap<Module> moduleWidths = new Reference2DoubleOpenHashMap<>();
 
     private final Color rainbow = new Color(255, 255, 255);
     private double rainbowHue1;
@@ -180,10 +183,14 @@ public class ActiveModulesHud extends HudElement {
             return;
         }
 
+        // Measure every module once instead of on every comparison
+        moduleWidths.clear();
+        for (Module module : modules) moduleWidths.put(module, getModuleWidth(renderer, module));
+
         modules.sort((e1, e2) -> switch (sort.get()) {
             case Alphabetical -> e1.title.compareTo(e2.title);
-            case Biggest -> Double.compare(getModuleWidth(renderer, e2), getModuleWidth(renderer, e1));
-            case Smallest -> Double.compare(getModuleWidth(renderer, e1), getModuleWidth(renderer, e2));
+            case Biggest -> Double.compare(moduleWidths.getDouble(e2), moduleWidths.getDouble(e1));
+            case Smallest -> Double.compare(moduleWidths.getDouble(e1), moduleWidths.getDouble(e2));
         });
 
         double width = 0;
@@ -192,7 +199,7 @@ public class ActiveModulesHud extends HudElement {
         for (int i = 0; i < modules.size(); i++) {
             Module module = modules.get(i);
 
-            width = Math.max(width, getModuleWidth(renderer, module));
+            width = Math.max(width, moduleWidths.getDouble(module));
             height += renderer.textHeight(shadow.get(), getScale());
             if (i > 0) height += 2;
         }
@@ -38,6 +38,7 @@ import meteordevelopment.meteorclient.utils.misc.Keybind;
 import meteordevelopment.meteorclient.utils.misc.ValueComparableMap;
 import meteordevelopment.meteorclient.utils.misc.input.Input;
 import meteordevelopment.meteorclient.utils.misc.input.KeyAction;
+import meteordevelopment.meteorclient.utils.network.PacketListeners;
 import meteordevelopment.orbit.EventHandler;
 import meteordevelopment.orbit.EventPriority;
 import net.minecraft.nbt.NbtCompound;
@@ -316,6 +317,7 @@ public class Modules extends System<Modules> {
             for (Module module : modules) {
                 if (module.isActive() && !module.runInMainMenu) {
                     MeteorClient.EVENT_BUS.subscribe(module);
+                    PacketListeners.subscribe(module);
                     module.onActivate();
                 }
             }
@@ -328,6 +330,7 @@ public class Modules extends System<Modules> {
             for (Module module : modules) {
                 if (module.isActive() && !module.runInMainMenu) {
                     MeteorClient.EVENT_BUS.unsubscribe(module);
+                    PacketListeners.unsubscribe(module);
                     module.onDeactivate();
                 }
             }
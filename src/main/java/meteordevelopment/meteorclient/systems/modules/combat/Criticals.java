@@ -15,6 +15,7 @@ import meteordevelopment.meteorclient.settings.*;
 import meteordevelopment.meteorclient.systems.modules.Categories;
 import meteordevelopment.meteorclient.systems.modules.Module;
 import meteordevelopment.meteorclient.systems.modules.Modules;
+import meteordevelopment.meteorclient.utils.network.PacketListeners;
 import meteordevelopment.orbit.EventHandler;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.LivingEntity;
@@ -67,6 +68,9 @@ public class Criticals extends Module {
 
     public Criticals() {
         super(Categories.Combat, "criticals", "Performs critical attacks when you hit your target.");
+
+        PacketListeners.onSend(this, PlayerInteractEntityC2SPacket.class, this::onInteractEntity);
+        PacketListeners.onSend(this, HandSwingC2SPacket.class, this::onHandSwing);
     }
 
     @Override
@@ -77,9 +81,8 @@ public class Criticals extends Module {
         sendTimer = 0;
     }
 
-    @EventHandler
-    private void onSendPacket(PacketEvent.Send event) {
-        if (event.packet instanceof IPlayerInteractEntityC2SPacket packet && packet.meteor$getType() == PlayerInteractEntityC2SPacket.InteractType.ATTACK) {
+    private void onInteractEntity(PacketEvent.Send event, PlayerInteractEntityC2SPacket p) {
+        if (p instanceof IPlayerInteractEntityC2SPacket packet && packet.meteor$getType() == PlayerInteractEntityC2SPacket.InteractType.ATTACK) {
             if (mace.get() && mc.player.getMainHandStack().getItem() instanceof MaceItem) {
                 if (mc.player.isGliding()) return;
 
@@ -108,7 +111,7 @@ public class Criticals extends Module {
                         if (!sendPackets) {
                             sendPackets = true;
                             sendTimer = mode.get() == Mode.Jump ? 6 : 4;
-                            attackPacket = (PlayerInteractEntityC2SPacket) event.packet;
+                            attackPacket = p;
 
                             if (mode.get() == Mode.Jump) mc.player.jump();
                             else ((IVec3d) mc.player.getVelocity()).meteor$setY(0.25);
@@ -118,14 +121,15 @@ public class Criticals extends Module {
                 }
             }
         }
-        else if (event.packet instanceof HandSwingC2SPacket && mode.get() != Mode.Packet) {
-            if (skipCrit()) return;
+    }
 
-            if (sendPackets && swingPacket == null) {
-                swingPacket = (HandSwingC2SPacket) event.packet;
+    private void onHandSwing(PacketEvent.Send event, HandSwingC2SPacket packet) {
+        if (mode.get() == Mode.Packet || skipCrit()) return;
 
-                event.cancel();
-            }
+        if (sendPackets && swingPacket == null) {
+            swingPacket = packet;
+
+            event.cancel();
         }
     }
 
@@ -5,7 +5,6 @@
 
 package meteordevelopment.meteorclient.systems.modules.combat;
 
-import com.google.common.util.concurrent.AtomicDouble;
 import it.unimi.dsi.fastutil.ints.*;
 import meteordevelopment.meteorclient.events.entity.EntityAddedEvent;
 import meteordevelopment.meteorclient.events.entity.EntityRemovedEvent;
@@ -24,9 +23,11 @@ import meteordevelopment.meteorclient.systems.friends.Friends;
 import meteordevelopment.meteorclient.systems.modules.Categories;
 import meteordevelopment.meteorclient.systems.modules.Module;
 import meteordevelopment.meteorclient.utils.entity.DamageUtils;
+import meteordevelopment.meteorclient.utils.entity.EntityIndex;
 import meteordevelopment.meteorclient.utils.entity.EntityUtils;
 import meteordevelopment.meteorclient.utils.entity.Target;
 import meteordevelopment.meteorclient.utils.misc.Keybind;
+import meteordevelopment.meteorclient.utils.network.PacketListeners;
 import meteordevelopment.meteorclient.utils.player.FindItemResult;
 import meteordevelopment.meteorclient.utils.player.InvUtils;
 import meteordevelopment.meteorclient.utils.player.PlayerUtils;
@@ -60,10 +61,13 @@ import org.joml.Vector3d;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
 
 public class CrystalAura extends Module {
+    // Candidates times targets, below this scoring on the client thread is faster than splitting the work
+    private static final int PARALLEL_SCORING_THRESHOLD = 64;
+
     private final SettingGroup sgGeneral = settings.getDefaultGroup();
     private final SettingGroup sgSwitch = settings.createGroup("Switch");
     private final SettingGroup sgPlace = settings.createGroup("Place");
@@ -557,6 +561,8 @@ public class CrystalAura extends Module {
 
     private int breakTimer, placeTimer, switchTimer, ticksPassed;
     private final List<LivingEntity> targets = new ArrayList<>();
+    private final List<EndCrystalEntity> crystals = new ArrayList<>();
+    private final List<LivingEntity> livingEntities = new ArrayList<>();
 
     private final Vec3d vec3d = new Vec3d(0, 0, 0);
     private final Vec3d playerEyePos = new Vec3d(0, 0, 0);
@@ -599,6 +605,9 @@ public class CrystalAura extends Module {
 
     public CrystalAura() {
         super(Categories.Combat, "crystal-aura", "Automatically places and attacks crystals.");
+
+        PacketListeners.onSend(this, UpdateSelectedSlotC2SPacket.class, this::onUpdateSelectedSlot);
+        PacketListeners.onSent(this, PlayerMoveC2SPacket.class, this::onPlayerMoveSent);
     }
 
     @Override
@@ -762,7 +771,7 @@ public class CrystalAura extends Module {
         Entity crystal = null;
 
         // Find best crystal to break
-        for (Entity entity : mc.world.getEntities()) {
+        for (Entity entity : getCrystalsInBreakRange()) {
             float damage = getBreakDamage(entity, true);
 
             if (damage > bestDamage) {
@@ -775,6 +784,11 @@ public class CrystalAura extends Module {
         if (crystal != null) doBreak(crystal);
     }
 
+    private List<EndCrystalEntity> getCrystalsInBreakRange() {
+        crystals.clear();
+        return EntityIndex.getInRange(mc.player.getX(), mc.player.getY(), mc.player.getZ(), Math.max(breakRange.get(), breakWallsRange.get()), EndCrystalEntity.class, crystals);
+    }
+
     private float getBreakDamage(Entity entity, boolean checkCrystalAge) {
         if (!(entity instanceof EndCrystalEntity)) return 0;
 
@@ -881,11 +895,8 @@ public class CrystalAura extends Module {
         attacks++;
     }
 
-    @EventHandler
-    private void onPacketSend(PacketEvent.Send event) {
-        if (event.packet instanceof UpdateSelectedSlotC2SPacket) {
-            switchTimer = switchDelay.get();
-        }
+    private void onUpdateSelectedSlot(PacketEvent.Send event, UpdateSelectedSlotC2SPacket packet) {
+        switchTimer = switchDelay.get();
     }
 
     // Place
@@ -909,20 +920,18 @@ public class CrystalAura extends Module {
         } else if (mainItem != Items.END_CRYSTAL && offItem != Items.END_CRYSTAL) return;
 
         // Check for multiplace
-        for (Entity entity : mc.world.getEntities()) {
+        for (Entity entity : getCrystalsInBreakRange()) {
             if (getBreakDamage(entity, false) > 0) return;
         }
 
-        // Setup variables
-        AtomicDouble bestDamage = new AtomicDouble(0);
-        AtomicReference<BlockPos.Mutable> bestBlockPos = new AtomicReference<>(new BlockPos.Mutable());
-        AtomicBoolean isSupport = new AtomicBoolean(support.get() != SupportMode.Disabled);
+        // Gather the positions the crystal could be placed on
+        List<PlaceCandidate> candidates = new ArrayList<>();
+        boolean canSupport = support.get() != SupportMode.Disabled;
 
-        // Find best position to place the crystal on
-        BlockIterator.register((int) Math.ceil(placeRange.get()), (int) Math.ceil(placeRange.get()), (bp, blockState) -> {
-            // Check if its bedrock or obsidian and return if isSupport is false
+        BlockIterator.register((int) Math.ceil(placeRange.get()), (int) Math.ceil(placeRange.get()), blockState -> blockState.isOf(Blocks.BEDROCK) || blockState.isOf(Blocks.OBSIDIAN) || (canSupport && blockState.isReplaceable()), (bp, blockState) -> {
+            // Check if its bedrock or obsidian and return if support is disabled
             boolean hasBlock = blockState.isOf(Blocks.BEDROCK) || blockState.isOf(Blocks.OBSIDIAN);
-            if (!hasBlock && (!isSupport.get() || !blockState.isReplaceable())) return;
+            if (!hasBlock && (!canSupport || !blockState.isReplaceable())) return;
 
             // Check if there is air on top
             blockPos.set(bp.getX(), bp.getY() + 1, bp.getZ());
@@ -938,40 +947,17 @@ public class CrystalAura extends Module {
             blockPos.set(bp).move(0, 1, 0);
             if (isOutOfRange(vec3d, blockPos, true)) return;
 
-            // Check damage to self and anti suicide
-            float selfDamage = DamageUtils.crystalDamage(mc.player, vec3d, predictMovement.get(), bp);
-            if (selfDamage > maxDamage.get() || (antiSuicide.get() && selfDamage >= EntityUtils.getTotalHealth(mc.player))) return;
-
-            // Check damage to targets and face place
-            float damage = getDamageToTargets(vec3d, bp, false, !hasBlock && support.get() == SupportMode.Fast);
-
-            boolean shouldFacePlace = shouldFacePlace();
-            double minimumDamage = Math.min(minDamage.get(), shouldFacePlace ? 1.5 : minDamage.get());
-
-            if (damage < minimumDamage) return;
-
-            // Check if it can be placed
-            double x = bp.getX();
-            double y = bp.getY() + 1;
-            double z = bp.getZ();
-            ((IBox) box).meteor$set(x, y, z, x + 1, y + (placement112.get() ? 1 : 2), z + 1);
-
-            if (intersectsWithEntities(box)) return;
-
-            // Compare damage
-            if (damage > bestDamage.get() || (isSupport.get() && hasBlock)) {
-                bestDamage.set(damage);
-                bestBlockPos.get().set(bp);
-            }
-
-            if (hasBlock) isSupport.set(false);
+            candidates.add(new PlaceCandidate(bp.toImmutable(), hasBlock));
         });
 
-        // Place the crystal
+        // Score the candidates and place the crystal
         BlockIterator.after(() -> {
-            if (bestDamage.get() == 0) return;
+            PlaceCandidate best = findBestPlace(candidates);
+            if (best == null) return;
 
-            BlockHitResult result = getPlaceInfo(bestBlockPos.get());
+            BlockHitResult result = getPlaceInfo(best.pos);
+            BlockPos supportBlock = best.hasBlock ? null : best.pos;
+            double bestDamage = best.damage;
 
             ((IVec3d) vec3d).meteor$set(
                     result.getBlockPos().getX() + 0.5 + result.getSide().getVector().getX() * 1.0 / 2.0,
@@ -985,18 +971,105 @@ public class CrystalAura extends Module {
 
                 if (yawStepMode.get() == YawStepMode.Break || doYawSteps(yaw, pitch)) {
                     setRotation(true, vec3d, 0, 0);
-                    Rotations.rotate(yaw, pitch, 50, () -> placeCrystal(result, bestDamage.get(), isSupport.get() ? bestBlockPos.get() : null));
+                    Rotations.rotate(yaw, pitch, 50, () -> placeCrystal(result, bestDamage, supportBlock));
 
                     placeTimer += placeDelay.get();
                 }
             }
             else {
-                placeCrystal(result, bestDamage.get(), isSupport.get() ? bestBlockPos.get() : null);
+                placeCrystal(result, bestDamage, supportBlock);
                 placeTimer += placeDelay.get();
             }
         });
     }
 
+    /**
+     * Scores all candidates, in parallel if there is enough work, and picks the best one in the order they were found.
+     * The client thread waits for the scoring so the world and entities cannot change while it runs.
+     */
+    private PlaceCandidate findBestPlace(List<PlaceCandidate> candidates) {
+        if (candidates.isEmpty()) return null;
+
+        List<LivingEntity> targets = List.copyOf(this.targets);
+        LivingEntity nearestTarget = getNearestTarget();
+        boolean fastSupport = support.get() == SupportMode.Fast;
+        boolean predict = predictMovement.get();
+        double maxSelfDamage = maxDamage.get();
+        boolean antiSuicide = this.antiSuicide.get();
+        float health = EntityUtils.getTotalHealth(mc.player);
+
+        IntConsumer scorer = i -> {
+            PlaceCandidate candidate = candidates.get(i);
+            BlockPos pos = candidate.pos;
+            Vec3d crystal = new Vec3d(pos.getX() + 0.5, pos.getY() + 1, pos.getZ() + 0.5);
+
+            // Check damage to self and anti suicide
+            float selfDamage = DamageUtils.crystalDamage(mc.player, crystal, predict, pos);
+            if (selfDamage > maxSelfDamage || (antiSuicide && selfDamage >= health)) return;
+
+            // Check damage to targets
+            if (!candidate.hasBlock && fastSupport) {
+                candidate.damage = DamageUtils.crystalDamage(nearestTarget, crystal, predict, pos);
+            }
+            else {
+                candidate.targetDamages = new float[targets.size()];
+
+                for (int j = 0; j < targets.size(); j++) {
+                    float damage = DamageUtils.crystalDamage(targets.get(j), crystal, predict, pos);
+
+                    candidate.targetDamages[j] = damage;
+                    candidate.damage += damage;
+                }
+            }
+
+            candidate.valid = true;
+        };
+
+        if ((long) candidates.size() * (targets.size() + 1) >= PARALLEL_SCORING_THRESHOLD) IntStream.range(0, candidates.size()).parallel().forEach(scorer);
+        else for (int i = 0; i < candidates.size(); i++) scorer.accept(i);
+
+        // Pick the best candidate in the order they were found so the result does not depend on scheduling
+        boolean shouldFacePlace = shouldFacePlace();
+        double minimumDamage = Math.min(minDamage.get(), shouldFacePlace ? 1.5 : minDamage.get());
+
+        PlaceCandidate best = null;
+        boolean isSupport = support.get() != SupportMode.Disabled;
+
+        for (PlaceCandidate candidate : candidates) {
+            if (!candidate.hasBlock && !isSupport) continue;
+            if (!candidate.valid) continue;
+
+            // Update best target
+            if (candidate.targetDamages != null) {
+                for (int j = 0; j < targets.size(); j++) {
+                    if (candidate.targetDamages[j] > bestTargetDamage) {
+                        bestTarget = targets.get(j);
+                        bestTargetDamage = candidate.targetDamages[j];
+                        bestTargetTimer = 10;
+                    }
+                }
+            }
+
+            // Check face place
+            if (candidate.damage < minimumDamage) continue;
+
+            // Check if it can be placed
+            double x = candidate.pos.getX();
+            double y = candidate.pos.getY() + 1;
+            double z = candidate.pos.getZ();
+            ((IBox) box).meteor$set(x, y, z, x + 1, y + (placement112.get() ? 1 : 2), z + 1);
+
+            if (intersectsWithEntities(box)) continue;
+
+            // Compare damage
+            if (best == null || candidate.damage > best.damage || (isSupport && candidate.hasBlock)) best = candidate;
+
+            if (candidate.hasBlock) isSupport = false;
+        }
+
+        return best != null && best.damage > 0 ? best : null;
+    }
+
     private BlockHitResult getPlaceInfo(BlockPos blockPos) {
         ((IVec3d) vec3d).meteor$set(mc.player.getX(), mc.player.getY() + mc.player.getEyeHeight(mc.player.getPose()), mc.player.getZ());
 
@@ -1077,11 +1150,8 @@ public class CrystalAura extends Module {
 
     // Yaw steps
 
-    @EventHandler
-    private void onPacketSent(PacketEvent.Sent event) {
-        if (event.packet instanceof PlayerMoveC2SPacket) {
-            serverYaw = ((PlayerMoveC2SPacket) event.packet).getYaw((float) serverYaw);
-        }
+    private void onPlayerMoveSent(PacketEvent.Sent event, PlayerMoveC2SPacket packet) {
+        serverYaw = packet.getYaw((float) serverYaw);
     }
 
     public boolean doYawSteps(double targetYaw, double targetPitch) {
@@ -1209,12 +1279,10 @@ public class CrystalAura extends Module {
 
     private void findTargets() {
         targets.clear();
+        livingEntities.clear();
 
         // Living Entities
-        for (Entity entity : mc.world.getEntities()) {
-            // Ignore non-living
-            if (!(entity instanceof LivingEntity livingEntity)) continue;
-
+        for (LivingEntity livingEntity : EntityIndex.getInRange(mc.player.getX(), mc.player.getY(), mc.player.getZ(), targetRange.get(), LivingEntity.class, livingEntities)) {
             // Player
             if (livingEntity instanceof PlayerEntity player) {
                 if (player.getAbilities().creativeMode || livingEntity == mc.player) continue;
@@ -1234,9 +1302,6 @@ public class CrystalAura extends Module {
             // Animals, water animals, monsters, bats, misc
             if (!(entities.get().contains(livingEntity.getType()))) continue;
 
-            // Close enough to damage
-            if (livingEntity.squaredDistanceTo(mc.player) > targetRange.get() * targetRange.get()) continue;
-
             targets.add(livingEntity);
         }
     }
@@ -1339,6 +1404,20 @@ public class CrystalAura extends Module {
         }
     }
 
+    private static class PlaceCandidate {
+        private final BlockPos pos;
+        private final boolean hasBlock;
+
+        private boolean valid;
+        private float damage;
+        private float[] targetDamages;
+
+        public PlaceCandidate(BlockPos pos, boolean hasBlock) {
+            this.pos = pos;
+            this.hasBlock = hasBlock;
+        }
+    }
+
     public enum YawStepMode {
         Break,
         All,
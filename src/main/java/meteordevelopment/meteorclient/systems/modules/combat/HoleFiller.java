@@ -246,7 +246,7 @@ public class HoleFiller extends Module {
         FindItemResult block = InvUtils.findInHotbar(itemStack -> blocks.get().contains(Block.getBlockFromItem(itemStack.getItem())));
         if (!block.found()) return;
 
-        BlockIterator.register(searchRadius.get(), searchRadius.get(), (blockPos, blockState) -> {
+        BlockIterator.register(searchRadius.get(), searchRadius.get(), blockState -> !((AbstractBlockAccessor) blockState.getBlock()).isCollidable(), (blockPos, blockState) -> {
             if (!validHole(blockPos)) return;
 
             int bedrock = 0, obsidian = 0;
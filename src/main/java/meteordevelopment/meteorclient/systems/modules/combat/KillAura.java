@@ -17,6 +17,7 @@ import meteordevelopment.meteorclient.utils.entity.EntityUtils;
 import meteordevelopment.meteorclient.utils.entity.SortPriority;
 import meteordevelopment.meteorclient.utils.entity.Target;
 import meteordevelopment.meteorclient.utils.entity.TargetUtils;
+import meteordevelopment.meteorclient.utils.network.PacketListeners;
 import meteordevelopment.meteorclient.utils.player.FindItemResult;
 import meteordevelopment.meteorclient.utils.player.InvUtils;
 import meteordevelopment.meteorclient.utils.player.PlayerUtils;
@@ -45,6 +46,9 @@ import java.util.Set;
 import java.util.function.Predicate;
 
 public class KillAura extends Module {
+    // Enough to cover the distance from the position to any point of the largest vanilla hitbox
+    private static final double HITBOX_MARGIN = 16;
+
     private final SettingGroup sgGeneral = settings.getDefaultGroup();
     private final SettingGroup sgTargeting = settings.createGroup("Targeting");
     private final SettingGroup sgTiming = settings.createGroup("Timing");
@@ -237,6 +241,8 @@ public class KillAura extends Module {
 
     public KillAura() {
         super(Categories.Combat, "kill-aura", "Attacks specified entities around you.");
+
+        PacketListeners.onSend(this, UpdateSelectedSlotC2SPacket.class, this::onUpdateSelectedSlot);
     }
 
     @Override
@@ -263,7 +269,8 @@ public class KillAura extends Module {
             targets.add(mc.targetedEntity);
         } else {
             targets.clear();
-            TargetUtils.getList(targets, this::entityCheck, priority.get(), maxTargets.get());
+            // Entity positions are at the bottom of their hitbox, widen the search so large hitboxes in range are included
+            TargetUtils.getList(targets, range.get() + HITBOX_MARGIN, this::entityCheck, priority.get(), maxTargets.get());
         }
 
         if (targets.isEmpty()) {
@@ -308,11 +315,8 @@ public class KillAura extends Module {
         if (delayCheck()) targets.forEach(this::attack);
     }
 
-    @EventHandler
-    private void onSendPacket(PacketEvent.Send event) {
-        if (event.packet instanceof UpdateSelectedSlotC2SPacket) {
-            switchTimer = switchDelay.get();
-        }
+    private void onUpdateSelectedSlot(PacketEvent.Send event, UpdateSelectedSlotC2SPacket packet) {
+        switchTimer = switchDelay.get();
     }
 
     private boolean shouldShieldBreak() {
@@ -14,6 +14,7 @@ import meteordevelopment.meteorclient.settings.*;
 import meteordevelopment.meteorclient.systems.modules.Categories;
 import meteordevelopment.meteorclient.systems.modules.Module;
 import meteordevelopment.meteorclient.utils.entity.DamageUtils;
+import meteordevelopment.meteorclient.utils.network.PacketListeners;
 import meteordevelopment.meteorclient.utils.player.*;
 import meteordevelopment.meteorclient.utils.render.color.Color;
 import meteordevelopment.meteorclient.utils.render.color.SettingColor;
@@ -227,6 +228,8 @@ public class Surround extends Module {
 
     public Surround() {
         super(Categories.Combat, "surround", "Surrounds you in blocks to prevent massive crystal damage.");
+
+        PacketListeners.onReceive(this, DeathMessageS2CPacket.class, this::onDeathMessage);
     }
 
     // Render
@@ -394,14 +397,11 @@ public class Surround extends Module {
         return placed;
     }
 
-    @EventHandler
-    private void onPacketReceive(PacketEvent.Receive event)  {
-        if (event.packet instanceof DeathMessageS2CPacket packet) {
-            Entity entity = mc.world.getEntityById(packet.playerId());
-            if (entity == mc.player && toggleOnDeath.get()) {
-                toggle();
-                info("Toggled off because you died.");
-            }
+    private void onDeathMessage(PacketEvent.Receive event, DeathMessageS2CPacket packet) {
+        Entity entity = mc.world.getEntityById(packet.playerId());
+        if (entity == mc.player && toggleOnDeath.get()) {
+            toggle();
+            info("Toggled off because you died.");
         }
     }
 
@@ -16,6 +16,7 @@ import meteordevelopment.meteorclient.systems.modules.Module;
 import meteordevelopment.meteorclient.systems.modules.Modules;
 import meteordevelopment.meteorclient.utils.Utils;
 import meteordevelopment.meteorclient.utils.entity.DamageUtils;
+import meteordevelopment.meteorclient.utils.entity.EntityIndex;
 import meteordevelopment.meteorclient.utils.player.PlayerUtils;
 import meteordevelopment.orbit.EventHandler;
 import net.minecraft.entity.Entity;
@@ -27,6 +28,8 @@ import net.minecraft.text.Text;
 import net.minecraft.util.Colors;
 import net.minecraft.util.Formatting;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 
 public class AutoLog extends Module {
@@ -125,6 +128,7 @@ public class AutoLog extends Module {
 
     //Declaring variables outside the loop for better efficiency
     private final Object2IntMap<EntityType<?>> entityCounts = new Object2IntOpenHashMap<>();
+    private final List<Entity> entitiesInRange = new ArrayList<>();
 
     public AutoLog() {
         super(Categories.Combat, "auto-log", "Automatically disconnects you when certain requirements are met.");
@@ -155,15 +159,15 @@ public class AutoLog extends Module {
         if (!onlyTrusted.get() && !instantDeath.get() && entities.get().isEmpty())
             return; // only check all entities if needed
 
-        for (Entity entity : mc.world.getEntities()) {
-            if (entity instanceof PlayerEntity player && player.getUuid() != mc.player.getUuid()) {
+        for (PlayerEntity player : EntityIndex.getEntities(PlayerEntity.class)) {
+            if (player.getUuid() != mc.player.getUuid()) {
                 if (onlyTrusted.get() && player != mc.player && !Friends.get().isFriend(player)) {
                     disconnect(Text.literal("Non-trusted player '" + Formatting.RED + player.getName().getString() + Formatting.WHITE + "' appeared in your render distance."));
                     if (toggleOff.get()) this.toggle();
                     return;
                 }
 
-                if (instantDeath.get() && PlayerUtils.isWithin(entity, 8) && DamageUtils.getAttackDamage(player, mc.player)
+                if (instantDeath.get() && PlayerUtils.isWithin(player, 8) && DamageUtils.getAttackDamage(player, mc.player)
                     > playerHealth + mc.player.getAbsorptionAmount()) {
                     disconnect("Anti-32k measures.");
                     if (toggleOff.get()) this.toggle();
@@ -179,8 +183,10 @@ public class AutoLog extends Module {
             entityCounts.clear();
 
             // Iterate through all entities in the world and count the ones that match the selected types and are within range
-            for (Entity entity : mc.world.getEntities()) {
-                if (PlayerUtils.isWithin(entity, range.get()) && entities.get().contains(entity.getType())) {
+            entitiesInRange.clear();
+
+            for (Entity entity : EntityIndex.getInRange(mc.player.getX(), mc.player.getY(), mc.player.getZ(), range.get(), Entity.class, entitiesInRange)) {
+                if (entities.get().contains(entity.getType())) {
                     totalEntities++;
                     if (!useTotalCount.get()) {
                         entityCounts.put(entity.getType(), entityCounts.getOrDefault(entity.getType(), 0) + 1);
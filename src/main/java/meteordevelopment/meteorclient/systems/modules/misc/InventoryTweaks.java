@@ -21,6 +21,7 @@ import meteordevelopment.meteorclient.utils.Utils;
 import meteordevelopment.meteorclient.utils.misc.Keybind;
 import meteordevelopment.meteorclient.utils.misc.input.KeyAction;
 import meteordevelopment.meteorclient.utils.network.MeteorExecutor;
+import meteordevelopment.meteorclient.utils.network.PacketListeners;
 import meteordevelopment.meteorclient.utils.player.*;
 import meteordevelopment.orbit.EventHandler;
 import net.minecraft.client.gui.screen.ingame.HandledScreen;
@@ -236,6 +237,8 @@ public class InventoryTweaks extends Module {
 
     public InventoryTweaks() {
         super(Categories.Misc, "inventory-tweaks", "Various inventory related utilities.");
+
+        PacketListeners.onSend(this, CloseHandledScreenC2SPacket.class, this::onCloseHandledScreen);
     }
 
     @Override
@@ -323,11 +326,10 @@ public class InventoryTweaks extends Module {
 
     // XCarry
 
-    @EventHandler
-    private void onSendPacket(PacketEvent.Send event) {
-        if (!xCarry.get() || !(event.packet instanceof CloseHandledScreenC2SPacket)) return;
+    private void onCloseHandledScreen(PacketEvent.Send event, CloseHandledScreenC2SPacket packet) {
+        if (!xCarry.get()) return;
 
-        if (((CloseHandledScreenC2SPacketAccessor) event.packet).getSyncId() == mc.player.playerScreenHandler.syncId) {
+        if (((CloseHandledScreenC2SPacketAccessor) packet).getSyncId() == mc.player.playerScreenHandler.syncId) {
             invOpened = true;
             event.cancel();
         }
@@ -18,6 +18,7 @@ import meteordevelopment.meteorclient.systems.friends.Friends;
 import meteordevelopment.meteorclient.systems.modules.Categories;
 import meteordevelopment.meteorclient.systems.modules.Module;
 import meteordevelopment.meteorclient.utils.entity.fakeplayer.FakePlayerEntity;
+import meteordevelopment.meteorclient.utils.network.PacketListeners;
 import meteordevelopment.meteorclient.utils.player.ChatUtils;
 import meteordevelopment.meteorclient.utils.player.PlayerUtils;
 import meteordevelopment.orbit.EventHandler;
@@ -198,6 +199,10 @@ public class Notifier extends Module {
 
     public Notifier() {
         super(Categories.Misc, "notifier", "Notifies you of different events.");
+
+        PacketListeners.onReceive(this, PlayerListS2CPacket.class, this::onPlayerList);
+        PacketListeners.onReceive(this, PlayerRemoveS2CPacket.class, this::onPlayerRemove);
+        PacketListeners.onReceive(this, EntityStatusS2CPacket.class, this::onEntityStatus);
     }
 
     // Visual Range
@@ -290,39 +295,41 @@ public class Notifier extends Module {
         loginPacket = true;
     }
 
-    @EventHandler
-    private void onReceivePacket(PacketEvent.Receive event) {
-        switch (event.packet) {
-            case PlayerListS2CPacket packet when joinsLeavesMode.get().equals(JoinLeaveModes.Both) || joinsLeavesMode.get().equals(JoinLeaveModes.Joins) -> {
-                if (loginPacket) {
-                    loginPacket = false;
-                    return;
-                }
+    private void onPlayerList(PacketEvent.Receive event, PlayerListS2CPacket packet) {
+        if (!joinsLeavesMode.get().equals(JoinLeaveModes.Both) && !joinsLeavesMode.get().equals(JoinLeaveModes.Joins)) return;
 
-                if (packet.getActions().contains(PlayerListS2CPacket.Action.ADD_PLAYER)) {
-                    createJoinNotifications(packet);
-                }
-            }
-            case PlayerRemoveS2CPacket packet when joinsLeavesMode.get().equals(JoinLeaveModes.Both) || joinsLeavesMode.get().equals(JoinLeaveModes.Leaves) ->
-                createLeaveNotification(packet);
+        if (loginPacket) {
+            loginPacket = false;
+            return;
+        }
+
+        if (packet.getActions().contains(PlayerListS2CPacket.Action.ADD_PLAYER)) {
+            createJoinNotifications(packet);
+        }
+    }
 
-            case EntityStatusS2CPacket packet when totemPops.get() && packet.getStatus() == 35 && packet.getEntity(mc.world) instanceof PlayerEntity entity -> {
-                if ((entity.equals(mc.player) && totemsIgnoreOwn.get())
-                    || (Friends.get().isFriend(entity) && totemsIgnoreOthers.get())
-                    || (!Friends.get().isFriend(entity) && totemsIgnoreFriends.get())
-                ) return;
+    private void onPlayerRemove(PacketEvent.Receive event, PlayerRemoveS2CPacket packet) {
+        if (joinsLeavesMode.get().equals(JoinLeaveModes.Both) || joinsLeavesMode.get().equals(JoinLeaveModes.Leaves)) {
+            createLeaveNotification(packet);
+        }
+    }
 
-                synchronized (totemPopMap) {
-                    int pops = totemPopMap.getOrDefault(entity.getUuid(), 0);
-                    totemPopMap.put(entity.getUuid(), ++pops);
+    private void onEntityStatus(PacketEvent.Receive event, EntityStatusS2CPacket packet) {
+        if (!totemPops.get() || packet.getStatus() != 35 || !(packet.getEntity(mc.world) instanceof PlayerEntity entity)) return;
 
-                    double distance = PlayerUtils.distanceTo(entity);
-                    if (totemsDistanceCheck.get() && distance > totemsDistance.get()) return;
+        if ((entity.equals(mc.player) && totemsIgnoreOwn.get())
+            || (Friends.get().isFriend(entity) && totemsIgnoreOthers.get())
+            || (!Friends.get().isFriend(entity) && totemsIgnoreFriends.get())
+        ) return;
 
-                    ChatUtils.sendMsg(getChatId(entity), Formatting.GRAY, "(highlight)%s (default)popped (highlight)%d (default)%s.", entity.getName().getString(), pops, pops == 1 ? "totem" : "totems");
-                }
-            }
-            default -> {}
+        synchronized (totemPopMap) {
+            int pops = totemPopMap.getOrDefault(entity.getUuid(), 0);
+            totemPopMap.put(entity.getUuid(), ++pops);
+
+            double distance = PlayerUtils.distanceTo(entity);
+            if (totemsDistanceCheck.get() && distance > totemsDistance.get()) return;
+
+            ChatUtils.sendMsg(getChatId(entity), Formatting.GRAY, "(highlight)%s (default)popped (highlight)%d (default)%s.", entity.getName().getString(), pops, pops == 1 ? "totem" : "totems");
         }
     }
 
@@ -12,6 +12,7 @@ import meteordevelopment.meteorclient.systems.modules.Categories;
 import meteordevelopment.meteorclient.systems.modules.Module;
 import meteordevelopment.meteorclient.utils.Utils;
 import meteordevelopment.meteorclient.utils.misc.text.RunnableClickEvent;
+import meteordevelopment.meteorclient.utils.network.PacketListeners;
 import meteordevelopment.orbit.EventHandler;
 import net.minecraft.network.packet.BrandCustomPayload;
 import net.minecraft.network.packet.c2s.common.CustomPayloadC2SPacket;
@@ -78,41 +79,40 @@ public class ServerSpoof extends Module {
         super(Categories.Misc, "server-spoof", "Spoof client brand, resource pack and channels.");
 
         runInMainMenu = true;
+
+        PacketListeners.onSend(this, CustomPayloadC2SPacket.class, this::onCustomPayload);
+        PacketListeners.onSend(this, ResourcePackStatusC2SPacket.class, this::onResourcePackStatus);
+        PacketListeners.onReceive(this, ResourcePackSendS2CPacket.class, this::onResourcePackSend);
     }
 
-    @EventHandler
-    private void onPacketSend(PacketEvent.Send event) {
-        if (!isActive()) return;
-
-        if (event.packet instanceof CustomPayloadC2SPacket) {
-            Identifier id = ((CustomPayloadC2SPacket) event.packet).payload().getId().id();
-
-            if (blockChannels.get()) {
-                for (String channel : channels.get()) {
-                    if (StringUtils.containsIgnoreCase(id.toString(), channel)) {
-                        event.cancel();
-                        return;
-                    }
+    private void onCustomPayload(PacketEvent.Send event, CustomPayloadC2SPacket packet) {
+        Identifier id = packet.payload().getId().id();
+
+        if (blockChannels.get()) {
+            for (String channel : channels.get()) {
+                if (StringUtils.containsIgnoreCase(id.toString(), channel)) {
+                    event.cancel();
+                    return;
                 }
             }
+        }
 
-            if (spoofBrand.get() && id.equals(BrandCustomPayload.ID.id())) {
-                CustomPayloadC2SPacket spoofedPacket = new CustomPayloadC2SPacket(new BrandCustomPayload(brand.get()));
+        if (spoofBrand.get() && id.equals(BrandCustomPayload.ID.id())) {
+            CustomPayloadC2SPacket spoofedPacket = new CustomPayloadC2SPacket(new BrandCustomPayload(brand.get()));
 
-                // PacketEvent.Send doesn't trigger if we send the packet like this
-                event.connection.send(spoofedPacket, null, true);
-                event.cancel();
-            }
+            // PacketEvent.Send doesn't trigger if we send the packet like this
+            event.connection.send(spoofedPacket, null, true);
+            event.cancel();
         }
+    }
 
+    private void onResourcePackStatus(PacketEvent.Send event, ResourcePackStatusC2SPacket packet) {
         // we want to accept the pack silently to prevent the server detecting you bypassed it when logging in
-        if (silentAcceptResourcePack && event.packet instanceof ResourcePackStatusC2SPacket) event.cancel();
+        if (silentAcceptResourcePack) event.cancel();
     }
 
-    @EventHandler
-    private void onPacketReceive(PacketEvent.Receive event) {
-        if (!isActive() || !resourcePack.get()) return;
-        if (!(event.packet instanceof ResourcePackSendS2CPacket packet)) return;
+    private void onResourcePackSend(PacketEvent.Receive event, ResourcePackSendS2CPacket packet) {
+        if (!resourcePack.get()) return;
 
         event.cancel();
         event.connection.send(new ResourcePackStatusC2SPacket(packet.id(), ResourcePackStatusC2SPacket.Status.ACCEPTED));
@@ -7,57 +7,114 @@ package meteordevelopment.meteorclient.systems.modules.misc.swarm;
 
 import meteordevelopment.meteorclient.utils.player.ChatUtils;
 
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.net.Socket;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
 
-public class SwarmConnection extends Thread {
+/**
+ * Connection from the host to a single worker. Messages are queued and written by a virtual thread that is parked while
+ * the queue is empty, a second virtual thread checks the hello of the worker and then waits for it to close the
+ * connection. Messages are only written once the hello of the worker was accepted.
+ */
+public class SwarmConnection {
     public final Socket socket;
-    public String messageToSend;
 
-    public SwarmConnection(Socket socket) {
+    private final SwarmHost host;
+    private final BlockingQueue<byte[]> queue = new LinkedBlockingQueue<>();
+    private final CountDownLatch hello = new CountDownLatch(1);
+    private volatile Thread writer;
+
+    private boolean closed;
+
+    public SwarmConnection(SwarmHost host, Socket socket) {
+        this.host = host;
         this.socket = socket;
-        start();
     }
 
-    @Override
-    public void run() {
+    public void start() {
         ChatUtils.infoPrefix("Swarm", "New worker connected on %s.", getIp(socket.getInetAddress().getHostAddress()));
 
+        writer = Thread.ofVirtual().name("Meteor-Swarm-Writer-" + getConnection()).start(this::write);
+        Thread.ofVirtual().name("Meteor-Swarm-Reader-" + getConnection()).start(this::read);
+    }
+
+    /** Queues an encoded {@link SwarmProtocol} frame. */
+    public void send(byte[] frame) {
+        queue.add(frame);
+    }
+
+    private void write() {
         try {
-            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
-
-            while (!isInterrupted()) {
-                if (messageToSend != null) {
-                    try {
-                        out.writeUTF(messageToSend);
-                        out.flush();
-                    } catch (Exception e) {
-                        ChatUtils.errorPrefix("Swarm", "Encountered error when sending command.");
-                        e.printStackTrace();
-                    }
-
-                    messageToSend = null;
-                }
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+
+            SwarmProtocol.writeHello(out);
+            hello.await();
+
+            while (!isClosed()) {
+                byte[] frame = queue.take();
+                out.write(frame);
+
+                // Write everything else that was queued in the meantime before flushing
+                while ((frame = queue.poll()) != null) out.write(frame);
+
+                out.flush();
+            }
+        } catch (InterruptedException ignored) {
+        } catch (IOException e) {
+            if (!isClosed()) {
+                ChatUtils.errorPrefix("Swarm", "Encountered error when sending command.");
+                e.printStackTrace();
+                disconnect();
             }
+        }
+    }
+
+    private void read() {
+        try {
+            DataInputStream in = new DataInputStream(socket.getInputStream());
 
-            out.close();
+            socket.setSoTimeout(SwarmProtocol.HELLO_TIMEOUT);
+            SwarmProtocol.readHello(in);
+            socket.setSoTimeout(0);
+            hello.countDown();
+
+            // Workers do not send anything else, this only waits until the connection is closed
+            while (in.read() != -1);
         } catch (IOException e) {
-            ChatUtils.infoPrefix("Swarm", "Error creating a connection with %s on port %s.", getIp(socket.getInetAddress().getHostAddress()), socket.getPort());
-            e.printStackTrace();
+            if (hello.getCount() > 0 && !isClosed()) {
+                ChatUtils.errorPrefix("Swarm", "Worker on %s uses an incompatible swarm version, update Meteor on both clients. (%s)", getConnection(), e.getMessage());
+            }
         }
+
+        disconnect();
     }
 
     public void disconnect() {
+        synchronized (this) {
+            if (closed) return;
+            closed = true;
+        }
+
+        if (writer != null) writer.interrupt();
+
         try {
             socket.close();
         } catch (IOException e) {
             e.printStackTrace();
         }
 
+        host.remove(this);
+
         ChatUtils.infoPrefix("Swarm", "Worker disconnected on ip: %s.", socket.getInetAddress().getHostAddress());
+    }
 
-        interrupt();
+    public synchronized boolean isClosed() {
+        return closed;
     }
 
     public String getConnection() {
@@ -5,16 +5,18 @@
 
 package meteordevelopment.meteorclient.systems.modules.misc.swarm;
 
-import meteordevelopment.meteorclient.utils.network.MeteorExecutor;
 import meteordevelopment.meteorclient.utils.player.ChatUtils;
 
 import java.io.IOException;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class SwarmHost extends Thread {
     private ServerSocket socket;
-    private final SwarmConnection[] clientConnections = new SwarmConnection[50];
+    private final List<SwarmConnection> clientConnections = new CopyOnWriteArrayList<>();
 
     public SwarmHost(int port) {
         try {
@@ -25,7 +27,11 @@ public class SwarmHost extends Thread {
             e.printStackTrace();
         }
 
-        if (socket != null) start();
+        if (socket != null) {
+            setName("Meteor-Swarm-Host");
+            setDaemon(true);
+            start();
+        }
     }
 
     @Override
@@ -35,26 +41,29 @@ public class SwarmHost extends Thread {
         while (!isInterrupted()) {
             try {
                 Socket connection = socket.accept();
-                assignConnectionToSubServer(connection);
+                connection.setTcpNoDelay(true);
+
+                SwarmConnection clientConnection = new SwarmConnection(this, connection);
+                clientConnections.add(clientConnection);
+                clientConnection.start();
             } catch (IOException e) {
+                if (socket.isClosed()) break;
+
                 ChatUtils.errorPrefix("Swarm", "Error making a connection to worker.");
                 e.printStackTrace();
             }
         }
     }
 
-    public void assignConnectionToSubServer(Socket connection) {
-        for (int i = 0; i < clientConnections.length; i++) {
-            if (this.clientConnections[i] == null) {
-                this.clientConnections[i] = new SwarmConnection(connection);
-                break;
-            }
-        }
+    void remove(SwarmConnection connection) {
+        clientConnections.remove(connection);
     }
 
     public void disconnect() {
+        interrupt();
+
         for (SwarmConnection connection : clientConnections) {
-            if (connection != null) connection.disconnect();
+            connection.disconnect();
         }
 
         try {
@@ -64,31 +73,22 @@ public class SwarmHost extends Thread {
         }
 
         ChatUtils.infoPrefix("Swarm", "Server closed on port %s.", socket.getLocalPort());
-
-        interrupt();
     }
 
+    /** Sends the message to every connected worker, it is encoded once and queued on each connection. */
     public void sendMessage(String s) {
-        MeteorExecutor.execute(() -> {
-            for (SwarmConnection connection : clientConnections) {
-                if (connection != null) {
-                    connection.messageToSend = s;
-                }
-            }
-        });
+        byte[] frame = SwarmProtocol.encode(s);
+
+        for (SwarmConnection connection : clientConnections) {
+            connection.send(frame);
+        }
     }
 
-    public SwarmConnection[] getConnections() {
-        return clientConnections;
+    public List<SwarmConnection> getConnections() {
+        return Collections.unmodifiableList(clientConnections);
     }
 
     public int getConnectionCount() {
-        int count = 0;
-
-        for (SwarmConnection clientConnection : clientConnections) {
-            if (clientConnection != null) count++;
-        }
-
-        return count;
+        return clientConnections.size();
     }
 }
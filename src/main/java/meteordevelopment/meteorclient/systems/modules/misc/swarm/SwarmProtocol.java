@@ -0,0 +1,67 @@
+/*
+ * This file is part of the Meteor Client distribution (https://github.com/MeteorDevelopment/meteor-client).
+ * Copyright (c) Meteor Development.
+ */
+
+package meteordevelopment.meteorclient.systems.modules.misc.swarm;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Swarm messages are sent as a 4 byte big endian length followed by that many bytes of UTF-8 text.
+ * <p>
+ * Right after connecting the host and the worker both send a hello made of {@link #MAGIC} and {@link #VERSION} and
+ * check the one they receive, a client with a different protocol is disconnected with an error instead of having its
+ * messages misread. Clients from before version 2 wrote messages with {@link DataOutputStream#writeUTF(String)} and do
+ * not send a hello, so they can not be used together with newer ones.
+ */
+public class SwarmProtocol {
+    public static final int MAGIC = 0x4D535752; // MSWR
+    public static final int VERSION = 2;
+
+    /** Milliseconds to wait for the hello of the other side, clients from before version 2 never send one. */
+    public static final int HELLO_TIMEOUT = 5000;
+
+    public static final int MAX_MESSAGE_LENGTH = 1 << 20;
+
+    private SwarmProtocol() {
+    }
+
+    public static void writeHello(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.flush();
+    }
+
+    /** Blocks until the hello of the other side was read, throws if it uses a different protocol. */
+    public static void readHello(DataInputStream in) throws IOException {
+        int magic = in.readInt();
+        if (magic != MAGIC) throw new IOException("Not a swarm client or a client from before protocol version 2.");
+
+        int version = in.readInt();
+        if (version != VERSION) throw new IOException("Swarm protocol version " + version + " is not supported, expected " + VERSION + ".");
+    }
+
+    /** Encodes a message into a frame that can be written as is to any number of connections. */
+    public static byte[] encode(String message) {
+        byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_MESSAGE_LENGTH) throw new IllegalArgumentException("Swarm message is too long (" + bytes.length + " bytes).");
+
+        return ByteBuffer.allocate(4 + bytes.length).putInt(bytes.length).put(bytes).array();
+    }
+
+    /** Blocks until a whole message was read. */
+    public static String read(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > MAX_MESSAGE_LENGTH) throw new IOException("Invalid swarm message length " + length + ".");
+
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -10,7 +10,9 @@ import meteordevelopment.meteorclient.pathing.PathManagers;
 import meteordevelopment.meteorclient.utils.player.ChatUtils;
 import net.minecraft.block.Block;
 
+import java.io.BufferedInputStream;
 import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.net.Socket;
 
@@ -27,7 +29,11 @@ public class SwarmWorker extends Thread {
             e.printStackTrace();
         }
 
-        if (socket != null) start();
+        if (socket != null) {
+            setName("Meteor-Swarm-Worker");
+            setDaemon(true);
+            start();
+        }
     }
 
     @Override
@@ -35,11 +41,24 @@ public class SwarmWorker extends Thread {
         ChatUtils.infoPrefix("Swarm", "Connected to Swarm host on at %s on port %s.", getIp(socket.getInetAddress().getHostAddress()), socket.getPort());
 
         try {
-            DataInputStream in = new DataInputStream(socket.getInputStream());
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+
+            SwarmProtocol.writeHello(new DataOutputStream(socket.getOutputStream()));
 
+            try {
+                socket.setSoTimeout(SwarmProtocol.HELLO_TIMEOUT);
+                SwarmProtocol.readHello(in);
+                socket.setSoTimeout(0);
+            } catch (IOException e) {
+                if (isInterrupted()) return;
+
+                ChatUtils.errorPrefix("Swarm", "Host uses an incompatible swarm version, update Meteor on both clients. (%s)", e.getMessage());
+                disconnect();
+                return;
+            }
 
             while (!isInterrupted()) {
-                String read = in.readUTF();
+                String read = SwarmProtocol.read(in);
 
                 if (read.startsWith("swarm")) {
                     ChatUtils.infoPrefix("Swarm", "Received command: (highlight)%s", read);
@@ -55,6 +74,9 @@ public class SwarmWorker extends Thread {
 
             in.close();
         } catch (IOException e) {
+            // Closed by disconnect()
+            if (isInterrupted()) return;
+
             ChatUtils.errorPrefix("Swarm", "Error in connection to host.");
             e.printStackTrace();
             disconnect();
@@ -62,6 +84,8 @@ public class SwarmWorker extends Thread {
     }
 
     public void disconnect() {
+        interrupt();
+
         try {
             socket.close();
         } catch (IOException e) {
@@ -71,8 +95,6 @@ public class SwarmWorker extends Thread {
         PathManagers.get().stop();
 
         ChatUtils.infoPrefix("Swarm", "Disconnected from host.");
-
-        interrupt();
     }
 
     public void tick() {
@@ -16,6 +16,7 @@ import meteordevelopment.meteorclient.systems.modules.Module;
 import meteordevelopment.meteorclient.utils.Utils;
 import meteordevelopment.meteorclient.utils.entity.fakeplayer.FakePlayerEntity;
 import meteordevelopment.meteorclient.utils.misc.Keybind;
+import meteordevelopment.meteorclient.utils.network.PacketListeners;
 import meteordevelopment.orbit.EventHandler;
 import net.minecraft.network.packet.c2s.play.PlayerMoveC2SPacket;
 import org.joml.Vector3d;
@@ -54,6 +55,8 @@ public class Blink extends Module {
 
     public Blink() {
         super(Categories.Movement, "blink", "Allows you to essentially teleport while suspending motion updates.");
+
+        PacketListeners.onSend(this, PlayerMoveC2SPacket.class, this::onPlayerMove);
     }
 
     @Override
@@ -80,9 +83,7 @@ public class Blink extends Module {
         timer++;
     }
 
-    @EventHandler
-    private void onSendPacket(PacketEvent.Send event) {
-        if (!(event.packet instanceof PlayerMoveC2SPacket p)) return;
+    private void onPlayerMove(PacketEvent.Send event, PlayerMoveC2SPacket p) {
         event.cancel();
 
         PlayerMoveC2SPacket prev = packets.isEmpty() ? null : packets.getLast();
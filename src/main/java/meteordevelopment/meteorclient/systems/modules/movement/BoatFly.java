@@ -14,6 +14,7 @@ import meteordevelopment.meteorclient.settings.Setting;
 import meteordevelopment.meteorclient.settings.SettingGroup;
 import meteordevelopment.meteorclient.systems.modules.Categories;
 import meteordevelopment.meteorclient.systems.modules.Module;
+import meteordevelopment.meteorclient.utils.network.PacketListeners;
 import meteordevelopment.meteorclient.utils.player.PlayerUtils;
 import meteordevelopment.orbit.EventHandler;
 import net.minecraft.network.packet.s2c.play.VehicleMoveS2CPacket;
@@ -57,6 +58,8 @@ public class BoatFly extends Module {
 
     public BoatFly() {
         super(Categories.Movement, "boat-fly", "Transforms your boat into a plane.");
+
+        PacketListeners.onReceive(this, VehicleMoveS2CPacket.class, this::onVehicleMove);
     }
 
     @EventHandler
@@ -80,9 +83,8 @@ public class BoatFly extends Module {
         ((IVec3d) event.boat.getVelocity()).meteor$set(velX, velY, velZ);
     }
 
-    @EventHandler
-    private void onReceivePacket(PacketEvent.Receive event) {
-        if (event.packet instanceof VehicleMoveS2CPacket && cancelServerPackets.get()) {
+    private void onVehicleMove(PacketEvent.Receive event, VehicleMoveS2CPacket packet) {
+        if (cancelServerPackets.get()) {
             event.cancel();
         }
     }
@@ -16,6 +16,7 @@ import meteordevelopment.meteorclient.settings.SettingGroup;
 import meteordevelopment.meteorclient.systems.modules.Categories;
 import meteordevelopment.meteorclient.systems.modules.Module;
 import meteordevelopment.meteorclient.utils.Utils;
+import meteordevelopment.meteorclient.utils.entity.EntityIndex;
 import meteordevelopment.orbit.EventHandler;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.passive.AbstractHorseEntity;
@@ -38,14 +39,14 @@ public class EntityControl extends Module {
     public void onDeactivate() {
         if (!Utils.canUpdate() || mc.world.getEntities() == null) return;
 
-        for (Entity entity : mc.world.getEntities()) {
+        for (Entity entity : EntityIndex.getEntities()) {
             if (entity instanceof AbstractHorseEntity) ((IHorseBaseEntity) entity).meteor$setSaddled(false);
         }
     }
 
     @EventHandler
     private void onTick(TickEvent.Pre event) {
-        for (Entity entity : mc.world.getEntities()) {
+        for (Entity entity : EntityIndex.getEntities()) {
             if (entity instanceof AbstractHorseEntity) ((IHorseBaseEntity) entity).meteor$setSaddled(true);
         }
 
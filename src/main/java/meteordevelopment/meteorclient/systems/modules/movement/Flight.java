@@ -13,6 +13,7 @@ import meteordevelopment.meteorclient.settings.*;
 import meteordevelopment.meteorclient.systems.modules.Categories;
 import meteordevelopment.meteorclient.systems.modules.Module;
 import meteordevelopment.meteorclient.utils.Utils;
+import meteordevelopment.meteorclient.utils.network.PacketListeners;
 import meteordevelopment.orbit.EventHandler;
 import net.minecraft.block.AbstractBlock;
 import net.minecraft.entity.Entity;
@@ -92,6 +93,8 @@ public class Flight extends Module {
 
     public Flight() {
         super(Categories.Movement, "flight", "FLYYYY! No Fall is recommended with this module.");
+
+        PacketListeners.onSend(this, PlayerMoveC2SPacket.class, this::onPlayerMove);
     }
 
     @Override
@@ -191,9 +194,8 @@ public class Flight extends Module {
     /**
      * @see ServerPlayNetworkHandler#onPlayerMove(PlayerMoveC2SPacket)
      */
-    @EventHandler
-    private void onSendPacket(PacketEvent.Send event) {
-        if (!(event.packet instanceof PlayerMoveC2SPacket packet) || antiKickMode.get() != AntiKickMode.Packet) return;
+    private void onPlayerMove(PacketEvent.Send event, PlayerMoveC2SPacket packet) {
+        if (antiKickMode.get() != AntiKickMode.Packet) return;
 
         double currentY = packet.getY(Double.MAX_VALUE);
         if (currentY != Double.MAX_VALUE) {
@@ -15,6 +15,7 @@ import meteordevelopment.meteorclient.systems.modules.Module;
 import meteordevelopment.meteorclient.systems.modules.Modules;
 import meteordevelopment.meteorclient.systems.modules.world.Timer;
 import meteordevelopment.meteorclient.utils.Utils;
+import meteordevelopment.meteorclient.utils.network.PacketListeners;
 import meteordevelopment.meteorclient.utils.player.PlayerUtils;
 import meteordevelopment.orbit.EventHandler;
 import net.minecraft.entity.effect.StatusEffects;
@@ -112,6 +113,8 @@ public class LongJump extends Module {
 
     public LongJump() {
         super(Categories.Movement, "long-jump", "Allows you to jump further than normal.");
+
+        PacketListeners.onReceive(this, PlayerPositionLookS2CPacket.class, this::onRubberband);
     }
 
     private int stage;
@@ -134,9 +137,8 @@ public class LongJump extends Module {
         Modules.get().get(Timer.class).setOverride(Timer.OFF);
     }
 
-    @EventHandler
-    private void onPacketReceive(PacketEvent.Receive event) {
-        if (event.packet instanceof PlayerPositionLookS2CPacket && disableOnRubberband.get()) {
+    private void onRubberband(PacketEvent.Receive event, PlayerPositionLookS2CPacket packet) {
+        if (disableOnRubberband.get()) {
             info("Rubberband detected! Disabling...");
             toggle();
         }
@@ -19,6 +19,7 @@ import meteordevelopment.meteorclient.systems.modules.Categories;
 import meteordevelopment.meteorclient.systems.modules.Module;
 import meteordevelopment.meteorclient.systems.modules.Modules;
 import meteordevelopment.meteorclient.utils.entity.EntityUtils;
+import meteordevelopment.meteorclient.utils.network.PacketListeners;
 import meteordevelopment.meteorclient.utils.player.FindItemResult;
 import meteordevelopment.meteorclient.utils.player.InvUtils;
 import meteordevelopment.meteorclient.utils.player.PlayerUtils;
@@ -87,6 +88,8 @@ public class NoFall extends Module {
 
     public NoFall() {
         super(Categories.Movement, "no-fall", "Attempts to prevent you from taking fall damage.");
+
+        PacketListeners.onSend(this, PlayerMoveC2SPacket.class, this::onPlayerMove);
     }
 
     @Override
@@ -102,20 +105,18 @@ public class NoFall extends Module {
         PathManagers.get().getSettings().getNoFall().set(prePathManagerNoFall);
     }
 
-    @EventHandler
-    private void onSendPacket(PacketEvent.Send event) {
+    private void onPlayerMove(PacketEvent.Send event, PlayerMoveC2SPacket packet) {
         if (mc.player.getAbilities().creativeMode
-            || !(event.packet instanceof PlayerMoveC2SPacket)
             || mode.get() != Mode.Packet
-            || ((IPlayerMoveC2SPacket) event.packet).meteor$getTag() == 1337) return;
+            || ((IPlayerMoveC2SPacket) packet).meteor$getTag() == 1337) return;
 
 
         if (!Modules.get().isActive(Flight.class)) {
             if (mc.player.isGliding()) return;
             if (mc.player.getVelocity().y > -0.5) return;
-            ((PlayerMoveC2SPacketAccessor) event.packet).setOnGround(true);
+            ((PlayerMoveC2SPacketAccessor) packet).setOnGround(true);
         } else {
-            ((PlayerMoveC2SPacketAccessor) event.packet).setOnGround(true);
+            ((PlayerMoveC2SPacketAccessor) packet).setOnGround(true);
         }
     }
 
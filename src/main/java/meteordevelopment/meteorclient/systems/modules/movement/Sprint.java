@@ -16,6 +16,7 @@ import meteordevelopment.meteorclient.settings.SettingGroup;
 import meteordevelopment.meteorclient.systems.modules.Categories;
 import meteordevelopment.meteorclient.systems.modules.Module;
 import meteordevelopment.meteorclient.systems.modules.Modules;
+import meteordevelopment.meteorclient.utils.network.PacketListeners;
 import meteordevelopment.orbit.EventHandler;
 import meteordevelopment.orbit.EventPriority;
 import net.minecraft.network.packet.c2s.play.ClientCommandC2SPacket;
@@ -67,6 +68,8 @@ public class Sprint extends Module {
 
     public Sprint() {
         super(Categories.Movement, "sprint", "Automatically sprints.");
+
+        PacketListeners.onSent(this, PlayerInteractEntityC2SPacket.class, this::onInteractEntity);
     }
 
     @Override
@@ -87,10 +90,9 @@ public class Sprint extends Module {
         mc.player.setSprinting(false);
     }
 
-    @EventHandler
-    private void onPacketSent(PacketEvent.Sent event) {
+    private void onInteractEntity(PacketEvent.Sent event, PlayerInteractEntityC2SPacket packet) {
         if (!unsprintOnHit.get() || !keepSprint.get()) return;
-        if (!(event.packet instanceof IPlayerInteractEntityC2SPacket packet) || packet.meteor$getType() != PlayerInteractEntityC2SPacket.InteractType.ATTACK) return;
+        if (((IPlayerInteractEntityC2SPacket) packet).meteor$getType() != PlayerInteractEntityC2SPacket.InteractType.ATTACK) return;
 
         if (shouldSprint() && !mc.player.isSprinting()) {
             mc.getNetworkHandler().sendPacket(new ClientCommandC2SPacket(mc.player, ClientCommandC2SPacket.Mode.START_SPRINTING));
@@ -5,13 +5,13 @@
 
 package meteordevelopment.meteorclient.systems.modules.movement;
 
-import com.google.common.collect.Streams;
 import meteordevelopment.meteorclient.events.world.TickEvent;
 import meteordevelopment.meteorclient.pathing.PathManagers;
 import meteordevelopment.meteorclient.settings.*;
 import meteordevelopment.meteorclient.systems.modules.Categories;
 import meteordevelopment.meteorclient.systems.modules.Module;
 import meteordevelopment.meteorclient.utils.entity.DamageUtils;
+import meteordevelopment.meteorclient.utils.entity.EntityIndex;
 import meteordevelopment.orbit.EventHandler;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.attribute.EntityAttributes;
@@ -93,7 +93,7 @@ public class Step extends Module {
     }
 
     private double getExplosionDamage() {
-        OptionalDouble crystalDamage = Streams.stream(mc.world.getEntities())
+        OptionalDouble crystalDamage = EntityIndex.getEntities().stream()
                 .filter(entity -> entity instanceof EndCrystalEntity)
                 .filter(Entity::isAlive)
                 .mapToDouble(entity -> DamageUtils.crystalDamage(mc.player, entity.getPos()))
@@ -15,6 +15,7 @@ import meteordevelopment.meteorclient.settings.Setting;
 import meteordevelopment.meteorclient.settings.SettingGroup;
 import meteordevelopment.meteorclient.systems.modules.Categories;
 import meteordevelopment.meteorclient.systems.modules.Module;
+import meteordevelopment.meteorclient.utils.network.PacketListeners;
 import meteordevelopment.orbit.EventHandler;
 import net.minecraft.network.packet.s2c.play.EntityVelocityUpdateS2CPacket;
 
@@ -135,6 +136,8 @@ public class Velocity extends Module {
 
     public Velocity() {
         super(Categories.Movement, "velocity", "Prevents you from being moved by external forces.");
+
+        PacketListeners.onReceive(this, EntityVelocityUpdateS2CPacket.class, this::onEntityVelocityUpdate);
     }
 
     @EventHandler
@@ -147,10 +150,8 @@ public class Velocity extends Module {
         }
     }
 
-    @EventHandler
-    private void onPacketReceive(PacketEvent.Receive event) {
-        if (knockback.get() && event.packet instanceof EntityVelocityUpdateS2CPacket packet
-            && packet.getEntityId() == mc.player.getId()) {
+    private void onEntityVelocityUpdate(PacketEvent.Receive event, EntityVelocityUpdateS2CPacket packet) {
+        if (knockback.get() && packet.getEntityId() == mc.player.getId()) {
             double velX = (packet.getVelocityX() / 8000d - mc.player.getVelocity().x) * knockbackHorizontal.get();
             double velY = (packet.getVelocityY() / 8000d - mc.player.getVelocity().y) * knockbackVertical.get();
             double velZ = (packet.getVelocityZ() / 8000d - mc.player.getVelocity().z) * knockbackHorizontal.get();
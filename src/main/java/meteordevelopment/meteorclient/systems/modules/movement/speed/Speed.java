@@ -6,7 +6,6 @@
 package meteordevelopment.meteorclient.systems.modules.movement.speed;
 
 import meteordevelopment.meteorclient.events.entity.player.PlayerMoveEvent;
-import meteordevelopment.meteorclient.events.packets.PacketEvent;
 import meteordevelopment.meteorclient.events.world.TickEvent;
 import meteordevelopment.meteorclient.settings.*;
 import meteordevelopment.meteorclient.systems.modules.Categories;
@@ -15,6 +14,7 @@ import meteordevelopment.meteorclient.systems.modules.Modules;
 import meteordevelopment.meteorclient.systems.modules.movement.speed.modes.Strafe;
 import meteordevelopment.meteorclient.systems.modules.movement.speed.modes.Vanilla;
 import meteordevelopment.meteorclient.systems.modules.world.Timer;
+import meteordevelopment.meteorclient.utils.network.PacketListeners;
 import meteordevelopment.meteorclient.utils.player.PlayerUtils;
 import meteordevelopment.orbit.EventHandler;
 import net.minecraft.entity.MovementType;
@@ -98,6 +98,8 @@ public class Speed extends Module {
         super(Categories.Movement, "speed", "Modifies your movement speed when moving on the ground.");
 
         onSpeedModeChanged(speedMode.get());
+
+        PacketListeners.onReceive(this, PlayerPositionLookS2CPacket.class, (event, packet) -> currentMode.onRubberband());
     }
 
     @Override
@@ -135,11 +137,6 @@ public class Speed extends Module {
         currentMode.onTick();
     }
 
-    @EventHandler
-    private void onPacketReceive(PacketEvent.Receive event) {
-        if (event.packet instanceof PlayerPositionLookS2CPacket) currentMode.onRubberband();
-    }
-
     private void onSpeedModeChanged(SpeedModes mode) {
         switch (mode) {
             case Vanilla -> currentMode = new Vanilla();
@@ -13,6 +13,7 @@ import meteordevelopment.meteorclient.settings.Setting;
 import meteordevelopment.meteorclient.settings.SettingGroup;
 import meteordevelopment.meteorclient.systems.modules.Categories;
 import meteordevelopment.meteorclient.systems.modules.Module;
+import meteordevelopment.meteorclient.utils.network.PacketListeners;
 import meteordevelopment.orbit.EventHandler;
 import net.minecraft.network.packet.c2s.play.ClientCommandC2SPacket;
 import net.minecraft.network.packet.c2s.play.PlayerMoveC2SPacket;
@@ -38,6 +39,9 @@ public class AntiHunger extends Module {
 
     public AntiHunger() {
         super(Categories.Player, "anti-hunger", "Reduces (does NOT remove) hunger consumption.");
+
+        PacketListeners.onSend(this, PlayerMoveC2SPacket.class, this::onPlayerMove);
+        PacketListeners.onSend(this, ClientCommandC2SPacket.class, this::onClientCommand);
     }
 
     @Override
@@ -45,24 +49,25 @@ public class AntiHunger extends Module {
         lastOnGround = mc.player.isOnGround();
     }
 
-    @EventHandler
-    private void onSendPacket(PacketEvent.Send event) {
-        if (ignorePacket && event.packet instanceof PlayerMoveC2SPacket) {
+    private void onPlayerMove(PacketEvent.Send event, PlayerMoveC2SPacket packet) {
+        if (ignorePacket) {
             ignorePacket = false;
             return;
         }
 
         if (mc.player.hasVehicle() || mc.player.isTouchingWater() || mc.player.isSubmergedInWater()) return;
 
-        if (event.packet instanceof ClientCommandC2SPacket packet && sprint.get()) {
-            if (packet.getMode() == ClientCommandC2SPacket.Mode.START_SPRINTING) event.cancel();
-        }
-
-        if (event.packet instanceof PlayerMoveC2SPacket packet && onGround.get() && mc.player.isOnGround() && mc.player.fallDistance <= 0.0 && !mc.interactionManager.isBreakingBlock()) {
+        if (onGround.get() && mc.player.isOnGround() && mc.player.fallDistance <= 0.0 && !mc.interactionManager.isBreakingBlock()) {
             ((PlayerMoveC2SPacketAccessor) packet).setOnGround(false);
         }
     }
 
+    private void onClientCommand(PacketEvent.Send event, ClientCommandC2SPacket packet) {
+        if (mc.player.hasVehicle() || mc.player.isTouchingWater() || mc.player.isSubmergedInWater()) return;
+
+        if (sprint.get() && packet.getMode() == ClientCommandC2SPacket.Mode.START_SPRINTING) event.cancel();
+    }
+
     @EventHandler
     private void onTick(SendMovementPacketsEvent.Pre event) {
         if (mc.player.isOnGround() && !lastOnGround && onGround.get()) {
@@ -19,6 +19,7 @@ import meteordevelopment.meteorclient.systems.friends.Friends;
 import meteordevelopment.meteorclient.systems.modules.Categories;
 import meteordevelopment.meteorclient.systems.modules.Module;
 import meteordevelopment.meteorclient.utils.misc.input.KeyAction;
+import meteordevelopment.meteorclient.utils.network.PacketListeners;
 import meteordevelopment.meteorclient.utils.player.ChatUtils;
 import meteordevelopment.meteorclient.utils.player.FindItemResult;
 import meteordevelopment.meteorclient.utils.player.InvUtils;
@@ -76,6 +77,8 @@ public class MiddleClickExtra extends Module {
 
     public MiddleClickExtra() {
         super(Categories.Player, "middle-click-extra", "Perform various actions when you middle click.");
+
+        PacketListeners.onSend(this, UpdateSelectedSlotC2SPacket.class, this::onUpdateSelectedSlot);
     }
 
     private boolean isUsing;
@@ -144,11 +147,8 @@ public class MiddleClickExtra extends Module {
         mc.options.useKey.setPressed(pressed);
     }
 
-    @EventHandler
-    private void onPacketSendEvent(PacketEvent.Send event) {
-        if (event.packet instanceof UpdateSelectedSlotC2SPacket) {
-            stopIfUsing(true);
-        }
+    private void onUpdateSelectedSlot(PacketEvent.Send event, UpdateSelectedSlotC2SPacket packet) {
+        stopIfUsing(true);
     }
 
     @EventHandler
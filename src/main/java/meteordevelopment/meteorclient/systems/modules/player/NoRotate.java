@@ -8,30 +8,29 @@ package meteordevelopment.meteorclient.systems.modules.player;
 import meteordevelopment.meteorclient.events.packets.PacketEvent;
 import meteordevelopment.meteorclient.systems.modules.Categories;
 import meteordevelopment.meteorclient.systems.modules.Module;
-import meteordevelopment.orbit.EventHandler;
+import meteordevelopment.meteorclient.utils.network.PacketListeners;
 import net.minecraft.entity.player.PlayerPosition;
 import net.minecraft.network.packet.s2c.play.PlayerPositionLookS2CPacket;
 
 public class NoRotate extends Module {
     public NoRotate() {
         super(Categories.Player, "no-rotate", "Attempts to block rotations sent from server to client.");
+
+        PacketListeners.onReceive(this, PlayerPositionLookS2CPacket.class, this::onPlayerPositionLook);
     }
 
-    @EventHandler
-    private void onReceivePacket(PacketEvent.Receive event) {
-        if (event.packet instanceof PlayerPositionLookS2CPacket packet) {
-            PlayerPosition oldPosition = packet.change();
-            PlayerPosition newPosition = new PlayerPosition(
-                oldPosition.position(),
-                oldPosition.deltaMovement(),
-                mc.player.getYaw(),
-                mc.player.getPitch()
-            );
-            event.packet = PlayerPositionLookS2CPacket.of(
-                packet.teleportId(),
-                newPosition,
-                packet.relatives()
-            );
-        }
+    private void onPlayerPositionLook(PacketEvent.Receive event, PlayerPositionLookS2CPacket packet) {
+        PlayerPosition oldPosition = packet.change();
+        PlayerPosition newPosition = new PlayerPosition(
+            oldPosition.position(),
+            oldPosition.deltaMovement(),
+            mc.player.getYaw(),
+            mc.player.getPitch()
+        );
+        event.packet = PlayerPositionLookS2CPacket.of(
+            packet.teleportId(),
+            newPosition,
+            packet.relatives()
+        );
     }
 }
@@ -12,6 +12,7 @@ import meteordevelopment.meteorclient.settings.*;
 import meteordevelopment.meteorclient.systems.modules.Categories;
 import meteordevelopment.meteorclient.systems.modules.Module;
 import meteordevelopment.meteorclient.utils.Utils;
+import meteordevelopment.meteorclient.utils.network.PacketListeners;
 import meteordevelopment.orbit.EventHandler;
 import net.minecraft.block.Block;
 import net.minecraft.entity.effect.StatusEffectInstance;
@@ -85,6 +86,8 @@ public class SpeedMine extends Module {
 
     public SpeedMine() {
         super(Categories.Player, "speed-mine", "Allows you to quickly mine blocks.");
+
+        PacketListeners.onSend(this, PlayerActionC2SPacket.class, this::onPlayerAction);
     }
 
     @Override
@@ -114,12 +117,11 @@ public class SpeedMine extends Module {
         }
     }
 
-    @EventHandler
-    private void onPacket(PacketEvent.Send event) {
+    private void onPlayerAction(PacketEvent.Send event, PlayerActionC2SPacket packet) {
         if (!(mode.get() == Mode.Damage) || !grimBypass.get()) return;
 
         // https://github.com/GrimAnticheat/Grim/issues/1296
-        if (event.packet instanceof PlayerActionC2SPacket packet && packet.getAction() == PlayerActionC2SPacket.Action.STOP_DESTROY_BLOCK) {
+        if (packet.getAction() == PlayerActionC2SPacket.Action.STOP_DESTROY_BLOCK) {
             mc.getNetworkHandler().sendPacket(new PlayerActionC2SPacket(PlayerActionC2SPacket.Action.ABORT_DESTROY_BLOCK, packet.getPos().up(), packet.getDirection()));
         }
     }
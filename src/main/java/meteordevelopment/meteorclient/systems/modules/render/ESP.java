@@ -14,6 +14,7 @@ import meteordevelopment.meteorclient.systems.config.Config;
 import meteordevelopment.meteorclient.systems.friends.Friends;
 import meteordevelopment.meteorclient.systems.modules.Categories;
 import meteordevelopment.meteorclient.systems.modules.Module;
+import meteordevelopment.meteorclient.utils.entity.EntityIndex;
 import meteordevelopment.meteorclient.utils.entity.EntityUtils;
 import meteordevelopment.meteorclient.utils.player.PlayerUtils;
 import meteordevelopment.meteorclient.utils.render.NametagUtils;
@@ -192,7 +193,7 @@ public class ESP extends Module {
 
         count = 0;
 
-        for (Entity entity : mc.world.getEntities()) {
+        for (Entity entity : EntityIndex.getEntities()) {
             if (shouldSkip(entity)) continue;
 
             if (mode.get() == Mode.Box || mode.get() == Mode.Wireframe) drawBoundingBox(event, entity);
@@ -228,7 +229,7 @@ public class ESP extends Module {
         Renderer2D.COLOR.begin();
         count = 0;
 
-        for (Entity entity : mc.world.getEntities()) {
+        for (Entity entity : EntityIndex.getEntities()) {
             if (shouldSkip(entity)) continue;
 
             Box box = entity.getBoundingBox();
@@ -14,6 +14,7 @@ import meteordevelopment.meteorclient.settings.SettingGroup;
 import meteordevelopment.meteorclient.systems.modules.Categories;
 import meteordevelopment.meteorclient.systems.modules.Module;
 import meteordevelopment.meteorclient.utils.Utils;
+import meteordevelopment.meteorclient.utils.entity.EntityIndex;
 import meteordevelopment.meteorclient.utils.network.Http;
 import meteordevelopment.meteorclient.utils.network.MeteorExecutor;
 import meteordevelopment.meteorclient.utils.render.NametagUtils;
@@ -56,7 +57,7 @@ public class EntityOwner extends Module {
 
     @EventHandler
     private void onRender2D(Render2DEvent event) {
-        for (Entity entity : mc.world.getEntities()) {
+        for (Entity entity : EntityIndex.getEntities()) {
             UUID ownerUuid;
 
             if (entity instanceof TameableEntity tameable) ownerUuid = tameable.getOwnerUuid();
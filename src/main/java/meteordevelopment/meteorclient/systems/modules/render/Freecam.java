@@ -25,6 +25,7 @@ import meteordevelopment.meteorclient.systems.modules.movement.GUIMove;
 import meteordevelopment.meteorclient.utils.Utils;
 import meteordevelopment.meteorclient.utils.misc.input.Input;
 import meteordevelopment.meteorclient.utils.misc.input.KeyAction;
+import meteordevelopment.meteorclient.utils.network.PacketListeners;
 import meteordevelopment.meteorclient.utils.player.Rotations;
 import meteordevelopment.orbit.EventHandler;
 import meteordevelopment.orbit.EventPriority;
@@ -125,6 +126,8 @@ public class Freecam extends Module {
 
     public Freecam() {
         super(Categories.Render, "freecam", "Allows the camera to move away from the player.");
+
+        PacketListeners.onReceive(this, DeathMessageS2CPacket.class, this::onDeathMessage);
     }
 
     @Override
@@ -371,14 +374,11 @@ public class Freecam extends Module {
         toggle();
     }
 
-    @EventHandler
-    private void onPacketReceive(PacketEvent.Receive event)  {
-        if (event.packet instanceof DeathMessageS2CPacket packet) {
-            Entity entity = mc.world.getEntityById(packet.playerId());
-            if (entity == mc.player && toggleOnDeath.get()) {
-                toggle();
-                info("Toggled off because you died.");
-            }
+    private void onDeathMessage(PacketEvent.Receive event, DeathMessageS2CPacket packet) {
+        Entity entity = mc.world.getEntityById(packet.playerId());
+        if (entity == mc.player && toggleOnDeath.get()) {
+            toggle();
+            info("Toggled off because you died.");
         }
     }
 
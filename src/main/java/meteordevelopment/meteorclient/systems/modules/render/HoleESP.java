@@ -14,11 +14,10 @@ import meteordevelopment.meteorclient.settings.*;
 import meteordevelopment.meteorclient.systems.modules.Categories;
 import meteordevelopment.meteorclient.systems.modules.Module;
 import meteordevelopment.meteorclient.systems.modules.Modules;
-import meteordevelopment.meteorclient.utils.misc.Pool;
 import meteordevelopment.meteorclient.utils.render.color.Color;
 import meteordevelopment.meteorclient.utils.render.color.SettingColor;
-import meteordevelopment.meteorclient.utils.world.BlockIterator;
 import meteordevelopment.meteorclient.utils.world.Dir;
+import meteordevelopment.meteorclient.utils.world.IncrementalBlockIterator;
 import meteordevelopment.orbit.EventHandler;
 import net.minecraft.block.Block;
 import net.minecraft.block.BlockState;
@@ -61,6 +60,7 @@ public class HoleESP extends Module {
         .defaultValue(3)
         .min(1)
         .sliderMin(1)
+        .onChanged(value -> iterator.invalidate())
         .build()
     );
 
@@ -68,6 +68,7 @@ public class HoleESP extends Module {
         .name("doubles")
         .description("Highlights double holes that can be stood across.")
         .defaultValue(true)
+        .onChanged(value -> iterator.invalidate())
         .build()
     );
 
@@ -82,6 +83,7 @@ public class HoleESP extends Module {
         .name("webs")
         .description("Whether to show holes that have webs inside of them.")
         .defaultValue(false)
+        .onChanged(value -> iterator.invalidate())
         .build()
     );
 
@@ -158,7 +160,7 @@ public class HoleESP extends Module {
         .build()
     );
 
-    private final Pool<Hole> holePool = new Pool<>(Hole::new);
+    private final IncrementalBlockIterator<Hole> iterator = new IncrementalBlockIterator<>(blockState -> !((AbstractBlockAccessor) blockState.getBlock()).isCollidable(), 2, 1, (blockPos, blockState) -> findHole(blockPos));
     private final List<Hole> holes = new ArrayList<>();
 
     private final byte NULL = 0;
@@ -167,52 +169,70 @@ public class HoleESP extends Module {
         super(Categories.Render, "hole-esp", "Displays holes that you will take less damage in.");
     }
 
+    @Override
+    public void onActivate() {
+        iterator.start();
+    }
+
+    @Override
+    public void onDeactivate() {
+        iterator.stop();
+        holes.clear();
+    }
+
     @EventHandler
     private void onTick(TickEvent.Pre event) {
-        for (Hole hole : holes) holePool.free(hole);
         holes.clear();
 
-        BlockIterator.register(horizontalRadius.get(), verticalRadius.get(), (blockPos, blockState) -> {
-            if (!validHole(blockPos)) return;
+        iterator.setDependency(2, Math.max(1, holeHeight.get() - 1));
+        iterator.update(horizontalRadius.get(), verticalRadius.get());
 
-            int bedrock = 0, obsidian = 0;
-            Direction air = null;
+        for (Hole hole : iterator.values()) {
+            if (ignoreOwn.get() && hole.contains(mc.player.getBlockPos())) continue;
+            holes.add(hole);
+        }
+    }
+
+    private Hole findHole(BlockPos blockPos) {
+        if (!validHole(blockPos)) return null;
 
-            for (Direction direction : Direction.values()) {
-                if (direction == Direction.UP) continue;
-                BlockPos offsetPos = blockPos.offset(direction);
-                BlockState state = mc.world.getBlockState(offsetPos);
+        int bedrock = 0, obsidian = 0;
+        Direction air = null;
 
-                if (state.getBlock() == Blocks.BEDROCK) bedrock++;
-                else if (state.getBlock() == Blocks.OBSIDIAN) obsidian++;
-                else if (direction == Direction.DOWN) return;
-                else if (doubles.get() && air == null && validHole(offsetPos)) {
-                    for (Direction dir : Direction.values()) {
-                        if (dir == direction.getOpposite() || dir == Direction.UP) continue;
+        for (Direction direction : Direction.values()) {
+            if (direction == Direction.UP) continue;
+            BlockPos offsetPos = blockPos.offset(direction);
+            BlockState state = mc.world.getBlockState(offsetPos);
 
-                        BlockState blockState1 = mc.world.getBlockState(offsetPos.offset(dir));
+            if (state.getBlock() == Blocks.BEDROCK) bedrock++;
+            else if (state.getBlock() == Blocks.OBSIDIAN) obsidian++;
+            else if (direction == Direction.DOWN) return null;
+            else if (doubles.get() && air == null && validHole(offsetPos)) {
+                for (Direction dir : Direction.values()) {
+                    if (dir == direction.getOpposite() || dir == Direction.UP) continue;
 
-                        if (blockState1.getBlock() == Blocks.BEDROCK) bedrock++;
-                        else if (blockState1.getBlock() == Blocks.OBSIDIAN) obsidian++;
-                        else return;
-                    }
+                    BlockState blockState1 = mc.world.getBlockState(offsetPos.offset(dir));
 
-                    air = direction;
+                    if (blockState1.getBlock() == Blocks.BEDROCK) bedrock++;
+                    else if (blockState1.getBlock() == Blocks.OBSIDIAN) obsidian++;
+                    else return null;
                 }
-            }
 
-            if (obsidian + bedrock == 5 && air == null) {
-                holes.add(holePool.get().set(blockPos, obsidian == 5 ? Hole.Type.Obsidian : (bedrock == 5 ? Hole.Type.Bedrock : Hole.Type.Mixed), NULL));
+                air = direction;
             }
-            else if (obsidian + bedrock == 8 && doubles.get() && air != null) {
-                holes.add(holePool.get().set(blockPos, obsidian == 8 ? Hole.Type.Obsidian : (bedrock == 8 ? Hole.Type.Bedrock : Hole.Type.Mixed), Dir.get(air)));
-            }
-        });
+        }
+
+        if (obsidian + bedrock == 5 && air == null) {
+            return new Hole().set(blockPos, obsidian == 5 ? Hole.Type.Obsidian : (bedrock == 5 ? Hole.Type.Bedrock : Hole.Type.Mixed), NULL);
+        }
+        else if (obsidian + bedrock == 8 && doubles.get() && air != null) {
+            return new Hole().set(blockPos, obsidian == 8 ? Hole.Type.Obsidian : (bedrock == 8 ? Hole.Type.Bedrock : Hole.Type.Mixed), Dir.get(air));
+        }
+
+        return null;
     }
 
     private boolean validHole(BlockPos pos) {
-        if (ignoreOwn.get() && mc.player.getBlockPos().equals(pos)) return false;
-
         WorldChunk chunk = mc.world.getChunk(ChunkSectionPos.getSectionCoord(pos.getX()), ChunkSectionPos.getSectionCoord(pos.getZ()));
         Block block = chunk.getBlockState(pos).getBlock();
         if (!webs.get() && block == Blocks.COBWEB) return false;
@@ -244,6 +264,16 @@ public class HoleESP extends Module {
             return this;
         }
 
+        public boolean contains(BlockPos pos) {
+            if (blockPos.equals(pos)) return true;
+
+            for (Direction dir : Direction.Type.HORIZONTAL) {
+                if (Dir.is(exclude, Dir.get(dir)) && blockPos.offset(dir).equals(pos)) return true;
+            }
+
+            return false;
+        }
+
         public Color getTopColor() {
             return switch (this.type) {
                 case Obsidian -> Modules.get().get(HoleESP.class).obsidianColorTop.get();
@@ -20,6 +20,7 @@ import meteordevelopment.meteorclient.utils.render.color.SettingColor;
 import meteordevelopment.meteorclient.utils.world.BlockIterator;
 import meteordevelopment.meteorclient.utils.world.BlockUtils;
 import meteordevelopment.orbit.EventHandler;
+import net.minecraft.block.AirBlock;
 import net.minecraft.util.math.BlockPos;
 
 import java.util.ArrayList;
@@ -92,7 +93,7 @@ public class LightOverlay extends Module {
         crosses.clear();
 
         int spawnLightLevel = newMobSpawnLightLevel.get() ? 0 : 7;
-        BlockIterator.register(horizontalRange.get(), verticalRange.get(), (blockPos, blockState) -> {
+        BlockIterator.register(horizontalRange.get(), verticalRange.get(), blockState -> blockState.getBlock() instanceof AirBlock, (blockPos, blockState) -> {
             switch (BlockUtils.isValidMobSpawn(blockPos, blockState, spawnLightLevel)) {
                 case Potential -> crosses.add(crossPool.get().set(blockPos, true));
                 case Always -> crosses.add((crossPool.get().set(blockPos, false)));
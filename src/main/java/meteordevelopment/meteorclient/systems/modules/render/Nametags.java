@@ -20,6 +20,7 @@ import meteordevelopment.meteorclient.systems.modules.Module;
 import meteordevelopment.meteorclient.systems.modules.Modules;
 import meteordevelopment.meteorclient.systems.modules.misc.NameProtect;
 import meteordevelopment.meteorclient.utils.Utils;
+import meteordevelopment.meteorclient.utils.entity.EntityIndex;
 import meteordevelopment.meteorclient.utils.entity.EntityUtils;
 import meteordevelopment.meteorclient.utils.misc.Names;
 import meteordevelopment.meteorclient.utils.player.PlayerUtils;
@@ -323,7 +324,7 @@ public class Nametags extends Module {
         boolean notThirdPerson = mc.options.getPerspective().isFirstPerson();
         Vec3d cameraPos = mc.gameRenderer.getCamera().getPos();
 
-        for (Entity entity : mc.world.getEntities()) {
+        for (Entity entity : EntityIndex.getEntities()) {
             EntityType<?> type = entity.getType();
             if (!entities.get().contains(type)) continue;
 
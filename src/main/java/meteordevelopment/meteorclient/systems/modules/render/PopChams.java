@@ -13,6 +13,7 @@ import meteordevelopment.meteorclient.settings.*;
 import meteordevelopment.meteorclient.systems.modules.Categories;
 import meteordevelopment.meteorclient.systems.modules.Module;
 import meteordevelopment.meteorclient.utils.entity.fakeplayer.FakePlayerEntity;
+import meteordevelopment.meteorclient.utils.network.PacketListeners;
 import meteordevelopment.meteorclient.utils.render.WireframeEntityRenderer;
 import meteordevelopment.meteorclient.utils.render.color.SettingColor;
 import meteordevelopment.orbit.EventHandler;
@@ -91,6 +92,8 @@ public class PopChams extends Module {
 
     public PopChams() {
         super(Categories.Render, "pop-chams", "Renders a ghost where players pop totem.");
+
+        PacketListeners.onReceive(this, EntityStatusS2CPacket.class, this::onEntityStatus);
     }
 
     @Override
@@ -100,9 +103,7 @@ public class PopChams extends Module {
         }
     }
 
-    @EventHandler
-    private void onReceivePacket(PacketEvent.Receive event) {
-        if (!(event.packet instanceof EntityStatusS2CPacket p)) return;
+    private void onEntityStatus(PacketEvent.Receive event, EntityStatusS2CPacket p) {
         if (p.getStatus() != 35) return;
 
         Entity entity = p.getEntity(mc.world);
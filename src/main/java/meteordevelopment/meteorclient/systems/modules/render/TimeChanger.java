@@ -12,6 +12,7 @@ import meteordevelopment.meteorclient.settings.Setting;
 import meteordevelopment.meteorclient.settings.SettingGroup;
 import meteordevelopment.meteorclient.systems.modules.Categories;
 import meteordevelopment.meteorclient.systems.modules.Module;
+import meteordevelopment.meteorclient.utils.network.PacketListeners;
 import meteordevelopment.orbit.EventHandler;
 import net.minecraft.network.packet.s2c.play.WorldTimeUpdateS2CPacket;
 
@@ -30,6 +31,8 @@ public class TimeChanger extends Module {
 
     public TimeChanger() {
         super(Categories.Render, "time-changer", "Makes you able to set a custom time.");
+
+        PacketListeners.onReceive(this, WorldTimeUpdateS2CPacket.class, this::onWorldTimeUpdate);
     }
 
     @Override
@@ -42,12 +45,9 @@ public class TimeChanger extends Module {
         mc.world.getLevelProperties().setTimeOfDay(oldTime);
     }
 
-    @EventHandler
-    private void onPacketReceive(PacketEvent.Receive event) {
-        if (event.packet instanceof WorldTimeUpdateS2CPacket) {
-            oldTime = ((WorldTimeUpdateS2CPacket) event.packet).time(); // should this be time or timeOfDay?
-            event.cancel();
-        }
+    private void onWorldTimeUpdate(PacketEvent.Receive event, WorldTimeUpdateS2CPacket packet) {
+        oldTime = packet.time(); // should this be time or timeOfDay?
+        event.cancel();
     }
 
     @EventHandler
@@ -14,6 +14,7 @@ import meteordevelopment.meteorclient.systems.friends.Friends;
 import meteordevelopment.meteorclient.systems.modules.Categories;
 import meteordevelopment.meteorclient.systems.modules.Module;
 import meteordevelopment.meteorclient.systems.modules.Modules;
+import meteordevelopment.meteorclient.utils.entity.EntityIndex;
 import meteordevelopment.meteorclient.utils.entity.EntityUtils;
 import meteordevelopment.meteorclient.utils.entity.Target;
 import meteordevelopment.meteorclient.utils.player.PlayerUtils;
@@ -251,7 +252,7 @@ public class Tracers extends Module {
         if (mc.options.hudHidden || style.get() == TracerStyle.Offscreen) return;
         count = 0;
 
-        for (Entity entity : mc.world.getEntities()) {
+        for (Entity entity : EntityIndex.getEntities()) {
             if (shouldBeIgnored(entity)) continue;
 
             Color color = getEntityColor(entity);
@@ -278,7 +279,7 @@ public class Tracers extends Module {
 
         Renderer2D.COLOR.begin();
 
-        for (Entity entity : mc.world.getEntities()) {
+        for (Entity entity : EntityIndex.getEntities()) {
             if (shouldBeIgnored(entity)) continue;
 
             Color color = getEntityColor(entity);
@@ -11,8 +11,9 @@ import meteordevelopment.meteorclient.settings.*;
 import meteordevelopment.meteorclient.systems.modules.Categories;
 import meteordevelopment.meteorclient.systems.modules.Module;
 import meteordevelopment.meteorclient.utils.Utils;
-import meteordevelopment.meteorclient.utils.entity.ProjectileEntitySimulator;
-import meteordevelopment.meteorclient.utils.misc.Pool;
+import meteordevelopment.meteorclient.utils.entity.EntityIndex;
+import meteordevelopment.meteorclient.utils.entity.TrajectoryCache;
+import meteordevelopment.meteorclient.utils.entity.TrajectoryCache.Trajectory;
 import meteordevelopment.meteorclient.utils.render.color.SettingColor;
 import meteordevelopment.orbit.EventHandler;
 import net.minecraft.enchantment.Enchantments;
@@ -27,7 +28,6 @@ import net.minecraft.util.hit.HitResult;
 import net.minecraft.util.math.Box;
 import net.minecraft.util.math.Direction;
 import net.minecraft.util.math.MathHelper;
-import org.joml.Vector3d;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -130,11 +130,6 @@ public class Trajectories extends Module {
         .build()
     );
 
-    private final ProjectileEntitySimulator simulator = new ProjectileEntitySimulator();
-
-    private final Pool<Vector3d> vec3s = new Pool<>(Vector3d::new);
-    private final List<Path> paths = new ArrayList<>();
-
     private static final double MULTISHOT_OFFSET = Math.toRadians(10); // accurate-ish offset of crossbow multishot in radians (10° degrees)
 
     public Trajectories() {
@@ -157,20 +152,7 @@ public class Trajectories extends Module {
         return items;
     }
 
-    private Path getEmptyPath() {
-        for (Path path : paths) {
-            if (path.points.isEmpty()) return path;
-        }
-
-        Path path = new Path();
-        paths.add(path);
-        return path;
-    }
-
-    private void calculatePath(PlayerEntity player, float tickDelta) {
-        // Clear paths
-        for (Path path : paths) path.clear();
-
+    private void renderPaths(Render3DEvent event, PlayerEntity player, float tickDelta) {
         // Get item
         ItemStack itemStack = player.getMainHandStack();
         if (!items.get().contains(itemStack.getItem())) {
@@ -178,25 +160,36 @@ public class Trajectories extends Module {
             if (!items.get().contains(itemStack.getItem())) return;
         }
 
-        // Calculate paths
-        if (!simulator.set(player, itemStack, 0, accurate.get(), tickDelta)) return;
-        getEmptyPath().calculate();
+        // Render paths, they are cached for the tick and moved to the interpolated position of the player
+        if (!renderHeldPath(event, player, itemStack, 0, tickDelta)) return;
 
         if (itemStack.getItem() instanceof CrossbowItem && Utils.hasEnchantment(itemStack, Enchantments.MULTISHOT)) {
-            if (!simulator.set(player, itemStack, MULTISHOT_OFFSET, accurate.get(), tickDelta)) return; // left multishot arrow
-            getEmptyPath().calculate();
-
-            if (!simulator.set(player, itemStack, -MULTISHOT_OFFSET, accurate.get(), tickDelta)) return; // right multishot arrow
-            getEmptyPath().calculate();
+            if (!renderHeldPath(event, player, itemStack, MULTISHOT_OFFSET, tickDelta)) return; // left multishot arrow
+            renderHeldPath(event, player, itemStack, -MULTISHOT_OFFSET, tickDelta); // right multishot arrow
         }
     }
 
-    private void calculateFiredPath(Entity entity, double tickDelta) {
-        for (Path path : paths) path.clear();
+    private boolean renderHeldPath(Render3DEvent event, PlayerEntity player, ItemStack itemStack, double simulated, float tickDelta) {
+        Trajectory trajectory = TrajectoryCache.getHeld(player, itemStack, simulated, accurate.get(), simulationSteps.get());
+        if (trajectory == null) return false;
+
+        double offsetX = trajectory.offsetX(player, tickDelta);
+        double offsetY = trajectory.offsetY(player, tickDelta);
+        double offsetZ = trajectory.offsetZ(player, tickDelta);
 
-        // Calculate paths
-        if (!simulator.set(entity, accurate.get())) return;
-        getEmptyPath().setStart(entity, tickDelta).calculate();
+        renderPath(event, trajectory, trajectory.getX(0) + offsetX, trajectory.getY(0) + offsetY, trajectory.getZ(0) + offsetZ, offsetX, offsetY, offsetZ);
+        return true;
+    }
+
+    private void renderFiredPath(Render3DEvent event, Entity entity, double tickDelta) {
+        Trajectory trajectory = TrajectoryCache.getFired(entity, accurate.get(), simulationSteps.get());
+        if (trajectory == null) return;
+
+        double startX = MathHelper.lerp(tickDelta, entity.lastRenderX, entity.getX());
+        double startY = MathHelper.lerp(tickDelta, entity.lastRenderY, entity.getY());
+        double startZ = MathHelper.lerp(tickDelta, entity.lastRenderZ, entity.getZ());
+
+        renderPath(event, trajectory, startX, startY, startZ, 0, 0, 0);
     }
 
     @EventHandler
@@ -206,137 +199,73 @@ public class Trajectories extends Module {
         for (PlayerEntity player : mc.world.getPlayers()) {
             if (!otherPlayers.get() && player != mc.player) continue;
 
-            calculatePath(player, tickDelta);
-            for (Path path : paths) path.render(event);
+            renderPaths(event, player, tickDelta);
         }
 
         if (firedProjectiles.get()) {
-            for (Entity entity : mc.world.getEntities()) {
-                if (entity instanceof ProjectileEntity) {
-                    calculateFiredPath(entity, tickDelta);
-                    for (Path path : paths) path.render(event);
-                }
+            for (Entity entity : EntityIndex.getEntities()) {
+                if (entity instanceof ProjectileEntity) renderFiredPath(event, entity, tickDelta);
             }
         }
     }
 
-    private class Path {
-        private final List<Vector3d> points = new ArrayList<>();
+    private void renderPath(Render3DEvent event, Trajectory trajectory, double lastX, double lastY, double lastZ, double offsetX, double offsetY, double offsetZ) {
+        // Render path
+        for (int i = 0; i < trajectory.size(); i++) {
+            double x = trajectory.getX(i) + offsetX;
+            double y = trajectory.getY(i) + offsetY;
+            double z = trajectory.getZ(i) + offsetZ;
 
-        private boolean hitQuad, hitQuadHorizontal;
-        private double hitQuadX1, hitQuadY1, hitQuadZ1, hitQuadX2, hitQuadY2, hitQuadZ2;
+            if (i > 0 || x != lastX || y != lastY || z != lastZ) renderSegment(event, lastX, lastY, lastZ, x, y, z);
 
-        private Entity collidingEntity;
-        public Vector3d lastPoint;
-
-        public void clear() {
-            for (Vector3d point : points) vec3s.free(point);
-            points.clear();
-
-            hitQuad = false;
-            collidingEntity = null;
-            lastPoint = null;
+            lastX = x;
+            lastY = y;
+            lastZ = z;
         }
 
-        public void calculate() {
-            addPoint();
-
-            for (int i = 0; i < (simulationSteps.get() > 0 ? simulationSteps.get() : Integer.MAX_VALUE); i++) {
-                HitResult result = simulator.tick();
-
-                if (result != null) {
-                    processHitResult(result);
-                    break;
-                }
+        HitResult result = trajectory.getHit();
+        if (result == null) return;
 
-                addPoint();
-            }
-        }
+        if (result.getType() == HitResult.Type.BLOCK) {
+            BlockHitResult r = (BlockHitResult) result;
 
-        public Path setStart(Entity entity, double tickDelta) {
-            lastPoint = new Vector3d(
-                MathHelper.lerp(tickDelta, entity.lastRenderX, entity.getX()),
-                MathHelper.lerp(tickDelta, entity.lastRenderY, entity.getY()),
-                MathHelper.lerp(tickDelta, entity.lastRenderZ, entity.getZ())
-            );
+            double x1 = r.getPos().x, y1 = r.getPos().y, z1 = r.getPos().z;
+            double x2 = x1, y2 = y1, z2 = z1;
 
-            return this;
-        }
-
-        private void addPoint() {
-            points.add(vec3s.get().set(simulator.pos));
-        }
+            renderSegment(event, lastX, lastY, lastZ, x1, y1, z1);
 
-        private void processHitResult(HitResult result) {
-            if (result.getType() == HitResult.Type.BLOCK) {
-                BlockHitResult r = (BlockHitResult) result;
-
-                hitQuad = true;
-                hitQuadX1 = r.getPos().x;
-                hitQuadY1 = r.getPos().y;
-                hitQuadZ1 = r.getPos().z;
-                hitQuadX2 = r.getPos().x;
-                hitQuadY2 = r.getPos().y;
-                hitQuadZ2 = r.getPos().z;
-
-                if (r.getSide() == Direction.UP || r.getSide() == Direction.DOWN) {
-                    hitQuadHorizontal = true;
-                    hitQuadX1 -= 0.25;
-                    hitQuadZ1 -= 0.25;
-                    hitQuadX2 += 0.25;
-                    hitQuadZ2 += 0.25;
-                }
-                else if (r.getSide() == Direction.NORTH || r.getSide() == Direction.SOUTH) {
-                    hitQuadHorizontal = false;
-                    hitQuadX1 -= 0.25;
-                    hitQuadY1 -= 0.25;
-                    hitQuadX2 += 0.25;
-                    hitQuadY2 += 0.25;
-                }
-                else {
-                    hitQuadHorizontal = false;
-                    hitQuadZ1 -= 0.25;
-                    hitQuadY1 -= 0.25;
-                    hitQuadZ2 += 0.25;
-                    hitQuadY2 += 0.25;
-                }
-
-                points.add(Utils.set(vec3s.get(), result.getPos()));
+            // Render hit quad
+            if (r.getSide() == Direction.UP || r.getSide() == Direction.DOWN) {
+                event.renderer.sideHorizontal(x1 - 0.25, y1, z1 - 0.25, x1 + 0.25, z1 + 0.25, sideColor.get(), lineColor.get(), shapeMode.get());
             }
-            else if (result.getType() == HitResult.Type.ENTITY) {
-                collidingEntity = ((EntityHitResult) result).getEntity();
-
-                points.add(Utils.set(vec3s.get(), result.getPos()).add(0, collidingEntity.getHeight() / 2, 0));
+            else if (r.getSide() == Direction.NORTH || r.getSide() == Direction.SOUTH) {
+                event.renderer.sideVertical(x1 - 0.25, y1 - 0.25, z1, x2 + 0.25, y2 + 0.25, z2, sideColor.get(), lineColor.get(), shapeMode.get());
             }
-        }
-
-        public void render(Render3DEvent event) {
-            // Render path
-            for (Vector3d point : points) {
-                if (lastPoint != null) {
-                    event.renderer.line(lastPoint.x, lastPoint.y, lastPoint.z, point.x, point.y, point.z, lineColor.get());
-                    if (renderPositionBox.get())
-                        event.renderer.box(point.x - positionBoxSize.get(), point.y - positionBoxSize.get(), point.z - positionBoxSize.get(),
-                            point.x + positionBoxSize.get(), point.y + positionBoxSize.get(), point.z + positionBoxSize.get(), positionSideColor.get(), positionLineColor.get(), shapeMode.get(), 0);
-                }
-                lastPoint = point;
+            else {
+                event.renderer.sideVertical(x1, y1 - 0.25, z1 - 0.25, x2, y2 + 0.25, z2 + 0.25, sideColor.get(), lineColor.get(), shapeMode.get());
             }
+        }
+        else if (result.getType() == HitResult.Type.ENTITY) {
+            Entity collidingEntity = ((EntityHitResult) result).getEntity();
 
-            // Render hit quad
-            if (hitQuad) {
-                if (hitQuadHorizontal) event.renderer.sideHorizontal(hitQuadX1, hitQuadY1, hitQuadZ1, hitQuadX1 + 0.5, hitQuadZ1 + 0.5, sideColor.get(), lineColor.get(), shapeMode.get());
-                else event.renderer.sideVertical(hitQuadX1, hitQuadY1, hitQuadZ1, hitQuadX2, hitQuadY2, hitQuadZ2, sideColor.get(), lineColor.get(), shapeMode.get());
-            }
+            renderSegment(event, lastX, lastY, lastZ, result.getPos().x, result.getPos().y + collidingEntity.getHeight() / 2, result.getPos().z);
 
             // Render entity
-            if (collidingEntity != null) {
-                double x = (collidingEntity.getX() - collidingEntity.prevX) * event.tickDelta;
-                double y = (collidingEntity.getY() - collidingEntity.prevY) * event.tickDelta;
-                double z = (collidingEntity.getZ() - collidingEntity.prevZ) * event.tickDelta;
+            double x = (collidingEntity.getX() - collidingEntity.prevX) * event.tickDelta;
+            double y = (collidingEntity.getY() - collidingEntity.prevY) * event.tickDelta;
+            double z = (collidingEntity.getZ() - collidingEntity.prevZ) * event.tickDelta;
 
-                Box box = collidingEntity.getBoundingBox();
-                event.renderer.box(x + box.minX, y + box.minY, z + box.minZ, x + box.maxX, y + box.maxY, z + box.maxZ, sideColor.get(), lineColor.get(), shapeMode.get(), 0);
-            }
+            Box box = collidingEntity.getBoundingBox();
+            event.renderer.box(x + box.minX, y + box.minY, z + box.minZ, x + box.maxX, y + box.maxY, z + box.maxZ, sideColor.get(), lineColor.get(), shapeMode.get(), 0);
+        }
+    }
+
+    private void renderSegment(Render3DEvent event, double x1, double y1, double z1, double x2, double y2, double z2) {
+        event.renderer.line(x1, y1, z1, x2, y2, z2, lineColor.get());
+
+        if (renderPositionBox.get()) {
+            double size = positionBoxSize.get();
+            event.renderer.box(x2 - size, y2 - size, z2 - size, x2 + size, y2 + size, z2 + size, positionSideColor.get(), positionLineColor.get(), shapeMode.get(), 0);
         }
     }
 }
@@ -12,6 +12,7 @@ import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
 import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import meteordevelopment.meteorclient.MeteorClient;
 import meteordevelopment.meteorclient.events.render.Render3DEvent;
+import meteordevelopment.meteorclient.events.world.BlockUpdateEvent;
 import meteordevelopment.meteorclient.events.world.TickEvent;
 import meteordevelopment.meteorclient.renderer.Renderer3D;
 import meteordevelopment.meteorclient.renderer.ShapeMode;
@@ -19,25 +20,31 @@ import meteordevelopment.meteorclient.settings.*;
 import meteordevelopment.meteorclient.systems.modules.Categories;
 import meteordevelopment.meteorclient.systems.modules.Module;
 import meteordevelopment.meteorclient.utils.Utils;
-import meteordevelopment.meteorclient.utils.network.MeteorExecutor;
 import meteordevelopment.meteorclient.utils.render.color.SettingColor;
+import meteordevelopment.meteorclient.utils.world.ChunkExecutor;
 import meteordevelopment.meteorclient.utils.world.Dir;
 import meteordevelopment.orbit.EventHandler;
+import net.minecraft.block.Block;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.ChunkSectionPos;
 import net.minecraft.util.math.Direction;
-import net.minecraft.world.Heightmap;
+import net.minecraft.world.EmptyBlockView;
 import net.minecraft.world.World;
 import net.minecraft.world.chunk.Chunk;
 import net.minecraft.world.chunk.ChunkSection;
 import net.minecraft.world.chunk.ChunkStatus;
 
+import java.util.BitSet;
+
 public class TunnelESP extends Module {
-    private static final BlockPos.Mutable BP = new BlockPos.Mutable();
     private static final Direction[] DIRECTIONS = { Direction.EAST, Direction.NORTH, Direction.SOUTH, Direction.WEST };
 
+    // Block state classification, indexed by raw state id
+    private static final byte CLASSIFIED = 1, WALK_ON = 2, WALK_THROUGH = 4;
+
     private final SettingGroup sgGeneral = settings.getDefaultGroup();
 
     private final Setting<Double> height = sgGeneral.add(new DoubleSetting.Builder()
@@ -77,14 +84,25 @@ public class TunnelESP extends Module {
     );
 
     private final Long2ObjectMap<TChunk> chunks = new Long2ObjectOpenHashMap<>();
+    private final ChunkExecutor scanExecutor = new ChunkExecutor("Meteor-TunnelESP");
+    private byte[] stateTypes;
 
     public TunnelESP() {
         super(Categories.Render, "tunnel-esp", "Highlights tunnels.");
     }
 
+    @Override
+    public void onActivate() {
+        if (stateTypes == null || stateTypes.length != Block.STATE_IDS.size()) stateTypes = new byte[Block.STATE_IDS.size()];
+    }
+
     @Override
     public void onDeactivate() {
-        chunks.clear();
+        scanExecutor.cancelAll();
+
+        synchronized (chunks) {
+            chunks.clear();
+        }
     }
 
     private static int pack(int x, int y, int z) {
@@ -103,28 +121,50 @@ public class TunnelESP extends Module {
         return (byte) (p & 0xFF);
     }
 
-    private void searchChunk(Chunk chunk, TChunk tChunk) {
-        // Prepare variables
+    private void searchChunk(TChunk tChunk) {
+        BitSet dirty = tChunk.takeDirty();
+        if (dirty.isEmpty()) return;
+
+        Chunk chunk = mc.world == null ? null : mc.world.getChunk(tChunk.x, tChunk.z, ChunkStatus.FULL, false);
+        if (chunk == null) return;
+
         Context ctx = new Context();
+
+        for (int i = dirty.nextSetBit(0); i >= 0; i = dirty.nextSetBit(i + 1)) {
+            IntSet positions = searchSection(ctx, chunk, i);
+
+            synchronized (chunks) {
+                if (i < tChunk.sections.length) tChunk.sections[i] = positions;
+            }
+        }
+    }
+
+    private IntSet searchSection(Context ctx, Chunk chunk, int sectionIndex) {
+        ChunkSection[] sections = chunk.getSectionArray();
+        if (sectionIndex >= sections.length) return null;
+
+        // A tunnel position and the blocks below and above it need both walkable and blocking states in the section
+        ChunkSection section = sections[sectionIndex];
+        if (section == null || section.isEmpty() || !section.hasAny(this::canWalkThrough) || !section.hasAny(state -> !canWalkThrough(state))) return null;
+
+        // Prepare variables
         IntSet set = new IntOpenHashSet();
 
         int startX = chunk.getPos().getStartX();
         int startZ = chunk.getPos().getStartZ();
-
-        int endX = chunk.getPos().getEndX();
-        int endZ = chunk.getPos().getEndZ();
+        int startY = ChunkSectionPos.getBlockCoord(chunk.sectionIndexToCoord(sectionIndex));
 
         // Search for first set of tunnels
-        for (int x = startX; x <= endX; x++) {
-            for (int z = startZ; z <= endZ; z++) {
-                int height = chunk.getHeightmap(Heightmap.Type.WORLD_SURFACE).get(x - startX, z - startZ);
-
-                for (short y = (short) mc.world.getBottomY(); y < height; y++) {
-                    if (isTunnel(ctx, x, y, z)) set.add(pack(x - startX, y, z - startZ));
+        for (int x = 0; x < 16; x++) {
+            for (int z = 0; z < 16; z++) {
+                for (int y = startY; y < startY + 16; y++) {
+                    if (isTunnel(ctx, startX + x, y, startZ + z)) set.add(pack(x, y, z));
                 }
             }
         }
 
+        if (set.isEmpty()) return null;
+
         // Remove tunnels which are 1 block long
         IntSet positions = new IntOpenHashSet();
 
@@ -150,7 +190,7 @@ public class TunnelESP extends Module {
             }
         }
 
-        tChunk.positions = positions;
+        return positions;
     }
 
     private boolean isTunnel(Context ctx, int x, int y, int z) {
@@ -178,21 +218,41 @@ public class TunnelESP extends Module {
     }
 
     private boolean canWalkOn(Context ctx, int x, int y, int z) {
-        BlockState state = ctx.get(x, y, z);
+        return (getType(ctx.get(x, y, z)) & WALK_ON) != 0;
+    }
 
-        if (state.isAir()) return false;
-        if (!state.getFluidState().isEmpty()) return false;
+    private boolean canWalkThrough(Context ctx, int x, int y, int z) {
+        return canWalkThrough(ctx.get(x, y, z));
+    }
 
-        return !state.getCollisionShape(mc.world, BP.set(x, y, z)).isEmpty();
+    private boolean canWalkThrough(BlockState state) {
+        return (getType(state) & WALK_THROUGH) != 0;
     }
 
-    private boolean canWalkThrough(Context ctx, int x, int y, int z) {
-        BlockState state = ctx.get(x, y, z);
+    /**
+     * Collision shapes are queried once per state without a world, whether a shape is empty does not depend on the
+     * position for any block this is used on.
+     */
+    private int getType(BlockState state) {
+        int id = Block.getRawIdFromState(state);
+        if (id < 0 || id >= stateTypes.length) return classify(state);
 
-        if (state.isAir()) return true;
-        if (!state.getFluidState().isEmpty()) return false;
+        byte type = stateTypes[id];
 
-        return state.getCollisionShape(mc.world, BP.set(x, y, z)).isEmpty();
+        if (type == 0) {
+            type = classify(state);
+            stateTypes[id] = type;
+        }
+
+        return type;
+    }
+
+    private static byte classify(BlockState state) {
+        if (state.isAir()) return CLASSIFIED | WALK_THROUGH;
+        if (!state.getFluidState().isEmpty()) return CLASSIFIED;
+
+        boolean noCollision = state.getCollisionShape(EmptyBlockView.INSTANCE, BlockPos.ORIGIN).isEmpty();
+        return (byte) (CLASSIFIED | (noCollision ? WALK_THROUGH : WALK_ON));
     }
 
     private boolean canWalkIn(Context ctx, int x, int y, int z) {
@@ -213,18 +273,52 @@ public class TunnelESP extends Module {
 
                 if (chunks.containsKey(key)) chunks.get(key).marked = true;
                 else if (added < 48) {
-                    TChunk tChunk = new TChunk(chunk.getPos().x, chunk.getPos().z);
+                    TChunk tChunk = new TChunk(chunk.getPos().x, chunk.getPos().z, mc.world.countVerticalSections());
                     chunks.put(tChunk.getKey(), tChunk);
 
-                    MeteorExecutor.execute(() -> searchChunk(chunk, tChunk));
+                    tChunk.markDirty(0, tChunk.sections.length - 1);
+                    scan(tChunk);
                     added++;
                 }
             }
 
-            chunks.values().removeIf(tChunk -> !tChunk.marked);
+            chunks.values().removeIf(tChunk -> {
+                if (tChunk.marked) return false;
+
+                scanExecutor.cancel(tChunk.x, tChunk.z);
+                return true;
+            });
+        }
+    }
+
+    @EventHandler
+    private void onBlockUpdate(BlockUpdateEvent event) {
+        int x = event.pos.getX();
+        int y = event.pos.getY();
+        int z = event.pos.getZ();
+
+        // Positions up to 2 blocks below and 1 above depend on the block, and up to 2 blocks away horizontally through the 1 block long tunnel check
+        int minSection = Math.max(0, mc.world.getSectionIndex(y - 2));
+        int maxSection = Math.min(mc.world.countVerticalSections() - 1, mc.world.getSectionIndex(y + 1));
+        if (minSection > maxSection) return;
+
+        synchronized (chunks) {
+            for (int cx = (x - 2) >> 4; cx <= (x + 2) >> 4; cx++) {
+                for (int cz = (z - 2) >> 4; cz <= (z + 2) >> 4; cz++) {
+                    TChunk tChunk = chunks.get(ChunkPos.toLong(cx, cz));
+                    if (tChunk == null) continue;
+
+                    tChunk.markDirty(minSection, maxSection);
+                    scan(tChunk);
+                }
+            }
         }
     }
 
+    private void scan(TChunk tChunk) {
+        scanExecutor.submit(tChunk.x, tChunk.z, () -> searchChunk(tChunk));
+    }
+
     @EventHandler
     private void onRender3D(Render3DEvent event) {
         synchronized (chunks) {
@@ -253,44 +347,64 @@ public class TunnelESP extends Module {
         }
         else key = pack(x, y, z);
 
-        return chunk != null && chunk.positions != null && chunk.positions.contains(key);
+        if (chunk == null) return false;
+
+        int section = mc.world.getSectionIndex(y);
+        if (section < 0 || section >= chunk.sections.length) return false;
+
+        IntSet positions = chunk.sections[section];
+        return positions != null && positions.contains(key);
     }
 
     private class TChunk {
         private final int x, z;
-        public IntSet positions;
+        public final IntSet[] sections;
+        private final BitSet dirty = new BitSet();
 
         public boolean marked;
 
-        public TChunk(int x, int z) {
+        public TChunk(int x, int z, int sectionCount) {
             this.x = x;
             this.z = z;
+            this.sections = new IntSet[sectionCount];
             this.marked = true;
         }
 
+        public synchronized void markDirty(int fromSection, int toSection) {
+            dirty.set(fromSection, toSection + 1);
+        }
+
+        public synchronized BitSet takeDirty() {
+            BitSet sections = (BitSet) dirty.clone();
+            dirty.clear();
+            return sections;
+        }
+
         public void render(Renderer3D renderer) {
-            if (positions == null) return;
+            for (IntSet positions : sections) {
+                if (positions == null) continue;
 
-            // Manual iteration to avoid boxing
-            for (IntIterator it = positions.iterator(); it.hasNext();) {
-                int pos = it.nextInt();
+                // Manual iteration to avoid boxing
+                for (IntIterator it = positions.iterator(); it.hasNext();) {
+                    int pos = it.nextInt();
 
-                int x = getPackedX(pos);
-                int y = getPackedY(pos);
-                int z = getPackedZ(pos);
+                    int x = getPackedX(pos);
+                    int y = getPackedY(pos);
+                    int z = getPackedZ(pos);
 
-                int excludeDir = 0;
+                    int excludeDir = 0;
 
-                if (connected.get()) {
-                    for (Direction dir : DIRECTIONS) {
-                        if (chunkContains(this, x + dir.getOffsetX(), y, z + dir.getOffsetZ())) excludeDir |= Dir.get(dir);
+                    if (connected.get()) {
+                        for (Direction dir : DIRECTIONS) {
+                            if (chunkContains(this, x + dir.getOffsetX(), y, z + dir.getOffsetZ())) excludeDir |= Dir.get(dir);
+                        }
                     }
-                }
 
-                x += this.x * 16;
-                z += this.z * 16;
+                    x += this.x * 16;
+                    z += this.z * 16;
 
-                renderer.box(x, y, z, x + 1, y + height.get(), z + 1, sideColor.get(), lineColor.get(), shapeMode.get(), excludeDir);
+                    renderer.box(x, y, z, x + 1, y + height.get(), z + 1, sideColor.get(), lineColor.get(), shapeMode.get(), excludeDir);
+                }
             }
         }
 
@@ -5,6 +5,7 @@
 
 package meteordevelopment.meteorclient.systems.modules.render;
 
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
 import meteordevelopment.meteorclient.MixinPlugin;
 import meteordevelopment.meteorclient.events.render.RenderBlockEntityEvent;
 import meteordevelopment.meteorclient.events.world.AmbientOcclusionEvent;
@@ -26,8 +27,15 @@ import net.minecraft.util.math.Direction;
 import net.minecraft.util.shape.VoxelShapes;
 
 import java.util.List;
+import java.util.Set;
 
 public class Xray extends Module {
+    // Alpha table entries with this flag only apply to blocks that are not exposed
+    private static final int UNEXPOSED_ONLY = 1 << 8;
+
+    /** Per block state data used by the chunk meshing threads, replaced as a whole whenever a setting it depends on changes. */
+    private static volatile StateTable table = new StateTable(new long[0], new int[0]);
+
     private final SettingGroup sgGeneral = settings.getDefaultGroup();
 
     public static final List<Block> ORES = List.of(Blocks.COAL_ORE, Blocks.DEEPSLATE_COAL_ORE, Blocks.IRON_ORE, Blocks.DEEPSLATE_IRON_ORE, Blocks.GOLD_ORE, Blocks.DEEPSLATE_GOLD_ORE, Blocks.LAPIS_ORE, Blocks.DEEPSLATE_LAPIS_ORE, Blocks.REDSTONE_ORE, Blocks.DEEPSLATE_REDSTONE_ORE, Blocks.DIAMOND_ORE, Blocks.DEEPSLATE_DIAMOND_ORE, Blocks.EMERALD_ORE, Blocks.DEEPSLATE_EMERALD_ORE, Blocks.COPPER_ORE, Blocks.DEEPSLATE_COPPER_ORE, Blocks.NETHER_GOLD_ORE, Blocks.NETHER_QUARTZ_ORE, Blocks.ANCIENT_DEBRIS);
@@ -37,6 +45,7 @@ public class Xray extends Module {
         .description("Which blocks to show x-rayed.")
         .defaultValue(ORES)
         .onChanged(v -> {
+            updateTable();
             if (isActive()) mc.worldRenderer.reload();
         })
         .build()
@@ -49,6 +58,7 @@ public class Xray extends Module {
         .range(0, 255)
         .sliderMax(255)
         .onChanged(onChanged -> {
+            updateTable();
             if (isActive()) mc.worldRenderer.reload();
         })
         .build()
@@ -59,6 +69,7 @@ public class Xray extends Module {
         .description("Show only exposed ores.")
         .defaultValue(false)
         .onChanged(onChanged -> {
+            updateTable();
             if (isActive()) mc.worldRenderer.reload();
         })
         .build());
@@ -69,11 +80,13 @@ public class Xray extends Module {
 
     @Override
     public void onActivate() {
+        updateTable();
         mc.worldRenderer.reload();
     }
 
     @Override
     public void onDeactivate() {
+        updateTable(this);
         mc.worldRenderer.reload();
     }
 
@@ -109,31 +122,83 @@ public class Xray extends Module {
     }
 
     public boolean isBlocked(BlockState state, BlockState otherState) {
-        return !(blocks.get().contains(state.getBlock()) && (!exposedOnly.get() || !otherState.isOpaque()));
+        return !(table.isWhitelisted(state) && (!exposedOnly.get() || !otherState.isOpaque()));
     }
 
     public boolean isBlocked(Block block, BlockPos blockPos) {
-        return !(blocks.get().contains(block) && (!exposedOnly.get() || (blockPos == null || BlockUtils.isExposed(blockPos))));
+        return !(table.isWhitelisted(block.getDefaultState()) && (!exposedOnly.get() || (blockPos == null || BlockUtils.isExposed(blockPos))));
     }
 
+    /**
+     * Called for every block while building chunk meshes, possibly from multiple threads.
+     * @return the alpha to render the block with or -1 if it should be rendered normally
+     */
     public static int getAlpha(BlockState state, BlockPos pos) {
-        WallHack wallHack = Modules.get().get(WallHack.class);
-        Xray xray = Modules.get().get(Xray.class);
+        int alpha = table.getAlpha(state);
+        if (alpha == -1) return -1;
 
-        if (wallHack.isActive() && wallHack.blocks.get().contains(state.getBlock())) {
-            if (MixinPlugin.isSodiumPresent || (MixinPlugin.isIrisPresent && IrisApi.getInstance().isShaderPackInUse())) return 0;
+        if ((alpha & UNEXPOSED_ONLY) != 0) {
+            if (pos == null || BlockUtils.isExposed(pos)) return -1;
+            alpha &= 0xFF;
+        }
 
-            int alpha;
+        return (MixinPlugin.isSodiumPresent || (MixinPlugin.isIrisPresent && IrisApi.getInstance().isShaderPackInUse())) ? 0 : alpha;
+    }
 
-            if (xray.isActive()) alpha = xray.opacity.get();
-            else alpha = wallHack.opacity.get();
+    /** Rebuilds the per block state table from the current Xray and Wall Hack settings. */
+    public static void updateTable() {
+        updateTable(null);
+    }
 
-            return alpha;
+    /** @param deactivating module that is still active while its {@link Module#onDeactivate()} runs */
+    static void updateTable(Module deactivating) {
+        Modules modules = Modules.get();
+        if (modules == null) return;
+
+        Xray xray = modules.get(Xray.class);
+        WallHack wallHack = modules.get(WallHack.class);
+        if (xray == null || wallHack == null) return;
+
+        boolean xrayActive = xray.isActive() && deactivating != xray;
+        boolean wallHackActive = wallHack.isActive() && deactivating != wallHack;
+
+        Set<Block> xrayBlocks = new ReferenceOpenHashSet<>(xray.blocks.get());
+        Set<Block> wallHackBlocks = new ReferenceOpenHashSet<>(wallHack.blocks.get());
+
+        int size = Block.STATE_IDS.size();
+        long[] whitelisted = new long[(size + 63) >> 6];
+        int[] alphas = new int[size];
+
+        for (int id = 0; id < size; id++) {
+            BlockState state = Block.STATE_IDS.get(id);
+            alphas[id] = -1;
+            if (state == null) continue;
+
+            Block block = state.getBlock();
+            boolean whitelist = xrayBlocks.contains(block);
+            if (whitelist) whitelisted[id >> 6] |= 1L << id;
+
+            if (wallHackActive && wallHackBlocks.contains(block)) {
+                alphas[id] = xrayActive ? xray.opacity.get() : wallHack.opacity.get();
+            }
+            else if (xrayActive && !wallHackActive) {
+                if (!whitelist) alphas[id] = xray.opacity.get();
+                else if (xray.exposedOnly.get()) alphas[id] = xray.opacity.get() | UNEXPOSED_ONLY;
+            }
         }
-        else if (xray.isActive() && !wallHack.isActive() && xray.isBlocked(state.getBlock(), pos)) {
-            return (MixinPlugin.isSodiumPresent || (MixinPlugin.isIrisPresent && IrisApi.getInstance().isShaderPackInUse())) ? 0 : xray.opacity.get();
+
+        table = new StateTable(whitelisted, alphas);
+    }
+
+    private record StateTable(long[] whitelisted, int[] alphas) {
+        public boolean isWhitelisted(BlockState state) {
+            int id = Block.getRawIdFromState(state);
+            return id >= 0 && (id >> 6) < whitelisted.length && (whitelisted[id >> 6] & (1L << id)) != 0;
         }
 
-        return -1;
+        public int getAlpha(BlockState state) {
+            int id = Block.getRawIdFromState(state);
+            return id >= 0 && id < alphas.length ? alphas[id] : -1;
+        }
     }
 }
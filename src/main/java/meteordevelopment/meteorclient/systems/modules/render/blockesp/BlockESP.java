@@ -20,12 +20,14 @@ import meteordevelopment.meteorclient.utils.Utils;
 import meteordevelopment.meteorclient.utils.player.PlayerUtils;
 import meteordevelopment.meteorclient.utils.render.color.RainbowColors;
 import meteordevelopment.meteorclient.utils.render.color.SettingColor;
+import meteordevelopment.meteorclient.utils.world.ChunkExecutor;
 import meteordevelopment.meteorclient.utils.world.Dimension;
 import meteordevelopment.orbit.EventHandler;
 import net.minecraft.block.Block;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.ChunkPos;
 import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.ChunkStatus;
 
 import java.util.Iterator;
 import java.util.List;
@@ -82,6 +84,11 @@ public class BlockESP extends Module {
     private final Long2ObjectMap<ESPChunk> chunks = new Long2ObjectOpenHashMap<>();
     private final Set<ESPGroup> groups = new ReferenceOpenHashSet<>();
     private final ExecutorService workerThread = Executors.newSingleThreadExecutor();
+    private final ChunkExecutor scanExecutor = new ChunkExecutor("Meteor-BlockESP");
+
+    private volatile int generation;
+    private int renderConfigHash;
+    private Set<Block> blockSet = new ReferenceOpenHashSet<>();
 
     private Dimension lastDimension;
 
@@ -93,7 +100,12 @@ public class BlockESP extends Module {
 
     @Override
     public void onActivate() {
+        generation++;
+        scanExecutor.cancelAll();
+        blockSet = new ReferenceOpenHashSet<>(blocks.get());
+
         synchronized (chunks) {
+            for (ESPChunk chunk : chunks.values()) chunk.destroy();
             chunks.clear();
             groups.clear();
         }
@@ -107,7 +119,11 @@ public class BlockESP extends Module {
 
     @Override
     public void onDeactivate() {
+        generation++;
+        scanExecutor.cancelAll();
+
         synchronized (chunks) {
+            for (ESPChunk chunk : chunks.values()) chunk.destroy();
             chunks.clear();
             groups.clear();
         }
@@ -160,25 +176,59 @@ public class BlockESP extends Module {
     }
 
     private void searchChunk(Chunk chunk) {
-        workerThread.submit(() -> {
-            if (!isActive()) return;
-            ESPChunk schunk = ESPChunk.searchChunk(chunk, blocks.get());
+        int gen = generation;
+        Set<Block> blocks = blockSet;
+        ChunkPos pos = chunk.getPos();
+
+        // Searching is done in parallel, merging the result into the groups is done on the single worker thread
+        scanExecutor.submit(pos.x, pos.z, () -> {
+            if (!isActive() || gen != generation) return;
+            if (mc.world == null || mc.world.getChunk(pos.x, pos.z, ChunkStatus.FULL, false) != chunk) return;
+
+            ESPChunk schunk = ESPChunk.searchChunk(chunk, blocks);
+            boolean empty = schunk.size() == 0;
+
+            workerThread.submit(() -> {
+                if (!isActive() || gen != generation) return;
 
-            if (schunk.size() > 0) {
                 synchronized (chunks) {
-                    chunks.put(chunk.getPos().toLong(), schunk);
-                    schunk.update();
+                    ESPChunk old = empty ? chunks.remove(pos.toLong()) : chunks.put(pos.toLong(), schunk);
+
+                    if (empty) {
+                        // A rescan found nothing, drop the stale chunk instead of keeping its old blocks around
+                        if (old == null) return;
+
+                        unload(old);
+                        mc.execute(old::destroy);
+                    }
+                    else {
+                        if (old != null) {
+                            unload(old);
+                            schunk.takeRenderer(old);
+                        }
+
+                        schunk.update();
+                    }
 
                     // Update neighbour chunks
-                    updateChunk(chunk.getPos().x - 1, chunk.getPos().z);
-                    updateChunk(chunk.getPos().x + 1, chunk.getPos().z);
-                    updateChunk(chunk.getPos().x, chunk.getPos().z - 1);
-                    updateChunk(chunk.getPos().x, chunk.getPos().z + 1);
+                    updateChunk(pos.x - 1, pos.z);
+                    updateChunk(pos.x + 1, pos.z);
+                    updateChunk(pos.x, pos.z - 1);
+                    updateChunk(pos.x, pos.z + 1);
                 }
-            }
+            });
         });
     }
 
+    private void unload(ESPChunk chunk) {
+        if (chunk.blocks == null) return;
+
+        for (ESPBlock block : chunk.blocks.values()) {
+            if (block.group != null) block.group.remove(block, false);
+            block.loaded = false;
+        }
+    }
+
     @EventHandler
     private void onBlockUpdate(BlockUpdateEvent event) {
         // Minecraft probably reuses the event.pos BlockPos instance because it causes problems when trying to use it inside another thread
@@ -190,8 +240,8 @@ public class BlockESP extends Module {
         int chunkZ = bz >> 4;
         long key = ChunkPos.toLong(chunkX, chunkZ);
 
-        boolean added = blocks.get().contains(event.newState.getBlock()) && !blocks.get().contains(event.oldState.getBlock());
-        boolean removed = !added && !blocks.get().contains(event.newState.getBlock()) && blocks.get().contains(event.oldState.getBlock());
+        boolean added = blockSet.contains(event.newState.getBlock()) && !blockSet.contains(event.oldState.getBlock());
+        boolean removed = !added && !blockSet.contains(event.newState.getBlock()) && blockSet.contains(event.oldState.getBlock());
 
         if (added || removed) {
             workerThread.submit(() -> {
@@ -234,23 +284,37 @@ public class BlockESP extends Module {
         lastDimension = dimension;
     }
 
+    private int getRenderConfigHash() {
+        int hash = getBlockDataHash(defaultBlockConfig.get());
+        for (ESPBlockData blockData : blockConfigs.get().values()) hash = hash * 31 + getBlockDataHash(blockData);
+        return hash;
+    }
+
+    private static int getBlockDataHash(ESPBlockData blockData) {
+        return (blockData.shapeMode.ordinal() * 31 + blockData.lineColor.getPacked()) * 31 + blockData.sideColor.getPacked();
+    }
+
     @EventHandler
     private void onRender(Render3DEvent event) {
+        // Chunk geometry is cached, rebuild it when colors or shape modes change (eg. rainbow colors)
+        int configHash = getRenderConfigHash();
+        boolean configChanged = configHash != renderConfigHash;
+        renderConfigHash = configHash;
+
         synchronized (chunks) {
             for (Iterator<ESPChunk> it = chunks.values().iterator(); it.hasNext();) {
                 ESPChunk chunk = it.next();
 
                 if (chunk.shouldBeDeleted()) {
-                    workerThread.submit(() -> {
-                        for (ESPBlock block : chunk.blocks.values()) {
-                            block.group.remove(block, false);
-                            block.loaded = false;
-                        }
-                    });
+                    chunk.destroy();
+                    workerThread.submit(() -> unload(chunk));
 
                     it.remove();
                 }
-                else chunk.render(event);
+                else {
+                    if (configChanged) chunk.markDirty();
+                    chunk.render(event);
+                }
             }
 
             if (tracers.get()) {
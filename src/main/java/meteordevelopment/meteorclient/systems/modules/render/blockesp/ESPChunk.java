@@ -8,14 +8,14 @@ package meteordevelopment.meteorclient.systems.modules.render.blockesp;
 import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
 import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import meteordevelopment.meteorclient.events.render.Render3DEvent;
+import meteordevelopment.meteorclient.renderer.Renderer3D;
+import meteordevelopment.meteorclient.utils.world.WorldScanner;
 import net.minecraft.block.Block;
-import net.minecraft.block.BlockState;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.ChunkSectionPos;
-import net.minecraft.world.Heightmap;
 import net.minecraft.world.chunk.Chunk;
 
-import java.util.List;
+import java.util.Set;
 
 import static meteordevelopment.meteorclient.MeteorClient.mc;
 import static meteordevelopment.meteorclient.utils.Utils.getRenderDistance;
@@ -25,6 +25,10 @@ public class ESPChunk {
     private final int x, z;
     public Long2ObjectMap<ESPBlock> blocks;
 
+    // Geometry is kept on the GPU and only rebuilt when a block or its neighbours change
+    private Renderer3D renderer;
+    private boolean dirty = true;
+
     public ESPChunk(int x, int z) {
         this.x = x;
         this.z = z;
@@ -34,13 +38,18 @@ public class ESPChunk {
         return blocks == null ? null : blocks.get(ESPBlock.getKey(x, y, z));
     }
 
-    public void add(BlockPos blockPos, boolean update) {
-        ESPBlock block = new ESPBlock(blockPos.getX(), blockPos.getY(), blockPos.getZ());
+    public void add(int x, int y, int z, boolean update) {
+        ESPBlock block = new ESPBlock(x, y, z);
 
         if (blocks == null) blocks = new Long2ObjectOpenHashMap<>(64);
-        blocks.put(ESPBlock.getKey(blockPos), block);
+        blocks.put(ESPBlock.getKey(x, y, z), block);
 
         if (update) block.update();
+        dirty = true;
+    }
+
+    public void add(BlockPos blockPos, boolean update) {
+        add(blockPos.getX(), blockPos.getY(), blockPos.getZ(), update);
     }
 
     public void add(BlockPos blockPos) {
@@ -52,18 +61,25 @@ public class ESPChunk {
             ESPBlock block = blocks.remove(ESPBlock.getKey(blockPos));
             if (block != null) block.group.remove(block);
         }
+
+        dirty = true;
     }
 
     public void update() {
         if (blocks != null) {
             for (ESPBlock block : blocks.values()) block.update();
         }
+
+        dirty = true;
     }
 
     public void update(int x, int y, int z) {
         if (blocks != null) {
             ESPBlock block = blocks.get(ESPBlock.getKey(x, y, z));
-            if (block != null) block.update();
+            if (block != null) {
+                block.update();
+                dirty = true;
+            }
         }
     }
 
@@ -79,31 +95,54 @@ public class ESPChunk {
         return x > chunkX + viewDist || x < chunkX - viewDist || z > chunkZ + viewDist || z < chunkZ - viewDist;
     }
 
-    public void render(Render3DEvent event) {
-        if (blocks != null) {
-            for (ESPBlock block : blocks.values()) block.render(event);
+    public void markDirty() {
+        dirty = true;
+    }
+
+    /** Reuses the GPU buffers of a chunk that is being replaced by this one. */
+    public void takeRenderer(ESPChunk chunk) {
+        if (renderer == null) {
+            renderer = chunk.renderer;
+            chunk.renderer = null;
         }
+
+        dirty = true;
     }
 
+    public void render(Render3DEvent event) {
+        if (blocks == null) return;
 
-    public static ESPChunk searchChunk(Chunk chunk, List<Block> blocks) {
-        ESPChunk schunk = new ESPChunk(chunk.getPos().x, chunk.getPos().z);
-        if (schunk.shouldBeDeleted()) return schunk;
+        if (renderer == null) {
+            renderer = new Renderer3D().retained();
+            dirty = true;
+        }
 
-        BlockPos.Mutable blockPos = new BlockPos.Mutable();
+        if (dirty) {
+            renderer.begin(x << 4, z << 4);
+            for (ESPBlock block : blocks.values()) block.render(renderer);
+            renderer.end();
 
-        for (int x = chunk.getPos().getStartX(); x <= chunk.getPos().getEndX(); x++) {
-            for (int z = chunk.getPos().getStartZ(); z <= chunk.getPos().getEndZ(); z++) {
-                int height = chunk.getHeightmap(Heightmap.Type.WORLD_SURFACE).get(x - chunk.getPos().getStartX(), z - chunk.getPos().getStartZ());
+            dirty = false;
+        }
 
-                for (int y = mc.world.getBottomY(); y < height; y++) {
-                    blockPos.set(x, y, z);
-                    BlockState bs = chunk.getBlockState(blockPos);
+        renderer.render(event.matrices);
+    }
 
-                    if (blocks.contains(bs.getBlock())) schunk.add(blockPos, false);
-                }
-            }
+    /** Must be called on the render thread. */
+    public void destroy() {
+        if (renderer != null) {
+            renderer.destroy();
+            renderer = null;
         }
+    }
+
+
+    public static ESPChunk searchChunk(Chunk chunk, Set<Block> blocks) {
+        ESPChunk schunk = new ESPChunk(chunk.getPos().x, chunk.getPos().z);
+        if (schunk.shouldBeDeleted()) return schunk;
+
+        // Sections whose palette does not contain any of the blocks are skipped
+        WorldScanner.scanChunk(chunk, state -> blocks.contains(state.getBlock()), (x, y, z, state) -> schunk.add(x, y, z, false));
 
         return schunk;
     }
@@ -9,7 +9,7 @@ import meteordevelopment.meteorclient.events.world.TickEvent;
 import meteordevelopment.meteorclient.settings.*;
 import meteordevelopment.meteorclient.systems.modules.Categories;
 import meteordevelopment.meteorclient.systems.modules.Module;
-import meteordevelopment.meteorclient.utils.player.PlayerUtils;
+import meteordevelopment.meteorclient.utils.entity.EntityIndex;
 import meteordevelopment.meteorclient.utils.player.Rotations;
 import meteordevelopment.orbit.EventHandler;
 import net.minecraft.entity.Entity;
@@ -58,6 +58,7 @@ public class AutoBreed extends Module {
     );
 
     private final List<Entity> animalsFed = new ArrayList<>();
+    private final List<AnimalEntity> animalsInRange = new ArrayList<>();
 
     public AutoBreed() {
         super(Categories.World, "auto-breed", "Automatically breeds specified animals.");
@@ -70,9 +71,9 @@ public class AutoBreed extends Module {
 
     @EventHandler
     private void onTick(TickEvent.Pre event) {
-        for (Entity entity : mc.world.getEntities()) {
-            if (!(entity instanceof AnimalEntity animal)) continue;
+        animalsInRange.clear();
 
+        for (AnimalEntity animal : EntityIndex.getInRange(mc.player.getX(), mc.player.getY(), mc.player.getZ(), range.get(), AnimalEntity.class, animalsInRange)) {
             if (!entities.get().contains(animal.getType())
                 || !switch (mobAgeFilter.get()) {
                 case Baby -> animal.isBaby();
@@ -80,11 +81,10 @@ public class AutoBreed extends Module {
                 case Both -> true;
             }
                 || animalsFed.contains(animal)
-                || !PlayerUtils.isWithin(animal, range.get())
                 || !animal.isBreedingItem(hand.get() == Hand.MAIN_HAND ? mc.player.getMainHandStack() : mc.player.getOffHandStack()))
                 continue;
 
-            Rotations.rotate(Rotations.getYaw(entity), Rotations.getPitch(entity), -100, () -> {
+            Rotations.rotate(Rotations.getYaw(animal), Rotations.getPitch(animal), -100, () -> {
                 mc.interactionManager.interactEntity(mc.player, animal, hand.get());
                 mc.player.swingHand(hand.get());
                 animalsFed.add(animal);
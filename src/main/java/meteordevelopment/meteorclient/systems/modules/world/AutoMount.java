@@ -14,8 +14,8 @@ import meteordevelopment.meteorclient.settings.Setting;
 import meteordevelopment.meteorclient.settings.SettingGroup;
 import meteordevelopment.meteorclient.systems.modules.Categories;
 import meteordevelopment.meteorclient.systems.modules.Module;
+import meteordevelopment.meteorclient.utils.entity.EntityIndex;
 import meteordevelopment.meteorclient.utils.entity.EntityUtils;
-import meteordevelopment.meteorclient.utils.player.PlayerUtils;
 import meteordevelopment.meteorclient.utils.player.Rotations;
 import meteordevelopment.orbit.EventHandler;
 import net.minecraft.entity.Entity;
@@ -29,6 +29,8 @@ import net.minecraft.entity.passive.StriderEntity;
 import net.minecraft.item.SpawnEggItem;
 import net.minecraft.util.Hand;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 
 public class AutoMount extends Module {
@@ -55,6 +57,8 @@ public class AutoMount extends Module {
         .build()
     );
 
+    private final List<Entity> entitiesInRange = new ArrayList<>();
+
     public AutoMount() {
         super(Categories.World, "auto-mount", "Automatically mounts entities.");
     }
@@ -65,9 +69,10 @@ public class AutoMount extends Module {
         if (mc.player.isSneaking()) return;
         if (mc.player.getMainHandStack().getItem() instanceof SpawnEggItem) return;
 
-        for (Entity entity : mc.world.getEntities()) {
+        entitiesInRange.clear();
+
+        for (Entity entity : EntityIndex.getInRange(mc.player.getX(), mc.player.getY(), mc.player.getZ(), 4, Entity.class, entitiesInRange)) {
             if (!entities.get().contains(entity.getType())) continue;
-            if (!PlayerUtils.isWithin(entity, 4)) continue;
             if ((entity instanceof PigEntity || entity instanceof SkeletonHorseEntity || entity instanceof StriderEntity || entity instanceof ZombieHorseEntity) && !((Saddleable) entity).isSaddled()) continue;
             if (!(entity instanceof LlamaEntity) && entity instanceof Saddleable saddleable && checkSaddle.get() && !saddleable.isSaddled()) continue;
             interact(entity);
@@ -12,9 +12,9 @@ import meteordevelopment.meteorclient.settings.Setting;
 import meteordevelopment.meteorclient.settings.SettingGroup;
 import meteordevelopment.meteorclient.systems.modules.Categories;
 import meteordevelopment.meteorclient.systems.modules.Module;
+import meteordevelopment.meteorclient.utils.entity.EntityIndex;
 import meteordevelopment.meteorclient.utils.player.FindItemResult;
 import meteordevelopment.meteorclient.utils.player.InvUtils;
-import meteordevelopment.meteorclient.utils.player.PlayerUtils;
 import meteordevelopment.meteorclient.utils.player.Rotations;
 import meteordevelopment.orbit.EventHandler;
 import net.minecraft.entity.Entity;
@@ -22,6 +22,9 @@ import net.minecraft.entity.passive.SheepEntity;
 import net.minecraft.item.Items;
 import net.minecraft.util.Hand;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class AutoShearer extends Module {
     private final SettingGroup sgGeneral = settings.getDefaultGroup();
 
@@ -47,6 +50,8 @@ public class AutoShearer extends Module {
         .build()
     );
 
+    private final List<SheepEntity> sheepInRange = new ArrayList<>();
+
     private Entity entity;
     private Hand hand;
 
@@ -63,8 +68,10 @@ public class AutoShearer extends Module {
     private void onTick(TickEvent.Pre event) {
         entity = null;
 
-        for (Entity entity : mc.world.getEntities()) {
-            if (!(entity instanceof SheepEntity) || ((SheepEntity) entity).isSheared() || ((SheepEntity) entity).isBaby() || !PlayerUtils.isWithin(entity, distance.get())) continue;
+        sheepInRange.clear();
+
+        for (SheepEntity entity : EntityIndex.getInRange(mc.player.getX(), mc.player.getY(), mc.player.getZ(), distance.get(), SheepEntity.class, sheepInRange)) {
+            if (entity.isSheared() || entity.isBaby()) continue;
 
             FindItemResult findShear = InvUtils.findInHotbar(itemStack -> itemStack.getItem() == Items.SHEARS && (!antiBreak.get() || itemStack.getDamage() < itemStack.getMaxDamage() - 1));
             if (!InvUtils.swap(findShear.slot(), true)) return;
@@ -10,6 +10,7 @@ import meteordevelopment.meteorclient.events.packets.PacketEvent;
 import meteordevelopment.meteorclient.mixin.AbstractSignEditScreenAccessor;
 import meteordevelopment.meteorclient.systems.modules.Categories;
 import meteordevelopment.meteorclient.systems.modules.Module;
+import meteordevelopment.meteorclient.utils.network.PacketListeners;
 import meteordevelopment.orbit.EventHandler;
 import net.minecraft.block.entity.SignBlockEntity;
 import net.minecraft.client.gui.screen.ingame.AbstractSignEditScreen;
@@ -20,6 +21,8 @@ public class AutoSign extends Module {
 
     public AutoSign() {
         super(Categories.World, "auto-sign", "Automatically writes signs. The first sign's text will be used.");
+
+        PacketListeners.onSend(this, UpdateSignC2SPacket.class, this::onUpdateSign);
     }
 
     @Override
@@ -27,11 +30,8 @@ public class AutoSign extends Module {
         text = null;
     }
 
-    @EventHandler
-    private void onSendPacket(PacketEvent.Send event) {
-        if (!(event.packet instanceof UpdateSignC2SPacket)) return;
-
-        text = ((UpdateSignC2SPacket) event.packet).getText();
+    private void onUpdateSign(PacketEvent.Send event, UpdateSignC2SPacket packet) {
+        text = packet.getText();
     }
 
     @EventHandler
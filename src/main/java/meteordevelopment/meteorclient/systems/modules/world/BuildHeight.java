@@ -9,18 +9,18 @@ import meteordevelopment.meteorclient.events.packets.PacketEvent;
 import meteordevelopment.meteorclient.mixin.BlockHitResultAccessor;
 import meteordevelopment.meteorclient.systems.modules.Categories;
 import meteordevelopment.meteorclient.systems.modules.Module;
-import meteordevelopment.orbit.EventHandler;
+import meteordevelopment.meteorclient.utils.network.PacketListeners;
 import net.minecraft.network.packet.c2s.play.PlayerInteractBlockC2SPacket;
 import net.minecraft.util.math.Direction;
 
 public class BuildHeight extends Module {
     public BuildHeight() {
         super(Categories.World, "build-height", "Allows you to interact with objects at the build limit.");
+
+        PacketListeners.onSend(this, PlayerInteractBlockC2SPacket.class, this::onInteractBlock);
     }
 
-    @EventHandler
-    private void onSendPacket(PacketEvent.Send event) {
-        if (!(event.packet instanceof PlayerInteractBlockC2SPacket p)) return;
+    private void onInteractBlock(PacketEvent.Send event, PlayerInteractBlockC2SPacket p) {
         if (mc.world == null) return;
         if (p.getBlockHitResult().getPos().y >= mc.world.getHeight() && p.getBlockHitResult().getSide() == Direction.UP) {
             ((BlockHitResultAccessor) p.getBlockHitResult()).setSide(Direction.DOWN);
@@ -15,6 +15,7 @@ import meteordevelopment.meteorclient.settings.Setting;
 import meteordevelopment.meteorclient.settings.SettingGroup;
 import meteordevelopment.meteorclient.systems.modules.Categories;
 import meteordevelopment.meteorclient.systems.modules.Module;
+import meteordevelopment.meteorclient.utils.network.PacketListeners;
 import meteordevelopment.orbit.EventHandler;
 import net.minecraft.block.*;
 import net.minecraft.network.packet.c2s.play.PlayerMoveC2SPacket;
@@ -56,6 +57,9 @@ public class Collisions extends Module {
 
     public Collisions() {
         super(Categories.World, "collisions", "Adds collision boxes to certain blocks/areas.");
+
+        PacketListeners.onSend(this, VehicleMoveC2SPacket.class, this::onVehicleMove);
+        PacketListeners.onSend(this, PlayerMoveC2SPacket.class, this::onPlayerMove);
     }
 
     @EventHandler
@@ -80,18 +84,18 @@ public class Collisions extends Module {
         }
     }
 
-    @EventHandler
-    private void onPacketSend(PacketEvent.Send event) {
+    private void onVehicleMove(PacketEvent.Send event, VehicleMoveC2SPacket packet) {
+        if (!unloadedChunks.get()) return;
+        if (!mc.world.getChunkManager().isChunkLoaded((int) packet.getX() >> 4, (int) packet.getZ() >> 4)) {
+            mc.player.getVehicle().updatePosition(mc.player.getVehicle().prevX, mc.player.getVehicle().prevY, mc.player.getVehicle().prevZ);
+            event.cancel();
+        }
+    }
+
+    private void onPlayerMove(PacketEvent.Send event, PlayerMoveC2SPacket packet) {
         if (!unloadedChunks.get()) return;
-        if (event.packet instanceof VehicleMoveC2SPacket packet) {
-            if (!mc.world.getChunkManager().isChunkLoaded((int) packet.getX() >> 4, (int) packet.getZ() >> 4)) {
-                mc.player.getVehicle().updatePosition(mc.player.getVehicle().prevX, mc.player.getVehicle().prevY, mc.player.getVehicle().prevZ);
-                event.cancel();
-            }
-        } else if (event.packet instanceof PlayerMoveC2SPacket packet) {
-            if (!mc.world.getChunkManager().isChunkLoaded((int) packet.getX(mc.player.getX()) >> 4, (int) packet.getZ(mc.player.getZ()) >> 4)) {
-                event.cancel();
-            }
+        if (!mc.world.getChunkManager().isChunkLoaded((int) packet.getX(mc.player.getX()) >> 4, (int) packet.getZ(mc.player.getZ()) >> 4)) {
+            event.cancel();
         }
     }
 
@@ -9,9 +9,9 @@ import meteordevelopment.meteorclient.events.world.TickEvent;
 import meteordevelopment.meteorclient.settings.*;
 import meteordevelopment.meteorclient.systems.modules.Categories;
 import meteordevelopment.meteorclient.systems.modules.Module;
+import meteordevelopment.meteorclient.utils.entity.EntityIndex;
 import meteordevelopment.meteorclient.utils.player.FindItemResult;
 import meteordevelopment.meteorclient.utils.player.InvUtils;
-import meteordevelopment.meteorclient.utils.player.PlayerUtils;
 import meteordevelopment.meteorclient.utils.player.Rotations;
 import meteordevelopment.orbit.EventHandler;
 import net.minecraft.block.Block;
@@ -25,6 +25,8 @@ import net.minecraft.util.hit.BlockHitResult;
 import net.minecraft.util.math.Direction;
 import net.minecraft.util.math.Vec3d;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 
 public class Flamethrower extends Module {
@@ -85,6 +87,8 @@ public class Flamethrower extends Module {
         .build()
     );
 
+    private final List<Entity> entitiesInRange = new ArrayList<>();
+
     private Entity entity;
     private int ticks = 0;
     private Hand hand;
@@ -102,8 +106,10 @@ public class Flamethrower extends Module {
     private void onTick(TickEvent.Pre event) {
         entity = null;
         ticks++;
-        for (Entity entity : mc.world.getEntities()) {
-            if (!entities.get().contains(entity.getType()) || !PlayerUtils.isWithin(entity, distance.get())) continue;
+        entitiesInRange.clear();
+
+        for (Entity entity : EntityIndex.getInRange(mc.player.getX(), mc.player.getY(), mc.player.getZ(), distance.get(), Entity.class, entitiesInRange)) {
+            if (!entities.get().contains(entity.getType())) continue;
             if (entity.isFireImmune()) continue;
             if (entity == mc.player) continue;
             if (!targetBabies.get() && entity instanceof LivingEntity && ((LivingEntity)entity).isBaby()) continue;
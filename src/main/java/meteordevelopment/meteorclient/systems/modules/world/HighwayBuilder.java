@@ -5,6 +5,9 @@
 
 package meteordevelopment.meteorclient.systems.modules.world;
 
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
 import meteordevelopment.meteorclient.events.render.Render3DEvent;
 import meteordevelopment.meteorclient.events.world.TickEvent;
 import meteordevelopment.meteorclient.renderer.ShapeMode;
@@ -50,6 +53,7 @@ import net.minecraft.util.math.Vec3d;
 import net.minecraft.world.EmptyBlockView;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.function.Predicate;
@@ -133,6 +137,15 @@ public class HighwayBuilder extends Module {
         .build()
     );
 
+    private final Setting<Integer> lookahead = sgGeneral.add(new IntSetting.Builder()
+        .name("lookahead")
+        .description("How many blocks ahead to dig and pave while walking, 0 finishes each block before moving on.")
+        .defaultValue(2)
+        .range(0, 3)
+        .sliderRange(0, 3)
+        .build()
+    );
+
     private final Setting<Boolean> disconnectOnToggle = sgGeneral.add(new BoolSetting.Builder()
         .name("disconnect-on-toggle")
         .description("Automatically disconnects when the module is turned off, for example for not having enough blocks.")
@@ -330,8 +343,9 @@ public class HighwayBuilder extends Module {
     private boolean displayInfo;
     private int placeTimer, breakTimer, count;
 
-    private final MBlockPos posRender2 = new MBlockPos();
-    private final MBlockPos posRender3 = new MBlockPos();
+    private final Plan plan = new Plan();
+    private final MBlockPos planOrigin = new MBlockPos();
+    private long startTime;
 
     public HighwayBuilder() {
         super(Categories.World, "highway-builder", "Automatically builds highways.");
@@ -342,7 +356,6 @@ public class HighwayBuilder extends Module {
         - better inventory management
             - getting echests and picks from shulker boxes - refactor echest blockade to be more general purpose?
             - access to your ec
-        - separate walking forwards from the current state to speed up actions
         - fix issues related to y level changes
      */
 
@@ -360,6 +373,7 @@ public class HighwayBuilder extends Module {
         blockPosProvider = dir.diagonal ? new DiagonalBlockPosProvider() : new StraightBlockPosProvider();
 
         start = mc.player.getPos();
+        startTime = System.currentTimeMillis();
         blocksBroken = blocksPlaced = 0;
         lastBreakingPos.set(0, 0, 0);
         displayInfo = true;
@@ -384,6 +398,7 @@ public class HighwayBuilder extends Module {
             info("Distance: (highlight)%.0f", PlayerUtils.distanceTo(start));
             info("Blocks broken: (highlight)%d", blocksBroken);
             info("Blocks placed: (highlight)%d", blocksPlaced);
+            info("Blocks per minute: (highlight)%.0f", getBlocksPerMinute());
         }
     }
 
@@ -419,6 +434,7 @@ public class HighwayBuilder extends Module {
 
         count = 0;
 
+        plan.update();
         state.tick(this);
 
         if (breakTimer > 0) breakTimer--;
@@ -427,44 +443,32 @@ public class HighwayBuilder extends Module {
 
     @EventHandler
     private void onRender3D(Render3DEvent event) {
+        plan.update();
+
         if (renderMine.get()) {
-            render(event, blockPosProvider.getFront(), mBlockPos -> canMine(mBlockPos, true), true);
-            if (floor.get() == Floor.Replace) render(event, blockPosProvider.getFloor(), mBlockPos -> canMine(mBlockPos, false), true);
-            if (railings.get()) render(event, blockPosProvider.getRailings(true), mBlockPos -> canMine(mBlockPos, false), true);
-            if (state == State.MineEChestBlockade) render(event, blockPosProvider.getEChestBlockade(true), mBlockPos -> canMine(mBlockPos, true), true);
+            render(event, plan.getFront(), mBlockPos -> canMine(mBlockPos, true), true);
+            if (floor.get() == Floor.Replace) render(event, plan.getFloor(), mBlockPos -> canMine(mBlockPos, false), true);
+            if (railings.get()) render(event, plan.getRailings(true), mBlockPos -> canMine(mBlockPos, false), true);
+            if (state == State.MineEChestBlockade) render(event, plan.getEChestBlockade(true), mBlockPos -> canMine(mBlockPos, true), true);
         }
 
         if (renderPlace.get()) {
-            render(event, blockPosProvider.getLiquids(), mBlockPos -> canPlace(mBlockPos, true), false);
-            if (railings.get()) render(event, blockPosProvider.getRailings(false), mBlockPos -> canPlace(mBlockPos, false), false);
-            render(event, blockPosProvider.getFloor(), mBlockPos -> canPlace(mBlockPos, false), false);
-            if (state == State.PlaceEChestBlockade) render(event, blockPosProvider.getEChestBlockade(false), mBlockPos -> canPlace(mBlockPos, false), false);
+            render(event, plan.getLiquids(), mBlockPos -> canPlace(mBlockPos, true), false);
+            if (railings.get()) render(event, plan.getRailings(false), mBlockPos -> canPlace(mBlockPos, false), false);
+            render(event, plan.getFloor(), mBlockPos -> canPlace(mBlockPos, false), false);
+            if (state == State.PlaceEChestBlockade) render(event, plan.getEChestBlockade(false), mBlockPos -> canPlace(mBlockPos, false), false);
         }
     }
 
-    private void render(Render3DEvent event, MBPIterator it, Predicate<MBlockPos> predicate, boolean mine) {
+    private void render(Render3DEvent event, PlannedBlocks blocks, Predicate<MBlockPos> predicate, boolean mine) {
         Color sideColor = mine ? renderMineSideColor.get() : renderPlaceSideColor.get();
         Color lineColor = mine ? renderMineLineColor.get() : renderPlaceLineColor.get();
         ShapeMode shapeMode = mine ? renderMineShape.get() : renderPlaceShape.get();
 
-        for (MBlockPos pos : it) {
-            posRender2.set(pos);
-
-            if (predicate.test(posRender2)) {
-                int excludeDir = 0;
-
-                for (Direction side : Direction.values()) {
-                    posRender3.set(posRender2).add(side.getOffsetX(), side.getOffsetY(), side.getOffsetZ());
-
-                    it.save();
-                    for (MBlockPos p : it) {
-                        if (p.equals(posRender3) && predicate.test(p)) excludeDir |= Dir.get(side);
-                    }
-                    it.restore();
-                }
+        blocks.test(predicate);
 
-                event.renderer.box(posRender2.getBlockPos(), sideColor, lineColor, shapeMode, excludeDir);
-            }
+        for (int i = 0; i < blocks.size(); i++) {
+            if (blocks.matches(i)) event.renderer.box(blocks.get(i).getBlockPos(), sideColor, lineColor, shapeMode, blocks.getExcludeDir(i));
         }
     }
 
@@ -501,6 +505,11 @@ public class HighwayBuilder extends Module {
         return liquids ? !pos.getState().getFluidState().isEmpty() : BlockUtils.canPlace(pos.getBlockPos());
     }
 
+    private double getBlocksPerMinute() {
+        double minutes = (System.currentTimeMillis() - startTime) / 60000.0;
+        return minutes > 0 ? (blocksBroken + blocksPlaced) / minutes : 0;
+    }
+
     private void disconnect(String message, Object... args) {
         MutableText text = Text.literal(String.format("%s[%s%s%s] %s", Formatting.GRAY, Formatting.BLUE, title, Formatting.GRAY, Formatting.RED) + String.format(message, args)).append("\n");
         text.append(getStatsText());
@@ -511,7 +520,8 @@ public class HighwayBuilder extends Module {
     public MutableText getStatsText() {
         MutableText text = Text.literal(String.format("%sDistance: %s%.0f\n", Formatting.GRAY, Formatting.WHITE, mc.player == null ? 0.0f : PlayerUtils.distanceTo(start)));
         text.append(String.format("%sBlocks broken: %s%d\n", Formatting.GRAY, Formatting.WHITE, blocksBroken));
-        text.append(String.format("%sBlocks placed: %s%d", Formatting.GRAY, Formatting.WHITE, blocksPlaced));
+        text.append(String.format("%sBlocks placed: %s%d\n", Formatting.GRAY, Formatting.WHITE, blocksPlaced));
+        text.append(String.format("%sBlocks per minute: %s%.0f", Formatting.GRAY, Formatting.WHITE, getBlocksPerMinute()));
 
         return text;
     }
@@ -568,23 +578,95 @@ public class HighwayBuilder extends Module {
             protected void start(HighwayBuilder b) {
                 b.mc.player.setYaw(b.dir.yaw);
 
-                checkTasks(b);
+                if (b.lookahead.get() == 0) checkTasks(b);
             }
 
             @Override
             protected void tick(HighwayBuilder b) {
+                if (b.lookahead.get() > 0) {
+                    work(b);
+                    return;
+                }
+
                 checkTasks(b);
 
                 if (b.state == Forward) b.input.forward(true); // Move
             }
 
+            /** Works through the planned queue within the per tick limits and walks once the next block is done. */
+            private void work(HighwayBuilder b) {
+                int mined = 0, placed = 0;
+                boolean mining = b.breakTimer == 0, placing = b.placeTimer == 0, rotated = false;
+                boolean blocked = false;
+
+                // Liquids are queued first, nothing is mined at or after the first step that still has liquids to fill
+                // so they cannot flow into the highway
+                int liquidStep = Integer.MAX_VALUE;
+
+                for (Work work : b.plan.getQueue()) {
+                    MBlockPos pos = work.pos();
+                    if (!work.task().needsWork(b, pos)) continue;
+
+                    if (work.task() == Task.FillLiquid && work.step() < liquidStep) liquidStep = work.step();
+                    if (!PlayerUtils.isWithinReach(pos.x + 0.5, pos.y + 0.5, pos.z + 0.5)) continue;
+
+                    // Only walk into the next block once all of its work is done
+                    if (work.step() == 0) blocked = true;
+
+                    if (work.task().mine) {
+                        if (work.step() >= liquidStep || !mining || mined >= b.blocksPerTick.get() || (rotated && b.rotation.get().mine)) continue;
+
+                        int slot = findAndMoveBestToolToHotbar(b, pos.getState(), false);
+                        if (slot == -1) return;
+
+                        InvUtils.swap(slot, false);
+
+                        BlockPos mcPos = pos.getBlockPos();
+                        if (b.rotation.get().mine) {
+                            BlockPos breakPos = mcPos.toImmutable();
+                            Rotations.rotate(Rotations.getYaw(breakPos), Rotations.getPitch(breakPos), () -> BlockUtils.breakBlock(breakPos, true));
+                            rotated = true;
+                        }
+                        else BlockUtils.breakBlock(mcPos, true);
+
+                        if (!b.lastBreakingPos.equals(pos)) {
+                            b.lastBreakingPos.set(pos);
+                            b.blocksBroken++;
+                        }
+
+                        b.breakTimer = b.breakDelay.get();
+                        mined++;
+
+                        // Keep breaking the same block over the next ticks if it takes more than one
+                        if (b.breakTimer > 0 || b.blocksPerTick.get() == 1 || !BlockUtils.canInstaBreak(mcPos) || b.rotation.get().mine) mining = false;
+                    }
+                    else {
+                        if (!placing || placed >= b.placementsPerTick.get() || (rotated && b.rotation.get().place)) continue;
+
+                        int slot = work.task() == Task.FillLiquid ? findBlocksToPlacePrioritizeTrash(b) : findBlocksToPlace(b);
+                        if (slot == -1 || b.state != Forward) return;
+
+                        if (BlockUtils.place(pos.getBlockPos(), Hand.MAIN_HAND, slot, b.rotation.get().place, 0, true, true, true)) {
+                            b.blocksPlaced++;
+                            b.placeTimer = b.placeDelay.get();
+                            placed++;
+
+                            if (b.rotation.get().place) rotated = true;
+                            if (b.placeTimer > 0 || b.placementsPerTick.get() == 1) placing = false;
+                        }
+                    }
+                }
+
+                b.input.forward(!blocked);
+            }
+
             private void checkTasks(HighwayBuilder b) {
-                if (needsToPlace(b, b.blockPosProvider.getLiquids(), true)) b.setState(FillLiquids); // Fill Liquids
-                else if (needsToMine(b, b.blockPosProvider.getFront(), true)) b.setState(MineFront); // Mine Front
-                else if (b.floor.get() == Floor.Replace && needsToMine(b, b.blockPosProvider.getFloor(), false)) b.setState(MineFloor); // Mine Floor
-                else if (b.railings.get() && needsToMine(b, b.blockPosProvider.getRailings(true), false)) b.setState(MineRailings); // Mine Railings
-                else if (b.railings.get() && needsToPlace(b, b.blockPosProvider.getRailings(false), false)) b.setState(PlaceRailings); // Place Railings
-                else if (needsToPlace(b, b.blockPosProvider.getFloor(), false)) b.setState(PlaceFloor); // Place Floor
+                if (needsToPlace(b, b.plan.getLiquids().iterator(), true)) b.setState(FillLiquids); // Fill Liquids
+                else if (needsToMine(b, b.plan.getFront().iterator(), true)) b.setState(MineFront); // Mine Front
+                else if (b.floor.get() == Floor.Replace && needsToMine(b, b.plan.getFloor().iterator(), false)) b.setState(MineFloor); // Mine Floor
+                else if (b.railings.get() && needsToMine(b, b.plan.getRailings(true).iterator(), false)) b.setState(MineRailings); // Mine Railings
+                else if (b.railings.get() && needsToPlace(b, b.plan.getRailings(false).iterator(), false)) b.setState(PlaceRailings); // Place Railings
+                else if (needsToPlace(b, b.plan.getFloor().iterator(), false)) b.setState(PlaceFloor); // Place Floor
             }
 
             private boolean needsToMine(HighwayBuilder b, MBPIterator it, boolean ignoreBlocksToPlace) {
@@ -610,38 +692,38 @@ public class HighwayBuilder extends Module {
                 int slot = findBlocksToPlacePrioritizeTrash(b);
                 if (slot == -1) return;
 
-                place(b, new MBPIteratorFilter(b.blockPosProvider.getLiquids(), pos -> !pos.getState().getFluidState().isEmpty()), slot, Forward);
+                place(b, new MBPIteratorFilter(b.plan.getLiquids().iterator(), pos -> !pos.getState().getFluidState().isEmpty()), slot, Forward);
             }
         },
 
         MineFront {
             @Override
             protected void tick(HighwayBuilder b) {
-                mine(b, b.blockPosProvider.getFront(), true, MineFloor, this);
+                mine(b, b.plan.getFront().iterator(), true, MineFloor, this);
             }
         },
 
         MineFloor {
             @Override
             protected void start(HighwayBuilder b) {
-                mine(b, b.blockPosProvider.getFloor(), false, MineRailings, this);
+                mine(b, b.plan.getFloor().iterator(), false, MineRailings, this);
             }
 
             @Override
             protected void tick(HighwayBuilder b) {
-                mine(b, b.blockPosProvider.getFloor(), false, MineRailings, this);
+                mine(b, b.plan.getFloor().iterator(), false, MineRailings, this);
             }
         },
 
         MineRailings {
             @Override
             protected void start(HighwayBuilder b) {
-                mine(b, b.blockPosProvider.getRailings(true), false, PlaceRailings, this);
+                mine(b, b.plan.getRailings(true).iterator(), false, PlaceRailings, this);
             }
 
             @Override
             protected void tick(HighwayBuilder b) {
-                mine(b, b.blockPosProvider.getRailings(true), false, PlaceRailings, this);
+                mine(b, b.plan.getRailings(true).iterator(), false, PlaceRailings, this);
             }
         },
 
@@ -651,7 +733,7 @@ public class HighwayBuilder extends Module {
                 int slot = findBlocksToPlace(b);
                 if (slot == -1) return;
 
-                place(b, b.blockPosProvider.getRailings(false), slot, Forward);
+                place(b, b.plan.getRailings(false).iterator(), slot, Forward);
             }
         },
 
@@ -661,7 +743,7 @@ public class HighwayBuilder extends Module {
                 int slot = findBlocksToPlace(b);
                 if (slot == -1) return;
 
-                place(b, b.blockPosProvider.getFloor(), slot, Forward);
+                place(b, b.plan.getFloor().iterator(), slot, Forward);
             }
 
             @Override
@@ -669,7 +751,7 @@ public class HighwayBuilder extends Module {
                 int slot = findBlocksToPlace(b);
                 if (slot == -1) return;
 
-                place(b, b.blockPosProvider.getFloor(), slot, Forward);
+                place(b, b.plan.getFloor().iterator(), slot, Forward);
             }
         },
 
@@ -742,14 +824,14 @@ public class HighwayBuilder extends Module {
                 int slot = findBlocksToPlacePrioritizeTrash(b);
                 if (slot == -1) return;
 
-                place(b, b.blockPosProvider.getEChestBlockade(false), slot, MineEnderChests);
+                place(b, b.plan.getEChestBlockade(false).iterator(), slot, MineEnderChests);
             }
         },
 
         MineEChestBlockade {
             @Override
             protected void tick(HighwayBuilder b) {
-                mine(b, b.blockPosProvider.getEChestBlockade(true), true, Center, Forward);
+                mine(b, b.plan.getEChestBlockade(true).iterator(), true, Center, Forward);
             }
         },
 
@@ -1126,9 +1208,6 @@ public class HighwayBuilder extends Module {
     }
 
     private interface MBPIterator extends Iterator<MBlockPos>, Iterable<MBlockPos> {
-        void save();
-        void restore();
-
         @NotNull
         @Override
         default Iterator<MBlockPos> iterator() {
@@ -1143,26 +1222,11 @@ public class HighwayBuilder extends Module {
         private MBlockPos pos;
         private boolean isOld = true;
 
-        private boolean pisOld = true;
-
         public MBPIteratorFilter(MBPIterator it, Predicate<MBlockPos> predicate) {
             this.it = it;
             this.predicate = predicate;
         }
 
-        @Override
-        public void save() {
-            it.save();
-            pisOld = isOld;
-            isOld = true;
-        }
-
-        @Override
-        public void restore() {
-            it.restore();
-            isOld = pisOld;
-        }
-
         @Override
         public boolean hasNext() {
             if (isOld) {
@@ -1187,6 +1251,249 @@ public class HighwayBuilder extends Module {
         }
     }
 
+    /**
+     * The positions of every part of the highway around the player, built from the block pos provider when the player
+     * moves into another block or the shape of the highway changes and otherwise reused by ticking and rendering.
+     * <p>
+     * The parts are planned for {@link #lookahead} blocks ahead of the player. The work queue has the liquids of all
+     * steps first and then the digging and paving of the nearest step before the next one, in the order the state
+     * machine works through the parts.
+     */
+    private class Plan {
+        private final PlannedBlocks front = new PlannedBlocks();
+        private final PlannedBlocks floor = new PlannedBlocks();
+        private final PlannedBlocks railingsMine = new PlannedBlocks();
+        private final PlannedBlocks railingsPlace = new PlannedBlocks();
+        private final PlannedBlocks liquids = new PlannedBlocks();
+        private final PlannedBlocks eChestBlockadeMine = new PlannedBlocks();
+        private final PlannedBlocks eChestBlockadePlace = new PlannedBlocks();
+        private final List<PlannedBlocks> parts = List.of(front, floor, railingsMine, railingsPlace, liquids, eChestBlockadeMine, eChestBlockadePlace);
+        private final List<Work> queue = new ArrayList<>();
+
+        private IBlockPosProvider provider;
+        private final MBlockPos origin = new MBlockPos();
+        private int lastWidth, lastHeight, lastLookahead;
+        private boolean lastRailings, lastMineAboveRailings;
+        private Floor lastFloor;
+
+        public void update() {
+            if (provider == blockPosProvider && origin.x == mc.player.getBlockX() && origin.y == mc.player.getBlockY() && origin.z == mc.player.getBlockZ()
+                && lastWidth == width.get() && lastHeight == height.get() && lastRailings == railings.get() && lastMineAboveRailings == mineAboveRailings.get()
+                && lastLookahead == lookahead.get() && lastFloor == HighwayBuilder.this.floor.get()) return;
+
+            provider = blockPosProvider;
+            origin.set(mc.player);
+            lastWidth = width.get();
+            lastHeight = height.get();
+            lastRailings = railings.get();
+            lastMineAboveRailings = mineAboveRailings.get();
+            lastLookahead = lookahead.get();
+            lastFloor = HighwayBuilder.this.floor.get();
+
+            int steps = Math.max(lastLookahead, 1);
+            for (PlannedBlocks part : parts) part.clear();
+
+            for (int step = 0; step < steps; step++) {
+                planOrigin.set(origin).offset(dir, step);
+
+                front.add(provider.getFront());
+                floor.add(provider.getFloor());
+                railingsMine.add(provider.getRailings(true));
+                railingsPlace.add(provider.getRailings(false));
+                liquids.add(provider.getLiquids());
+
+                // The blockade is only needed around the player
+                if (step == 0) {
+                    eChestBlockadeMine.add(provider.getEChestBlockade(true));
+                    eChestBlockadePlace.add(provider.getEChestBlockade(false));
+                }
+            }
+
+            planOrigin.set(origin);
+            for (PlannedBlocks part : parts) part.finish();
+
+            queue.clear();
+            for (int step = 0; step < steps; step++) addWork(liquids, step, Task.FillLiquid);
+
+            for (int step = 0; step < steps; step++) {
+                addWork(front, step, Task.MineFront);
+                if (lastFloor == Floor.Replace) addWork(floor, step, Task.MineFloor);
+
+                if (lastRailings) {
+                    addWork(railingsMine, step, Task.MineRailing);
+                    addWork(railingsPlace, step, Task.PlaceRailing);
+                }
+
+                addWork(floor, step, Task.PlaceFloor);
+            }
+        }
+
+        private void addWork(PlannedBlocks part, int step, Task task) {
+            for (int i = part.getStart(step); i < part.getEnd(step); i++) {
+                queue.add(new Work(new MBlockPos().set(part.get(i)), task, step));
+            }
+        }
+
+        public List<Work> getQueue() {
+            return queue;
+        }
+
+        public PlannedBlocks getFront() {
+            return front;
+        }
+
+        public PlannedBlocks getFloor() {
+            return floor;
+        }
+
+        public PlannedBlocks getRailings(boolean mine) {
+            return mine ? railingsMine : railingsPlace;
+        }
+
+        public PlannedBlocks getLiquids() {
+            return liquids;
+        }
+
+        public PlannedBlocks getEChestBlockade(boolean mine) {
+            return mine ? eChestBlockadeMine : eChestBlockadePlace;
+        }
+    }
+
+    private enum Task {
+        FillLiquid(false),
+        MineFront(true),
+        MineFloor(true),
+        MineRailing(true),
+        PlaceRailing(false),
+        PlaceFloor(false);
+
+        public final boolean mine;
+
+        Task(boolean mine) {
+            this.mine = mine;
+        }
+
+        public boolean needsWork(HighwayBuilder b, MBlockPos pos) {
+            return switch (this) {
+                case FillLiquid -> b.canPlace(pos, true);
+                case MineFront -> b.canMine(pos, true);
+                case MineFloor, MineRailing -> b.canMine(pos, false);
+                case PlaceRailing, PlaceFloor -> b.canPlace(pos, false);
+            };
+        }
+    }
+
+    private record Work(MBlockPos pos, Task task, int step) {}
+
+    /**
+     * Positions packed with {@link BlockPos#asLong(int, int, int)} in the order the provider returned them, grouped by
+     * the step ahead of the player they were planned for. The planned neighbours of each position are looked up when it
+     * is built, so rendering tests every position once instead of searching all of them again for each side.
+     */
+    private static class PlannedBlocks {
+        private static final Direction[] SIDES = Direction.values();
+        private static final byte[] SIDE_MASKS = new byte[SIDES.length];
+
+        static {
+            for (int i = 0; i < SIDES.length; i++) SIDE_MASKS[i] = Dir.get(SIDES[i]);
+        }
+
+        private final LongArrayList positions = new LongArrayList();
+        private final Long2IntOpenHashMap indices = new Long2IntOpenHashMap();
+        private final IntArrayList stepStarts = new IntArrayList();
+        private final MBlockPos pos = new MBlockPos();
+
+        // The index of the neighbour on each side of a position or -1 if it isn't planned
+        private int[] neighbours = new int[0];
+        private boolean[] matches = new boolean[0];
+
+        public PlannedBlocks() {
+            indices.defaultReturnValue(-1);
+        }
+
+        public void clear() {
+            positions.clear();
+            indices.clear();
+            stepStarts.clear();
+        }
+
+        /** Adds the positions of the next step, positions that were already planned by an earlier step are skipped. */
+        public void add(MBPIterator it) {
+            stepStarts.add(positions.size());
+
+            for (MBlockPos p : it) {
+                long packed = BlockPos.asLong(p.x, p.y, p.z);
+                if (indices.putIfAbsent(packed, positions.size()) == -1) positions.add(packed);
+            }
+        }
+
+        public void finish() {
+            int size = positions.size();
+            if (neighbours.length < size * SIDES.length) neighbours = new int[size * SIDES.length];
+            if (matches.length < size) matches = new boolean[size];
+
+            for (int i = 0; i < size; i++) {
+                for (int j = 0; j < SIDES.length; j++) {
+                    neighbours[i * SIDES.length + j] = indices.get(BlockPos.offset(positions.getLong(i), SIDES[j]));
+                }
+            }
+        }
+
+        public int size() {
+            return positions.size();
+        }
+
+        public int getStart(int step) {
+            return step < stepStarts.size() ? stepStarts.getInt(step) : positions.size();
+        }
+
+        public int getEnd(int step) {
+            return step + 1 < stepStarts.size() ? stepStarts.getInt(step + 1) : positions.size();
+        }
+
+        public MBlockPos get(int i) {
+            long packed = positions.getLong(i);
+            return pos.set(BlockPos.unpackLongX(packed), BlockPos.unpackLongY(packed), BlockPos.unpackLongZ(packed));
+        }
+
+        public MBPIterator iterator() {
+            return new MBPIterator() {
+                private int i;
+
+                @Override
+                public boolean hasNext() {
+                    return i < positions.size();
+                }
+
+                @Override
+                public MBlockPos next() {
+                    return get(i++);
+                }
+            };
+        }
+
+        /** Tests every position once, needs to be called before {@link #matches(int)} and {@link #getExcludeDir(int)}. */
+        public void test(Predicate<MBlockPos> predicate) {
+            for (int i = 0; i < positions.size(); i++) matches[i] = predicate.test(get(i));
+        }
+
+        public boolean matches(int i) {
+            return matches[i];
+        }
+
+        /** @return the sides of the position shared with other positions that matched the last test */
+        public int getExcludeDir(int i) {
+            int excludeDir = 0;
+
+            for (int j = 0; j < SIDES.length; j++) {
+                int neighbour = neighbours[i * SIDES.length + j];
+                if (neighbour != -1 && matches[neighbour]) excludeDir |= SIDE_MASKS[j];
+            }
+
+            return excludeDir;
+        }
+    }
+
     private interface IBlockPosProvider {
         MBPIterator getFront();
         MBPIterator getFloor();
@@ -1201,11 +1508,10 @@ public class HighwayBuilder extends Module {
 
         @Override
         public MBPIterator getFront() {
-            pos.set(mc.player).offset(dir).offset(leftDir, getWidthLeft());
+            pos.set(planOrigin).offset(dir).offset(leftDir, getWidthLeft());
 
             return new MBPIterator() {
                 private int w, y;
-                private int pw, py;
 
                 @Override
                 public boolean hasNext() {
@@ -1224,29 +1530,15 @@ public class HighwayBuilder extends Module {
 
                     return pos2;
                 }
-
-                @Override
-                public void save() {
-                    pw = w;
-                    py = y;
-                    w = y = 0;
-                }
-
-                @Override
-                public void restore() {
-                    w = pw;
-                    y = py;
-                }
             };
         }
 
         @Override
         public MBPIterator getFloor() {
-            pos.set(mc.player).offset(dir).offset(leftDir, getWidthLeft()).add(0, -1, 0);
+            pos.set(planOrigin).offset(dir).offset(leftDir, getWidthLeft()).add(0, -1, 0);
 
             return new MBPIterator() {
                 private int w;
-                private int pw;
 
                 @Override
                 public boolean hasNext() {
@@ -1257,28 +1549,16 @@ public class HighwayBuilder extends Module {
                 public MBlockPos next() {
                     return pos2.set(pos).offset(rightDir, w++);
                 }
-
-                @Override
-                public void save() {
-                    pw = w;
-                    w = 0;
-                }
-
-                @Override
-                public void restore() {
-                    w = pw;
-                }
             };
         }
 
         @Override
         public MBPIterator getRailings(boolean mine) {
             boolean mineAll = mine && mineAboveRailings.get();
-            pos.set(mc.player).offset(dir);
+            pos.set(planOrigin).offset(dir);
 
             return new MBPIterator() {
                 private int i, y;
-                private int pi, py;
 
                 @Override
                 public boolean hasNext() {
@@ -1298,29 +1578,15 @@ public class HighwayBuilder extends Module {
 
                     return pos2;
                 }
-
-                @Override
-                public void save() {
-                    pi = i;
-                    py = y;
-                    i = y = 0;
-                }
-
-                @Override
-                public void restore() {
-                    i = pi;
-                    y = py;
-                }
             };
         }
 
         @Override
         public MBPIterator getLiquids() {
-            pos.set(mc.player).offset(dir, 2).offset(leftDir, getWidthLeft() + (railings.get() && mineAboveRailings.get() ? 2 : 1));
+            pos.set(planOrigin).offset(dir, 2).offset(leftDir, getWidthLeft() + (railings.get() && mineAboveRailings.get() ? 2 : 1));
 
             return new MBPIterator() {
                 private int w, y;
-                private int pw, py;
 
                 private int getWidth() {
                     return width.get() + (railings.get() && mineAboveRailings.get() ? 2 : 0);
@@ -1343,19 +1609,6 @@ public class HighwayBuilder extends Module {
 
                     return pos2;
                 }
-
-                @Override
-                public void save() {
-                    pw = w;
-                    py = y;
-                    w = y = 0;
-                }
-
-                @Override
-                public void restore() {
-                    w = pw;
-                    y = py;
-                }
             };
         }
 
@@ -1363,10 +1616,9 @@ public class HighwayBuilder extends Module {
         public MBPIterator getEChestBlockade(boolean mine) {
             return new MBPIterator() {
                 private int i = mine ? -1 : 0, y;
-                private int pi, py;
 
                 private MBlockPos get(int i) {
-                    pos.set(mc.player).offset(dir.opposite());
+                    pos.set(planOrigin).offset(dir.opposite());
 
                     return switch (i) {
                         case -1 -> pos;
@@ -1396,19 +1648,6 @@ public class HighwayBuilder extends Module {
 
                     return pos;
                 }
-
-                @Override
-                public void save() {
-                    pi = i;
-                    py = y;
-                    i = y = 0;
-                }
-
-                @Override
-                public void restore() {
-                    i = pi;
-                    y = py;
-                }
             };
         }
     }
@@ -1419,11 +1658,10 @@ public class HighwayBuilder extends Module {
 
         @Override
         public MBPIterator getFront() {
-            pos.set(mc.player).offset(dir.rotateLeft()).offset(leftDir, getWidthLeft() - 1);
+            pos.set(planOrigin).offset(dir.rotateLeft()).offset(leftDir, getWidthLeft() - 1);
 
             return new MBPIterator() {
                 private int i, w, y;
-                private int pi, pw, py;
 
                 @Override
                 public boolean hasNext() {
@@ -1442,46 +1680,21 @@ public class HighwayBuilder extends Module {
                             w = 0;
                             i++;
 
-                            pos.set(mc.player).offset(dir).offset(leftDir, getWidthLeft());
+                            pos.set(planOrigin).offset(dir).offset(leftDir, getWidthLeft());
                         }
                     }
 
                     return pos2;
                 }
-
-                private void initPos() {
-                    if (i == 0) pos.set(mc.player).offset(dir.rotateLeft()).offset(leftDir, getWidthLeft() - 1);
-                    else pos.set(mc.player).offset(dir).offset(leftDir, getWidthLeft());
-                }
-
-                @Override
-                public void save() {
-                    pi = i;
-                    pw = w;
-                    py = y;
-                    i = w = y = 0;
-
-                    initPos();
-                }
-
-                @Override
-                public void restore() {
-                    i = pi;
-                    w = pw;
-                    y = py;
-
-                    initPos();
-                }
             };
         }
 
         @Override
         public MBPIterator getFloor() {
-            pos.set(mc.player).add(0, -1, 0).offset(dir.rotateLeft()).offset(leftDir, getWidthLeft() - 1);
+            pos.set(planOrigin).add(0, -1, 0).offset(dir.rotateLeft()).offset(leftDir, getWidthLeft() - 1);
 
             return new MBPIterator() {
                 private int i, w;
-                private int pi, pw;
 
                 @Override
                 public boolean hasNext() {
@@ -1496,44 +1709,21 @@ public class HighwayBuilder extends Module {
                         w = 0;
                         i++;
 
-                        pos.set(mc.player).add(0, -1, 0).offset(dir).offset(leftDir, getWidthLeft());
+                        pos.set(planOrigin).add(0, -1, 0).offset(dir).offset(leftDir, getWidthLeft());
                     }
 
                     return pos2;
                 }
-
-                private void initPos() {
-                    if (i == 0) pos.set(mc.player).add(0, -1, 0).offset(dir.rotateLeft()).offset(leftDir, getWidthLeft() - 1);
-                    else pos.set(mc.player).add(0, -1, 0).offset(dir).offset(leftDir, getWidthLeft());
-                }
-
-                @Override
-                public void save() {
-                    pi = i;
-                    pw = w;
-                    i = w = 0;
-
-                    initPos();
-                }
-
-                @Override
-                public void restore() {
-                    i = pi;
-                    w = pw;
-
-                    initPos();
-                }
             };
         }
 
         @Override
         public MBPIterator getRailings(boolean mine) {
             boolean mineAll = mine && mineAboveRailings.get();
-            pos.set(mc.player).offset(dir.rotateLeft()).offset(leftDir, getWidthLeft());
+            pos.set(planOrigin).offset(dir.rotateLeft()).offset(leftDir, getWidthLeft());
 
             return new MBPIterator() {
                 private int i, y;
-                private int pi, py;
 
                 @Override
                 public boolean hasNext() {
@@ -1548,44 +1738,21 @@ public class HighwayBuilder extends Module {
                         y = 0;
                         i++;
 
-                        pos.set(mc.player).offset(dir.rotateRight()).offset(rightDir, getWidthRight());
+                        pos.set(planOrigin).offset(dir.rotateRight()).offset(rightDir, getWidthRight());
                     }
 
                     return pos2;
                 }
-
-                private void initPos() {
-                    if (i == 0) pos.set(mc.player).offset(dir.rotateLeft()).offset(leftDir, getWidthLeft());
-                    else pos.set(mc.player).offset(dir.rotateRight()).offset(rightDir, getWidthRight());
-                }
-
-                @Override
-                public void save() {
-                    pi = i;
-                    py = y;
-                    i = y = 0;
-
-                    initPos();
-                }
-
-                @Override
-                public void restore() {
-                    i = pi;
-                    y = py;
-
-                    initPos();
-                }
             };
         }
 
         @Override
         public MBPIterator getLiquids() {
             boolean m = railings.get() && mineAboveRailings.get();
-            pos.set(mc.player).offset(dir).offset(dir.rotateLeft()).offset(leftDir, getWidthLeft());
+            pos.set(planOrigin).offset(dir).offset(dir.rotateLeft()).offset(leftDir, getWidthLeft());
 
             return new MBPIterator() {
                 private int i, w, y;
-                private int pi, pw, py;
 
                 private int getWidth() {
                     return width.get() + (i == 0 ? 1 : 0) + (m && i == 1 ? 2 : 0);
@@ -1604,7 +1771,7 @@ public class HighwayBuilder extends Module {
                         w = 0;
                         i++;
 
-                        pos.set(mc.player).offset(dir, 2).offset(leftDir, getWidthLeft() + (m ? 1 : 0));
+                        pos.set(planOrigin).offset(dir, 2).offset(leftDir, getWidthLeft() + (m ? 1 : 0));
                     }
                 }
 
@@ -1624,30 +1791,6 @@ public class HighwayBuilder extends Module {
 
                     return pos2;
                 }
-
-                private void initPos() {
-                    if (i == 0) pos.set(mc.player).offset(dir).offset(dir.rotateLeft()).offset(leftDir, getWidthLeft());
-                    else pos.set(mc.player).offset(dir, 2).offset(leftDir, getWidthLeft() + (m ? 1 : 0));
-                }
-
-                @Override
-                public void save() {
-                    pi = i;
-                    pw = w;
-                    py = y;
-                    i = w = y = 0;
-
-                    initPos();
-                }
-
-                @Override
-                public void restore() {
-                    i = pi;
-                    w = pw;
-                    y = py;
-
-                    initPos();
-                }
             };
         }
 
@@ -1655,12 +1798,11 @@ public class HighwayBuilder extends Module {
         public MBPIterator getEChestBlockade(boolean mine) {
             return new MBPIterator() {
                 private int i = mine ? -1 : 0, y;
-                private int pi, py;
 
                 private MBlockPos get(int i) {
                     HorizontalDirection dir2 = dir.rotateLeft().rotateLeftSkipOne();
 
-                    pos.set(mc.player).offset(dir2);
+                    pos.set(planOrigin).offset(dir2);
 
                     return switch (i) {
                         case -1 -> pos;
@@ -1688,19 +1830,6 @@ public class HighwayBuilder extends Module {
 
                     return pos;
                 }
-
-                @Override
-                public void save() {
-                    pi = i;
-                    py = y;
-                    i = y = 0;
-                }
-
-                @Override
-                public void restore() {
-                    i = pi;
-                    y = py;
-                }
             };
         }
     }
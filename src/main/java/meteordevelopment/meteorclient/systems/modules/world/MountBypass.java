@@ -9,7 +9,7 @@ import meteordevelopment.meteorclient.events.packets.PacketEvent;
 import meteordevelopment.meteorclient.mixininterface.IPlayerInteractEntityC2SPacket;
 import meteordevelopment.meteorclient.systems.modules.Categories;
 import meteordevelopment.meteorclient.systems.modules.Module;
-import meteordevelopment.orbit.EventHandler;
+import meteordevelopment.meteorclient.utils.network.PacketListeners;
 import net.minecraft.entity.passive.AbstractDonkeyEntity;
 import net.minecraft.network.packet.c2s.play.PlayerInteractEntityC2SPacket;
 
@@ -18,17 +18,17 @@ public class MountBypass extends Module {
 
     public MountBypass() {
         super(Categories.World, "mount-bypass", "Allows you to bypass the IllegalStacks plugin and put chests on entities.");
+
+        PacketListeners.onSend(this, PlayerInteractEntityC2SPacket.class, this::onInteractEntity);
     }
 
-    @EventHandler
-    public void onSendPacket(PacketEvent.Send event) {
+    private void onInteractEntity(PacketEvent.Send event, PlayerInteractEntityC2SPacket p) {
         if (dontCancel) {
             dontCancel = false;
             return;
         }
 
-        if (event.packet instanceof IPlayerInteractEntityC2SPacket packet) {
-            if (packet.meteor$getType() == PlayerInteractEntityC2SPacket.InteractType.INTERACT_AT && packet.meteor$getEntity() instanceof AbstractDonkeyEntity) event.cancel();
-        }
+        IPlayerInteractEntityC2SPacket packet = (IPlayerInteractEntityC2SPacket) p;
+        if (packet.meteor$getType() == PlayerInteractEntityC2SPacket.InteractType.INTERACT_AT && packet.meteor$getEntity() instanceof AbstractDonkeyEntity) event.cancel();
     }
 }
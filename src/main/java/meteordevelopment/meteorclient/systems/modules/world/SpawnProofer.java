@@ -98,7 +98,7 @@ public class SpawnProofer extends Module {
         spawns.clear();
 
         int lightLevel = newMobSpawnLightLevel.get() ? 0 : 7;
-        BlockIterator.register(range.get(), range.get(), (blockPos, blockState) -> {
+        BlockIterator.register(range.get(), range.get(), blockState -> blockState.getBlock() instanceof AirBlock, (blockPos, blockState) -> {
             BlockUtils.MobSpawn spawn = BlockUtils.isValidMobSpawn(blockPos, blockState, lightLevel);
 
             if ((spawn == BlockUtils.MobSpawn.Always && (mode.get() == Mode.Always || mode.get() == Mode.Both)) ||
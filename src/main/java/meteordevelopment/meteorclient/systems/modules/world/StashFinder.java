@@ -8,6 +8,9 @@ package meteordevelopment.meteorclient.systems.modules.world;
 import com.google.common.reflect.TypeToken;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import meteordevelopment.meteorclient.MeteorClient;
 import meteordevelopment.meteorclient.events.world.ChunkDataEvent;
 import meteordevelopment.meteorclient.gui.GuiTheme;
@@ -30,14 +33,28 @@ import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.ChunkPos;
 
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 public class StashFinder extends Module {
     private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
 
+    // Files are only touched from this thread, so writes are never interleaved and loading waits for pending writes
+    private static final ScheduledExecutorService WRITER = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task);
+        thread.setDaemon(true);
+        thread.setName("Meteor-StashFinder");
+        return thread;
+    });
+
     private final SettingGroup sgGeneral = settings.getDefaultGroup();
 
     private final Setting<List<BlockEntityType<?>>> storageBlocks = sgGeneral.add(new StorageBlockListSetting.Builder()
@@ -80,7 +97,8 @@ public class StashFinder extends Module {
         .build()
     );
 
-    public List<Chunk> chunks = new ArrayList<>();
+    public final Long2ObjectMap<Chunk> chunks = new Long2ObjectOpenHashMap<>();
+    private Journal journal;
 
     public StashFinder() {
         super(Categories.World, "stash-finder", "Searches loaded chunks for storage blocks. Saves to <your minecraft folder>/meteor-client");
@@ -88,7 +106,21 @@ public class StashFinder extends Module {
 
     @Override
     public void onActivate() {
-        load();
+        journal = new Journal(new File(new File(MeteorClient.FOLDER, "stashes"), Utils.getFileWorldName()));
+
+        chunks.clear();
+
+        try {
+            chunks.putAll(WRITER.submit(journal::load).get());
+        } catch (InterruptedException | ExecutionException e) {
+            MeteorClient.LOG.error("Failed to load stashes", e);
+        }
+    }
+
+    @Override
+    public void onDeactivate() {
+        if (journal != null) journal.close();
+        journal = null;
     }
 
     @EventHandler
@@ -113,16 +145,12 @@ public class StashFinder extends Module {
         }
 
         if (chunk.getTotal() >= minimumStorageCount.get()) {
-            Chunk prevChunk = null;
-            int i = chunks.indexOf(chunk);
-
-            if (i < 0) chunks.add(chunk);
-            else prevChunk = chunks.set(i, chunk);
+            Chunk prevChunk = chunks.put(chunk.chunkPos.toLong(), chunk);
+            if (chunk.countsEqual(prevChunk)) return;
 
-            saveJson();
-            saveCsv();
+            journal.put(chunk);
 
-            if (sendNotifications.get() && (!chunk.equals(prevChunk) || !chunk.countsEqual(prevChunk))) {
+            if (sendNotifications.get()) {
                 switch (notificationMode.get()) {
                     case Chat -> info("Found stash at (highlight)%s(default), (highlight)%s(default).", chunk.x, chunk.z);
                     case Toast -> mc.getToastManager().add(new MeteorToast(Items.CHEST, title, "Found Stash!"));
@@ -137,9 +165,6 @@ public class StashFinder extends Module {
 
     @Override
     public WWidget getWidget(GuiTheme theme) {
-        // Sort
-        chunks.sort(Comparator.comparingInt(value -> -value.getTotal()));
-
         WVerticalList list = theme.verticalList();
 
         // Clear
@@ -151,6 +176,8 @@ public class StashFinder extends Module {
         clear.action = () -> {
             chunks.clear();
             table.clear();
+
+            if (journal != null) journal.clear();
         };
 
         // Chunks
@@ -160,7 +187,11 @@ public class StashFinder extends Module {
     }
 
     private void fillTable(GuiTheme theme, WTable table) {
-        for (Chunk chunk : chunks) {
+        // Sort
+        List<Chunk> sorted = new ArrayList<>(chunks.values());
+        sorted.sort(Comparator.comparingInt(value -> -value.getTotal()));
+
+        for (Chunk chunk : sorted) {
             table.add(theme.label("Pos: " + chunk.x + ", " + chunk.z));
             table.add(theme.label("Total: " + chunk.getTotal()));
 
@@ -172,12 +203,11 @@ public class StashFinder extends Module {
 
             WMinus delete = table.add(theme.minus()).widget();
             delete.action = () -> {
-                if (chunks.remove(chunk)) {
+                if (chunks.remove(chunk.chunkPos.toLong(), chunk)) {
                     table.clear();
                     fillTable(theme, table);
 
-                    saveJson();
-                    saveCsv();
+                    if (journal != null) journal.remove(chunk.chunkPos);
                 }
             };
 
@@ -185,89 +215,6 @@ public class StashFinder extends Module {
         }
     }
 
-    private void load() {
-        boolean loaded = false;
-
-        // Try to load json
-        File file = getJsonFile();
-        if (file.exists()) {
-            try {
-                FileReader reader = new FileReader(file);
-                chunks = GSON.fromJson(reader, new TypeToken<List<Chunk>>() {}.getType());
-                reader.close();
-
-                for (Chunk chunk : chunks) chunk.calculatePos();
-
-                loaded = true;
-            } catch (Exception ignored) {
-                if (chunks == null) chunks = new ArrayList<>();
-            }
-        }
-
-        // Try to load csv
-        file = getCsvFile();
-        if (!loaded && file.exists()) {
-            try {
-                BufferedReader reader = new BufferedReader(new FileReader(file));
-                reader.readLine();
-
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    String[] values = line.split(" ");
-                    Chunk chunk = new Chunk(new ChunkPos(Integer.parseInt(values[0]), Integer.parseInt(values[1])));
-
-                    chunk.chests = Integer.parseInt(values[2]);
-                    chunk.shulkers = Integer.parseInt(values[3]);
-                    chunk.enderChests = Integer.parseInt(values[4]);
-                    chunk.furnaces = Integer.parseInt(values[5]);
-                    chunk.dispensersDroppers = Integer.parseInt(values[6]);
-                    chunk.hoppers = Integer.parseInt(values[7]);
-
-                    chunks.add(chunk);
-                }
-
-                reader.close();
-            } catch (Exception ignored) {
-                if (chunks == null) chunks = new ArrayList<>();
-            }
-        }
-    }
-
-    private void saveCsv() {
-        try {
-            File file = getCsvFile();
-            file.getParentFile().mkdirs();
-            Writer writer = new FileWriter(file);
-
-            writer.write("X,Z,Chests,Barrels,Shulkers,EnderChests,Furnaces,DispensersDroppers,Hoppers\n");
-            for (Chunk chunk : chunks) chunk.write(writer);
-
-            writer.close();
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-    }
-
-    private void saveJson() {
-        try {
-            File file = getJsonFile();
-            file.getParentFile().mkdirs();
-            Writer writer = new FileWriter(file);
-            GSON.toJson(chunks, writer);
-            writer.close();
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-    }
-
-    private File getJsonFile() {
-        return new File(new File(new File(MeteorClient.FOLDER, "stashes"), Utils.getFileWorldName()), "stashes.json");
-    }
-
-    private File getCsvFile() {
-        return new File(new File(new File(MeteorClient.FOLDER, "stashes"), Utils.getFileWorldName()), "stashes.csv");
-    }
-
     @Override
     public String getInfoString() {
         return String.valueOf(chunks.size());
@@ -310,7 +257,28 @@ public class StashFinder extends Module {
 
         public boolean countsEqual(Chunk c) {
             if (c == null) return false;
-            return chests != c.chests || barrels != c.barrels || shulkers != c.shulkers || enderChests != c.enderChests || furnaces != c.furnaces || dispensersDroppers != c.dispensersDroppers || hoppers != c.hoppers;
+            return chests == c.chests && barrels == c.barrels && shulkers == c.shulkers && enderChests == c.enderChests && furnaces == c.furnaces && dispensersDroppers == c.dispensersDroppers && hoppers == c.hoppers;
+        }
+
+        private void writeEntry(Writer writer) throws IOException {
+            sb.setLength(0);
+            sb.append("+,").append(chunkPos.x).append(',').append(chunkPos.z).append(',');
+            sb.append(chests).append(',').append(barrels).append(',').append(shulkers).append(',').append(enderChests).append(',').append(furnaces).append(',').append(dispensersDroppers).append(',').append(hoppers).append('\n');
+            writer.write(sb.toString());
+        }
+
+        private static Chunk readEntry(String[] values) {
+            Chunk chunk = new Chunk(new ChunkPos(Integer.parseInt(values[1]), Integer.parseInt(values[2])));
+
+            chunk.chests = Integer.parseInt(values[3]);
+            chunk.barrels = Integer.parseInt(values[4]);
+            chunk.shulkers = Integer.parseInt(values[5]);
+            chunk.enderChests = Integer.parseInt(values[6]);
+            chunk.furnaces = Integer.parseInt(values[7]);
+            chunk.dispensersDroppers = Integer.parseInt(values[8]);
+            chunk.hoppers = Integer.parseInt(values[9]);
+
+            return chunk;
         }
 
         @Override
@@ -327,6 +295,203 @@ public class StashFinder extends Module {
         }
     }
 
+    /**
+     * Persists the recorded chunks. Changes are batched and appended to a journal on the writer thread, the journal is
+     * compacted into the json and csv files once it has more entries than there are recorded chunks.
+     */
+    private static class Journal {
+        private static final Chunk REMOVED = new Chunk(ChunkPos.ORIGIN);
+        private static final int MIN_COMPACT_ENTRIES = 256;
+
+        private final File jsonFile, csvFile, journalFile;
+
+        // Only accessed from the writer thread
+        private final Long2ObjectMap<Chunk> persisted = new Long2ObjectOpenHashMap<>();
+        private int entries;
+
+        // Guarded by itself
+        private final Long2ObjectMap<Chunk> pending = new Long2ObjectLinkedOpenHashMap<>();
+        private boolean scheduled;
+
+        public Journal(File folder) {
+            jsonFile = new File(folder, "stashes.json");
+            csvFile = new File(folder, "stashes.csv");
+            journalFile = new File(folder, "stashes.journal");
+        }
+
+        public void put(Chunk chunk) {
+            queue(chunk.chunkPos.toLong(), chunk);
+        }
+
+        public void remove(ChunkPos pos) {
+            queue(pos.toLong(), REMOVED);
+        }
+
+        public void clear() {
+            synchronized (pending) {
+                pending.clear();
+            }
+
+            WRITER.execute(() -> {
+                persisted.clear();
+                compact();
+            });
+        }
+
+        /** Writes the pending changes and compacts the journal. */
+        public void close() {
+            WRITER.execute(() -> {
+                flush();
+                if (entries > 0) compact();
+            });
+        }
+
+        private void queue(long key, Chunk chunk) {
+            synchronized (pending) {
+                pending.put(key, chunk);
+
+                if (!scheduled) {
+                    WRITER.schedule(this::flush, 1, TimeUnit.SECONDS);
+                    scheduled = true;
+                }
+            }
+        }
+
+        // Writer thread
+
+        private Long2ObjectMap<Chunk> load() {
+            // Try to load json
+            if (jsonFile.exists()) {
+                try (Reader reader = new BufferedReader(new FileReader(jsonFile))) {
+                    List<Chunk> chunks = GSON.fromJson(reader, new TypeToken<List<Chunk>>() {}.getType());
+
+                    if (chunks != null) {
+                        for (Chunk chunk : chunks) {
+                            chunk.calculatePos();
+                            persisted.put(chunk.chunkPos.toLong(), chunk);
+                        }
+                    }
+                } catch (Exception e) {
+                    MeteorClient.LOG.error("Failed to load {}", jsonFile, e);
+                }
+            }
+
+            // Try to load csv
+            if (persisted.isEmpty() && csvFile.exists()) {
+                try (BufferedReader reader = new BufferedReader(new FileReader(csvFile))) {
+                    reader.readLine();
+
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        String[] values = line.split(",");
+                        Chunk chunk = new Chunk(new ChunkPos(Integer.parseInt(values[0]) >> 4, Integer.parseInt(values[1]) >> 4));
+
+                        chunk.chests = Integer.parseInt(values[2]);
+                        chunk.barrels = Integer.parseInt(values[3]);
+                        chunk.shulkers = Integer.parseInt(values[4]);
+                        chunk.enderChests = Integer.parseInt(values[5]);
+                        chunk.furnaces = Integer.parseInt(values[6]);
+                        chunk.dispensersDroppers = Integer.parseInt(values[7]);
+                        chunk.hoppers = Integer.parseInt(values[8]);
+
+                        persisted.put(chunk.chunkPos.toLong(), chunk);
+                    }
+                } catch (Exception e) {
+                    MeteorClient.LOG.error("Failed to load {}", csvFile, e);
+                }
+            }
+
+            // Replay the changes made since the last compaction
+            if (journalFile.exists()) {
+                try (BufferedReader reader = new BufferedReader(new FileReader(journalFile))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        String[] values = line.split(",");
+
+                        try {
+                            if (values[0].equals("+") && values.length == 10) {
+                                Chunk chunk = Chunk.readEntry(values);
+                                persisted.put(chunk.chunkPos.toLong(), chunk);
+                            } else if (values[0].equals("-") && values.length == 3) {
+                                persisted.remove(ChunkPos.toLong(Integer.parseInt(values[1]), Integer.parseInt(values[2])));
+                            }
+
+                            entries++;
+                        } catch (NumberFormatException ignored) {
+                            // The last line can be incomplete if the game was closed while it was written
+                        }
+                    }
+                } catch (IOException e) {
+                    MeteorClient.LOG.error("Failed to load {}", journalFile, e);
+                }
+            }
+
+            return new Long2ObjectOpenHashMap<>(persisted);
+        }
+
+        private void flush() {
+            Long2ObjectMap<Chunk> batch;
+
+            synchronized (pending) {
+                scheduled = false;
+                if (pending.isEmpty()) return;
+
+                batch = new Long2ObjectLinkedOpenHashMap<>(pending);
+                pending.clear();
+            }
+
+            try {
+                journalFile.getParentFile().mkdirs();
+
+                try (Writer writer = new BufferedWriter(new FileWriter(journalFile, true))) {
+                    for (Long2ObjectMap.Entry<Chunk> entry : batch.long2ObjectEntrySet()) {
+                        Chunk chunk = entry.getValue();
+
+                        if (chunk == REMOVED) {
+                            persisted.remove(entry.getLongKey());
+                            writer.write("-," + ChunkPos.getPackedX(entry.getLongKey()) + "," + ChunkPos.getPackedZ(entry.getLongKey()) + "\n");
+                        } else {
+                            persisted.put(entry.getLongKey(), chunk);
+                            chunk.writeEntry(writer);
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                MeteorClient.LOG.error("Failed to write {}", journalFile, e);
+            }
+
+            entries += batch.size();
+            if (entries > Math.max(MIN_COMPACT_ENTRIES, persisted.size())) compact();
+        }
+
+        private void compact() {
+            try {
+                jsonFile.getParentFile().mkdirs();
+                List<Chunk> chunks = new ArrayList<>(persisted.values());
+
+                // Written to temporary files first so a crash can't leave behind a truncated file
+                File json = new File(jsonFile.getPath() + ".tmp");
+                try (Writer writer = new BufferedWriter(new FileWriter(json))) {
+                    GSON.toJson(chunks, writer);
+                }
+
+                File csv = new File(csvFile.getPath() + ".tmp");
+                try (Writer writer = new BufferedWriter(new FileWriter(csv))) {
+                    writer.write("X,Z,Chests,Barrels,Shulkers,EnderChests,Furnaces,DispensersDroppers,Hoppers\n");
+                    for (Chunk chunk : chunks) chunk.write(writer);
+                }
+
+                Files.move(json.toPath(), jsonFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                Files.move(csv.toPath(), csvFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                Files.deleteIfExists(journalFile.toPath());
+
+                entries = 0;
+            } catch (IOException e) {
+                MeteorClient.LOG.error("Failed to save stashes", e);
+            }
+        }
+    }
+
     private static class ChunkScreen extends WindowScreen {
         private final Chunk chunk;
 
@@ -5,19 +5,29 @@
 
 package meteordevelopment.meteorclient.utils;
 
+import meteordevelopment.meteorclient.MeteorClient;
 import meteordevelopment.meteorclient.addons.AddonManager;
 import meteordevelopment.meteorclient.addons.MeteorAddon;
 import org.reflections.Reflections;
 import org.reflections.scanners.Scanners;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.stream.Collectors;
 
+/**
+ * Runs the {@link PreInit} and {@link PostInit} tasks of all addons. The tasks are read from the manifest generated at
+ * compile time by the init annotation processor, addons built without it have their package scanned instead.
+ */
 public class ReflectInit {
-    private static final List<Reflections> reflections = new ArrayList<>();
+    private static final List<Source> sources = new ArrayList<>();
 
     private ReflectInit() {
     }
@@ -35,34 +45,35 @@ public class ReflectInit {
     private static void add(MeteorAddon addon) {
         String pkg = addon.getPackage();
         if (pkg == null || pkg.isBlank()) return;
-        reflections.add(new Reflections(pkg, Scanners.MethodsAnnotated));
+
+        Map<String, List<String[]>> manifest = readManifest(addon, pkg);
+
+        if (manifest != null) sources.add(new ManifestSource(addon, manifest));
+        else {
+            MeteorClient.LOG.info("Addon \"{}\" has no init manifest, scanning its package. Add meteordevelopment:meteor-client-processor as an annotationProcessor to generate one", addon.name);
+            sources.add(new ScanningSource(addon, new Reflections(pkg, Scanners.MethodsAnnotated)));
+        }
     }
 
     public static void init(Class<? extends Annotation> annotation) {
-        for (Reflections reflection : reflections) {
-            Set<Method> initTasks = reflection.getMethodsAnnotatedWith(annotation);
-            if (initTasks == null) return;
+        for (Source source : sources) {
+            long start = System.nanoTime();
+            List<Method> tasks = source.getTasks(annotation);
 
-            Map<Class<?>, List<Method>> byClass = initTasks.stream().collect(Collectors.groupingBy(Method::getDeclaringClass));
-            Set<Method> left = new HashSet<>(initTasks);
+            for (Method task : tasks) {
+                long taskStart = System.nanoTime();
+                run(task, annotation);
 
-            for (Method m; (m = left.stream().findAny().orElse(null)) != null; ) {
-                reflectInit(m, annotation, left, byClass);
+                MeteorClient.LOG.debug("@{} task '{}.{}' took {} ms", annotation.getSimpleName(), task.getDeclaringClass().getSimpleName(), task.getName(), (System.nanoTime() - taskStart) / 1_000_000.0);
             }
-        }
-    }
-
-    private static <T extends Annotation> void reflectInit(Method task, Class<T> annotation, Set<Method> left, Map<Class<?>, List<Method>> byClass) {
-        left.remove(task);
 
-        for (Class<?> clazz : getDependencies(task, annotation)) {
-            for (Method m : byClass.getOrDefault(clazz, Collections.emptyList())) {
-                if (left.contains(m)) {
-                    reflectInit(m, annotation, left, byClass);
-                }
+            if (!tasks.isEmpty()) {
+                MeteorClient.LOG.info("Ran {} @{} tasks of \"{}\" in {} ms", tasks.size(), annotation.getSimpleName(), source.addon().name, (System.nanoTime() - start) / 1_000_000);
             }
         }
+    }
 
+    private static void run(Method task, Class<? extends Annotation> annotation) {
         try {
             task.invoke(null);
         } catch (IllegalAccessException | InvocationTargetException e) {
@@ -72,13 +83,96 @@ public class ReflectInit {
         }
     }
 
-    private static <T extends Annotation> Class<?>[] getDependencies(Method task, Class<T> annotation) {
-        T init = task.getAnnotation(annotation);
+    // Manifest
+
+    /** @return the tasks by annotation name, in the order they need to run in, or null if the addon has no manifest */
+    private static Map<String, List<String[]>> readManifest(MeteorAddon addon, String pkg) {
+        InputStream in = addon.getClass().getClassLoader().getResourceAsStream("META-INF/meteor-init/" + pkg + ".txt");
+        if (in == null) return null;
+
+        Map<String, List<String[]>> manifest = new HashMap<>();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) continue;
+
+                String[] parts = line.split(" ");
+                if (parts.length != 3) throw new IllegalStateException("Invalid line in the init manifest of \"%s\": %s".formatted(addon.name, line));
+
+                manifest.computeIfAbsent(parts[0], k -> new ArrayList<>()).add(new String[] { parts[1], parts[2] });
+            }
+        } catch (IOException e) {
+            MeteorClient.LOG.error("Failed to read the init manifest of \"{}\"", addon.name, e);
+            return null;
+        }
+
+        return manifest;
+    }
+
+    private interface Source {
+        MeteorAddon addon();
+
+        List<Method> getTasks(Class<? extends Annotation> annotation);
+    }
 
-        return switch (init) {
-            case PreInit pre -> pre.dependencies();
-            case PostInit post -> post.dependencies();
-            default -> new Class<?>[]{};
-        };
+    private record ManifestSource(MeteorAddon addon, Map<String, List<String[]>> manifest) implements Source {
+        @Override
+        public List<Method> getTasks(Class<? extends Annotation> annotation) {
+            List<String[]> entries = manifest.getOrDefault(annotation.getSimpleName(), Collections.emptyList());
+            List<Method> tasks = new ArrayList<>(entries.size());
+
+            for (String[] entry : entries) {
+                try {
+                    Class<?> klass = Class.forName(entry[0], false, addon.getClass().getClassLoader());
+                    tasks.add(klass.getDeclaredMethod(entry[1]));
+                } catch (ClassNotFoundException | NoSuchMethodException e) {
+                    throw new IllegalStateException("Init manifest of \"%s\" lists missing @%s task '%s.%s'".formatted(addon.name, annotation.getSimpleName(), entry[0], entry[1]), e);
+                }
+            }
+
+            return tasks;
+        }
+    }
+
+    // Scanning
+
+    private record ScanningSource(MeteorAddon addon, Reflections reflections) implements Source {
+        @Override
+        public List<Method> getTasks(Class<? extends Annotation> annotation) {
+            Set<Method> initTasks = reflections.getMethodsAnnotatedWith(annotation);
+            if (initTasks == null) return Collections.emptyList();
+
+            Map<Class<?>, List<Method>> byClass = initTasks.stream().collect(Collectors.groupingBy(Method::getDeclaringClass));
+            Set<Method> visited = new HashSet<>();
+            List<Method> sorted = new ArrayList<>(initTasks.size());
+
+            for (Method task : initTasks) sort(task, annotation, visited, byClass, sorted);
+
+            return sorted;
+        }
+
+        private static void sort(Method task, Class<? extends Annotation> annotation, Set<Method> visited, Map<Class<?>, List<Method>> byClass, List<Method> sorted) {
+            if (!visited.add(task)) return;
+
+            for (Class<?> clazz : getDependencies(task, annotation)) {
+                for (Method m : byClass.getOrDefault(clazz, Collections.emptyList())) {
+                    sort(m, annotation, visited, byClass, sorted);
+                }
+            }
+
+            sorted.add(task);
+        }
+
+        private static <T extends Annotation> Class<?>[] getDependencies(Method task, Class<T> annotation) {
+            T init = task.getAnnotation(annotation);
+
+            return switch (init) {
+                case PreInit pre -> pre.dependencies();
+                case PostInit post -> post.dependencies();
+                default -> new Class<?>[]{};
+            };
+        }
     }
 }
@@ -48,8 +48,8 @@ public class DamageUtils {
     // Explosion damage
 
     /**
-     * It is recommended to use this {@link RaycastFactory} unless you implement custom behaviour, as soon:tm: it will be the
-     * target of optimizations to make it more performant.
+     * It is recommended to use this {@link RaycastFactory} unless you implement custom behaviour, exposure calculations
+     * using it are done by the cached and allocation free {@link ExposureCalculator}.
      * @see BlockView#raycast(RaycastContext)
      */
     public static final RaycastFactory HIT_FACTORY = (context, blockPos) -> {
@@ -80,7 +80,11 @@ public class DamageUtils {
         double modDistance = PlayerUtils.distance(targetPos.x, targetPos.y, targetPos.z, explosionPos.x, explosionPos.y, explosionPos.z);
         if (modDistance > power) return 0f;
 
-        double exposure = getExposure(explosionPos, targetBox, raycastFactory);
+        double exposure = raycastFactory == HIT_FACTORY ? ExposureCalculator.getExposure(explosionPos, targetBox, null, null) : getExposure(explosionPos, targetBox, raycastFactory);
+        return explosionDamage(target, modDistance, exposure, power);
+    }
+
+    private static float explosionDamage(LivingEntity target, double modDistance, double exposure, float power) {
         double impact = (1 - (modDistance / power)) * exposure;
         float damage = (int) ((impact * impact + impact) / 2 * 7 * 12 + 1);
 
@@ -105,24 +109,23 @@ public class DamageUtils {
         return overridingExplosionDamage(target, anchor, 10f, false, BlockPos.ofFloored(anchor), Blocks.AIR.getDefaultState());
     }
 
-    private static float overridingExplosionDamage(LivingEntity target, Vec3d explosionPos, float power, boolean predictMovement, BlockPos overridePos, BlockState overrideState) {
-        return explosionDamage(target, explosionPos, power, predictMovement, getOverridingHitFactory(overridePos, overrideState));
-    }
-
     private static float explosionDamage(LivingEntity target, Vec3d explosionPos, float power, boolean predictMovement) {
-        return explosionDamage(target, explosionPos, power, predictMovement, HIT_FACTORY);
+        return overridingExplosionDamage(target, explosionPos, power, predictMovement, null, null);
     }
 
-    private static float explosionDamage(LivingEntity target, Vec3d explosionPos, float power, boolean predictMovement, RaycastFactory raycastFactory) {
+    private static float overridingExplosionDamage(LivingEntity target, Vec3d explosionPos, float power, boolean predictMovement, BlockPos overridePos, BlockState overrideState) {
         if (target == null) return 0f;
         if (target instanceof PlayerEntity player && EntityUtils.getGameMode(player) == GameMode.CREATIVE && !(player instanceof FakePlayerEntity)) return 0f;
 
         Vec3d position = predictMovement ? target.getPos().add(target.getVelocity()) : target.getPos();
 
+        double modDistance = PlayerUtils.distance(position.x, position.y, position.z, explosionPos.x, explosionPos.y, explosionPos.z);
+        if (modDistance > power) return 0f;
+
         Box box = target.getBoundingBox();
         if (predictMovement) box = box.offset(target.getVelocity());
 
-        return explosionDamage(target, position, box, explosionPos, power, raycastFactory);
+        return explosionDamage(target, modDistance, ExposureCalculator.getExposure(explosionPos, box, overridePos, overrideState), power);
     }
 
     public static RaycastFactory getOverridingHitFactory(BlockPos overridePos, BlockState overrideState) {
@@ -0,0 +1,193 @@
+/*
+ * This file is part of the Meteor Client distribution (https://github.com/MeteorDevelopment/meteor-client).
+ * Copyright (c) Meteor Development.
+ */
+
+package meteordevelopment.meteorclient.utils.entity;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import meteordevelopment.meteorclient.MeteorClient;
+import meteordevelopment.meteorclient.events.entity.EntityAddedEvent;
+import meteordevelopment.meteorclient.events.entity.EntityRemovedEvent;
+import meteordevelopment.meteorclient.events.game.GameLeftEvent;
+import meteordevelopment.meteorclient.events.world.TickEvent;
+import meteordevelopment.meteorclient.utils.PreInit;
+import meteordevelopment.meteorclient.utils.Utils;
+import meteordevelopment.orbit.EventHandler;
+import meteordevelopment.orbit.EventPriority;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.world.World;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import static meteordevelopment.meteorclient.MeteorClient.mc;
+
+/**
+ * Shared snapshot of the world's entities with a per-type index and a spatial grid, so modules do not each have to
+ * iterate every entity. The snapshot is rebuilt lazily on the first query after each tick or after entities were
+ * added or removed. Range queries always check the current position of an entity and skip removed entities.
+ */
+public class EntityIndex {
+    private static final int CELL_SHIFT = 3;
+
+    // Replaced instead of cleared when rebuilding so lists that are still being iterated stay valid
+    private static List<Entity> entities = new ArrayList<>();
+    private static List<Entity> entitiesView = Collections.unmodifiableList(entities);
+    private static Long2ObjectMap<List<Entity>> grid = new Long2ObjectOpenHashMap<>();
+    private static Reference2ObjectMap<Class<?>, List<?>> types = new Reference2ObjectOpenHashMap<>();
+
+    private static World world;
+    private static boolean dirty = true;
+
+    private EntityIndex() {
+    }
+
+    @PreInit
+    public static void init() {
+        MeteorClient.EVENT_BUS.subscribe(EntityIndex.class);
+    }
+
+    @EventHandler(priority = EventPriority.HIGHEST + 1)
+    private static void onTick(TickEvent.Post event) {
+        dirty = true;
+    }
+
+    @EventHandler(priority = EventPriority.HIGHEST + 1)
+    private static void onEntityAdded(EntityAddedEvent event) {
+        dirty = true;
+    }
+
+    @EventHandler(priority = EventPriority.HIGHEST + 1)
+    private static void onEntityRemoved(EntityRemovedEvent event) {
+        dirty = true;
+    }
+
+    @EventHandler
+    private static void onGameLeft(GameLeftEvent event) {
+        clear();
+        world = null;
+        dirty = true;
+    }
+
+    private static void update() {
+        if (!dirty && world == mc.world) return;
+
+        clear();
+        world = mc.world;
+        dirty = false;
+
+        if (world == null) return;
+
+        for (Entity entity : mc.world.getEntities()) {
+            if (entity == null) continue;
+
+            entities.add(entity);
+            grid.computeIfAbsent(getCell(entity.getX(), entity.getY(), entity.getZ()), l -> new ArrayList<>()).add(entity);
+        }
+    }
+
+    private static void clear() {
+        entities = new ArrayList<>(entities.size());
+        entitiesView = Collections.unmodifiableList(entities);
+        grid = new Long2ObjectOpenHashMap<>(grid.size());
+        types = new Reference2ObjectOpenHashMap<>();
+    }
+
+    /** All entities in the world. */
+    public static List<Entity> getEntities() {
+        update();
+        return entitiesView;
+    }
+
+    /** All entities that are instances of the class, the list is cached until the snapshot is rebuilt. */
+    @SuppressWarnings("unchecked")
+    public static <T extends Entity> List<T> getEntities(Class<T> type) {
+        update();
+
+        List<T> list = (List<T>) types.get(type);
+
+        if (list == null) {
+            list = new ArrayList<>();
+
+            for (Entity entity : entities) {
+                if (type.isInstance(entity)) list.add((T) entity);
+            }
+
+            list = Collections.unmodifiableList(list);
+            types.put(type, list);
+        }
+
+        return list;
+    }
+
+    /** Adds all entities of the class whose position is within range of the point to the list. */
+    @SuppressWarnings("unchecked")
+    public static <T extends Entity> List<T> getInRange(double x, double y, double z, double range, Class<T> type, List<T> list) {
+        update();
+
+        List<Entity> entities = EntityIndex.entities;
+        Long2ObjectMap<List<Entity>> grid = EntityIndex.grid;
+        double rangeSq = range * range;
+
+        // Entities can have moved since the snapshot was taken, search one extra cell around the range
+        int minX = getCellCoord(x - range) - 1, maxX = getCellCoord(x + range) + 1;
+        int minY = getCellCoord(y - range) - 1, maxY = getCellCoord(y + range) + 1;
+        int minZ = getCellCoord(z - range) - 1, maxZ = getCellCoord(z + range) + 1;
+
+        long cells = (long) (maxX - minX + 1) * (maxY - minY + 1) * (maxZ - minZ + 1);
+
+        // Small worlds or huge ranges are faster to search linearly
+        if (cells > grid.size()) {
+            for (Entity entity : type == Entity.class ? entities : getEntities(type)) {
+                if (!entity.isRemoved() && entity.squaredDistanceTo(x, y, z) <= rangeSq) list.add((T) entity);
+            }
+
+            return list;
+        }
+
+        for (int cx = minX; cx <= maxX; cx++) {
+            for (int cy = minY; cy <= maxY; cy++) {
+                for (int cz = minZ; cz <= maxZ; cz++) {
+                    List<Entity> cell = grid.get(BlockPos.asLong(cx, cy, cz));
+                    if (cell == null) continue;
+
+                    for (Entity entity : cell) {
+                        if (type.isInstance(entity) && !entity.isRemoved() && entity.squaredDistanceTo(x, y, z) <= rangeSq) list.add((T) entity);
+                    }
+                }
+            }
+        }
+
+        return list;
+    }
+
+    /** Adds all other players within range of the local player to the list, sorted by distance. */
+    public static List<PlayerEntity> getPlayersInRange(double range, List<PlayerEntity> list) {
+        if (!Utils.canUpdate()) return list;
+
+        int start = list.size();
+        getInRange(mc.player.getX(), mc.player.getY(), mc.player.getZ(), range, PlayerEntity.class, list);
+
+        list.remove(mc.player);
+        list.subList(start, list.size()).sort(Comparator.comparingDouble(player -> player.squaredDistanceTo(mc.player)));
+
+        return list;
+    }
+
+    private static long getCell(double x, double y, double z) {
+        return BlockPos.asLong(getCellCoord(x), getCellCoord(y), getCellCoord(z));
+    }
+
+    private static int getCellCoord(double v) {
+        return MathHelper.floor(v) >> CELL_SHIFT;
+    }
+}
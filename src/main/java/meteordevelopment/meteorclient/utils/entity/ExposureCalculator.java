@@ -0,0 +1,410 @@
+/*
+ * This file is part of the Meteor Client distribution (https://github.com/MeteorDevelopment/meteor-client).
+ * Copyright (c) Meteor Development.
+ */
+
+package meteordevelopment.meteorclient.utils.entity;
+
+import it.unimi.dsi.fastutil.HashCommon;
+import meteordevelopment.meteorclient.MeteorClient;
+import meteordevelopment.meteorclient.events.game.GameLeftEvent;
+import meteordevelopment.meteorclient.events.world.BlockUpdateEvent;
+import meteordevelopment.meteorclient.events.world.TickEvent;
+import meteordevelopment.meteorclient.utils.PreInit;
+import meteordevelopment.orbit.EventHandler;
+import meteordevelopment.orbit.EventPriority;
+import net.minecraft.block.BlockState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Box;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.util.math.Vec3d;
+import net.minecraft.util.shape.VoxelShape;
+import net.minecraft.util.shape.VoxelShapes;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import static meteordevelopment.meteorclient.MeteorClient.mc;
+
+/**
+ * Allocation free implementation of the explosion exposure calculation used by {@link DamageUtils}, giving the same
+ * results as raycasting with {@link DamageUtils#HIT_FACTORY} or {@link DamageUtils#getOverridingHitFactory(BlockPos, BlockState)}.
+ * <p>
+ * Whether blocks around the player block explosions is cached for the current tick, and exposure results are memoized
+ * per explosion position and target box until the next tick or block update, so evaluating the same candidate for
+ * several targets, or the same target in several places of a module, is only computed once.
+ * <p>
+ * Can be called from other threads while the client thread is waiting for them, the block cache is shared and the
+ * memoized results are kept per thread.
+ */
+public class ExposureCalculator {
+    private static final int EMPTY = 1, FULL = 2, PARTIAL = 3;
+
+    // Blocks, every entry is the generation it was computed in shifted left by 2 bits with the type in the low bits so it
+    // can be read and written atomically
+    private static final int SIZE_SHIFT = 6;
+    private static final int SIZE = 1 << SIZE_SHIFT;
+    private static final int HALF_SIZE = SIZE / 2;
+
+    private static final int[] blocks = new int[SIZE * SIZE * SIZE];
+
+    // Memoized results
+    private static final int MEMO_SIZE = 2048;
+    private static final ThreadLocal<Memo> memos = ThreadLocal.withInitial(Memo::new);
+
+    private static volatile int generation = 1;
+    private static volatile int originX, originY, originZ;
+
+    // Counted per tick to measure how much work the calculator does, LongAdder keeps threads from contending on them
+    private static final LongAdder evaluations = new LongAdder(), memoHits = new LongAdder(), rays = new LongAdder();
+    private static long lastEvaluations, lastMemoHits, lastRays;
+
+    private ExposureCalculator() {
+    }
+
+    @PreInit
+    public static void init() {
+        MeteorClient.EVENT_BUS.subscribe(ExposureCalculator.class);
+    }
+
+    @EventHandler(priority = EventPriority.HIGHEST + 1)
+    private static void onTick(TickEvent.Pre event) {
+        lastEvaluations = evaluations.sumThenReset();
+        lastMemoHits = memoHits.sumThenReset();
+        lastRays = rays.sumThenReset();
+
+        if (mc.player != null) {
+            originX = mc.player.getBlockX();
+            originY = mc.player.getBlockY();
+            originZ = mc.player.getBlockZ();
+        }
+
+        invalidate();
+    }
+
+    @EventHandler(priority = EventPriority.HIGHEST + 1)
+    private static void onBlockUpdate(BlockUpdateEvent event) {
+        invalidate();
+    }
+
+    @EventHandler
+    private static void onGameLeft(GameLeftEvent event) {
+        invalidate();
+    }
+
+    private static void invalidate() {
+        // Generation 0 is the initial value of every entry
+        generation = (generation + 1) & 0x3FFFFFFF;
+        if (generation == 0) generation = 1;
+    }
+
+    /** Number of exposure evaluations requested during the last tick. */
+    public static long getEvaluations() {
+        return lastEvaluations;
+    }
+
+    /** Number of exposure evaluations during the last tick that were answered from the memoized results. */
+    public static long getMemoHits() {
+        return lastMemoHits;
+    }
+
+    /** Number of rays cast during the last tick. */
+    public static long getRays() {
+        return lastRays;
+    }
+
+    /**
+     * @param overridePos   position whose block state is replaced by {@code overrideState} during the calculation, can be null
+     * @param overrideState state used at {@code overridePos}, it always counts as blocking the explosion if it has a collision shape
+     * @see net.minecraft.world.explosion.ExplosionImpl#calculateReceivedDamage(Vec3d, net.minecraft.entity.Entity)
+     */
+    public static float getExposure(Vec3d source, Box box, BlockPos overridePos, BlockState overrideState) {
+        evaluations.increment();
+
+        long overrideKey = overridePos == null ? Long.MIN_VALUE : overridePos.asLong();
+        if (overridePos == null) overrideState = null;
+
+        Memo memo = memos.get();
+        int generation = ExposureCalculator.generation;
+
+        // Memoized results
+        int slot = hash(source, box, overrideKey, overrideState) & (MEMO_SIZE - 1);
+        int k = slot * 9;
+        double[] keys = memo.keys;
+
+        if (memo.stamps[slot] == generation && memo.overridePos[slot] == overrideKey && memo.overrideState[slot] == overrideState
+            && keys[k] == source.x && keys[k + 1] == source.y && keys[k + 2] == source.z
+            && keys[k + 3] == box.minX && keys[k + 4] == box.minY && keys[k + 5] == box.minZ
+            && keys[k + 6] == box.maxX && keys[k + 7] == box.maxY && keys[k + 8] == box.maxZ) {
+            memoHits.increment();
+            return memo.values[slot];
+        }
+
+        float exposure = computeExposure(memo.blockPos, generation, source.x, source.y, source.z, box, overrideKey, overrideState);
+
+        memo.stamps[slot] = generation;
+        memo.overridePos[slot] = overrideKey;
+        memo.overrideState[slot] = overrideState;
+        keys[k] = source.x;
+        keys[k + 1] = source.y;
+        keys[k + 2] = source.z;
+        keys[k + 3] = box.minX;
+        keys[k + 4] = box.minY;
+        keys[k + 5] = box.minZ;
+        keys[k + 6] = box.maxX;
+        keys[k + 7] = box.maxY;
+        keys[k + 8] = box.maxZ;
+        memo.values[slot] = exposure;
+
+        return exposure;
+    }
+
+    private static float computeExposure(BlockPos.Mutable blockPos, int generation, double sourceX, double sourceY, double sourceZ, Box box, long overridePos, BlockState overrideState) {
+        double xDiff = box.maxX - box.minX;
+        double yDiff = box.maxY - box.minY;
+        double zDiff = box.maxZ - box.minZ;
+
+        double xStep = 1 / (xDiff * 2 + 1);
+        double yStep = 1 / (yDiff * 2 + 1);
+        double zStep = 1 / (zDiff * 2 + 1);
+
+        if (xStep > 0 && yStep > 0 && zStep > 0) {
+            int misses = 0;
+            int hits = 0;
+
+            double xOffset = (1 - Math.floor(1 / xStep) * xStep) * 0.5;
+            double zOffset = (1 - Math.floor(1 / zStep) * zStep) * 0.5;
+
+            xStep = xStep * xDiff;
+            yStep = yStep * yDiff;
+            zStep = zStep * zDiff;
+
+            double startX = box.minX + xOffset;
+            double startY = box.minY;
+            double startZ = box.minZ + zOffset;
+            double endX = box.maxX + xOffset;
+            double endY = box.maxY;
+            double endZ = box.maxZ + zOffset;
+
+            for (double x = startX; x <= endX; x += xStep) {
+                for (double y = startY; y <= endY; y += yStep) {
+                    for (double z = startZ; z <= endZ; z += zStep) {
+                        if (!raycast(blockPos, generation, x, y, z, sourceX, sourceY, sourceZ, overridePos, overrideState)) misses++;
+
+                        hits++;
+                    }
+                }
+            }
+
+            ExposureCalculator.rays.add(hits);
+            return (float) misses / hits;
+        }
+
+        return 0f;
+    }
+
+    /**
+     * Voxel traversal identical to {@link net.minecraft.world.BlockView#raycast}, returns true if a block was hit.
+     */
+    private static boolean raycast(BlockPos.Mutable blockPos, int generation, double sx, double sy, double sz, double ex, double ey, double ez, long overridePos, BlockState overrideState) {
+        if (sx == ex && sy == ey && sz == ez) return false;
+
+        double d = MathHelper.lerp(-1.0E-7, ex, sx);
+        double e = MathHelper.lerp(-1.0E-7, ey, sy);
+        double f = MathHelper.lerp(-1.0E-7, ez, sz);
+        double g = MathHelper.lerp(-1.0E-7, sx, ex);
+        double h = MathHelper.lerp(-1.0E-7, sy, ey);
+        double i = MathHelper.lerp(-1.0E-7, sz, ez);
+
+        int x = MathHelper.floor(g);
+        int y = MathHelper.floor(h);
+        int z = MathHelper.floor(i);
+
+        if (hitsBlock(blockPos, generation, x, y, z, sx, sy, sz, ex, ey, ez, overridePos, overrideState)) return true;
+
+        double m = d - g;
+        double n = e - h;
+        double o = f - i;
+
+        int p = MathHelper.sign(m);
+        int q = MathHelper.sign(n);
+        int r = MathHelper.sign(o);
+
+        double s = p == 0 ? Double.MAX_VALUE : p / m;
+        double t = q == 0 ? Double.MAX_VALUE : q / n;
+        double u = r == 0 ? Double.MAX_VALUE : r / o;
+
+        double v = s * (p > 0 ? 1 - MathHelper.fractionalPart(g) : MathHelper.fractionalPart(g));
+        double w = t * (q > 0 ? 1 - MathHelper.fractionalPart(h) : MathHelper.fractionalPart(h));
+        double xx = u * (r > 0 ? 1 - MathHelper.fractionalPart(i) : MathHelper.fractionalPart(i));
+
+        while (v <= 1 || w <= 1 || xx <= 1) {
+            if (v < w) {
+                if (v < xx) {
+                    x += p;
+                    v += s;
+                }
+                else {
+                    z += r;
+                    xx += u;
+                }
+            }
+            else if (w < xx) {
+                y += q;
+                w += t;
+            }
+            else {
+                z += r;
+                xx += u;
+            }
+
+            if (hitsBlock(blockPos, generation, x, y, z, sx, sy, sz, ex, ey, ez, overridePos, overrideState)) return true;
+        }
+
+        return false;
+    }
+
+    private static boolean hitsBlock(BlockPos.Mutable blockPos, int generation, int x, int y, int z, double sx, double sy, double sz, double ex, double ey, double ez, long overridePos, BlockState overrideState) {
+        int type;
+        BlockState state;
+
+        if (overrideState != null && BlockPos.asLong(x, y, z) == overridePos) {
+            state = overrideState;
+            type = classify(state, blockPos.set(x, y, z), false);
+        }
+        else {
+            state = null;
+            type = getType(blockPos, generation, x, y, z);
+        }
+
+        if (type == EMPTY) return false;
+
+        if (type == FULL) {
+            int result = hitsCube(x, y, z, sx, sy, sz, ex, ey, ez);
+            if (result != 0) return result > 0;
+        }
+
+        // Partial shapes and edge cases go through the vanilla shape raycast
+        if (state == null) state = mc.world.getBlockState(blockPos.set(x, y, z));
+        VoxelShape shape = state.getCollisionShape(mc.world, blockPos.set(x, y, z));
+
+        return shape.raycast(new Vec3d(sx, sy, sz), new Vec3d(ex, ey, ez), blockPos) != null;
+    }
+
+    /**
+     * Same result as raycasting the segment against a full cube with {@link VoxelShape#raycast(Vec3d, Vec3d, BlockPos)},
+     * returns 1 for a hit, -1 for a miss and 0 if the segment is too close to an edge case to be decided here.
+     */
+    private static int hitsCube(int x, int y, int z, double sx, double sy, double sz, double ex, double ey, double ez) {
+        final double eps = 1.0E-6;
+
+        double dx = ex - sx, dy = ey - sy, dz = ez - sz;
+        if (dx * dx + dy * dy + dz * dz < 1.0E-6) return 0;
+
+        double tMin = Double.NEGATIVE_INFINITY, tMax = Double.POSITIVE_INFINITY;
+
+        // X
+        if (Math.abs(dx) < eps) {
+            if (sx < x - eps || sx > x + 1 + eps) return -1;
+            if (sx < x + eps || sx > x + 1 - eps) return 0;
+        }
+        else {
+            double t1 = (x - sx) / dx, t2 = (x + 1 - sx) / dx;
+            tMin = Math.max(tMin, Math.min(t1, t2));
+            tMax = Math.min(tMax, Math.max(t1, t2));
+        }
+
+        // Y
+        if (Math.abs(dy) < eps) {
+            if (sy < y - eps || sy > y + 1 + eps) return -1;
+            if (sy < y + eps || sy > y + 1 - eps) return 0;
+        }
+        else {
+            double t1 = (y - sy) / dy, t2 = (y + 1 - sy) / dy;
+            tMin = Math.max(tMin, Math.min(t1, t2));
+            tMax = Math.min(tMax, Math.max(t1, t2));
+        }
+
+        // Z
+        if (Math.abs(dz) < eps) {
+            if (sz < z - eps || sz > z + 1 + eps) return -1;
+            if (sz < z + eps || sz > z + 1 - eps) return 0;
+        }
+        else {
+            double t1 = (z - sz) / dz, t2 = (z + 1 - sz) / dz;
+            tMin = Math.max(tMin, Math.min(t1, t2));
+            tMax = Math.min(tMax, Math.max(t1, t2));
+        }
+
+        // The line misses the cube
+        if (tMin > tMax + eps) return -1;
+        if (tMin > tMax - eps) return 0;
+
+        // Entering the cube from the outside within the segment
+        if (tMin > eps && tMin < 1 - eps) return 1;
+        if (tMin > 1 + eps) return -1;
+
+        // Starting inside the cube, vanilla only counts it if the point slightly along the segment is still inside
+        if (tMin < -eps) {
+            if (tMax > 0.001 + eps) return 1;
+            if (tMax < 0.001 - eps) return -1;
+        }
+
+        return 0;
+    }
+
+    private static int getType(BlockPos.Mutable blockPos, int generation, int x, int y, int z) {
+        int dx = x - originX + HALF_SIZE;
+        int dy = y - originY + HALF_SIZE;
+        int dz = z - originZ + HALF_SIZE;
+
+        if (dx < 0 || dy < 0 || dz < 0 || dx >= SIZE || dy >= SIZE || dz >= SIZE) {
+            blockPos.set(x, y, z);
+            return classify(mc.world.getBlockState(blockPos), blockPos, true);
+        }
+
+        int i = (dx << (SIZE_SHIFT * 2)) | (dy << SIZE_SHIFT) | dz;
+        int entry = blocks[i];
+
+        if (entry >>> 2 != generation) {
+            blockPos.set(x, y, z);
+
+            entry = (generation << 2) | classify(mc.world.getBlockState(blockPos), blockPos, true);
+            blocks[i] = entry;
+        }
+
+        return entry & 3;
+    }
+
+    private static int classify(BlockState state, BlockPos pos, boolean checkResistance) {
+        if (checkResistance && state.getBlock().getBlastResistance() < 600) return EMPTY;
+
+        VoxelShape shape = state.getCollisionShape(mc.world, pos);
+
+        if (shape.isEmpty()) return EMPTY;
+        if (shape == VoxelShapes.fullCube()) return FULL;
+        return PARTIAL;
+    }
+
+    private static int hash(Vec3d source, Box box, long overridePos, BlockState overrideState) {
+        int hash = Double.hashCode(source.x);
+        hash = hash * 31 + Double.hashCode(source.y);
+        hash = hash * 31 + Double.hashCode(source.z);
+        hash = hash * 31 + Double.hashCode(box.minX);
+        hash = hash * 31 + Double.hashCode(box.minY);
+        hash = hash * 31 + Double.hashCode(box.minZ);
+        hash = hash * 31 + Long.hashCode(overridePos);
+        hash = hash * 31 + System.identityHashCode(overrideState);
+
+        return HashCommon.mix(hash);
+    }
+
+    private static class Memo {
+        private final double[] keys = new double[MEMO_SIZE * 9];
+        private final long[] overridePos = new long[MEMO_SIZE];
+        private final BlockState[] overrideState = new BlockState[MEMO_SIZE];
+        private final float[] values = new float[MEMO_SIZE];
+        private final int[] stamps = new int[MEMO_SIZE];
+
+        private final BlockPos.Mutable blockPos = new BlockPos.Mutable();
+    }
+}
@@ -15,6 +15,7 @@ import net.minecraft.component.DataComponentTypes;
 import net.minecraft.component.type.ChargedProjectilesComponent;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.EntityType;
+import net.minecraft.entity.LivingEntity;
 import net.minecraft.entity.projectile.*;
 import net.minecraft.entity.projectile.thrown.*;
 import net.minecraft.fluid.FluidState;
@@ -50,7 +51,7 @@ public class ProjectileEntitySimulator {
 
         switch (item) {
             case BowItem ignored -> {
-                double charge = BowItem.getPullProgress(mc.player.getItemUseTime());
+                double charge = BowItem.getPullProgress(user instanceof LivingEntity living ? living.getItemUseTime() : 0);
                 if (charge <= 0.1) return false;
 
                 set(user, 0, charge * 3, simulated, 0.05, 0.6, accurate, tickDelta, EntityType.ARROW);
@@ -23,14 +23,21 @@ import static meteordevelopment.meteorclient.MeteorClient.mc;
 
 public class TargetUtils {
     private static final List<Entity> ENTITIES = new ArrayList<>();
+    private static final List<Entity> IN_RANGE = new ArrayList<>();
 
     private TargetUtils() {
     }
 
     @Nullable
     public static Entity get(Predicate<Entity> isGood, SortPriority sortPriority) {
+        return get(Double.POSITIVE_INFINITY, isGood, sortPriority);
+    }
+
+    /** Same as {@link #get(Predicate, SortPriority)} but only considers entities whose position is within range of the player. */
+    @Nullable
+    public static Entity get(double range, Predicate<Entity> isGood, SortPriority sortPriority) {
         ENTITIES.clear();
-        getList(ENTITIES, isGood, sortPriority, 1);
+        getList(ENTITIES, range, isGood, sortPriority, 1);
         if (!ENTITIES.isEmpty()) {
             return ENTITIES.getFirst();
         }
@@ -39,10 +46,27 @@ public class TargetUtils {
     }
 
     public static void getList(List<Entity> targetList, Predicate<Entity> isGood, SortPriority sortPriority, int maxCount) {
+        getList(targetList, Double.POSITIVE_INFINITY, isGood, sortPriority, maxCount);
+    }
+
+    /** Same as {@link #getList(List, Predicate, SortPriority, int)} but only considers entities whose position is within range of the player. */
+    public static void getList(List<Entity> targetList, double range, Predicate<Entity> isGood, SortPriority sortPriority, int maxCount) {
         targetList.clear();
 
-        for (Entity entity : mc.world.getEntities()) {
-            if (entity != null && isGood.test(entity)) targetList.add(entity);
+        if (Double.isInfinite(range) || !Utils.canUpdate()) {
+            for (Entity entity : EntityIndex.getEntities()) {
+                if (entity != null && isGood.test(entity)) targetList.add(entity);
+            }
+        }
+        else {
+            IN_RANGE.clear();
+            EntityIndex.getInRange(mc.player.getX(), mc.player.getY(), mc.player.getZ(), range, Entity.class, IN_RANGE);
+
+            for (Entity entity : IN_RANGE) {
+                if (isGood.test(entity)) targetList.add(entity);
+            }
+
+            IN_RANGE.clear();
         }
 
         FakePlayerManager.forEach(fp -> {
@@ -59,7 +83,7 @@ public class TargetUtils {
     @Nullable
     public static PlayerEntity getPlayerTarget(double range, SortPriority priority) {
         if (!Utils.canUpdate()) return null;
-        return (PlayerEntity) get(entity -> {
+        return (PlayerEntity) get(range, entity -> {
             if (!(entity instanceof PlayerEntity) || entity == mc.player) return false;
             if (((PlayerEntity) entity).isDead() || ((PlayerEntity) entity).getHealth() <= 0) return false;
             if (!PlayerUtils.isWithin(entity, range)) return false;
@@ -0,0 +1,196 @@
+/*
+ * This file is part of the Meteor Client distribution (https://github.com/MeteorDevelopment/meteor-client).
+ * Copyright (c) Meteor Development.
+ */
+
+package meteordevelopment.meteorclient.utils.entity;
+
+import meteordevelopment.meteorclient.MeteorClient;
+import meteordevelopment.meteorclient.events.game.GameLeftEvent;
+import meteordevelopment.meteorclient.events.world.TickEvent;
+import meteordevelopment.meteorclient.utils.PreInit;
+import meteordevelopment.meteorclient.utils.player.Rotations;
+import meteordevelopment.orbit.EventHandler;
+import meteordevelopment.orbit.EventPriority;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.LivingEntity;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.util.hit.HitResult;
+import net.minecraft.util.math.MathHelper;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static meteordevelopment.meteorclient.MeteorClient.mc;
+
+/**
+ * Simulated projectile paths shared between modules. Paths are simulated from the state of the current tick and cached
+ * until the next tick starts or ends, so rendering them every frame or using them from several modules only simulates
+ * them once.
+ * <p>
+ * Paths of held items are simulated from the user's position at the end of the tick, render code should offset them with
+ * {@link Trajectory#offsetX(Entity, double)} and its siblings. They are simulated again during the tick if the user's
+ * rotation, item or item use time changes, since the local player's rotation changes every frame.
+ */
+public class TrajectoryCache {
+    private static final ProjectileEntitySimulator simulator = new ProjectileEntitySimulator();
+
+    private static final Map<Key, Trajectory> fired = new HashMap<>();
+    private static final Map<Key, Trajectory> held = new HashMap<>();
+
+    private TrajectoryCache() {
+    }
+
+    @PreInit
+    public static void init() {
+        MeteorClient.EVENT_BUS.subscribe(TrajectoryCache.class);
+    }
+
+    // Cleared before and after the world ticks, entities can also be moved by packets handled between ticks
+    @EventHandler(priority = EventPriority.HIGHEST + 1)
+    private static void onTickPre(TickEvent.Pre event) {
+        fired.clear();
+        held.clear();
+    }
+
+    @EventHandler(priority = EventPriority.HIGHEST + 1)
+    private static void onTickPost(TickEvent.Post event) {
+        fired.clear();
+        held.clear();
+    }
+
+    @EventHandler
+    private static void onGameLeft(GameLeftEvent event) {
+        fired.clear();
+        held.clear();
+    }
+
+    /**
+     * @param maxSteps maximum number of simulated ticks, zero for no limit
+     * @return the path of an already fired projectile or null if it cannot be simulated
+     */
+    public static Trajectory getFired(Entity projectile, boolean accurate, int maxSteps) {
+        Key key = new Key(projectile.getId(), 0, accurate, maxSteps);
+        Trajectory trajectory = fired.get(key);
+
+        if (trajectory == null) {
+            trajectory = simulator.set(projectile, accurate) ? simulate(maxSteps) : Trajectory.EMPTY;
+            fired.put(key, trajectory);
+        }
+
+        return trajectory == Trajectory.EMPTY ? null : trajectory;
+    }
+
+    /**
+     * @param simulated angle in radians the projectile is rotated by, used for crossbow multishot
+     * @param maxSteps maximum number of simulated ticks, zero for no limit
+     * @return the path of a projectile fired from the held item or null if the item cannot be used right now
+     */
+    public static Trajectory getHeld(Entity user, ItemStack itemStack, double simulated, boolean accurate, int maxSteps) {
+        Key key = new Key(user.getId(), simulated, accurate, maxSteps);
+        Trajectory trajectory = held.get(key);
+
+        float yaw, pitch;
+        if (user == mc.player && Rotations.rotating) {
+            yaw = (float) Rotations.serverYaw;
+            pitch = (float) Rotations.serverPitch;
+        } else {
+            yaw = user.getYaw();
+            pitch = user.getPitch();
+        }
+
+        Item item = itemStack.getItem();
+        int useTime = user instanceof LivingEntity living ? living.getItemUseTime() : 0;
+
+        if (trajectory == null || trajectory.item != item || trajectory.yaw != yaw || trajectory.pitch != pitch || trajectory.useTime != useTime) {
+            trajectory = simulator.set(user, itemStack, simulated, accurate, 1) ? simulate(maxSteps) : new Trajectory();
+            trajectory.item = item;
+            trajectory.yaw = yaw;
+            trajectory.pitch = pitch;
+            trajectory.useTime = useTime;
+
+            held.put(key, trajectory);
+        }
+
+        return trajectory.size == 0 ? null : trajectory;
+    }
+
+    private static Trajectory simulate(int maxSteps) {
+        Trajectory trajectory = new Trajectory();
+        trajectory.add(simulator.pos.x, simulator.pos.y, simulator.pos.z);
+
+        for (int i = 0; i < (maxSteps > 0 ? maxSteps : Integer.MAX_VALUE); i++) {
+            HitResult result = simulator.tick();
+
+            if (result != null) {
+                trajectory.hit = result;
+                break;
+            }
+
+            trajectory.add(simulator.pos.x, simulator.pos.y, simulator.pos.z);
+        }
+
+        return trajectory;
+    }
+
+    private record Key(int entityId, double simulated, boolean accurate, int maxSteps) {}
+
+    public static class Trajectory {
+        private static final Trajectory EMPTY = new Trajectory();
+
+        private double[] points = new double[3 * 16];
+        private int size;
+
+        private HitResult hit;
+
+        // State the path of a held item was simulated with
+        private Item item;
+        private float yaw, pitch;
+        private int useTime;
+
+        private void add(double x, double y, double z) {
+            if (size * 3 == points.length) points = Arrays.copyOf(points, points.length * 2);
+
+            points[size * 3] = x;
+            points[size * 3 + 1] = y;
+            points[size * 3 + 2] = z;
+            size++;
+        }
+
+        /** Number of simulated positions, starting with the position the projectile is fired from. */
+        public int size() {
+            return size;
+        }
+
+        public double getX(int i) {
+            return points[i * 3];
+        }
+
+        public double getY(int i) {
+            return points[i * 3 + 1];
+        }
+
+        public double getZ(int i) {
+            return points[i * 3 + 2];
+        }
+
+        /** @return what the projectile hits at the end of the path or null if the simulation ran out of steps */
+        public HitResult getHit() {
+            return hit;
+        }
+
+        public double offsetX(Entity user, double tickDelta) {
+            return MathHelper.lerp(tickDelta, user.lastRenderX, user.getX()) - user.getX();
+        }
+
+        public double offsetY(Entity user, double tickDelta) {
+            return MathHelper.lerp(tickDelta, user.lastRenderY, user.getY()) - user.getY();
+        }
+
+        public double offsetZ(Entity user, double tickDelta) {
+            return MathHelper.lerp(tickDelta, user.lastRenderZ, user.getZ()) - user.getZ();
+        }
+    }
+}
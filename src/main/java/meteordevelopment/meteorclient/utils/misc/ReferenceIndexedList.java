@@ -0,0 +1,99 @@
+/*
+ * This file is part of the Meteor Client distribution (https://github.com/MeteorDevelopment/meteor-client).
+ * Copyright (c) Meteor Development.
+ */
+
+package meteordevelopment.meteorclient.utils.misc;
+
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Ordered list that keeps an identity hash of its elements so {@link #contains(Object)} does not have to scan the list.
+ * Meant for lists of registry entries like blocks and items, which are compared by reference.
+ */
+public class ReferenceIndexedList<T> extends AbstractList<T> {
+    private final List<T> items;
+    private final Reference2IntOpenHashMap<T> counts;
+
+    public ReferenceIndexedList() {
+        items = new ArrayList<>();
+        counts = new Reference2IntOpenHashMap<>();
+    }
+
+    public ReferenceIndexedList(Collection<? extends T> collection) {
+        items = new ArrayList<>(collection);
+        counts = new Reference2IntOpenHashMap<>(items.size());
+
+        for (T item : items) counts.addTo(item, 1);
+    }
+
+    @Override
+    public T get(int index) {
+        return items.get(index);
+    }
+
+    @Override
+    public int size() {
+        return items.size();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return counts.containsKey(o);
+    }
+
+    @Override
+    public T set(int index, T element) {
+        T old = items.set(index, element);
+
+        if (old != element) {
+            decrement(old);
+            counts.addTo(element, 1);
+        }
+
+        return old;
+    }
+
+    @Override
+    public void add(int index, T element) {
+        items.add(index, element);
+        counts.addTo(element, 1);
+        modCount++;
+    }
+
+    @Override
+    public T remove(int index) {
+        T old = items.remove(index);
+        decrement(old);
+        modCount++;
+        return old;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (!counts.containsKey(o)) return false;
+        return super.remove(o);
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        if (!counts.containsKey(o)) return -1;
+        return super.indexOf(o);
+    }
+
+    @Override
+    public void clear() {
+        items.clear();
+        counts.clear();
+        modCount++;
+    }
+
+    private void decrement(T item) {
+        if (counts.addTo(item, -1) <= 1) counts.removeInt(item);
+    }
+}
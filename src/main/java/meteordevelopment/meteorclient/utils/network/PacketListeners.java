@@ -0,0 +1,208 @@
+/*
+ * This file is part of the Meteor Client distribution (https://github.com/MeteorDevelopment/meteor-client).
+ * Copyright (c) Meteor Development.
+ */
+
+package meteordevelopment.meteorclient.utils.network;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import meteordevelopment.meteorclient.MeteorClient;
+import meteordevelopment.meteorclient.events.Cancellable;
+import meteordevelopment.meteorclient.events.packets.PacketEvent;
+import meteordevelopment.orbit.EventPriority;
+import meteordevelopment.orbit.listeners.ConsumerListener;
+import net.minecraft.network.packet.Packet;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Packet handlers that are only called for the packet classes they are registered for, instead of every handler being
+ * called for every packet and checking the class itself. Packets are matched against handlers once per packet class and
+ * the result is cached, so a packet nobody listens to costs a single map lookup.
+ * <p>
+ * Handlers are registered for an owner, usually a module in its constructor, and are only called while the owner is
+ * subscribed. {@link meteordevelopment.meteorclient.systems.modules.Module Modules} are subscribed and unsubscribed
+ * together with the event bus, other owners have to call {@link #subscribe(Object)} and {@link #unsubscribe(Object)}
+ * themselves.
+ * <p>
+ * Each priority used by a handler gets its own event bus listener, so handlers run in the same order relative to other
+ * listeners as an {@code @EventHandler} with that priority would. Each handler is given the current {@code event.packet}.
+ * If a handler replaces it, the remaining handlers are only called if they also handle the class of the new packet.
+ */
+public class PacketListeners {
+    private static final Map<Object, Owner> owners = new Reference2ObjectOpenHashMap<>();
+
+    private static final Direction<PacketEvent.Receive> receive = new Direction<>(PacketEvent.Receive.class, event -> event.packet);
+    private static final Direction<PacketEvent.Send> send = new Direction<>(PacketEvent.Send.class, event -> event.packet);
+    private static final Direction<PacketEvent.Sent> sent = new Direction<>(PacketEvent.Sent.class, event -> event.packet);
+
+    private PacketListeners() {
+    }
+
+    // Registering
+
+    public static <P extends Packet<?>> void onReceive(Object owner, Class<P> packetClass, Handler<PacketEvent.Receive, ? super P> handler) {
+        onReceive(owner, packetClass, EventPriority.MEDIUM, handler);
+    }
+
+    public static <P extends Packet<?>> void onReceive(Object owner, Class<P> packetClass, int priority, Handler<PacketEvent.Receive, ? super P> handler) {
+        register(owner, receive, packetClass, priority, handler);
+    }
+
+    public static <P extends Packet<?>> void onSend(Object owner, Class<P> packetClass, Handler<PacketEvent.Send, ? super P> handler) {
+        onSend(owner, packetClass, EventPriority.MEDIUM, handler);
+    }
+
+    public static <P extends Packet<?>> void onSend(Object owner, Class<P> packetClass, int priority, Handler<PacketEvent.Send, ? super P> handler) {
+        register(owner, send, packetClass, priority, handler);
+    }
+
+    public static <P extends Packet<?>> void onSent(Object owner, Class<P> packetClass, Handler<PacketEvent.Sent, ? super P> handler) {
+        onSent(owner, packetClass, EventPriority.MEDIUM, handler);
+    }
+
+    public static <P extends Packet<?>> void onSent(Object owner, Class<P> packetClass, int priority, Handler<PacketEvent.Sent, ? super P> handler) {
+        register(owner, sent, packetClass, priority, handler);
+    }
+
+    private static synchronized <E> void register(Object owner, Direction<E> direction, Class<?> packetClass, int priority, Handler<E, ?> handler) {
+        Dispatcher<E> dispatcher = direction.get(priority);
+        Owner o = owners.computeIfAbsent(owner, k -> new Owner());
+        Entry<E> entry = new Entry<>(dispatcher, packetClass, handler);
+
+        o.entries.add(entry);
+        if (o.subscribed) entry.subscribe();
+    }
+
+    public static synchronized void subscribe(Object owner) {
+        Owner o = owners.get(owner);
+        if (o == null || o.subscribed) return;
+
+        o.subscribed = true;
+        for (Entry<?> entry : o.entries) entry.subscribe();
+    }
+
+    public static synchronized void unsubscribe(Object owner) {
+        Owner o = owners.get(owner);
+        if (o == null || !o.subscribed) return;
+
+        o.subscribed = false;
+        for (Entry<?> entry : o.entries) entry.unsubscribe();
+    }
+
+    @FunctionalInterface
+    public interface Handler<E, P> {
+        void handle(E event, P packet);
+    }
+
+    private static class Owner {
+        private final List<Entry<?>> entries = new ArrayList<>();
+        private boolean subscribed;
+    }
+
+    private record Entry<E>(Dispatcher<E> dispatcher, Class<?> packetClass, Handler<E, ?> handler) {
+        public void subscribe() {
+            dispatcher.add(this);
+        }
+
+        public void unsubscribe() {
+            dispatcher.remove(this);
+        }
+    }
+
+    private static class Direction<E> {
+        private final Class<E> eventClass;
+        private final Function<E, Packet<?>> packet;
+        private final Int2ObjectMap<Dispatcher<E>> dispatchers = new Int2ObjectOpenHashMap<>();
+
+        public Direction(Class<E> eventClass, Function<E, Packet<?>> packet) {
+            this.eventClass = eventClass;
+            this.packet = packet;
+        }
+
+        /** @return the dispatcher for the priority, its event bus listener is subscribed when it is created */
+        public Dispatcher<E> get(int priority) {
+            Dispatcher<E> dispatcher = dispatchers.get(priority);
+
+            if (dispatcher == null) {
+                dispatcher = new Dispatcher<>(packet);
+                dispatchers.put(priority, dispatcher);
+
+                MeteorClient.EVENT_BUS.subscribe(new ConsumerListener<>(eventClass, priority, dispatcher::dispatch));
+            }
+
+            return dispatcher;
+        }
+    }
+
+    private static class Dispatcher<E> {
+        private final Function<E, Packet<?>> packet;
+        private final List<Entry<E>> registered = new ArrayList<>();
+
+        /** Replaced as a whole when handlers change so the packet threads never see a partially updated cache. */
+        private volatile Lookup<E> lookup = new Lookup<>(List.of());
+
+        public Dispatcher(Function<E, Packet<?>> packet) {
+            this.packet = packet;
+        }
+
+        public void add(Entry<E> entry) {
+            registered.add(entry);
+            lookup = new Lookup<>(List.copyOf(registered));
+        }
+
+        public void remove(Entry<E> entry) {
+            registered.remove(entry);
+            lookup = new Lookup<>(List.copyOf(registered));
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        public void dispatch(E event) {
+            Lookup<E> lookup = this.lookup;
+            if (lookup.entries.isEmpty()) return;
+
+            Packet<?> packet = this.packet.apply(event);
+
+            for (Entry<E> entry : lookup.get(packet.getClass())) {
+                // Handlers can replace the packet, the ones after it are only called if they handle the new packet too
+                Packet<?> current = this.packet.apply(event);
+                if (current != packet && !entry.packetClass.isInstance(current)) continue;
+
+                ((Handler) entry.handler).handle(event, current);
+                if (event instanceof Cancellable cancellable && cancellable.isCancelled()) return;
+            }
+        }
+    }
+
+    private static class Lookup<E> {
+        private final List<Entry<E>> entries;
+        private final Map<Class<?>, Entry<E>[]> byClass = new ConcurrentHashMap<>();
+
+        public Lookup(List<Entry<E>> entries) {
+            this.entries = entries;
+        }
+
+        @SuppressWarnings("unchecked")
+        public Entry<E>[] get(Class<?> packetClass) {
+            Entry<E>[] matching = byClass.get(packetClass);
+
+            if (matching == null) {
+                List<Entry<E>> list = new ArrayList<>();
+                for (Entry<E> entry : entries) {
+                    if (entry.packetClass.isAssignableFrom(packetClass)) list.add(entry);
+                }
+
+                matching = list.toArray(new Entry[0]);
+                byClass.put(packetClass, matching);
+            }
+
+            return matching;
+        }
+    }
+}
@@ -13,6 +13,7 @@ import meteordevelopment.meteorclient.systems.modules.Modules;
 import meteordevelopment.meteorclient.systems.modules.movement.NoFall;
 import meteordevelopment.meteorclient.utils.Utils;
 import meteordevelopment.meteorclient.utils.entity.DamageUtils;
+import meteordevelopment.meteorclient.utils.entity.EntityIndex;
 import meteordevelopment.meteorclient.utils.entity.EntityUtils;
 import meteordevelopment.meteorclient.utils.misc.text.TextUtils;
 import meteordevelopment.meteorclient.utils.render.color.Color;
@@ -190,7 +191,7 @@ public class PlayerUtils {
         float damageTaken = 0;
 
         if (entities) {
-            for (Entity entity : mc.world.getEntities()) {
+            for (Entity entity : EntityIndex.getEntities()) {
                 // Check for end crystals
                 if (entity instanceof EndCrystalEntity) {
                     float crystalDamage = DamageUtils.crystalDamage(mc.player, entity.getPos());
@@ -0,0 +1,111 @@
+/*
+ * This file is part of the Meteor Client distribution (https://github.com/MeteorDevelopment/meteor-client).
+ * Copyright (c) Meteor Development.
+ */
+
+package meteordevelopment.meteorclient.utils.render;
+
+import meteordevelopment.meteorclient.MeteorClient;
+import meteordevelopment.meteorclient.renderer.text.FontInfo;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtElement;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.nbt.NbtList;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Names of the system fonts read so far, so fonts only have to be opened again when they are added or changed. Files
+ * that are not valid fonts are remembered too.
+ */
+public class FontIndex {
+    private static final File FILE = new File(MeteorClient.FOLDER, "font-index.nbt");
+
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    private FontIndex() {
+    }
+
+    public static FontIndex load() {
+        FontIndex index = new FontIndex();
+        if (!FILE.exists()) return index;
+
+        try {
+            NbtCompound tag = NbtIo.read(FILE.toPath());
+            if (tag == null) return index;
+
+            for (NbtElement element : tag.getList("fonts", NbtElement.COMPOUND_TYPE)) {
+                Entry entry = Entry.fromTag((NbtCompound) element);
+                index.entries.put(entry.path(), entry);
+            }
+        } catch (Exception e) {
+            MeteorClient.LOG.error("Failed to load the font index", e);
+        }
+
+        return index;
+    }
+
+    public static void save(Collection<Entry> entries) {
+        NbtList list = new NbtList();
+        for (Entry entry : entries) list.add(entry.toTag());
+
+        NbtCompound tag = new NbtCompound();
+        tag.put("fonts", list);
+
+        try {
+            FILE.getParentFile().mkdirs();
+            NbtIo.write(tag, FILE.toPath());
+        } catch (IOException e) {
+            MeteorClient.LOG.error("Failed to save the font index", e);
+        }
+    }
+
+    /** @return the entry of the file or null if it is not indexed or was modified since */
+    public Entry get(File file) {
+        Entry entry = entries.get(file.getAbsolutePath());
+        if (entry == null || entry.size() != file.length() || entry.modified() != file.lastModified()) return null;
+
+        return entry;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /** @param info null if the file is not a valid font */
+    public record Entry(String path, long size, long modified, FontInfo info) {
+        /** Reads the name of the font, should not be called on the client thread. */
+        public static Entry read(File file) {
+            return new Entry(file.getAbsolutePath(), file.length(), file.lastModified(), FontUtils.getSysFontInfo(file));
+        }
+
+        private static Entry fromTag(NbtCompound tag) {
+            FontInfo info = null;
+
+            if (tag.contains("family")) {
+                info = new FontInfo(tag.getString("family"), FontInfo.Type.valueOf(tag.getString("type")));
+            }
+
+            return new Entry(tag.getString("path"), tag.getLong("size"), tag.getLong("modified"), info);
+        }
+
+        private NbtCompound toTag() {
+            NbtCompound tag = new NbtCompound();
+
+            tag.putString("path", path);
+            tag.putLong("size", size);
+            tag.putLong("modified", modified);
+
+            if (info != null) {
+                tag.putString("family", info.family());
+                tag.putString("type", info.type().name());
+            }
+
+            return tag;
+        }
+    }
+}
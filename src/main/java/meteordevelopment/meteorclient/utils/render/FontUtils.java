@@ -17,9 +17,14 @@ import org.lwjgl.stb.STBTruetype;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -28,8 +33,13 @@ public class FontUtils {
     private FontUtils() {
     }
 
+    /** Maps the file into memory instead of reading it, so only the parts needed to read the name are loaded. */
     public static FontInfo getSysFontInfo(File file) {
-        return getFontInfo(stream(file));
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            return getFontInfo(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException e) {
+            return null;
+        }
     }
 
     public static FontInfo getBuiltinFontInfo(String builtin) {
@@ -40,17 +50,21 @@ public class FontUtils {
         if (stream == null) return null;
 
         byte[] bytes = Utils.readBytes(stream);
-        if (bytes.length < 5) return null;
+        return getFontInfo(BufferUtils.createByteBuffer(bytes.length).put(bytes).flip());
+    }
+
+    /** @param buffer has to be a direct buffer */
+    public static FontInfo getFontInfo(ByteBuffer buffer) {
+        if (buffer.remaining() < 5) return null;
 
         if (
-            bytes[0] != 0 ||
-            bytes[1] != 1 ||
-            bytes[2] != 0 ||
-            bytes[3] != 0 ||
-            bytes[4] != 0
+            buffer.get(0) != 0 ||
+            buffer.get(1) != 1 ||
+            buffer.get(2) != 0 ||
+            buffer.get(3) != 0 ||
+            buffer.get(4) != 0
         ) return null;
 
-        ByteBuffer buffer = BufferUtils.createByteBuffer(bytes.length).put(bytes).flip();
         STBTTFontinfo fontInfo = STBTTFontinfo.create();
         if (!STBTruetype.stbtt_InitFont(fontInfo, buffer)) return null;
 
@@ -105,34 +119,44 @@ public class FontUtils {
         }
     }
 
-    public static void loadSystem(List<FontFamily> fontList, File dir) {
+    /** Adds all .ttf files in the directory and its subdirectories to the list. */
+    public static void findSystemFonts(List<File> files, File dir) {
         if (!dir.exists() || !dir.isDirectory()) return;
 
-        File[] files = dir.listFiles((file) -> (file.isFile() && file.getName().endsWith(".ttf") || file.isDirectory()));
-        if (files == null) return;
-
-        for (File file : files) {
-            if (file.isDirectory()) {
-                loadSystem(fontList, file);
-                continue;
-            }
-
-            FontInfo fontInfo = FontUtils.getSysFontInfo(file);
-            if (fontInfo == null) continue;
-
-            boolean isBuiltin = false;
-            for (String builtinFont : Fonts.BUILTIN_FONTS) {
-                if (builtinFont.equals(fontInfo.family())) {
-                    isBuiltin = true;
-                    break;
-                }
-            }
-            if (isBuiltin) continue;
-
-            FontFace fontFace = new SystemFontFace(fontInfo, file.toPath());
-            if (!addFont(fontList, fontFace)) {
-                MeteorClient.LOG.warn("Failed to load system font {}", fontFace);
-            }
+        File[] children = dir.listFiles((file) -> (file.isFile() && file.getName().endsWith(".ttf") || file.isDirectory()));
+        if (children == null) return;
+
+        for (File file : children) {
+            if (file.isDirectory()) findSystemFonts(files, file);
+            else files.add(file);
+        }
+    }
+
+    /**
+     * Reads and adds all system fonts in the directory and its subdirectories on the calling thread.
+     *
+     * @deprecated system fonts are indexed in the background by {@link Fonts#refresh()}, use
+     * {@link #findSystemFonts(List, File)} and {@link #loadSystem(List, FontIndex.Entry)} instead
+     */
+    @Deprecated
+    public static void loadSystem(List<FontFamily> fontList, File dir) {
+        List<File> files = new ArrayList<>();
+        findSystemFonts(files, dir);
+
+        for (File file : files) loadSystem(fontList, FontIndex.Entry.read(file));
+    }
+
+    public static void loadSystem(List<FontFamily> fontList, FontIndex.Entry entry) {
+        FontInfo fontInfo = entry.info();
+        if (fontInfo == null) return;
+
+        for (String builtinFont : Fonts.BUILTIN_FONTS) {
+            if (builtinFont.equals(fontInfo.family())) return;
+        }
+
+        FontFace fontFace = new SystemFontFace(fontInfo, Path.of(entry.path()));
+        if (!addFont(fontList, fontFace)) {
+            MeteorClient.LOG.warn("Failed to load system font {}", fontFace);
         }
     }
 
@@ -14,14 +14,23 @@ import meteordevelopment.orbit.EventHandler;
 import meteordevelopment.orbit.EventPriority;
 import net.minecraft.block.BlockState;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.ChunkStatus;
 
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 import java.util.function.BiConsumer;
+import java.util.function.Predicate;
 
 import static meteordevelopment.meteorclient.MeteorClient.mc;
 
+/**
+ * Iterates every block in a cube around the player once per tick and hands it to all registered callbacks.
+ * The cube is walked chunk section by chunk section, and a section is skipped entirely for callbacks whose
+ * block filter does not match anything in the section's palette (for example all-air sections when the
+ * callback only cares about solid blocks).
+ */
 public class BlockIterator {
     private static final Pool<Callback> callbackPool = new Pool<>(Callback::new);
     private static final List<Callback> callbacks = new ArrayList<>();
@@ -31,6 +40,7 @@ public class BlockIterator {
     private static final BlockPos.Mutable blockPos = new BlockPos.Mutable();
     private static int hRadius, vRadius;
 
+    private static Callback[] active = new Callback[8];
     private static boolean disableCurrent;
 
     private BlockIterator() {
@@ -45,54 +55,128 @@ public class BlockIterator {
     private static void onTick(TickEvent.Pre event) {
         if (!Utils.canUpdate()) return;
 
+        if (!callbacks.isEmpty()) iterate();
+
+        hRadius = 0;
+        vRadius = 0;
+
+        for (Callback callback : callbacks) callbackPool.free(callback);
+        callbacks.clear();
+
+        for (Runnable callback : afterCallbacks) callback.run();
+        afterCallbacks.clear();
+    }
+
+    private static void iterate() {
         int px = mc.player.getBlockX();
         int py = mc.player.getBlockY();
         int pz = mc.player.getBlockZ();
 
-        for (int x = px - hRadius; x <= px + hRadius; x++) {
-            for (int z = pz - hRadius; z <= pz + hRadius; z++) {
-                for (int y = Math.max(mc.world.getBottomY(), py - vRadius); y <= py + vRadius; y++) {
-                    if (y > mc.world.getHeight()) break;
+        int minY = Math.max(mc.world.getBottomY(), py - vRadius);
+        int maxY = Math.min(mc.world.getBottomY() + mc.world.getHeight() - 1, py + vRadius);
+        if (minY > maxY) return;
 
-                    blockPos.set(x, y, z);
-                    BlockState blockState = mc.world.getBlockState(blockPos);
+        if (active.length < callbacks.size()) active = new Callback[callbacks.size()];
+
+        for (int cx = (px - hRadius) >> 4; cx <= (px + hRadius) >> 4; cx++) {
+            for (int cz = (pz - hRadius) >> 4; cz <= (pz + hRadius) >> 4; cz++) {
+                Chunk chunk = mc.world.getChunk(cx, cz, ChunkStatus.FULL, false);
+                if (chunk == null) continue;
+
+                ChunkSection[] sections = chunk.getSectionArray();
+
+                for (int sy = minY >> 4; sy <= maxY >> 4; sy++) {
+                    ChunkSection section = sections[chunk.getSectionIndex(sy << 4)];
+                    if (section == null) continue;
+
+                    int count = collectActive(section, cx, sy, cz, px, py, pz);
+                    if (count == 0) continue;
+
+                    iterateSection(section, count, cx, sy, cz, px, py, pz, minY, maxY);
+                }
+            }
+        }
+    }
+
+    /**
+     * Fills {@link #active} with the callbacks that can receive at least one block from this section.
+     * Returns the number of such callbacks.
+     */
+    private static int collectActive(ChunkSection section, int cx, int sy, int cz, int px, int py, int pz) {
+        int count = 0;
+
+        int x1 = cx << 4, y1 = sy << 4, z1 = cz << 4;
 
-                    int dx = Math.abs(x - px);
+        for (Callback callback : callbacks) {
+            if (callback.disabled) continue;
+
+            // Section does not intersect the callback's cube
+            if (x1 + 15 < px - callback.hRadius || x1 > px + callback.hRadius) continue;
+            if (z1 + 15 < pz - callback.hRadius || z1 > pz + callback.hRadius) continue;
+            if (y1 + 15 < py - callback.vRadius || y1 > py + callback.vRadius) continue;
+
+            // Palette check, this also skips all-air sections for callbacks that are not interested in air
+            if (callback.filter != null && !section.hasAny(callback.filter)) continue;
+
+            active[count++] = callback;
+        }
+
+        return count;
+    }
+
+    private static void iterateSection(ChunkSection section, int count, int cx, int sy, int cz, int px, int py, int pz, int minY, int maxY) {
+        int x1 = Math.max(cx << 4, px - hRadius), x2 = Math.min((cx << 4) + 15, px + hRadius);
+        int z1 = Math.max(cz << 4, pz - hRadius), z2 = Math.min((cz << 4) + 15, pz + hRadius);
+        int y1 = Math.max(sy << 4, minY), y2 = Math.min((sy << 4) + 15, maxY);
+
+        for (int x = x1; x <= x2; x++) {
+            int dx = Math.abs(x - px);
+
+            for (int z = z1; z <= z2; z++) {
+                int dz = Math.abs(z - pz);
+
+                for (int y = y1; y <= y2; y++) {
                     int dy = Math.abs(y - py);
-                    int dz = Math.abs(z - pz);
 
-                    for (Iterator<Callback> it = callbacks.iterator(); it.hasNext(); ) {
-                        Callback callback = it.next();
+                    BlockState blockState = section.getBlockState(x & 15, y & 15, z & 15);
+                    blockPos.set(x, y, z);
+
+                    for (int i = 0; i < count; i++) {
+                        Callback callback = active[i];
+                        if (callback.disabled) continue;
 
-                        if (dx <= callback.hRadius && dy <= callback.vRadius && dz <= callback.hRadius) {
+                        if (dx <= callback.hRadius && dy <= callback.vRadius && dz <= callback.hRadius && (callback.filter == null || callback.filter.test(blockState))) {
                             disableCurrent = false;
                             callback.function.accept(blockPos, blockState);
-                            if (disableCurrent) it.remove();
+                            if (disableCurrent) callback.disabled = true;
                         }
                     }
                 }
             }
         }
-
-        hRadius = 0;
-        vRadius = 0;
-
-        for (Callback callback : callbacks) callbackPool.free(callback);
-        callbacks.clear();
-
-        for (Runnable callback : afterCallbacks) callback.run();
-        afterCallbacks.clear();
     }
 
     public static void register(int horizontalRadius, int verticalRadius, BiConsumer<BlockPos, BlockState> function) {
+        register(horizontalRadius, verticalRadius, null, function);
+    }
+
+    /**
+     * Registers a callback for the next iteration.
+     *
+     * @param filter only blocks matching this filter are passed to the function, chunk sections whose palette
+     *               contains no matching state are skipped. {@code null} matches every block.
+     */
+    public static void register(int horizontalRadius, int verticalRadius, Predicate<BlockState> filter, BiConsumer<BlockPos, BlockState> function) {
         hRadius = Math.max(hRadius, horizontalRadius);
         vRadius = Math.max(vRadius, verticalRadius);
 
         Callback callback = callbackPool.get();
 
         callback.function = function;
+        callback.filter = filter;
         callback.hRadius = horizontalRadius;
         callback.vRadius = verticalRadius;
+        callback.disabled = false;
 
         callbacks.add(callback);
     }
@@ -107,6 +191,8 @@ public class BlockIterator {
 
     private static class Callback {
         public BiConsumer<BlockPos, BlockState> function;
+        public Predicate<BlockState> filter;
         public int hRadius, vRadius;
+        public boolean disabled;
     }
 }
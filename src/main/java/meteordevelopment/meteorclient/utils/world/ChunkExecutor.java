@@ -0,0 +1,150 @@
+/*
+ * This file is part of the Meteor Client distribution (https://github.com/MeteorDevelopment/meteor-client).
+ * Copyright (c) Meteor Development.
+ */
+
+package meteordevelopment.meteorclient.utils.world;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import meteordevelopment.meteorclient.MeteorClient;
+import net.minecraft.util.math.ChunkPos;
+
+import java.util.Iterator;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongPredicate;
+
+import static meteordevelopment.meteorclient.MeteorClient.mc;
+
+/**
+ * Bounded thread pool for per-chunk work. Queued tasks are run closest to the player first, every chunk has at most
+ * one queued task and queued tasks can be cancelled before they start.
+ */
+public class ChunkExecutor {
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    private final ThreadPoolExecutor executor;
+    private final Long2ObjectMap<Task> tasks = new Long2ObjectOpenHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    public ChunkExecutor(String name, int threads) {
+        AtomicInteger threadNumber = new AtomicInteger(1);
+
+        executor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new PriorityBlockingQueue<>(), (task) -> {
+            Thread thread = new Thread(task);
+            thread.setDaemon(true);
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            thread.setName(name + "-" + threadNumber.getAndIncrement());
+            return thread;
+        });
+
+        // Idle threads are stopped, so executors of disabled modules don't keep threads alive
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    public ChunkExecutor(String name) {
+        this(name, defaultThreads());
+    }
+
+    public static int defaultThreads() {
+        return Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+    }
+
+    /** Queues a task for the chunk, replacing the task that is still waiting for the same chunk if there is one. */
+    public void submit(int x, int z, Runnable runnable) {
+        long key = ChunkPos.toLong(x, z);
+        Task task = new Task(key, distance(x, z), sequence.getAndIncrement(), runnable);
+
+        synchronized (tasks) {
+            Task old = tasks.put(key, task);
+            if (old != null) old.cancelled = true;
+        }
+
+        executor.execute(task);
+    }
+
+    public void cancel(int x, int z) {
+        synchronized (tasks) {
+            Task task = tasks.remove(ChunkPos.toLong(x, z));
+            if (task != null) task.cancelled = true;
+        }
+    }
+
+    /** Cancels all waiting tasks whose chunk, packed with {@link ChunkPos#toLong(int, int)}, matches the predicate. */
+    public void cancelIf(LongPredicate predicate) {
+        synchronized (tasks) {
+            for (Iterator<Task> it = tasks.values().iterator(); it.hasNext(); ) {
+                Task task = it.next();
+
+                if (predicate.test(task.chunk)) {
+                    task.cancelled = true;
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    public void cancelAll() {
+        synchronized (tasks) {
+            for (Task task : tasks.values()) task.cancelled = true;
+            tasks.clear();
+        }
+
+        executor.getQueue().clear();
+    }
+
+    public int queued() {
+        synchronized (tasks) {
+            return tasks.size();
+        }
+    }
+
+    private static int distance(int x, int z) {
+        if (mc.player == null) return 0;
+
+        int dx = x - mc.player.getChunkPos().x;
+        int dz = z - mc.player.getChunkPos().z;
+
+        return dx * dx + dz * dz;
+    }
+
+    private class Task implements Runnable, Comparable<Task> {
+        private final long chunk;
+        private final int distance;
+        private final long sequence;
+        private final Runnable runnable;
+
+        private volatile boolean cancelled;
+
+        public Task(long chunk, int distance, long sequence, Runnable runnable) {
+            this.chunk = chunk;
+            this.distance = distance;
+            this.sequence = sequence;
+            this.runnable = runnable;
+        }
+
+        @Override
+        public void run() {
+            synchronized (tasks) {
+                if (cancelled) return;
+                tasks.remove(chunk, this);
+            }
+
+            try {
+                runnable.run();
+            } catch (Exception e) {
+                MeteorClient.LOG.error("Chunk task for {} failed", new ChunkPos(chunk), e);
+            }
+        }
+
+        @Override
+        public int compareTo(Task o) {
+            int c = Integer.compare(distance, o.distance);
+            return c != 0 ? c : Long.compare(sequence, o.sequence);
+        }
+    }
+}
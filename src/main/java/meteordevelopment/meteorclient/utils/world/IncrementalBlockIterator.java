@@ -0,0 +1,322 @@
+/*
+ * This file is part of the Meteor Client distribution (https://github.com/MeteorDevelopment/meteor-client).
+ * Copyright (c) Meteor Development.
+ */
+
+package meteordevelopment.meteorclient.utils.world;
+
+import com.google.common.collect.Iterables;
+import it.unimi.dsi.fastutil.longs.*;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import meteordevelopment.meteorclient.MeteorClient;
+import meteordevelopment.meteorclient.events.game.GameLeftEvent;
+import meteordevelopment.meteorclient.events.world.BlockUpdateEvent;
+import meteordevelopment.meteorclient.events.world.ChunkDataEvent;
+import meteordevelopment.meteorclient.events.world.ChunkUnloadEvent;
+import meteordevelopment.meteorclient.utils.Utils;
+import meteordevelopment.orbit.EventHandler;
+import net.minecraft.block.BlockState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.ChunkStatus;
+
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
+
+import static meteordevelopment.meteorclient.MeteorClient.mc;
+
+/**
+ * Incremental variant of {@link BlockIterator} which caches a result per block position and only recomputes
+ * positions that changed since the last update: blocks around a {@link BlockUpdateEvent}, chunks received in a
+ * {@link ChunkDataEvent} and the slab of the cube that became visible because the player moved. Results are stored per
+ * chunk, so received and unloaded chunks only touch the results of the chunks around them.
+ * <p>
+ * The function is passed a mutable {@link BlockPos} and has to copy it if it is stored in the result. Returning
+ * {@code null} means there is no result for that position. The result may only depend on block states within the
+ * dependency radius of the position, anything else (player position, entities, ...) must be checked by the owner
+ * when reading {@link #values()}.
+ */
+public class IncrementalBlockIterator<T> {
+    private final Predicate<BlockState> filter;
+    private final BiFunction<BlockPos, BlockState, T> function;
+    private int hDependency, vDependency;
+
+    // Chunk position -> block position -> result
+    private final Long2ObjectMap<Long2ObjectMap<T>> results = new Long2ObjectOpenHashMap<>();
+    private final LongSet dirtyBlocks = new LongOpenHashSet();
+    private final LongSet dirtyChunks = new LongOpenHashSet();
+
+    private final BlockPos.Mutable blockPos = new BlockPos.Mutable();
+
+    private boolean active, rescan;
+    private World world;
+    private int hRadius, vRadius;
+    private int x1, y1, z1, x2, y2, z2;
+
+    /**
+     * @param filter      positions whose state does not match are never passed to the function, chunk sections whose
+     *                    palette contains no matching state are skipped. {@code null} matches every block.
+     * @param hDependency horizontal distance of blocks the result of a position depends on
+     * @param vDependency vertical distance of blocks the result of a position depends on
+     */
+    public IncrementalBlockIterator(Predicate<BlockState> filter, int hDependency, int vDependency, BiFunction<BlockPos, BlockState, T> function) {
+        this.filter = filter;
+        this.function = function;
+        this.hDependency = hDependency;
+        this.vDependency = vDependency;
+    }
+
+    public void start() {
+        if (active) return;
+
+        active = true;
+        rescan = true;
+        MeteorClient.EVENT_BUS.subscribe(this);
+    }
+
+    public void stop() {
+        if (!active) return;
+
+        active = false;
+        MeteorClient.EVENT_BUS.unsubscribe(this);
+        clear();
+    }
+
+    /** Changes the dependency radius, forces a full rescan if it differs from the current one. */
+    public void setDependency(int hDependency, int vDependency) {
+        if (hDependency == this.hDependency && vDependency == this.vDependency) return;
+
+        this.hDependency = hDependency;
+        this.vDependency = vDependency;
+        rescan = true;
+    }
+
+    /** Forces a full rescan on the next update, should be called when something the function depends on changed. */
+    public void invalidate() {
+        rescan = true;
+    }
+
+    public Iterable<T> values() {
+        return Iterables.concat(Iterables.transform(results.values(), Long2ObjectMap::values));
+    }
+
+    public void update(int horizontalRadius, int verticalRadius) {
+        if (!active || !Utils.canUpdate()) return;
+
+        int px = mc.player.getBlockX();
+        int py = mc.player.getBlockY();
+        int pz = mc.player.getBlockZ();
+
+        int bottom = mc.world.getBottomY();
+        int top = bottom + mc.world.getHeight() - 1;
+
+        int nx1 = px - horizontalRadius, nx2 = px + horizontalRadius;
+        int nz1 = pz - horizontalRadius, nz2 = pz + horizontalRadius;
+        int ny1 = Math.max(bottom, py - verticalRadius), ny2 = Math.min(top, py + verticalRadius);
+
+        // Full rescan
+        if (rescan || world != mc.world || horizontalRadius != hRadius || verticalRadius != vRadius) {
+            clear();
+
+            world = mc.world;
+            hRadius = horizontalRadius;
+            vRadius = verticalRadius;
+            setCube(nx1, ny1, nz1, nx2, ny2, nz2);
+
+            scan(x1, y1, z1, x2, y2, z2);
+            rescan = false;
+            return;
+        }
+
+        // Player crossed a block boundary
+        if (nx1 != x1 || ny1 != y1 || nz1 != z1 || nx2 != x2 || ny2 != y2 || nz2 != z2) {
+            for (ObjectIterator<Long2ObjectMap.Entry<Long2ObjectMap<T>>> it = Long2ObjectMaps.fastIterator(results); it.hasNext(); ) {
+                Long2ObjectMap.Entry<Long2ObjectMap<T>> entry = it.next();
+                int cx = ChunkPos.getPackedX(entry.getLongKey()), cz = ChunkPos.getPackedZ(entry.getLongKey());
+
+                // Chunks entirely outside of the new cube are dropped without looking at their results
+                if ((cx << 4) + 15 < nx1 || (cx << 4) > nx2 || (cz << 4) + 15 < nz1 || (cz << 4) > nz2) {
+                    it.remove();
+                    continue;
+                }
+
+                entry.getValue().keySet().removeIf(key -> !contains(BlockPos.unpackLongX(key), BlockPos.unpackLongY(key), BlockPos.unpackLongZ(key), nx1, ny1, nz1, nx2, ny2, nz2));
+                if (entry.getValue().isEmpty()) it.remove();
+            }
+
+            // Scan the part of the new cube not covered by the old one, split into disjoint boxes
+            int ix1 = Math.max(nx1, x1), ix2 = Math.min(nx2, x2);
+            int iz1 = Math.max(nz1, z1), iz2 = Math.min(nz2, z2);
+
+            scan(nx1, ny1, nz1, Math.min(nx2, x1 - 1), ny2, nz2);
+            scan(Math.max(nx1, x2 + 1), ny1, nz1, nx2, ny2, nz2);
+
+            scan(ix1, ny1, nz1, ix2, ny2, Math.min(nz2, z1 - 1));
+            scan(ix1, ny1, Math.max(nz1, z2 + 1), ix2, ny2, nz2);
+
+            scan(ix1, ny1, iz1, ix2, Math.min(ny2, y1 - 1), iz2);
+            scan(ix1, Math.max(ny1, y2 + 1), iz1, ix2, ny2, iz2);
+
+            setCube(nx1, ny1, nz1, nx2, ny2, nz2);
+        }
+
+        // Received chunks
+        if (!dirtyChunks.isEmpty()) {
+            for (LongIterator it = dirtyChunks.iterator(); it.hasNext(); ) {
+                long chunk = it.nextLong();
+
+                int cx1 = Math.max(x1, (ChunkPos.getPackedX(chunk) << 4) - hDependency);
+                int cz1 = Math.max(z1, (ChunkPos.getPackedZ(chunk) << 4) - hDependency);
+                int cx2 = Math.min(x2, (ChunkPos.getPackedX(chunk) << 4) + 15 + hDependency);
+                int cz2 = Math.min(z2, (ChunkPos.getPackedZ(chunk) << 4) + 15 + hDependency);
+
+                if (cx1 > cx2 || cz1 > cz2) continue;
+
+                remove(cx1, y1, cz1, cx2, y2, cz2);
+                scan(cx1, y1, cz1, cx2, y2, cz2);
+            }
+
+            dirtyChunks.clear();
+        }
+
+        // Updated blocks
+        if (!dirtyBlocks.isEmpty()) {
+            for (LongIterator it = dirtyBlocks.iterator(); it.hasNext(); ) {
+                blockPos.set(it.nextLong());
+                if (contains(blockPos.getX(), blockPos.getY(), blockPos.getZ(), x1, y1, z1, x2, y2, z2)) compute(blockPos.asLong(), mc.world.getBlockState(blockPos));
+            }
+
+            dirtyBlocks.clear();
+        }
+    }
+
+    @EventHandler
+    private void onBlockUpdate(BlockUpdateEvent event) {
+        if (world == null || world != mc.world) return;
+
+        int x = event.pos.getX(), y = event.pos.getY(), z = event.pos.getZ();
+
+        for (int dx = -hDependency; dx <= hDependency; dx++) {
+            for (int dz = -hDependency; dz <= hDependency; dz++) {
+                for (int dy = -vDependency; dy <= vDependency; dy++) {
+                    if (contains(x + dx, y + dy, z + dz, x1, y1, z1, x2, y2, z2)) dirtyBlocks.add(BlockPos.asLong(x + dx, y + dy, z + dz));
+                }
+            }
+        }
+    }
+
+    @EventHandler
+    private void onChunkData(ChunkDataEvent event) {
+        if (world == null || world != mc.world) return;
+
+        dirtyChunks.add(event.chunk().getPos().toLong());
+    }
+
+    @EventHandler
+    private void onChunkUnload(ChunkUnloadEvent event) {
+        if (world == null || world != mc.world) return;
+
+        long chunk = event.pos().toLong();
+
+        results.remove(chunk);
+        dirtyChunks.remove(chunk);
+    }
+
+    @EventHandler
+    private void onGameLeft(GameLeftEvent event) {
+        clear();
+    }
+
+    private void scan(int x1, int y1, int z1, int x2, int y2, int z2) {
+        if (x1 > x2 || y1 > y2 || z1 > z2) return;
+
+        for (int cx = x1 >> 4; cx <= x2 >> 4; cx++) {
+            for (int cz = z1 >> 4; cz <= z2 >> 4; cz++) {
+                Chunk chunk = mc.world.getChunk(cx, cz, ChunkStatus.FULL, false);
+                if (chunk == null) continue;
+
+                ChunkSection[] sections = chunk.getSectionArray();
+
+                for (int sy = y1 >> 4; sy <= y2 >> 4; sy++) {
+                    ChunkSection section = sections[chunk.getSectionIndex(sy << 4)];
+                    if (section == null || (filter != null && !section.hasAny(filter))) continue;
+
+                    int sx1 = Math.max(cx << 4, x1), sx2 = Math.min((cx << 4) + 15, x2);
+                    int sz1 = Math.max(cz << 4, z1), sz2 = Math.min((cz << 4) + 15, z2);
+                    int sy1 = Math.max(sy << 4, y1), sy2 = Math.min((sy << 4) + 15, y2);
+
+                    for (int x = sx1; x <= sx2; x++) {
+                        for (int z = sz1; z <= sz2; z++) {
+                            for (int y = sy1; y <= sy2; y++) {
+                                blockPos.set(x, y, z);
+                                compute(blockPos.asLong(), section.getBlockState(x & 15, y & 15, z & 15));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private void compute(long key, BlockState blockState) {
+        T result = filter == null || filter.test(blockState) ? function.apply(blockPos, blockState) : null;
+        long chunk = ChunkPos.toLong(blockPos.getX() >> 4, blockPos.getZ() >> 4);
+
+        if (result != null) {
+            Long2ObjectMap<T> chunkResults = results.get(chunk);
+
+            if (chunkResults == null) {
+                chunkResults = new Long2ObjectOpenHashMap<>();
+                results.put(chunk, chunkResults);
+            }
+
+            chunkResults.put(key, result);
+        }
+        else {
+            Long2ObjectMap<T> chunkResults = results.get(chunk);
+
+            if (chunkResults != null) {
+                chunkResults.remove(key);
+                if (chunkResults.isEmpty()) results.remove(chunk);
+            }
+        }
+    }
+
+    /** Removes the results inside the box, only looking at the chunks it intersects. */
+    private void remove(int x1, int y1, int z1, int x2, int y2, int z2) {
+        for (int cx = x1 >> 4; cx <= x2 >> 4; cx++) {
+            for (int cz = z1 >> 4; cz <= z2 >> 4; cz++) {
+                long chunk = ChunkPos.toLong(cx, cz);
+
+                Long2ObjectMap<T> chunkResults = results.get(chunk);
+                if (chunkResults == null) continue;
+
+                chunkResults.keySet().removeIf(key -> contains(BlockPos.unpackLongX(key), BlockPos.unpackLongY(key), BlockPos.unpackLongZ(key), x1, y1, z1, x2, y2, z2));
+                if (chunkResults.isEmpty()) results.remove(chunk);
+            }
+        }
+    }
+
+    private void setCube(int x1, int y1, int z1, int x2, int y2, int z2) {
+        this.x1 = x1;
+        this.y1 = y1;
+        this.z1 = z1;
+        this.x2 = x2;
+        this.y2 = y2;
+        this.z2 = z2;
+    }
+
+    private void clear() {
+        results.clear();
+        dirtyBlocks.clear();
+        dirtyChunks.clear();
+        world = null;
+    }
+
+    private static boolean contains(int x, int y, int z, int x1, int y1, int z1, int x2, int y2, int z2) {
+        return x >= x1 && x <= x2 && y >= y1 && y <= y2 && z >= z1 && z <= z2;
+    }
+}
@@ -0,0 +1,264 @@
+/*
+ * This file is part of the Meteor Client distribution (https://github.com/MeteorDevelopment/meteor-client).
+ * Copyright (c) Meteor Development.
+ */
+
+package meteordevelopment.meteorclient.utils.world;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayFIFOQueue;
+import meteordevelopment.meteorclient.utils.Utils;
+import net.minecraft.block.BlockState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.ChunkStatus;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import static meteordevelopment.meteorclient.MeteorClient.mc;
+
+/**
+ * Scans the loaded chunks for blocks in parallel. Hits in neighbouring chunks are grouped into clusters, so a structure
+ * made of many matching blocks is reported once. Each owner should use its own scanner, starting a scan cancels the
+ * scan that is still running.
+ */
+public class WorldScanner {
+    private final ChunkExecutor executor;
+    private Scan current;
+
+    public WorldScanner(String name) {
+        executor = new ChunkExecutor(name);
+    }
+
+    /**
+     * Starts scanning all loaded chunks, has to be called from the client thread.
+     * @param callback run on the client thread with the clusters sorted by their number of hits, unless the scan is cancelled.
+     *                 It is run before this method returns if no chunks are loaded
+     */
+    public Scan scan(Predicate<BlockState> filter, Consumer<List<Cluster>> callback) {
+        cancel();
+
+        List<Chunk> chunks = new ArrayList<>();
+        for (Chunk chunk : Utils.chunks()) chunks.add(chunk);
+
+        Scan scan = new Scan(filter, callback, chunks.size());
+        current = scan;
+
+        if (chunks.isEmpty()) scan.finish();
+
+        for (Chunk chunk : chunks) {
+            executor.submit(chunk.getPos().x, chunk.getPos().z, () -> scan.scanChunk(chunk));
+        }
+
+        return scan;
+    }
+
+    public void cancel() {
+        if (current != null) {
+            current.cancelled = true;
+            current = null;
+        }
+
+        executor.cancelAll();
+    }
+
+    /**
+     * Calls the consumer for every block in the chunk that matches the filter. Sections whose palette does not contain a
+     * matching state are skipped without looking at their blocks.
+     */
+    public static void scanChunk(Chunk chunk, Predicate<BlockState> filter, BlockConsumer consumer) {
+        ChunkSection[] sections = chunk.getSectionArray();
+
+        int startX = chunk.getPos().getStartX();
+        int startZ = chunk.getPos().getStartZ();
+
+        for (int i = 0; i < sections.length; i++) {
+            ChunkSection section = sections[i];
+            if (section == null || section.isEmpty() || !section.hasAny(filter)) continue;
+
+            int startY = ChunkSectionPos.getBlockCoord(chunk.sectionIndexToCoord(i));
+
+            for (int y = 0; y < 16; y++) {
+                for (int z = 0; z < 16; z++) {
+                    for (int x = 0; x < 16; x++) {
+                        BlockState state = section.getBlockState(x, y, z);
+                        if (filter.test(state)) consumer.accept(startX + x, startY + y, startZ + z, state);
+                    }
+                }
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface BlockConsumer {
+        void accept(int x, int y, int z, BlockState state);
+    }
+
+    public static class Scan {
+        private final Predicate<BlockState> filter;
+        private final Consumer<List<Cluster>> callback;
+        private final int total;
+        private final AtomicInteger done = new AtomicInteger();
+
+        private final double originX, originY, originZ;
+        private final Long2ObjectMap<Hits> hits = new Long2ObjectOpenHashMap<>();
+
+        private volatile boolean cancelled;
+
+        private Scan(Predicate<BlockState> filter, Consumer<List<Cluster>> callback, int total) {
+            this.filter = filter;
+            this.callback = callback;
+            this.total = total;
+
+            this.originX = mc.player != null ? mc.player.getX() : 0;
+            this.originY = mc.player != null ? mc.player.getY() : 0;
+            this.originZ = mc.player != null ? mc.player.getZ() : 0;
+        }
+
+        /** Number of chunks that are scanned. */
+        public int getTotal() {
+            return total;
+        }
+
+        /** @return the fraction of chunks that were already scanned */
+        public double getProgress() {
+            return total == 0 ? 1 : (double) done.get() / total;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        private void scanChunk(Chunk chunk) {
+            try {
+                if (cancelled) return;
+
+                ChunkPos pos = chunk.getPos();
+                if (mc.world == null || mc.world.getChunk(pos.x, pos.z, ChunkStatus.FULL, false) != chunk) return;
+
+                Hits chunkHits = new Hits();
+
+                WorldScanner.scanChunk(chunk, filter, (x, y, z, state) -> {
+                    chunkHits.count++;
+                    chunkHits.sumX += x;
+                    chunkHits.sumY += y;
+                    chunkHits.sumZ += z;
+
+                    double dx = x + 0.5 - originX, dy = y + 0.5 - originY, dz = z + 0.5 - originZ;
+                    double distance = dx * dx + dy * dy + dz * dz;
+
+                    if (distance < chunkHits.closestDistance) {
+                        chunkHits.closestDistance = distance;
+                        chunkHits.closest = BlockPos.asLong(x, y, z);
+                    }
+                });
+
+                if (chunkHits.count > 0) {
+                    synchronized (hits) {
+                        hits.put(pos.toLong(), chunkHits);
+                    }
+                }
+            } finally {
+                if (done.incrementAndGet() == total) mc.execute(this::finish);
+            }
+        }
+
+        private void finish() {
+            if (cancelled) return;
+
+            List<Cluster> clusters;
+            synchronized (hits) {
+                clusters = cluster();
+            }
+
+            callback.accept(clusters);
+        }
+
+        // Flood fills over the chunks with hits, chunks touching each other, also diagonally, end up in the same cluster
+        private List<Cluster> cluster() {
+            List<Cluster> clusters = new ArrayList<>();
+            LongArrayFIFOQueue queue = new LongArrayFIFOQueue();
+
+            while (!hits.isEmpty()) {
+                long first = hits.keySet().iterator().nextLong();
+
+                Cluster cluster = new Cluster();
+                cluster.add(hits.remove(first));
+                queue.enqueue(first);
+
+                while (!queue.isEmpty()) {
+                    long key = queue.dequeueLong();
+                    int x = ChunkPos.getPackedX(key);
+                    int z = ChunkPos.getPackedZ(key);
+
+                    for (int dx = -1; dx <= 1; dx++) {
+                        for (int dz = -1; dz <= 1; dz++) {
+                            long neighbour = ChunkPos.toLong(x + dx, z + dz);
+
+                            Hits neighbourHits = hits.remove(neighbour);
+                            if (neighbourHits == null) continue;
+
+                            cluster.add(neighbourHits);
+                            queue.enqueue(neighbour);
+                        }
+                    }
+                }
+
+                clusters.add(cluster);
+            }
+
+            clusters.sort(Comparator.comparingInt(Cluster::getCount).reversed().thenComparingDouble(cluster -> cluster.closestDistance));
+            return clusters;
+        }
+    }
+
+    private static class Hits {
+        private int count;
+        private long sumX, sumY, sumZ;
+        private long closest;
+        private double closestDistance = Double.MAX_VALUE;
+    }
+
+    public static class Cluster {
+        private int count;
+        private long sumX, sumY, sumZ;
+        private long closest;
+        private double closestDistance = Double.MAX_VALUE;
+
+        private void add(Hits hits) {
+            count += hits.count;
+            sumX += hits.sumX;
+            sumY += hits.sumY;
+            sumZ += hits.sumZ;
+
+            if (hits.closestDistance < closestDistance) {
+                closestDistance = hits.closestDistance;
+                closest = hits.closest;
+            }
+        }
+
+        /** Number of matching blocks in the cluster. */
+        public int getCount() {
+            return count;
+        }
+
+        /** @return the average position of the matching blocks */
+        public BlockPos getCenter() {
+            return new BlockPos((int) Math.floorDiv(sumX, count), (int) Math.floorDiv(sumY, count), (int) Math.floorDiv(sumZ, count));
+        }
+
+        /** @return the matching block closest to where the player was when the scan started */
+        public BlockPos getClosest() {
+            return BlockPos.fromLong(closest);
+        }
+    }
+}